@@ -85,6 +85,9 @@ public class BenchmarkAssociationAlgs {
 
 		ProfileOperation.printOpsPerSec(new General("Greedy", FactoryAssociation.greedy(score, Double.MAX_VALUE, maxMatches, false)),TEST_TIME);
 		ProfileOperation.printOpsPerSec(new General("Greedy Backwards", FactoryAssociation.greedy(score, Double.MAX_VALUE, maxMatches, true)),TEST_TIME);
+		ProfileOperation.printOpsPerSec(new General("KdForest", FactoryAssociation.kdForest(4, 200, Double.MAX_VALUE, maxMatches, false, 234)),TEST_TIME);
+		ProfileOperation.printOpsPerSec(new General("KdForest Backwards", FactoryAssociation.kdForest(4, 200, Double.MAX_VALUE, maxMatches, true, 234)),TEST_TIME);
+		ProfileOperation.printOpsPerSec(new General("KdForest Exact", FactoryAssociation.kdForest(1, Integer.MAX_VALUE, Double.MAX_VALUE, maxMatches, false, 234)),TEST_TIME);
 		
 	}
 }
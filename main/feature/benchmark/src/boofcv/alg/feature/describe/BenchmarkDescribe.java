@@ -19,6 +19,7 @@
 package boofcv.alg.feature.describe;
 
 import boofcv.abst.feature.describe.DescribeRegionPoint;
+import boofcv.abst.feature.describe.DescribeRegionPointBatch;
 import boofcv.alg.feature.describe.brief.FactoryBriefDefinition;
 import boofcv.alg.filter.derivative.GImageDerivativeOps;
 import boofcv.alg.transform.ii.GIntegralImageOps;
@@ -26,10 +27,13 @@ import boofcv.core.image.GeneralizedImageOps;
 import boofcv.factory.feature.describe.FactoryDescribePointAlgs;
 import boofcv.factory.feature.describe.FactoryDescribeRegionPoint;
 import boofcv.factory.filter.blur.FactoryBlurFilter;
+import boofcv.misc.BoofConcurrency;
 import boofcv.misc.Performer;
 import boofcv.misc.PerformerBase;
 import boofcv.misc.ProfileOperation;
+import boofcv.struct.FastQueue;
 import boofcv.struct.feature.TupleDesc;
+import boofcv.struct.feature.TupleDescQueue;
 import boofcv.struct.feature.TupleDesc_B;
 import boofcv.struct.image.ImageFloat32;
 import boofcv.struct.image.ImageSingleBand;
@@ -145,6 +149,38 @@ public class BenchmarkDescribe<I extends ImageSingleBand, D extends ImageSingleB
 		}
 	}
 
+	public class DescribeBatch<D extends TupleDesc> implements Performer {
+
+		DescribeRegionPointBatch<I,D> alg;
+		String name;
+
+		double x[] = new double[NUM_POINTS];
+		double y[] = new double[NUM_POINTS];
+		FastQueue<D> output;
+
+		public DescribeBatch(String name, DescribeRegionPointBatch<I,D> alg) {
+			this.alg = alg;
+			this.name = name;
+			for( int i = 0; i < pts.length; i++ ) {
+				x[i] = pts[i].x;
+				y[i] = pts[i].y;
+			}
+			output = new TupleDescQueue<D>(alg.getDescriptorType(),alg.getDescriptionLength(),true);
+		}
+
+		@Override
+		public void process() {
+			alg.setImage(image);
+			output.reset();
+			alg.process(pts.length,x,y,yaws,scales,output,null);
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+	}
+
 	public void perform() {
 		System.out.println("=========  Profile Image Size " + width + " x " + height + " ========== "+imageType.getSimpleName());
 		System.out.println();
@@ -153,6 +189,11 @@ public class BenchmarkDescribe<I extends ImageSingleBand, D extends ImageSingleB
 		ProfileOperation.printOpsPerSec(new Describe("MSURF", FactoryDescribeRegionPoint.<I,II>surfm(true, imageType)),TEST_TIME);
 		ProfileOperation.printOpsPerSec(new Describe("SURF UP", FactoryDescribeRegionPoint.<I,II>surf(false, imageType)),TEST_TIME);
 		ProfileOperation.printOpsPerSec(new Describe("MSURF UP", FactoryDescribeRegionPoint.<I,II>surfm(false, imageType)),TEST_TIME);
+		ProfileOperation.printOpsPerSec(new DescribeBatch("SURF Batch", FactoryDescribeRegionPoint.<I,II>surfBatch(true, false, imageType)),TEST_TIME);
+		BoofConcurrency.USE_CONCURRENT = true;
+		ProfileOperation.printOpsPerSec(new DescribeBatch("SURF Batch MT", FactoryDescribeRegionPoint.<I,II>surfBatch(true, false, imageType)),TEST_TIME);
+		ProfileOperation.printOpsPerSec(new DescribeBatch("MSURF Batch MT", FactoryDescribeRegionPoint.<I,II>surfBatch(true, true, imageType)),TEST_TIME);
+		BoofConcurrency.USE_CONCURRENT = false;
 		ProfileOperation.printOpsPerSec(new Brief512(),TEST_TIME);
 		ProfileOperation.printOpsPerSec(new BriefSO512(),TEST_TIME);
 		ProfileOperation.printOpsPerSec(new Describe("Steer r=12", FactoryDescribeRegionPoint.steerableGaussian(12, false, imageType, derivType)),TEST_TIME);
@@ -22,6 +22,8 @@ import boofcv.alg.feature.detect.intensity.IntegralImageFeatureIntensity;
 import boofcv.alg.feature.detect.intensity.impl.ImplIntegralImageFeatureIntensity;
 import boofcv.alg.misc.ImageTestingOps;
 import boofcv.alg.transform.ii.IntegralImageOps;
+import boofcv.factory.feature.detect.extract.FactoryFeatureExtractor;
+import boofcv.misc.BoofConcurrency;
 import boofcv.misc.PerformerBase;
 import boofcv.misc.ProfileOperation;
 import boofcv.struct.image.ImageFloat32;
@@ -62,6 +64,29 @@ public class BenchmarkFastHessianFeatureIntensity {
 		}
 	}
 
+	public static class Detector extends PerformerBase {
+
+		FastHessianFeatureDetector<ImageFloat32> alg = new FastHessianFeatureDetector<ImageFloat32>(
+				FactoryFeatureExtractor.nonmax(2, 1, 5, true),-1, 1, 9,4,4);
+		boolean concurrent;
+
+		public Detector(boolean concurrent) {
+			this.concurrent = concurrent;
+		}
+
+		@Override
+		public void process() {
+			BoofConcurrency.USE_CONCURRENT = concurrent;
+			alg.detect(integral);
+			BoofConcurrency.USE_CONCURRENT = false;
+		}
+
+		@Override
+		public String getName() {
+			return concurrent ? "Detector_MT" : "Detector";
+		}
+	}
+
 	public static void main(String args[]) {
 		ImageTestingOps.randomize(original,rand,0,200);
 		IntegralImageOps.transform(original,integral);
@@ -72,5 +97,7 @@ public class BenchmarkFastHessianFeatureIntensity {
 
 		ProfileOperation.printOpsPerSec(new Naive(), TEST_TIME);
 		ProfileOperation.printOpsPerSec(new Standard(), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new Detector(false), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new Detector(true), TEST_TIME);
 	}
 }
@@ -76,6 +76,19 @@ public class BenchmarkDisparityAlgs {
 		}
 	}
 
+	public static class EfficientSad_U8_MT extends PerformerBase {
+
+		DisparitySelect<int[],ImageUInt8> compDisp =
+				new ImplSelectRectStandard_S32_U8(250,2,0.1);
+		ImplDisparityScoreSadRect_U8_MT<ImageUInt8> alg =
+				new ImplDisparityScoreSadRect_U8_MT<ImageUInt8>(min,max,radiusX,radiusY,compDisp);
+
+		@Override
+		public void process() {
+			alg.process(left,right, outU8);
+		}
+	}
+
 	public static class EfficientSad_F32 extends PerformerBase {
 
 		//		DisparitySelect<int[],ImageUInt8> compDisp =
@@ -119,6 +132,32 @@ public class BenchmarkDisparityAlgs {
 		}
 	}
 
+	public static class Census_U8 extends PerformerBase {
+
+		DisparitySelect<int[],ImageUInt8> compDisp =
+				new ImplSelectRectStandard_S32_U8(-1,2,0.1);
+		ImplDisparityScoreCensusRect_U8<ImageUInt8> alg =
+				new ImplDisparityScoreCensusRect_U8<ImageUInt8>(min,max,radiusX,radiusY,2,compDisp);
+
+		@Override
+		public void process() {
+			alg.process(left,right, outU8);
+		}
+	}
+
+	public static class Sgm_U8 extends PerformerBase {
+
+		SgmCostVolume costs = new SgmCostVolume();
+		ImplDisparityScoreSadRect_U8<ImageUInt8> score =
+				new ImplDisparityScoreSadRect_U8<ImageUInt8>(min,max,1,1,costs);
+		DisparitySgm<ImageUInt8> alg = new DisparitySgm<ImageUInt8>(score,costs,30,300,2);
+
+		@Override
+		public void process() {
+			alg.process(left,right, outU8);
+		}
+	}
+
 	public static void main( String argsp[ ] ) {
 		System.out.println("=========  Image Size "+ width +" "+height+"  disparity "+max);
 		System.out.println();
@@ -130,9 +169,12 @@ public class BenchmarkDisparityAlgs {
 
 		// the "fastest" seems to always be the first one tested
 		ProfileOperation.printOpsPerSec(new EfficientSad_U8(),TEST_TIME);
+		ProfileOperation.printOpsPerSec(new EfficientSad_U8_MT(),TEST_TIME);
 		ProfileOperation.printOpsPerSec(new EfficientSadFive_U8(),TEST_TIME);
 		ProfileOperation.printOpsPerSec(new EfficientSad_F32(),TEST_TIME);
 		ProfileOperation.printOpsPerSec(new EfficientSubpixelSad(),TEST_TIME);
+		ProfileOperation.printOpsPerSec(new Census_U8(),TEST_TIME);
+		ProfileOperation.printOpsPerSec(new Sgm_U8(),TEST_TIME);
 		ProfileOperation.printOpsPerSec(new Naive(), TEST_TIME);
 
 	}
@@ -18,7 +18,9 @@
 
 package boofcv.alg.feature.template;
 
+import boofcv.alg.feature.detect.template.TemplateDiffSquared;
 import boofcv.alg.feature.detect.template.TemplateMatchingIntensity;
+import boofcv.alg.feature.detect.template.TemplateNCC;
 import boofcv.core.image.GeneralizedImageOps;
 import boofcv.factory.feature.detect.template.FactoryTemplateMatching;
 import boofcv.factory.feature.detect.template.TemplateScoreType;
@@ -38,17 +40,20 @@ public class BenchmarkTemplateIntensity<T extends ImageSingleBand> {
 	Random rand = new Random(234);
 	long TEST_TIME = 2000;
 
-	int width = 320;
-	int height = 240;
+	int width;
+	int height;
 
 	Class<T> imageType;
 	T image;
 	T template;
 
-	public BenchmarkTemplateIntensity(Class<T> imageType) {
+	public BenchmarkTemplateIntensity(Class<T> imageType, int width , int height ,
+									  int templateWidth , int templateHeight ) {
 		this.imageType = imageType;
+		this.width = width;
+		this.height = height;
 		image = GeneralizedImageOps.createSingleBand(imageType,width,height);
-		template = GeneralizedImageOps.createSingleBand(imageType,20,30);
+		template = GeneralizedImageOps.createSingleBand(imageType,templateWidth,templateHeight);
 
 		GeneralizedImageOps.randomize(image,rand,0,200);
 		GeneralizedImageOps.randomize(template,rand,0,200);
@@ -64,6 +69,11 @@ public class BenchmarkTemplateIntensity<T extends ImageSingleBand> {
 			this.name = type.toString();
 		}
 
+		public TemplatePerformer(TemplateMatchingIntensity<T> alg, String name) {
+			this.alg = alg;
+			this.name = name;
+		}
+
 		@Override
 		public void process() {
 			alg.process(image,template);
@@ -76,22 +86,39 @@ public class BenchmarkTemplateIntensity<T extends ImageSingleBand> {
 	}
 
 	public void evaluateAll() {
-		System.out.println("=========  Profile Image Size " + width + " x " + height + " ========== "+imageType.getSimpleName());
+		System.out.println("=========  Profile Image Size " + width + " x " + height + " Template " +
+				template.width + " x " + template.height + " ========== "+imageType.getSimpleName());
 		System.out.println();
 
 		ProfileOperation.printOpsPerSec(new TemplatePerformer(TemplateScoreType.SUM_DIFF_SQ), TEST_TIME);
 		ProfileOperation.printOpsPerSec(new TemplatePerformer(TemplateScoreType.NCC), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new TemplatePerformer(createBruteForce(TemplateScoreType.SUM_DIFF_SQ),
+				"SUM_DIFF_SQ brute"), TEST_TIME);
+		ProfileOperation.printOpsPerSec(new TemplatePerformer(createBruteForce(TemplateScoreType.NCC),
+				"NCC brute"), TEST_TIME);
 	}
 
-	public static void main( String args[] ) {
-		BenchmarkTemplateIntensity<ImageUInt8>
-				benchmark_U8 = new BenchmarkTemplateIntensity<ImageUInt8>(ImageUInt8.class);
-
-		benchmark_U8.evaluateAll();
+	private TemplateMatchingIntensity<T> createBruteForce( TemplateScoreType type ) {
+		if( imageType == ImageUInt8.class ) {
+			if( type == TemplateScoreType.NCC )
+				return (TemplateMatchingIntensity<T>)new TemplateNCC.U8();
+			else
+				return (TemplateMatchingIntensity<T>)new TemplateDiffSquared.U8();
+		} else {
+			if( type == TemplateScoreType.NCC )
+				return (TemplateMatchingIntensity<T>)new TemplateNCC.F32();
+			else
+				return (TemplateMatchingIntensity<T>)new TemplateDiffSquared.F32();
+		}
+	}
 
-		BenchmarkTemplateIntensity<ImageFloat32>
-				benchmark_F32 = new BenchmarkTemplateIntensity<ImageFloat32>(ImageFloat32.class);
+	public static void main( String args[] ) {
+		// small template on a small image
+		new BenchmarkTemplateIntensity<ImageUInt8>(ImageUInt8.class,320,240,20,30).evaluateAll();
+		new BenchmarkTemplateIntensity<ImageFloat32>(ImageFloat32.class,320,240,20,30).evaluateAll();
 
-		benchmark_F32.evaluateAll();
+		// large template on a large image
+		new BenchmarkTemplateIntensity<ImageUInt8>(ImageUInt8.class,1024,768,64,64).evaluateAll();
+		new BenchmarkTemplateIntensity<ImageFloat32>(ImageFloat32.class,1024,768,64,64).evaluateAll();
 	}
 }
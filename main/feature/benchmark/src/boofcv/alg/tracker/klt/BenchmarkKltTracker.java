@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.tracker.klt;
+
+import boofcv.alg.filter.blur.BlurImageOps;
+import boofcv.alg.filter.derivative.GradientSobel;
+import boofcv.alg.misc.ImageTestingOps;
+import boofcv.core.image.ConvertImage;
+import boofcv.core.image.border.BorderIndex1D_Extend;
+import boofcv.core.image.border.ImageBorder1D_F32;
+import boofcv.core.image.border.ImageBorder1D_I32;
+import boofcv.factory.interpolate.FactoryInterpolation;
+import boofcv.misc.PerformerBase;
+import boofcv.misc.ProfileOperation;
+import boofcv.struct.image.ImageFloat32;
+import boofcv.struct.image.ImageSInt16;
+import boofcv.struct.image.ImageUInt8;
+
+import java.util.Random;
+
+/**
+ * Benchmarks different KLT tracker implementations by tracking a set of features from one image into another
+ * image which has been translated by a sub-pixel amount.
+ *
+ * @author Peter Abeles
+ */
+public class BenchmarkKltTracker {
+	static final long TEST_TIME = 1000;
+	static Random rand = new Random(234234);
+
+	static int NUM_FEATURES = 500;
+	static int RADIUS = 3;
+
+	final static int width = 640;
+	final static int height = 480;
+
+	static KltConfig config = KltConfig.createDefault();
+
+	static float[] locX = new float[NUM_FEATURES];
+	static float[] locY = new float[NUM_FEATURES];
+
+	static ImageUInt8 prev_U8, curr_U8;
+	static ImageSInt16 prevDX_S16 = new ImageSInt16(width,height), prevDY_S16 = new ImageSInt16(width,height);
+	static ImageSInt16 currDX_S16 = new ImageSInt16(width,height), currDY_S16 = new ImageSInt16(width,height);
+	static ImageFloat32 prev_F32, curr_F32;
+	static ImageFloat32 prevDX_F32 = new ImageFloat32(width,height), prevDY_F32 = new ImageFloat32(width,height);
+	static ImageFloat32 currDX_F32 = new ImageFloat32(width,height), currDY_F32 = new ImageFloat32(width,height);
+
+	public static class Float_F32 extends PerformerBase {
+		KltTracker<ImageFloat32,ImageFloat32> tracker = new KltTracker<ImageFloat32,ImageFloat32>(
+				FactoryInterpolation.bilinearRectangle(ImageFloat32.class),
+				FactoryInterpolation.bilinearRectangle(ImageFloat32.class),config);
+		KltFeature features[] = new KltFeature[NUM_FEATURES];
+
+		public Float_F32() {
+			tracker.setImage(prev_F32,prevDX_F32,prevDY_F32);
+			for( int i = 0; i < NUM_FEATURES; i++ ) {
+				features[i] = new KltFeature(RADIUS);
+				features[i].setPosition(locX[i],locY[i]);
+				tracker.setDescription(features[i]);
+			}
+		}
+
+		@Override
+		public void process() {
+			tracker.setImage(curr_F32,currDX_F32,currDY_F32);
+			for( int i = 0; i < NUM_FEATURES; i++ ) {
+				features[i].setPosition(locX[i],locY[i]);
+				tracker.track(features[i]);
+			}
+		}
+	}
+
+	public static class Float_U8 extends PerformerBase {
+		KltTracker<ImageUInt8,ImageSInt16> tracker = new KltTracker<ImageUInt8,ImageSInt16>(
+				FactoryInterpolation.bilinearRectangle(ImageUInt8.class),
+				FactoryInterpolation.bilinearRectangle(ImageSInt16.class),config);
+		KltFeature features[] = new KltFeature[NUM_FEATURES];
+
+		public Float_U8() {
+			tracker.setImage(prev_U8,prevDX_S16,prevDY_S16);
+			for( int i = 0; i < NUM_FEATURES; i++ ) {
+				features[i] = new KltFeature(RADIUS);
+				features[i].setPosition(locX[i],locY[i]);
+				tracker.setDescription(features[i]);
+			}
+		}
+
+		@Override
+		public void process() {
+			tracker.setImage(curr_U8,currDX_S16,currDY_S16);
+			for( int i = 0; i < NUM_FEATURES; i++ ) {
+				features[i].setPosition(locX[i],locY[i]);
+				tracker.track(features[i]);
+			}
+		}
+	}
+
+	public static class Fixed_U8 extends PerformerBase {
+		KltTrackerFixed_U8 tracker = new KltTrackerFixed_U8(config,RADIUS,NUM_FEATURES);
+
+		public Fixed_U8() {
+			tracker.setImage(prev_U8,prevDX_S16,prevDY_S16);
+			for( int i = 0; i < NUM_FEATURES; i++ ) {
+				tracker.setPosition(i,locX[i],locY[i]);
+				tracker.setDescription(i);
+			}
+		}
+
+		@Override
+		public void process() {
+			tracker.setImage(curr_U8,currDX_S16,currDY_S16);
+			for( int i = 0; i < NUM_FEATURES; i++ ) {
+				tracker.setPosition(i,locX[i],locY[i]);
+				tracker.track(i);
+			}
+		}
+	}
+
+	private static void printTime( String name , PerformerBase performer ) {
+		double opsPerSec = ProfileOperation.profileOpsPerSec(performer,TEST_TIME,true);
+		double millis = 1000.0/opsPerSec;
+		System.out.printf("%15s  %7.3f ms per frame  %6.2f us per feature\n",name,millis,1000.0*millis/NUM_FEATURES);
+	}
+
+	/**
+	 * Forces every feature to perform the same number of iterations so that the cost of a single iteration
+	 * can be found.
+	 */
+	private static void printIterationTime( String name , PerformerBase performer ) {
+		double opsPerSec = ProfileOperation.profileOpsPerSec(performer,TEST_TIME,true);
+		double nano = 1e9/(opsPerSec*NUM_FEATURES*config.maxIterations);
+		System.out.printf("%15s  %7.1f ns per iteration\n",name,nano);
+	}
+
+	public static void main( String args[] ) {
+		ImageFloat32 noise = new ImageFloat32(width,height);
+		ImageTestingOps.randomize(noise,rand,0,255);
+		prev_F32 = BlurImageOps.gaussian(noise,null,-1,3,null);
+		// shift the image by a sub-pixel amount
+		curr_F32 = new ImageFloat32(width,height);
+		for( int y = 0; y < height-1; y++ ) {
+			for( int x = 0; x < width-1; x++ ) {
+				float v = 0.6f*0.7f*prev_F32.get(x,y) + 0.4f*0.7f*prev_F32.get(x+1,y) +
+						0.6f*0.3f*prev_F32.get(x,y+1) + 0.4f*0.3f*prev_F32.get(x+1,y+1);
+				curr_F32.set(x,y,v);
+			}
+		}
+		prev_U8 = ConvertImage.convert(prev_F32,(ImageUInt8)null);
+		curr_U8 = ConvertImage.convert(curr_F32,(ImageUInt8)null);
+
+		GradientSobel.process(prev_F32,prevDX_F32,prevDY_F32,new ImageBorder1D_F32(BorderIndex1D_Extend.class));
+		GradientSobel.process(curr_F32,currDX_F32,currDY_F32,new ImageBorder1D_F32(BorderIndex1D_Extend.class));
+		GradientSobel.process(prev_U8,prevDX_S16,prevDY_S16,new ImageBorder1D_I32(BorderIndex1D_Extend.class));
+		GradientSobel.process(curr_U8,currDX_S16,currDY_S16,new ImageBorder1D_I32(BorderIndex1D_Extend.class));
+
+		int border = RADIUS+5;
+		for( int i = 0; i < NUM_FEATURES; i++ ) {
+			locX[i] = border + rand.nextFloat()*(width-2*border);
+			locY[i] = border + rand.nextFloat()*(height-2*border);
+		}
+
+		System.out.println("=========  Profile Image Size " + width + " x " + height + " ==========");
+		System.out.println("    features = "+NUM_FEATURES+"  radius = "+RADIUS);
+		System.out.println();
+
+		printTime("KLT F32",new Float_F32());
+		printTime("KLT U8",new Float_U8());
+		printTime("KLT Fixed U8",new Fixed_U8());
+
+		System.out.println();
+		config.minPositionDelta = 0;
+		config.maxIterations = 10;
+		printIterationTime("KLT F32",new Float_F32());
+		printIterationTime("KLT U8",new Float_U8());
+		printIterationTime("KLT Fixed U8",new Fixed_U8());
+	}
+}
@@ -18,20 +18,21 @@
 
 package boofcv.abst.feature.associate;
 
-import boofcv.alg.feature.associate.AssociateGreedy;
+import boofcv.alg.feature.associate.GreedyAssociation;
 import boofcv.struct.FastQueue;
 import boofcv.struct.feature.AssociatedIndex;
 import pja.sorting.QuickSelectArray;
 
 
 /**
- * Wrapper around algorithms contained inside of {@link boofcv.alg.feature.associate.AssociateGreedy}.
+ * Wrapper around algorithms which implement {@link GreedyAssociation}, such as
+ * {@link boofcv.alg.feature.associate.AssociateGreedy}.
  *
  * @author Peter Abeles
  */
 public class WrapAssociateGreedy<T> implements GeneralAssociation<T> {
 
-	AssociateGreedy<T> alg;
+	GreedyAssociation<T> alg;
 
 	FastQueue<AssociatedIndex> matches = new FastQueue<AssociatedIndex>(10,AssociatedIndex.class,true);
 	int indexes[] = new int[1];
@@ -42,7 +43,7 @@ public class WrapAssociateGreedy<T> implements GeneralAssociation<T> {
 	 * @param alg
 	 * @param maxAssociations Maximum number of allowed associations.  If -1 then all are returned.
 	 */
-	public WrapAssociateGreedy( AssociateGreedy<T> alg , int maxAssociations ) {
+	public WrapAssociateGreedy( GreedyAssociation<T> alg , int maxAssociations ) {
 		this.alg = alg;
 		this.maxAssociations = maxAssociations;
 	}
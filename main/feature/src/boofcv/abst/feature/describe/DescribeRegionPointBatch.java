@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.feature.describe;
+
+import boofcv.struct.FastQueue;
+import boofcv.struct.feature.TupleDesc;
+import boofcv.struct.image.ImageSingleBand;
+
+
+/**
+ * Extension of {@link DescribeRegionPoint} which describes a batch of points in a single call.  This allows
+ * the cost of setting up the descriptor to be amortized and for the points to be described in parallel.
+ *
+ * @author Peter Abeles
+ */
+public interface DescribeRegionPointBatch<T extends ImageSingleBand, D extends TupleDesc>
+		extends DescribeRegionPoint<T,D>
+{
+	/**
+	 * Describes a batch of points.  One descriptor is added to the output queue for each point, using
+	 * {@link FastQueue#pop()}, in the same order as the input arrays.  If a point is not in bounds,
+	 * see {@link #isInBounds(double, double, double, double)}, then its descriptor is not modified.
+	 *
+	 * @param numPoints Number of points being described.
+	 * @param x x-coordinate of each point.
+	 * @param y y-coordinate of each point.
+	 * @param orientation Orientation of each point.  Can be null if orientation is not required.
+	 * @param scale Scale of each point.  Can be null if scale is not required.
+	 * @param output Storage for the descriptors.  Not reset.  Modified.
+	 * @param inBounds (Optional) Set to true if a point was inside the bounds and described.  Can be null.
+	 */
+	public void process( int numPoints , double x[] , double y[] , double orientation[] , double scale[] ,
+						 FastQueue<D> output , boolean inBounds[] );
+}
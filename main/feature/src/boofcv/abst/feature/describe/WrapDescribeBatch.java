@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.feature.describe;
+
+import boofcv.struct.FastQueue;
+import boofcv.struct.feature.TupleDesc;
+import boofcv.struct.image.ImageSingleBand;
+
+
+/**
+ * Implements {@link DescribeRegionPointBatch} for any {@link DescribeRegionPoint} by describing each point
+ * one at a time in the calling thread.
+ *
+ * @author Peter Abeles
+ */
+public class WrapDescribeBatch<T extends ImageSingleBand, D extends TupleDesc>
+		implements DescribeRegionPointBatch<T,D>
+{
+	DescribeRegionPoint<T,D> alg;
+
+	public WrapDescribeBatch(DescribeRegionPoint<T, D> alg) {
+		this.alg = alg;
+	}
+
+	@Override
+	public void process(int numPoints, double[] x, double[] y, double[] orientation, double[] scale,
+						FastQueue<D> output, boolean[] inBounds) {
+		for( int i = 0; i < numPoints; i++ ) {
+			double o = orientation == null ? 0 : orientation[i];
+			double s = scale == null ? 1 : scale[i];
+
+			D desc = output.pop();
+			boolean legal = alg.isInBounds(x[i],y[i],o,s);
+			if( legal )
+				alg.process(x[i],y[i],o,s,desc);
+			if( inBounds != null )
+				inBounds[i] = legal;
+		}
+	}
+
+	@Override
+	public void setImage(T image) {
+		alg.setImage(image);
+	}
+
+	@Override
+	public D createDescription() {
+		return alg.createDescription();
+	}
+
+	@Override
+	public int getDescriptionLength() {
+		return alg.getDescriptionLength();
+	}
+
+	@Override
+	public int getCanonicalRadius() {
+		return alg.getCanonicalRadius();
+	}
+
+	@Override
+	public boolean isInBounds(double x, double y, double orientation, double scale) {
+		return alg.isInBounds(x,y,orientation,scale);
+	}
+
+	@Override
+	public D process(double x, double y, double orientation, double scale, D ret) {
+		return alg.process(x,y,orientation,scale,ret);
+	}
+
+	@Override
+	public boolean requiresScale() {
+		return alg.requiresScale();
+	}
+
+	@Override
+	public boolean requiresOrientation() {
+		return alg.requiresOrientation();
+	}
+
+	@Override
+	public Class<D> getDescriptorType() {
+		return alg.getDescriptorType();
+	}
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.feature.describe;
+
+import boofcv.alg.feature.describe.DescribePointSurf;
+import boofcv.alg.feature.orientation.OrientationIntegral;
+import boofcv.alg.transform.ii.GIntegralImageOps;
+import boofcv.misc.BoofConcurrency;
+import boofcv.misc.IntRangeTask;
+import boofcv.struct.FastQueue;
+import boofcv.struct.feature.SurfFeature;
+import boofcv.struct.image.ImageSingleBand;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * <p>
+ * Concurrent implementation of {@link DescribeRegionPointBatch} for SURF features.  The integral image is computed
+ * once and shared by all the workers, since it is only read.  Each worker has its own {@link DescribePointSurf}
+ * and {@link OrientationIntegral}, which contain internal work space, and points are split into contiguous blocks
+ * with one block per worker.  See {@link BoofConcurrency}.  The results are identical to {@link WrapDescribeSurf}.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class WrapDescribeSurfBatch_MT<T extends ImageSingleBand, II extends ImageSingleBand>
+		implements DescribeRegionPointBatch<T,SurfFeature>
+{
+	// workers which are not currently being used
+	private final List<Worker> available = new ArrayList<Worker>();
+	// number of workers
+	private int numWorkers;
+	// used to describe single points in the calling thread
+	private Worker main;
+
+	// integral image
+	private II ii;
+
+	/**
+	 * Specifies the algorithms used by each worker.  All the workers must be configured identically.
+	 *
+	 * @param surf SURF descriptor for each worker.
+	 * @param orientation Orientation estimator for each worker.  If null then orientation is not estimated.
+	 */
+	public WrapDescribeSurfBatch_MT(DescribePointSurf<II> surf[],
+									OrientationIntegral<II> orientation[])
+	{
+		if( surf.length == 0 )
+			throw new IllegalArgumentException("There must be at least one worker");
+		if( orientation != null && orientation.length != surf.length )
+			throw new IllegalArgumentException("One orientation algorithm is required for each worker");
+
+		numWorkers = surf.length;
+		for( int i = 0; i < surf.length; i++ ) {
+			available.add(new Worker(surf[i], orientation == null ? null : orientation[i]));
+		}
+		main = available.get(0);
+	}
+
+	@Override
+	public void setImage(T image) {
+		if( ii != null ) {
+			ii.reshape(image.width,image.height);
+		}
+
+		// compute integral image
+		ii = GIntegralImageOps.transform(image,ii);
+		for( Worker w : available ) {
+			if( w.orientation != null )
+				w.orientation.setImage(ii);
+			w.surf.setImage(ii);
+		}
+	}
+
+	@Override
+	public void process(int numPoints, final double[] x, final double[] y,
+						final double[] orientation, final double[] scale,
+						final FastQueue<SurfFeature> output, boolean[] inBounds) {
+		// declare the output in this thread since the queue is not thread safe
+		final int start = output.size;
+		for( int i = 0; i < numPoints; i++ )
+			output.pop();
+
+		// SURF can handle points outside the image
+		if( inBounds != null ) {
+			for( int i = 0; i < numPoints; i++ )
+				inBounds[i] = true;
+		}
+
+		// make sure there are no more blocks than workers
+		int minBlock = (numPoints + numWorkers - 1)/numWorkers;
+
+		IntRangeTask task = new IntRangeTask() {
+			@Override
+			public void process(int index0, int index1) {
+				Worker w = acquire();
+				try {
+					for( int i = index0; i < index1; i++ ) {
+						double o = orientation == null ? 0 : orientation[i];
+						double s = scale == null ? 1 : scale[i];
+						w.describe(x[i],y[i],o,s,output.data[start+i]);
+					}
+				} finally {
+					release(w);
+				}
+			}
+		};
+
+		if( BoofConcurrency.USE_CONCURRENT )
+			BoofConcurrency.loopBlocks(0,numPoints,minBlock,task);
+		else
+			task.process(0,numPoints);
+	}
+
+	private Worker acquire() {
+		synchronized ( available ) {
+			return available.remove(available.size()-1);
+		}
+	}
+
+	private void release( Worker w ) {
+		synchronized ( available ) {
+			available.add(w);
+		}
+	}
+
+	@Override
+	public SurfFeature createDescription() {
+		return main.surf.createDescription();
+	}
+
+	@Override
+	public int getCanonicalRadius() {
+		return main.surf.getRadius();
+	}
+
+	@Override
+	public int getDescriptionLength() {
+		return main.surf.getDescriptionLength();
+	}
+
+	@Override
+	public boolean isInBounds(double x, double y, double orientation, double scale) {
+		return true;
+	}
+
+	@Override
+	public SurfFeature process(double x, double y, double orientation, double scale, SurfFeature ret) {
+		if( ret == null )
+			ret = createDescription();
+
+		main.describe(x,y,orientation,scale,ret);
+
+		return ret;
+	}
+
+	@Override
+	public boolean requiresScale() {
+		return true;
+	}
+
+	@Override
+	public boolean requiresOrientation() {
+		return main.orientation == null;
+	}
+
+	@Override
+	public Class<SurfFeature> getDescriptorType() {
+		return SurfFeature.class;
+	}
+
+	/**
+	 * Algorithms used by a single thread
+	 */
+	private class Worker {
+		DescribePointSurf<II> surf;
+		OrientationIntegral<II> orientation;
+
+		private Worker(DescribePointSurf<II> surf, OrientationIntegral<II> orientation) {
+			this.surf = surf;
+			this.orientation = orientation;
+		}
+
+		void describe( double x , double y , double angle , double scale , SurfFeature ret ) {
+			if( orientation != null ) {
+				orientation.setScale(scale);
+				angle = orientation.compute(x,y);
+			}
+
+			surf.describe(x,y,scale,angle,ret);
+		}
+	}
+}
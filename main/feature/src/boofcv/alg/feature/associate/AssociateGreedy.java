@@ -41,7 +41,7 @@ import pja.storage.GrowQueue_I32;
  *
  * @author Peter Abeles
  */
-public class AssociateGreedy<T> {
+public class AssociateGreedy<T> implements GreedyAssociation<T> {
 
 	// computes association score
 	private ScoreAssociation<T> score;
@@ -51,8 +51,8 @@ public class AssociateGreedy<T> {
 	private GrowQueue_F64 fitQuality = new GrowQueue_F64(100);
 	// stores indexes of associated
 	private GrowQueue_I32 pairs = new GrowQueue_I32(100);
-	// various
-	private GrowQueue_F64 workBuffer = new GrowQueue_F64(100);
+	// best score for each dst feature.  Used for backwards validation
+	private double bestScoreDst[] = new double[100];
 	// if true backwardsValidation is done
 	private boolean backwardsValidation;
 
@@ -77,12 +77,18 @@ public class AssociateGreedy<T> {
 	 * @param src Source list.
 	 * @param dst Destination list.
 	 */
+	@Override
 	public void associate( FastQueue<T> src ,
 						   FastQueue<T> dst )
 	{
 		fitQuality.reset();
 		pairs.reset();
-		workBuffer.reset();
+		if( backwardsValidation ) {
+			if( bestScoreDst.length < dst.size )
+				bestScoreDst = new double[ dst.size ];
+			for( int j = 0; j < dst.size; j++ )
+				bestScoreDst[j] = Double.MAX_VALUE;
+		}
 
 		for( int i = 0; i < src.size; i++ ) {
 			T a = src.data[i];
@@ -93,7 +99,8 @@ public class AssociateGreedy<T> {
 				T b = dst.data[j];
 
 				double fit = score.score(a,b);
-				workBuffer.push(fit);
+				if( backwardsValidation && fit < bestScoreDst[j] )
+					bestScoreDst[j] = fit;
 
 				if( fit < bestScore ) {
 					bestIndex = j;
@@ -110,14 +117,10 @@ public class AssociateGreedy<T> {
 				if( match == -1 )
 					continue;
 
-				double scoreToBeat = workBuffer.data[i*dst.size+match];
-
-				for( int j = 0; j < src.size; j++ , match += dst.size ) {
-					if( workBuffer.data[match] < scoreToBeat ) {
-						pairs.data[i] = -1;
-						fitQuality.data[i] = Double.MAX_VALUE;
-						break;
-					}
+				// see if another src feature is a better fit for the dst feature
+				if( bestScoreDst[match] < fitQuality.data[i] ) {
+					pairs.data[i] = -1;
+					fitQuality.data[i] = Double.MAX_VALUE;
 				}
 			}
 		}
@@ -131,6 +134,7 @@ public class AssociateGreedy<T> {
 	 *
 	 * @return Array containing associations by src index.
 	 */
+	@Override
 	public int[] getPairs() {
 		return pairs.data;
 	}
@@ -140,6 +144,7 @@ public class AssociateGreedy<T> {
 	 *
 	 * @return Array of fit sources by src index.
 	 */
+	@Override
 	public double[] getFitQuality() {
 		return fitQuality.data;
 	}
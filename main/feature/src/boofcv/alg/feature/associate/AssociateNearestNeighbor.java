@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.associate;
+
+import boofcv.struct.FastQueue;
+import pja.storage.GrowQueue_F64;
+import pja.storage.GrowQueue_I32;
+
+
+/**
+ * <p>
+ * Greedy association which uses a {@link NearestNeighborSearch} to find the best match for each feature.  Instead
+ * of examining every possible pair, like {@link AssociateGreedy} does, the dst list is passed to the search and
+ * then searched for each feature in the src list.  The fit score is the distance used by the search.  For
+ * example, {@link KdForestSearch_F64} for {@link boofcv.struct.feature.TupleDesc_F64} and
+ * {@link MultiIndexHashSearch_B} for {@link boofcv.struct.feature.TupleDesc_B}.
+ * </p>
+ *
+ * <p>
+ * Optionally, backwards validation can be used to reduce the number of false associations.  A second search
+ * is given the src list and an association is rejected if a src feature is found which is closer
+ * to the dst feature.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class AssociateNearestNeighbor<D> implements GreedyAssociation<D> {
+
+	// searches for the closest dst feature
+	private NearestNeighborSearch<D> searchDst;
+	// searches for the closest src feature.  Used for backwards validation
+	private NearestNeighborSearch<D> searchSrc;
+
+	// worst allowed fit score to associate
+	private double maxFitError;
+	// stores the quality of fit score
+	private GrowQueue_F64 fitQuality = new GrowQueue_F64(100);
+	// stores indexes of associated
+	private GrowQueue_I32 pairs = new GrowQueue_I32(100);
+	// if true backwardsValidation is done
+	private boolean backwardsValidation;
+
+	/**
+	 * Configure association
+	 *
+	 * @param searchDst Used to search the dst list.
+	 * @param searchSrc Used to search the src list for backwards validation.  Can be null if
+	 *                  backwards validation is not used.
+	 * @param maxFitError Maximum allowed distance.  To disable set to Double.MAX_VALUE
+	 * @param backwardsValidation If true then backwards validation is performed.
+	 */
+	public AssociateNearestNeighbor(NearestNeighborSearch<D> searchDst,
+									NearestNeighborSearch<D> searchSrc,
+									double maxFitError,
+									boolean backwardsValidation) {
+		if( backwardsValidation && searchSrc == null )
+			throw new IllegalArgumentException("searchSrc is required for backwards validation");
+
+		this.searchDst = searchDst;
+		this.searchSrc = searchSrc;
+		this.maxFitError = maxFitError;
+		this.backwardsValidation = backwardsValidation;
+	}
+
+	@Override
+	public void associate( FastQueue<D> src ,
+						   FastQueue<D> dst )
+	{
+		fitQuality.reset();
+		pairs.reset();
+
+		searchDst.setPoints(dst);
+
+		for( int i = 0; i < src.size; i++ ) {
+			int bestIndex = searchDst.findNearest(src.data[i],maxFitError);
+
+			pairs.push(bestIndex);
+			fitQuality.push(bestIndex >= 0 ? searchDst.getBestDistance() : maxFitError);
+		}
+
+		if( backwardsValidation ) {
+			searchSrc.setPoints(src);
+
+			for( int i = 0; i < src.size; i++ ) {
+				int match = pairs.data[i];
+				if( match == -1 )
+					continue;
+
+				// see if another src feature is a better fit for the dst feature
+				if( searchSrc.findNearest(dst.data[match],fitQuality.data[i]) >= 0 ) {
+					pairs.data[i] = -1;
+					fitQuality.data[i] = Double.MAX_VALUE;
+				}
+			}
+		}
+	}
+
+	@Override
+	public int[] getPairs() {
+		return pairs.data;
+	}
+
+	@Override
+	public double[] getFitQuality() {
+		return fitQuality.data;
+	}
+}
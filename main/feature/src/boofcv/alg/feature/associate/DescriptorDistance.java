@@ -193,12 +193,7 @@ public class DescriptorDistance {
 	 * @return The hamming distance
 	 */
 	public static int hamming( int val ) {
-		int distance = 0;
-
-		while( val != 0 ) {
-			val &= val - 1;
-			distance++;
-		}
-		return distance;
+		// typically compiled into a single instruction by the JVM
+		return Integer.bitCount(val);
 	}
 }
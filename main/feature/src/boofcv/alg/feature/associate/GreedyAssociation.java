@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.associate;
+
+import boofcv.struct.FastQueue;
+
+/**
+ * Association algorithm which finds the best match in the dst list for each feature in the src list.
+ *
+ * @param <T> Type of feature being associated
+ *
+ * @author Peter Abeles
+ */
+public interface GreedyAssociation<T> {
+
+	/**
+	 * Associates the two sets objects against each other by minimizing fit score.
+	 *
+	 * @param src Source list.
+	 * @param dst Destination list.
+	 */
+	public void associate( FastQueue<T> src , FastQueue<T> dst );
+
+	/**
+	 * Returns a list of association pairs.  Each element in the returned list corresponds
+	 * to an element in the src list.  The value contained in the index indicate which element
+	 * in the dst list that object was associated with.  If a value of -1 is stored then
+	 * no association was found.
+	 *
+	 * @return Array containing associations by src index.
+	 */
+	public int[] getPairs();
+
+	/**
+	 * Quality of fit scores for each association.  Lower fit scores are better.
+	 *
+	 * @return Array of fit sources by src index.
+	 */
+	public double[] getFitQuality();
+}
@@ -0,0 +1,508 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.associate;
+
+import boofcv.struct.FastQueue;
+import boofcv.struct.feature.TupleDesc_F64;
+
+import java.util.Random;
+
+/**
+ * <p>
+ * Approximate nearest-neighbor search for {@link TupleDesc_F64} using a forest of randomized kd-trees and
+ * best-bin-first (BBF) search [1,2].  Each tree splits along a dimension randomly selected from the dimensions
+ * with the largest variance, at the mean value along that dimension.  When searching, all the trees are first
+ * descended to a leaf and branches which were not taken are placed into a single priority queue ordered by
+ * their distance from the query.  Branches are then explored in order until the maximum number of distance
+ * checks has been reached or no branch could contain a closer point.
+ * </p>
+ *
+ * <p>
+ * The lower bound of a branch's distance is the largest squared distance to any of the splitting planes along
+ * its path.  This bound is never larger than the true distance, so if the number of checks is not limited the
+ * search is exact.
+ * </p>
+ *
+ * <p>
+ * Trees are stored in flat arrays and leaves reference a range inside a permuted array of point indexes.
+ * </p>
+ *
+ * <p>
+ * [1] Beis, J. S. and Lowe, D. G. "Shape Indexing Using Approximate Nearest-Neighbour Search in High-Dimensional
+ * Spaces" CVPR 1997<br>
+ * [2] Silpa-Anan, C. and Hartley, R. "Optimised KD-trees for fast image descriptor matching" CVPR 2008
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class KdForestSearch_F64 implements NearestNeighborSearch<TupleDesc_F64> {
+
+	// number of points sampled when computing the mean and variance of a node
+	private static final int SAMPLE_MEAN = 100;
+	// the split dimension is randomly selected from this number of dimensions with the largest variance
+	private static final int RAND_DIM = 5;
+
+	// maximum number of points in a leaf
+	private int maxLeafSize = 10;
+
+	// number of trees in the forest
+	private int numTrees;
+	// maximum number of points it will compute the distance of when searching.
+	private int maxChecks;
+
+	private Random rand;
+
+	private Tree trees[];
+
+	// the points being searched
+	private FastQueue<TupleDesc_F64> points;
+	// length of each descriptor
+	private int dof;
+
+	// used to mark points which have already been checked in the current search
+	private int visited[] = new int[0];
+	private int searchID = 0;
+
+	// priority queue for best-bin-first search
+	private double queueDistance[] = new double[100];
+	private int queueTree[] = new int[100];
+	private int queueNode[] = new int[100];
+	private int queueSize;
+
+	// work space for computing the variance
+	private double mean[] = new double[0];
+	private double variance[] = new double[0];
+	private int topDim[] = new int[RAND_DIM];
+
+	// results of the most recent search
+	private double bestDistance;
+	private int bestIndex;
+	private int numChecks;
+
+	/**
+	 * Configures the search
+	 *
+	 * @param numTrees Number of trees in the forest.  Try 4
+	 * @param maxChecks Maximum number of points it will compute the distance to.  Try 200.  Set to
+	 *                  {@link Integer#MAX_VALUE} for exact search.
+	 * @param randSeed Seed for the random number generator used to select split dimensions.
+	 */
+	public KdForestSearch_F64(int numTrees, int maxChecks, long randSeed) {
+		if( numTrees < 1 )
+			throw new IllegalArgumentException("There must be at least one tree");
+		if( maxChecks < 1 )
+			throw new IllegalArgumentException("maxChecks must be at least one");
+
+		this.numTrees = numTrees;
+		this.maxChecks = maxChecks;
+		this.rand = new Random(randSeed);
+
+		trees = new Tree[numTrees];
+		for( int i = 0; i < numTrees; i++ )
+			trees[i] = new Tree();
+	}
+
+	/**
+	 * Builds the forest from the set of points.  The list must not be modified until the next
+	 * call to this function.
+	 *
+	 * @param points Points which are to be searched.
+	 */
+	@Override
+	public void setPoints( FastQueue<TupleDesc_F64> points ) {
+		this.points = points;
+		int N = points.size;
+
+		dof = N > 0 ? points.data[0].value.length : 0;
+		if( mean.length < dof ) {
+			mean = new double[dof];
+			variance = new double[dof];
+		}
+
+		if( visited.length < N ) {
+			visited = new int[N];
+			searchID = 0;
+		}
+
+		for( int i = 0; i < numTrees; i++ )
+			trees[i].build(N);
+	}
+
+	/**
+	 * Searches for the point which is closest to the target and has a Euclidean distance squared less than
+	 * maxDistance.
+	 *
+	 * @param target The point being searched for
+	 * @param maxDistance Only points with a distance squared less than this are considered.
+	 *                    Set to Double.MAX_VALUE to consider all points.
+	 * @return Index of the closest point or -1 if none was found.
+	 */
+	@Override
+	public int findNearest( TupleDesc_F64 target , double maxDistance ) {
+		bestDistance = maxDistance;
+		bestIndex = -1;
+		numChecks = 0;
+		queueSize = 0;
+
+		if( points == null || points.size == 0 )
+			return -1;
+
+		if( ++searchID == Integer.MAX_VALUE ) {
+			searchID = 1;
+			for( int i = 0; i < visited.length; i++ )
+				visited[i] = 0;
+		}
+
+		double[] q = target.value;
+
+		// descend each tree to the closest leaf
+		for( int i = 0; i < numTrees; i++ ) {
+			descend(i, 0, 0, q);
+		}
+
+		// explore the closest remaining branches
+		while( queueSize > 0 && numChecks < maxChecks ) {
+			int tree = queueTree[0];
+			int node = queueNode[0];
+			double distance = queueDistance[0];
+			popQueue();
+
+			// no remaining branch can contain a closer point
+			if( distance >= bestDistance )
+				break;
+
+			descend(tree, node, distance, q);
+		}
+
+		return bestIndex;
+	}
+
+	/**
+	 * Travels down the tree to the leaf closest to the query.  Branches which were not taken are added to
+	 * the priority queue.
+	 */
+	private void descend( int treeIndex , int node , double bound , double q[] ) {
+		Tree tree = trees[treeIndex];
+
+		while( tree.dim[node] >= 0 ) {
+			double diff = q[tree.dim[node]] - tree.value[node];
+			int near,far;
+			if( diff < 0 ) {
+				near = tree.left[node];
+				far = tree.right[node];
+			} else {
+				near = tree.right[node];
+				far = tree.left[node];
+			}
+
+			double farBound = Math.max(bound,diff*diff);
+			if( farBound < bestDistance )
+				pushQueue(farBound, treeIndex, far);
+
+			node = near;
+		}
+
+		// check the points in the leaf
+		int end = tree.right[node];
+		for( int i = tree.left[node]; i < end; i++ ) {
+			int index = tree.indexes[i];
+			if( visited[index] == searchID )
+				continue;
+			visited[index] = searchID;
+			numChecks++;
+
+			double d = distance(q, points.data[index].value, bestDistance);
+			if( d < bestDistance ) {
+				bestDistance = d;
+				bestIndex = index;
+			}
+		}
+	}
+
+	/**
+	 * Euclidean distance squared.  Stops early once the distance is at least as large as 'limit'.
+	 */
+	private double distance( double a[] , double b[] , double limit ) {
+		double total = 0;
+		for( int i = 0; i < dof; i++ ) {
+			double d = a[i]-b[i];
+			total += d*d;
+			if( total >= limit )
+				break;
+		}
+		return total;
+	}
+
+	private void pushQueue( double distance , int tree , int node ) {
+		if( queueSize == queueDistance.length ) {
+			int N = queueSize*2;
+			double tmpD[] = new double[N];
+			int tmpT[] = new int[N];
+			int tmpN[] = new int[N];
+			System.arraycopy(queueDistance,0,tmpD,0,queueSize);
+			System.arraycopy(queueTree,0,tmpT,0,queueSize);
+			System.arraycopy(queueNode,0,tmpN,0,queueSize);
+			queueDistance = tmpD;
+			queueTree = tmpT;
+			queueNode = tmpN;
+		}
+
+		// sift up
+		int i = queueSize++;
+		while( i > 0 ) {
+			int parent = (i-1)/2;
+			if( queueDistance[parent] <= distance )
+				break;
+			queueDistance[i] = queueDistance[parent];
+			queueTree[i] = queueTree[parent];
+			queueNode[i] = queueNode[parent];
+			i = parent;
+		}
+		queueDistance[i] = distance;
+		queueTree[i] = tree;
+		queueNode[i] = node;
+	}
+
+	private void popQueue() {
+		queueSize--;
+		if( queueSize == 0 )
+			return;
+
+		double distance = queueDistance[queueSize];
+		int tree = queueTree[queueSize];
+		int node = queueNode[queueSize];
+
+		// sift down
+		int i = 0;
+		while( true ) {
+			int child = 2*i+1;
+			if( child >= queueSize )
+				break;
+			if( child+1 < queueSize && queueDistance[child+1] < queueDistance[child] )
+				child++;
+			if( distance <= queueDistance[child] )
+				break;
+			queueDistance[i] = queueDistance[child];
+			queueTree[i] = queueTree[child];
+			queueNode[i] = queueNode[child];
+			i = child;
+		}
+		queueDistance[i] = distance;
+		queueTree[i] = tree;
+		queueNode[i] = node;
+	}
+
+	/**
+	 * Squared Euclidean distance to the point found in the most recent search.
+	 */
+	@Override
+	public double getBestDistance() {
+		return bestDistance;
+	}
+
+	/**
+	 * Index of the point found in the most recent search.  -1 if none.
+	 */
+	public int getBestIndex() {
+		return bestIndex;
+	}
+
+	/**
+	 * Number of distance computations performed in the most recent search
+	 */
+	public int getNumChecks() {
+		return numChecks;
+	}
+
+	public int getMaxChecks() {
+		return maxChecks;
+	}
+
+	public void setMaxChecks(int maxChecks) {
+		this.maxChecks = maxChecks;
+	}
+
+	public int getNumTrees() {
+		return numTrees;
+	}
+
+	public int getMaxLeafSize() {
+		return maxLeafSize;
+	}
+
+	/**
+	 * Maximum number of points in a leaf.  Changes take effect the next time the forest is built.
+	 */
+	public void setMaxLeafSize(int maxLeafSize) {
+		if( maxLeafSize < 1 )
+			throw new IllegalArgumentException("Leaf size must be at least one");
+		this.maxLeafSize = maxLeafSize;
+	}
+
+	/**
+	 * A single kd-tree.  Node 0 is the root.  For internal nodes 'dim' is the split dimension, 'value' the
+	 * split value, and left/right the children.  For leaves 'dim' is -1 and left/right is the range
+	 * of points inside of 'indexes'.
+	 */
+	private class Tree {
+		int dim[] = new int[0];
+		double value[] = new double[0];
+		int left[] = new int[0];
+		int right[] = new int[0];
+		int numNodes;
+
+		// permutation of point indexes
+		int indexes[] = new int[0];
+
+		// stack used to build the tree without recursion
+		int stackNode[] = new int[0];
+		int stackStart[] = new int[0];
+		int stackEnd[] = new int[0];
+
+		void build( int N ) {
+			// a binary tree with at least one point per leaf has fewer than 2*N nodes
+			int maxNodes = Math.max(1,2*N);
+			if( dim.length < maxNodes ) {
+				dim = new int[maxNodes];
+				value = new double[maxNodes];
+				left = new int[maxNodes];
+				right = new int[maxNodes];
+				stackNode = new int[maxNodes];
+				stackStart = new int[maxNodes];
+				stackEnd = new int[maxNodes];
+			}
+			if( indexes.length < N )
+				indexes = new int[N];
+			for( int i = 0; i < N; i++ )
+				indexes[i] = i;
+
+			numNodes = 1;
+			int stackSize = 0;
+			stackNode[stackSize] = 0; stackStart[stackSize] = 0; stackEnd[stackSize] = N;
+			stackSize++;
+
+			while( stackSize > 0 ) {
+				stackSize--;
+				int node = stackNode[stackSize];
+				int start = stackStart[stackSize];
+				int end = stackEnd[stackSize];
+
+				int splitDim = end-start > maxLeafSize ? selectSplitDimension(start, end) : -1;
+				double splitValue = 0;
+				int middle = start;
+
+				if( splitDim >= 0 ) {
+					splitValue = mean[splitDim];
+					middle = partition(start, end, splitDim, splitValue);
+				}
+
+				// make it a leaf if it's small or can't be split
+				if( middle == start || middle == end ) {
+					dim[node] = -1;
+					left[node] = start;
+					right[node] = end;
+					continue;
+				}
+
+				dim[node] = splitDim;
+				value[node] = splitValue;
+				left[node] = numNodes++;
+				right[node] = numNodes++;
+
+				stackNode[stackSize] = left[node]; stackStart[stackSize] = start; stackEnd[stackSize] = middle;
+				stackSize++;
+				stackNode[stackSize] = right[node]; stackStart[stackSize] = middle; stackEnd[stackSize] = end;
+				stackSize++;
+			}
+		}
+
+		/**
+		 * Computes the mean and variance from a sample of the points and randomly selects one of the dimensions
+		 * with the largest variance.
+		 *
+		 * @return The split dimension or -1 if all the sampled points are identical
+		 */
+		int selectSplitDimension( int start , int end ) {
+			int numSample = Math.min(SAMPLE_MEAN,end-start);
+
+			for( int i = 0; i < dof; i++ ) {
+				mean[i] = 0;
+				variance[i] = 0;
+			}
+			for( int i = 0; i < numSample; i++ ) {
+				double v[] = points.data[indexes[start+i]].value;
+				for( int j = 0; j < dof; j++ )
+					mean[j] += v[j];
+			}
+			for( int j = 0; j < dof; j++ )
+				mean[j] /= numSample;
+			for( int i = 0; i < numSample; i++ ) {
+				double v[] = points.data[indexes[start+i]].value;
+				for( int j = 0; j < dof; j++ ) {
+					double d = v[j]-mean[j];
+					variance[j] += d*d;
+				}
+			}
+
+			// find the dimensions with the largest variance, sorted largest to smallest
+			int numTop = 0;
+			for( int j = 0; j < dof; j++ ) {
+				if( variance[j] <= 0 )
+					continue;
+				if( numTop < RAND_DIM ) {
+					numTop++;
+				} else if( variance[j] <= variance[topDim[numTop-1]] ) {
+					continue;
+				}
+				int k = numTop-1;
+				while( k > 0 && variance[topDim[k-1]] < variance[j] ) {
+					topDim[k] = topDim[k-1];
+					k--;
+				}
+				topDim[k] = j;
+			}
+
+			if( numTop == 0 )
+				return -1;
+
+			return topDim[ rand.nextInt(numTop) ];
+		}
+
+		/**
+		 * Rearranges the indexes so that points with a value less than the split are first
+		 *
+		 * @return Index of the first point which is not less than the split
+		 */
+		int partition( int start , int end , int splitDim , double splitValue ) {
+			int i = start;
+			int j = end-1;
+			while( i <= j ) {
+				if( points.data[indexes[i]].value[splitDim] < splitValue ) {
+					i++;
+				} else {
+					int tmp = indexes[i];
+					indexes[i] = indexes[j];
+					indexes[j] = tmp;
+					j--;
+				}
+			}
+			return i;
+		}
+	}
+}
@@ -0,0 +1,287 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.associate;
+
+import boofcv.struct.FastQueue;
+import boofcv.struct.feature.TupleDesc_B;
+
+/**
+ * <p>
+ * Nearest-neighbor search for binary descriptors, {@link TupleDesc_B}, using multi-index hashing [1].  Descriptors
+ * are split into 16-bit substrings and a hash table is built for each substring.  If two descriptors have a Hamming
+ * distance less than t*(k+1), where t is the number of tables, then at least one of their substrings differs
+ * by k bits or less.  The search starts by looking up candidates whose substrings exactly match the query and
+ * then increases k.  After all the substrings at distance k have been examined, any point not yet found has a
+ * distance of at least t*(k+1).  The search stops once that bound is no better than the best match found or
+ * the maximum substring radius has been reached.  All candidates are verified with the exact Hamming distance.
+ * </p>
+ *
+ * <p>
+ * Each table is indexed directly by the 16-bit substring, so no hashing collisions need to be resolved.  If fewer
+ * tables than substrings are requested, the tables are spread evenly across the descriptor.  The search is exact
+ * if the maximum substring radius is 16.
+ * </p>
+ *
+ * <p>
+ * [1] Norouzi, M. and Punjani, A. and Fleet, D. J. "Fast Search in Hamming Space with Multi-Index Hashing"
+ * CVPR 2012
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class MultiIndexHashSearch_B implements NearestNeighborSearch<TupleDesc_B> {
+
+	// number of bits in each substring
+	private static final int SUB_BITS = 16;
+	private static final int NUM_KEYS = 1 << SUB_BITS;
+
+	// All 16-bit masks sorted by the number of bits which are set
+	private static final int MASKS[] = new int[ NUM_KEYS ];
+	// index of the first mask with the specified number of bits set
+	private static final int MASK_START[] = new int[ SUB_BITS + 2 ];
+
+	static {
+		int index = 0;
+		for( int k = 0; k <= SUB_BITS; k++ ) {
+			MASK_START[k] = index;
+			for( int v = 0; v < NUM_KEYS; v++ ) {
+				if( Integer.bitCount(v) == k )
+					MASKS[index++] = v;
+			}
+		}
+		MASK_START[SUB_BITS+1] = index;
+	}
+
+	// requested number of hash tables.  If <= 0 then one for each substring
+	private int requestedTables;
+	// maximum number of bits a substring can differ by when searching
+	private int maxSubRadius;
+
+	// number of tables being used
+	private int numTables;
+	// which substring each table is built from
+	private int tableSubstring[] = new int[0];
+	// For each table.  Points with substring value 'key' are listed from tableStart[key] to tableStart[key+1]
+	private int tableStart[][] = new int[0][];
+	// For each table.  Indexes of points sorted by substring value
+	private int tableIds[][] = new int[0][];
+
+	// the points being searched
+	private FastQueue<TupleDesc_B> points;
+
+	// used to mark points which have already been checked in the current search
+	private int visited[] = new int[0];
+	private int searchID = 0;
+
+	// results of the most recent search
+	private int bestDistance;
+	private int bestIndex;
+	private int numChecks;
+
+	/**
+	 * Configures the search
+	 *
+	 * @param numTables Number of hash tables.  Set to a value <= 0 to use one table for each 16-bit substring.
+	 * @param maxSubRadius Maximum number of bits that a substring can differ by.  Larger values find more matches
+	 *                     but are slower.  Try 2.  Set to 16 for an exact search.
+	 */
+	public MultiIndexHashSearch_B(int numTables, int maxSubRadius) {
+		if( maxSubRadius < 0 || maxSubRadius > SUB_BITS )
+			throw new IllegalArgumentException("maxSubRadius must be from 0 to "+SUB_BITS);
+
+		this.requestedTables = numTables;
+		this.maxSubRadius = maxSubRadius;
+	}
+
+	/**
+	 * Builds the hash tables from the set of points.  The list must not be modified until the next
+	 * call to this function.
+	 *
+	 * @param points Points which are to be searched.
+	 */
+	@Override
+	public void setPoints( FastQueue<TupleDesc_B> points ) {
+		this.points = points;
+		int N = points.size;
+
+		int numSubstrings = 0;
+		if( N > 0 )
+			numSubstrings = (points.data[0].numBits + SUB_BITS - 1)/SUB_BITS;
+
+		numTables = requestedTables <= 0 ? numSubstrings : Math.min(requestedTables,numSubstrings);
+
+		if( tableStart.length < numTables ) {
+			int[][] start = new int[numTables][];
+			int[][] ids = new int[numTables][];
+			System.arraycopy(tableStart,0,start,0,tableStart.length);
+			System.arraycopy(tableIds,0,ids,0,tableIds.length);
+			for( int i = tableStart.length; i < numTables; i++ ) {
+				start[i] = new int[NUM_KEYS+1];
+				ids[i] = new int[0];
+			}
+			tableStart = start;
+			tableIds = ids;
+			tableSubstring = new int[numTables];
+		}
+
+		if( visited.length < N ) {
+			visited = new int[N];
+			searchID = 0;
+		}
+
+		for( int i = 0; i < numTables; i++ ) {
+			tableSubstring[i] = i*numSubstrings/numTables;
+			buildTable(i, N);
+		}
+	}
+
+	/**
+	 * Sorts the points by the value of their substring using a counting sort
+	 */
+	private void buildTable( int table , int N ) {
+		int start[] = tableStart[table];
+		if( tableIds[table].length < N )
+			tableIds[table] = new int[N];
+		int ids[] = tableIds[table];
+		int substring = tableSubstring[table];
+
+		for( int i = 0; i <= NUM_KEYS; i++ )
+			start[i] = 0;
+
+		// count the number of points with each key
+		for( int i = 0; i < N; i++ )
+			start[ substring(points.data[i],substring) + 1 ]++;
+
+		for( int i = 0; i < NUM_KEYS; i++ )
+			start[i+1] += start[i];
+
+		// start[key] is used to keep track of where the next point goes then shifted back afterwards
+		for( int i = 0; i < N; i++ ) {
+			int key = substring(points.data[i],substring);
+			ids[ start[key]++ ] = i;
+		}
+		for( int i = NUM_KEYS; i > 0; i-- )
+			start[i] = start[i-1];
+		start[0] = 0;
+	}
+
+	/**
+	 * Searches for the point which is closest to the target and has a Hamming distance less than maxDistance.
+	 *
+	 * @param target The point being searched for
+	 * @param maxDistance Only points with a distance less than this are considered.
+	 *                    Set to Integer.MAX_VALUE or larger to consider all points.
+	 * @return Index of the closest point or -1 if none was found.
+	 */
+	@Override
+	public int findNearest( TupleDesc_B target , double maxDistance ) {
+		// the distance is an integer, so d < maxDistance is the same as d < ceil(maxDistance)
+		bestDistance = maxDistance >= Integer.MAX_VALUE ? Integer.MAX_VALUE : (int)Math.ceil(maxDistance);
+		bestIndex = -1;
+		numChecks = 0;
+
+		if( points == null || points.size == 0 )
+			return -1;
+
+		if( ++searchID == Integer.MAX_VALUE ) {
+			searchID = 1;
+			for( int i = 0; i < visited.length; i++ )
+				visited[i] = 0;
+		}
+
+		for( int k = 0; k <= maxSubRadius; k++ ) {
+			// points which have not been found yet have a distance of at least numTables*k
+			if( numTables*k >= bestDistance )
+				break;
+
+			for( int table = 0; table < numTables; table++ ) {
+				int start[] = tableStart[table];
+				int ids[] = tableIds[table];
+				int key = substring(target,tableSubstring[table]);
+
+				// examine every bucket which differs by exactly k bits
+				for( int m = MASK_START[k]; m < MASK_START[k+1]; m++ ) {
+					int bucket = key ^ MASKS[m];
+					int end = start[bucket+1];
+					for( int i = start[bucket]; i < end; i++ ) {
+						int index = ids[i];
+						if( visited[index] == searchID )
+							continue;
+						visited[index] = searchID;
+						numChecks++;
+
+						int d = DescriptorDistance.hamming(target,points.data[index]);
+						if( d < bestDistance ) {
+							bestDistance = d;
+							bestIndex = index;
+						}
+					}
+				}
+			}
+		}
+
+		return bestIndex;
+	}
+
+	/**
+	 * Returns the value of a 16-bit substring
+	 */
+	private static int substring( TupleDesc_B desc , int which ) {
+		return (desc.data[which/2] >>> ((which%2)*SUB_BITS)) & 0xFFFF;
+	}
+
+	/**
+	 * Hamming distance to the point found in the most recent search.
+	 */
+	@Override
+	public double getBestDistance() {
+		return bestDistance;
+	}
+
+	/**
+	 * Index of the point found in the most recent search.  -1 if none.
+	 */
+	public int getBestIndex() {
+		return bestIndex;
+	}
+
+	/**
+	 * Number of distance computations performed in the most recent search
+	 */
+	public int getNumChecks() {
+		return numChecks;
+	}
+
+	/**
+	 * Number of hash tables used in the most recent call to {@link #setPoints}
+	 */
+	public int getNumTables() {
+		return numTables;
+	}
+
+	public int getMaxSubRadius() {
+		return maxSubRadius;
+	}
+
+	public void setMaxSubRadius(int maxSubRadius) {
+		if( maxSubRadius < 0 || maxSubRadius > SUB_BITS )
+			throw new IllegalArgumentException("maxSubRadius must be from 0 to "+SUB_BITS);
+		this.maxSubRadius = maxSubRadius;
+	}
+}
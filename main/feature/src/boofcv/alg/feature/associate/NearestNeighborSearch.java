@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.associate;
+
+import boofcv.struct.FastQueue;
+
+/**
+ * Searches a set of points for the one which is closest to a target point.  Used by
+ * {@link AssociateNearestNeighbor} to find matches without examining every possible pair.  The search can be
+ * approximate, in which case the closest point is not always found.
+ *
+ * @param <D> Type of point being searched
+ *
+ * @author Peter Abeles
+ */
+public interface NearestNeighborSearch<D> {
+
+	/**
+	 * Specifies the set of points which are searched.  Any data structures are built here.
+	 *
+	 * @param points Points which are searched.  Not modified.
+	 */
+	public void setPoints( FastQueue<D> points );
+
+	/**
+	 * Searches for the point which is closest to the target and has a distance less than maxDistance.
+	 *
+	 * @param target The point being searched for
+	 * @param maxDistance Only points with a distance less than this are considered.
+	 * @return Index of the closest point or -1 if none was found.
+	 */
+	public int findNearest( D target , double maxDistance );
+
+	/**
+	 * Distance to the point found in the most recent search.
+	 */
+	public double getBestDistance();
+}
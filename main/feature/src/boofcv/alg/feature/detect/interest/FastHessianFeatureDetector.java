@@ -23,6 +23,8 @@ import boofcv.alg.feature.detect.extract.SelectNBestFeatures;
 import boofcv.alg.feature.detect.intensity.GIntegralImageFeatureIntensity;
 import boofcv.core.image.border.FactoryImageBorderAlgs;
 import boofcv.core.image.border.ImageBorder_F32;
+import boofcv.misc.BoofConcurrency;
+import boofcv.misc.IntRangeTask;
 import boofcv.struct.QueueCorner;
 import boofcv.struct.feature.ScalePoint;
 import boofcv.struct.image.ImageFloat32;
@@ -69,6 +71,14 @@ import java.util.List;
  * </p>
  *
  * <p>
+ * Feature sizes overlap between octaves, e.g. 15 and 27 in the first two octaves above.  The intensity of a size
+ * which was already computed in a lower octave is found by sampling that octave's intensity image instead
+ * of computing it again.  Intensity images are independent of each other and are computed in parallel if
+ * {@link BoofConcurrency#USE_CONCURRENT} is true.  Local maximums are then found one octave at a time since the
+ * feature extractor is not thread safe.
+ * </p>
+ *
+ * <p>
  * Note: Interpolation is performed by fitting a second order polynomial instead of a quadratic, as
  * suggested in the paper. See comments in {@link #polyPeak(float, float, float)}.
  * </p>
@@ -89,9 +99,8 @@ public class FastHessianFeatureDetector<T extends ImageSingleBand> {
 		// selects the features with the largest intensity
 	private SelectNBestFeatures selectBest;
 
-	// local sub-space
-	private ImageFloat32 intensity[];
-	private int spaceIndex = 0;
+	// feature intensity for each octave and feature size
+	private ImageFloat32 intensity[][];
 	private QueueCorner foundFeatures = new QueueCorner(100);
 
 	// List of found feature points
@@ -102,8 +111,16 @@ public class FastHessianFeatureDetector<T extends ImageSingleBand> {
 	// the number of octaves it examines
 	private int numberOfOctaves;
 
-	// local variables that are predeclared
-	private int sizes[];
+	// feature sizes in each octave
+	private int sizes[][];
+	// how often the image is sampled in each octave
+	private int skips[];
+	// number of octaves which fit inside the most recently processed image
+	private int numOctavesUsed;
+
+	// For each layer, the octave the intensity image can be sampled from.  -1 if it must be computed
+	private int sourceOctave[][];
+	private int sourceLevel[][];
 
 	// how often the image is sampled in the first octave
 	// a value of 1 would mean every pixel is sampled
@@ -139,7 +156,13 @@ public class FastHessianFeatureDetector<T extends ImageSingleBand> {
 		this.initialSize = initialSize;
 		this.numberOfOctaves = numberOfOctaves;
 
-		sizes = new int[ numberScalesPerOctave ];
+		sizes = new int[ numberOfOctaves ][ numberScalesPerOctave ];
+		skips = new int[ numberOfOctaves ];
+		sourceOctave = new int[ numberOfOctaves ][ numberScalesPerOctave ];
+		sourceLevel = new int[ numberOfOctaves ][ numberScalesPerOctave ];
+
+		// intensity images are declared when the image size is known
+		intensity = new ImageFloat32[ numberOfOctaves ][ numberScalesPerOctave ];
 	}
 
 	/**
@@ -148,68 +171,138 @@ public class FastHessianFeatureDetector<T extends ImageSingleBand> {
 	 * @param integral Image transformed into an integral image.
 	 */
 	public void detect( T integral ) {
-		if( intensity == null ) {
-			intensity = new ImageFloat32[3];
-			for( int i = 0; i < intensity.length; i++ ) {
-				intensity[i] = new ImageFloat32(integral.width,integral.height);
+		foundPoints.clear();
+
+		selectOctaves(integral.width, integral.height);
+
+		// feature intensity in each layer can be computed independently
+		computeIntensity(integral);
+
+		// detect features inside of each octave
+		for( int octave = 0; octave < numOctavesUsed; octave++ ) {
+			ImageFloat32[] layers = intensity[octave];
+			for( int level = 1; level < layers.length-1; level++ ) {
+				findLocalScaleSpaceMax(layers[level-1],layers[level],layers[level+1],
+						sizes[octave],level,skips[octave]);
 			}
 		}
-		foundPoints.clear();
+	}
 
+	/**
+	 * Determines the feature sizes and sample rate in each octave, how many octaves fit inside the image,
+	 * and which feature sizes were already computed in a lower octave.
+	 */
+	private void selectOctaves( int width , int height ) {
 		// computes feature intensity every 'skip' pixels
 		int skip = initialSampleRate;
 		// increment between kernel sizes
 		int sizeStep = 6;
 		// initial size of the kernel in the first octave
 		int octaveSize = initialSize;
+
+		numOctavesUsed = 0;
 		for( int octave = 0; octave < numberOfOctaves; octave++ ) {
-			for( int i = 0; i < sizes.length; i++ ) {
-				sizes[i] = octaveSize + i*sizeStep;
+			int octaveSizes[] = sizes[octave];
+			for( int i = 0; i < octaveSizes.length; i++ ) {
+				octaveSizes[i] = octaveSize + i*sizeStep;
 			}
 			// if the maximum kernel size is larger than the image don't process
 			// the image any more
-			int maxSize = sizes[sizes.length-1];
-			if( maxSize > integral.width || maxSize > integral.height )
+			int maxSize = octaveSizes[octaveSizes.length-1];
+			if( maxSize > width || maxSize > height )
 				break;
-			// detect features inside of this octave
-			detectOctave(integral,skip,sizes);
+
+			skips[octave] = skip;
+			for( int i = 0; i < octaveSizes.length; i++ ) {
+				findSource(octave,i);
+
+				ImageFloat32 layer = intensity[octave][i];
+				if( layer == null )
+					intensity[octave][i] = new ImageFloat32(width/skip,height/skip);
+				else
+					layer.reshape(width/skip,height/skip);
+			}
+			numOctavesUsed++;
+
 			skip += skip;
 			octaveSize += sizeStep;
 			sizeStep += sizeStep;
 		}
-
-		// todo save previously computed sizes for reuse in higher octaves and reuse it
 	}
 
 	/**
-	 * Computes feature intensities for all the specified feature sizes and finds features
-	 * inside of the middle feature sizes.
-	 *
-	 * @param integral Integral image.
-	 * @param skip Pixel skip factor
-	 * @param featureSize which feature sizes should be detected.
+	 * Sizes overlap between octaves.  Since intensity is computed at pixels which are a multiple of the skip,
+	 * a layer at a higher octave can be found by sampling the lowest octave that has the same size.
 	 */
-	protected void detectOctave( T integral , int skip , int ...featureSize ) {
-
-		int w = integral.width/skip;
-		int h = integral.height/skip;
-
-		// resize the output intensity image taking in account subsampling
-		for( int i = 0; i < intensity.length; i++ ) {
-			intensity[i].reshape(w,h);
+	private void findSource( int octave , int level ) {
+		int size = sizes[octave][level];
+		sourceOctave[octave][level] = -1;
+		for( int o = 0; o < octave; o++ ) {
+			if( skips[octave] % skips[o] != 0 )
+				continue;
+			for( int i = 0; i < sizes[o].length; i++ ) {
+				if( sizes[o][i] == size && sourceOctave[o][i] == -1 ) {
+					sourceOctave[octave][level] = o;
+					sourceLevel[octave][level] = i;
+					return;
+				}
+			}
 		}
+	}
 
-		// compute feature intensity in each level
-		for( int i = 0; i < featureSize.length; i++ ) {
-			GIntegralImageFeatureIntensity.hessian(integral,skip,featureSize[i],intensity[spaceIndex]);
+	/**
+	 * Computes the intensity of each layer which isn't in a lower octave, then samples the remaining layers
+	 * from lower octaves.  If {@link BoofConcurrency#USE_CONCURRENT} is true the layers are computed in parallel.
+	 */
+	private void computeIntensity( final T integral ) {
+		final int numScales = sizes[0].length;
+		final int numLayers = numOctavesUsed*numScales;
+
+		IntRangeTask computeTask = new IntRangeTask() {
+			@Override
+			public void process(int index0, int index1) {
+				for( int index = index0; index < index1; index++ ) {
+					int octave = index/numScales;
+					int level = index%numScales;
+					if( sourceOctave[octave][level] == -1 )
+						GIntegralImageFeatureIntensity.hessian(integral,skips[octave],
+								sizes[octave][level],intensity[octave][level]);
+				}
+			}
+		};
+
+		IntRangeTask sampleTask = new IntRangeTask() {
+			@Override
+			public void process(int index0, int index1) {
+				for( int index = index0; index < index1; index++ ) {
+					int octave = index/numScales;
+					int level = index%numScales;
+					int o = sourceOctave[octave][level];
+					if( o != -1 )
+						sample(intensity[o][sourceLevel[octave][level]],skips[octave]/skips[o],
+								intensity[octave][level]);
+				}
+			}
+		};
 
-			spaceIndex++;
-			if( spaceIndex >= 3 )
-				spaceIndex = 0;
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			BoofConcurrency.loopBlocks(0,numLayers,computeTask);
+			BoofConcurrency.loopBlocks(0,numLayers,sampleTask);
+		} else {
+			computeTask.process(0,numLayers);
+			sampleTask.process(0,numLayers);
+		}
+	}
 
-			// find maximum in scale space
-			if( i >= 2 ) {
-				findLocalScaleSpaceMax(featureSize,i-1,skip);
+	/**
+	 * Copies every 'period' pixel from the input image into the output image.
+	 */
+	protected static void sample( ImageFloat32 input , int period , ImageFloat32 output ) {
+		for( int y = 0; y < output.height; y++ ) {
+			int indexIn = input.startIndex + y*period*input.stride;
+			int indexOut = output.startIndex + y*output.stride;
+			for( int x = 0; x < output.width; x++ , indexIn += period ) {
+				output.data[indexOut++] = input.data[indexIn];
 			}
 		}
 	}
@@ -217,30 +310,30 @@ public class FastHessianFeatureDetector<T extends ImageSingleBand> {
 	/**
 	 * Looks for features which are local maximums in the image and scale-space.
 	 *
+	 * @param lower Intensity in the level below
+	 * @param middle Intensity in the level being searched
+	 * @param upper Intensity in the level above
 	 * @param size Size of features in different scale-spaces.
 	 * @param level Which level in the scale-space
 	 * @param skip How many pixels are skipped over.
 	 */
-	private void findLocalScaleSpaceMax(int []size, int level, int skip) {
-		int index0 = spaceIndex;
-		int index1 = (spaceIndex + 1) % 3;
-		int index2 = (spaceIndex + 2) % 3;
-
-		ImageBorder_F32 inten0 = (ImageBorder_F32)FactoryImageBorderAlgs.value(intensity[index0], 0);
-		ImageFloat32 inten1 = intensity[index1];
-		ImageBorder_F32 inten2 = (ImageBorder_F32)FactoryImageBorderAlgs.value(intensity[index2], 0);
+	private void findLocalScaleSpaceMax(ImageFloat32 lower, ImageFloat32 middle, ImageFloat32 upper,
+										int []size, int level, int skip) {
+		ImageBorder_F32 inten0 = (ImageBorder_F32)FactoryImageBorderAlgs.value(lower, 0);
+		ImageFloat32 inten1 = middle;
+		ImageBorder_F32 inten2 = (ImageBorder_F32)FactoryImageBorderAlgs.value(upper, 0);
 
 		// find local maximums in image 2D space.  Borders need to be ignored since
 		// false positives are found around them as an artifact of pixels outside being
 		// treated as being zero.
 		foundFeatures.reset();
 		extractor.setIgnoreBorder(size[level] / (2 * skip)+extractor.getSearchRadius());
-		extractor.process(intensity[index1],null,-1,foundFeatures);
+		extractor.process(inten1,null,-1,foundFeatures);
 
 		// if configured to do so, only select the features with the highest intensity
 		QueueCorner features;
 		if( selectBest != null ) {
-			selectBest.process(intensity[index1],foundFeatures);
+			selectBest.process(inten1,foundFeatures);
 			features = selectBest.getBestCorners();
 		} else {
 			features = foundFeatures;
@@ -0,0 +1,311 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.detect.template;
+
+import boofcv.alg.transform.fft.DiscreteFourierTransform;
+import boofcv.alg.transform.fft.DiscreteFourierTransformOps;
+import boofcv.core.image.ConvertImage;
+import boofcv.struct.image.*;
+
+/**
+ * <p>
+ * Base class for template matching algorithms which can be expressed in terms of the sum and sum of squares
+ * of the image inside the template's window and the correlation between the image and a kernel computed
+ * from the template.  The window statistics are found in constant time from integral images of the image
+ * and the image squared.  The correlation is computed for every template location at once, a row at a time,
+ * which is much more cache friendly than evaluating each location independently.
+ * </p>
+ *
+ * <p>
+ * Integral images are computed using doubles to avoid the loss of precision which comes from subtracting
+ * large numbers when the window statistics are computed.  The correlation of each kernel row is summed using
+ * floats and the rows are then added together using doubles.
+ * </p>
+ *
+ * <p>
+ * For large templates the correlation is instead computed in the frequency domain, see
+ * {@link #isFourierFaster(int, int, int, int)}, which has a cost that is independent of the template's size.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public abstract class BaseTemplateIntegral<T extends ImageSingleBand>
+		extends BaseTemplateIntensity<T>
+{
+	// storage for the input image and template after being converted into floating point
+	private ImageFloat32 imageStorage = new ImageFloat32(1,1);
+	private ImageFloat32 templateStorage = new ImageFloat32(1,1);
+
+	// input image and template in floating point
+	protected ImageFloat32 imageF;
+	protected ImageFloat32 templateF;
+
+	// kernel which is correlated against the image.  Computed from the template
+	protected ImageFloat32 kernel = new ImageFloat32(1,1);
+
+	// integral image of the image and the image squared.  The first row and column are zero
+	private double integral[] = new double[0];
+	private double integralSq[] = new double[0];
+	private int integralStride;
+
+	// correlation of the kernel with the image at each top left corner
+	protected double correlation[] = new double[0];
+	protected int correlationStride;
+	// correlation of a single row in the kernel
+	private float rowSum[] = new float[0];
+
+	// number of pixels in the template
+	protected double area;
+
+	// relative cost of a single element in a transform compared to a single multiply-add in the direct approach
+	private static final double FOURIER_COST = 20.0;
+
+	// used to compute the correlation in the frequency domain
+	private DiscreteFourierTransform dft;
+	private ImageFloat64 paddedImage = new ImageFloat64(1,1);
+	private ImageFloat64 paddedKernel = new ImageFloat64(1,1);
+	private ImageInterleavedFloat64 transformImage = new ImageInterleavedFloat64(1,1,2);
+	private ImageInterleavedFloat64 transformKernel = new ImageInterleavedFloat64(1,1,2);
+
+	@Override
+	public void process(T image, T template) {
+		imageF = convert(image,imageStorage);
+		templateF = convert(template,templateStorage);
+		area = template.width*template.height;
+
+		computeIntegral(imageF);
+		kernel.reshape(template.width,template.height);
+		setupTemplate(templateF);
+		computeCorrelation(imageF,kernel);
+
+		super.process(image, template);
+	}
+
+	/**
+	 * Precompute statistical information on the template and fill in {@link #kernel}.
+	 *
+	 * @param template Template in floating point.
+	 */
+	protected abstract void setupTemplate( ImageFloat32 template );
+
+	/**
+	 * Returns a floating point version of the image.  If the input is already floating point it is returned.
+	 */
+	private static ImageFloat32 convert( ImageSingleBand input , ImageFloat32 storage ) {
+		if( input instanceof ImageFloat32 ) {
+			return (ImageFloat32)input;
+		} else if( input instanceof ImageUInt8 ) {
+			storage.reshape(input.width,input.height);
+			ConvertImage.convert((ImageUInt8)input,storage);
+			return storage;
+		} else {
+			throw new IllegalArgumentException("Image type not supported. "+input.getClass().getSimpleName());
+		}
+	}
+
+	/**
+	 * Computes the integral image of the image and the image squared
+	 */
+	private void computeIntegral( ImageFloat32 image ) {
+		integralStride = image.width+1;
+		int N = integralStride*(image.height+1);
+		if( integral.length < N ) {
+			integral = new double[N];
+			integralSq = new double[N];
+		}
+
+		for( int x = 0; x < integralStride; x++ ) {
+			integral[x] = 0;
+			integralSq[x] = 0;
+		}
+
+		for( int y = 0; y < image.height; y++ ) {
+			int indexSrc = image.startIndex + y*image.stride;
+			int indexDst = (y+1)*integralStride;
+			int indexPrev = indexDst - integralStride;
+
+			integral[indexDst] = 0;
+			integralSq[indexDst] = 0;
+
+			double total = 0;
+			double totalSq = 0;
+			for( int x = 0; x < image.width; x++ ) {
+				double v = image.data[indexSrc++];
+				total += v;
+				totalSq += v*v;
+				indexDst++; indexPrev++;
+				integral[indexDst] = integral[indexPrev] + total;
+				integralSq[indexDst] = integralSq[indexPrev] + totalSq;
+			}
+		}
+	}
+
+	/**
+	 * Correlates the kernel against the image at every location where the kernel is entirely inside the image.
+	 * The output is indexed by the kernel's top left corner.
+	 */
+	protected void computeCorrelation( ImageFloat32 image , ImageFloat32 kernel ) {
+		int outWidth = image.width - kernel.width + 1;
+		int outHeight = image.height - kernel.height + 1;
+
+		correlationStride = outWidth;
+		int N = outWidth*outHeight;
+		if( correlation.length < N )
+			correlation = new double[N];
+
+		if( isFourierFaster(image.width,image.height,kernel.width,kernel.height) )
+			computeCorrelationFourier(image,kernel,outWidth,outHeight);
+		else
+			computeCorrelationDirect(image,kernel,outWidth,outHeight);
+	}
+
+	/**
+	 * Estimates which way of computing the correlation is faster.  The direct approach has a cost proportional
+	 * to the number of template locations times the template's area.  In the frequency domain three transforms
+	 * are needed of the image after it has been padded to a size which can be quickly transformed.
+	 *
+	 * @return true if the correlation should be computed in the frequency domain
+	 */
+	protected boolean isFourierFaster( int imageWidth , int imageHeight , int kernelWidth , int kernelHeight ) {
+		double direct = (double)(imageWidth-kernelWidth+1)*(imageHeight-kernelHeight+1)*kernelWidth*kernelHeight;
+
+		double N = (double)DiscreteFourierTransformOps.nextFastSize(imageWidth)*
+				DiscreteFourierTransformOps.nextFastSize(imageHeight);
+		double fourier = FOURIER_COST*N*Math.log(N)/Math.log(2);
+
+		return fourier < direct;
+	}
+
+	/**
+	 * Computes the correlation by multiplying the transforms of the image and the kernel.  The kernel is
+	 * flipped so that the circular convolution computed is the correlation.  Since the image is padded
+	 * to at least its own size, none of the template locations inside the image wrap around.
+	 */
+	private void computeCorrelationFourier( ImageFloat32 image , ImageFloat32 kernel ,
+											int outWidth , int outHeight ) {
+		if( dft == null )
+			dft = DiscreteFourierTransformOps.createTransform();
+
+		int w = DiscreteFourierTransformOps.nextFastSize(image.width);
+		int h = DiscreteFourierTransformOps.nextFastSize(image.height);
+
+		paddedImage.reshape(w,h);
+		paddedKernel.reshape(w,h);
+		transformImage.reshape(w,h);
+		transformKernel.reshape(w,h);
+
+		for( int y = 0; y < h; y++ ) {
+			int indexDst = y*w;
+			if( y < image.height ) {
+				int indexSrc = image.startIndex + y*image.stride;
+				for( int x = 0; x < image.width; x++ )
+					paddedImage.data[indexDst++] = image.data[indexSrc++];
+				for( int x = image.width; x < w; x++ )
+					paddedImage.data[indexDst++] = 0;
+			} else {
+				for( int x = 0; x < w; x++ )
+					paddedImage.data[indexDst++] = 0;
+			}
+		}
+
+		for( int i = 0; i < w*h; i++ )
+			paddedKernel.data[i] = 0;
+		for( int ky = 0; ky < kernel.height; ky++ ) {
+			int indexSrc = kernel.startIndex + ky*kernel.stride;
+			int y = (h-ky) % h;
+			for( int kx = 0; kx < kernel.width; kx++ ) {
+				int x = (w-kx) % w;
+				paddedKernel.data[y*w+x] = kernel.data[indexSrc++];
+			}
+		}
+
+		dft.forward(paddedImage,transformImage);
+		dft.forward(paddedKernel,transformKernel);
+		DiscreteFourierTransformOps.multiplyComplex(transformImage,transformKernel,transformImage);
+		dft.inverse(transformImage,paddedImage);
+
+		for( int y = 0; y < outHeight; y++ ) {
+			System.arraycopy(paddedImage.data,y*w,correlation,y*outWidth,outWidth);
+		}
+	}
+
+	/**
+	 * Computes the correlation by summing up the product of the kernel and image at each location
+	 */
+	private void computeCorrelationDirect( ImageFloat32 image , ImageFloat32 kernel ,
+										   int outWidth , int outHeight ) {
+		if( rowSum.length < outWidth )
+			rowSum = new float[outWidth];
+
+		for( int y = 0; y < outHeight; y++ ) {
+			int indexOut = y*outWidth;
+
+			for( int i = 0; i < outWidth; i++ )
+				correlation[indexOut+i] = 0;
+
+			for( int ky = 0; ky < kernel.height; ky++ ) {
+				int indexImageRow = image.startIndex + (y+ky)*image.stride;
+				int indexKernel = kernel.startIndex + ky*kernel.stride;
+
+				for( int i = 0; i < outWidth; i++ )
+					rowSum[i] = 0;
+
+				// a single row is summed using floats, which is much faster, then added to the double total
+				for( int kx = 0; kx < kernel.width; kx++ ) {
+					float k = kernel.data[indexKernel++];
+					int indexImage = indexImageRow + kx;
+
+					for( int i = 0; i < outWidth; i++ ) {
+						rowSum[i] += k*image.data[indexImage++];
+					}
+				}
+
+				for( int i = 0; i < outWidth; i++ )
+					correlation[indexOut+i] += rowSum[i];
+			}
+		}
+	}
+
+	/**
+	 * Sum of the image inside the template's window
+	 */
+	protected double windowSum( int tl_x , int tl_y ) {
+		return block(integral,tl_x,tl_y);
+	}
+
+	/**
+	 * Sum of the image squared inside the template's window
+	 */
+	protected double windowSumSq( int tl_x , int tl_y ) {
+		return block(integralSq,tl_x,tl_y);
+	}
+
+	private double block( double ii[] , int tl_x , int tl_y ) {
+		int index0 = tl_y*integralStride + tl_x;
+		int index1 = (tl_y+template.height)*integralStride + tl_x;
+		int w = template.width;
+
+		return ii[index1+w] - ii[index0+w] - ii[index1] + ii[index0];
+	}
+
+	@Override
+	public boolean isBorderProcessed() {
+		return false;
+	}
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.detect.template;
+
+import boofcv.struct.image.ImageFloat32;
+import boofcv.struct.image.ImageSingleBand;
+
+/**
+ * <p>
+ * Sum of the difference squared which produces the same scores as {@link TemplateDiffSquared} but is
+ * faster.  The error is expanded into three terms, the image squared inside the window, which comes
+ * from an integral image, the correlation of the template with the image, and the template squared,
+ * which is a constant.
+ * </p>
+ *
+ * <p> error = -1*( Sum<sub>(o,u)</sub> I(x,y)^2 - 2*I(x,y)*T(x-o,y-u) + T(x-o,y-u)^2 ) </p>
+ *
+ * @author Peter Abeles
+ */
+public class TemplateDiffSquaredIntegral<T extends ImageSingleBand> extends BaseTemplateIntegral<T> {
+
+	// sum of the template squared
+	double templateSumSq;
+
+	@Override
+	protected float evaluate(int tl_x, int tl_y) {
+		double cross = correlation[tl_y*correlationStride + tl_x];
+
+		return (float)-(windowSumSq(tl_x, tl_y) - 2*cross + templateSumSq);
+	}
+
+	@Override
+	protected void setupTemplate(ImageFloat32 template) {
+		templateSumSq = 0;
+		for (int y = 0; y < template.height; y++) {
+			int templateIndex = template.startIndex + y * template.stride;
+			int kernelIndex = kernel.startIndex + y * kernel.stride;
+
+			for (int x = 0; x < template.width; x++) {
+				float v = template.data[templateIndex++];
+				kernel.data[kernelIndex++] = v;
+				templateSumSq += v*v;
+			}
+		}
+	}
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.detect.template;
+
+import boofcv.struct.image.ImageFloat32;
+import boofcv.struct.image.ImageSingleBand;
+
+/**
+ * <p>
+ * Normalized cross correlation (NCC) which produces the same scores as {@link TemplateNCC} but is much
+ * faster.  The image's mean and variance inside each window come from integral images.  Since the kernel
+ * (template minus its mean) has a sum of zero, the numerator is just the correlation of the kernel with
+ * the image.
+ * </p>
+ *
+ * <p>
+ * score = Sum<sub>(o,u)</sub> [ I(x,y)*(T(x-o,y-u) - T<sub>mean</sub>) ] / (&sigma;<sub>I</sub> &sigma;<sub>T</sub>)
+ * </p>
+ *
+ * <p>
+ * Windows with a variance of zero have no correlation with the template and are given a score of zero.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class TemplateNCCIntegral<T extends ImageSingleBand> extends BaseTemplateIntegral<T> {
+
+	double templateSigma;
+
+	@Override
+	protected float evaluate(int tl_x, int tl_y) {
+		double sum = windowSum(tl_x, tl_y);
+		double variance = (windowSumSq(tl_x, tl_y) - sum*sum/area)/area;
+
+		if( variance <= 0 )
+			return 0;
+
+		double top = correlation[tl_y*correlationStride + tl_x];
+
+		// technically top should be divided by area, but that won't change the solution
+		return (float)(top/(Math.sqrt(variance)*templateSigma));
+	}
+
+	@Override
+	protected void setupTemplate(ImageFloat32 template) {
+		double mean = 0;
+
+		for (int y = 0; y < template.height; y++) {
+			int templateIndex = template.startIndex + y * template.stride;
+
+			for (int x = 0; x < template.width; x++) {
+				mean += template.data[templateIndex++];
+			}
+		}
+		mean /= area;
+
+		templateSigma = 0;
+		for (int y = 0; y < template.height; y++) {
+			int templateIndex = template.startIndex + y * template.stride;
+			int kernelIndex = kernel.startIndex + y * kernel.stride;
+
+			for (int x = 0; x < template.width; x++) {
+				double diff = template.data[templateIndex++] - mean;
+				kernel.data[kernelIndex++] = (float)diff;
+				templateSigma += diff*diff;
+			}
+		}
+
+		templateSigma = Math.sqrt(templateSigma/area);
+	}
+}
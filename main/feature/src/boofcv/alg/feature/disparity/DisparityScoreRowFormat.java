@@ -126,4 +126,13 @@ public abstract class DisparityScoreRowFormat
 	public int getBorderY() {
 		return radiusY;
 	}
+
+	/**
+	 * Returns true if the disparity of a row only depends on the input rows which are within {@link #getBorderY()}
+	 * of it.  If true then an image can be processed in bands of rows, which overlap by the border, and the
+	 * output will be the same as when the entire image is processed at once, up to floating point round off.
+	 */
+	public boolean isRowLocal() {
+		return true;
+	}
 }
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.disparity;
+
+import boofcv.struct.image.ImageSingleBand;
+
+/**
+ * {@link DisparitySelect} which can create copies of itself that process different rows at the same time.
+ * Selectors which implement this interface allow the image to be split into bands of rows which are processed
+ * in parallel.
+ *
+ * @author Peter Abeles
+ */
+public interface DisparitySelectConcurrent<Array , T extends ImageSingleBand> extends DisparitySelect<Array,T> {
+
+	/**
+	 * Creates a new instance with the same configuration.  The copy can process rows at the same time
+	 * as this instance, which allows different parts of the image to be processed in parallel.
+	 *
+	 * @return Instance which can be used concurrently with this one.
+	 */
+	public DisparitySelect<Array,T> concurrentCopy();
+}
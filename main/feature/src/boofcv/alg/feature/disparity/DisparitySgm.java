@@ -0,0 +1,420 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.disparity;
+
+import boofcv.misc.BoofConcurrency;
+import boofcv.misc.IntRangeTask;
+import boofcv.struct.image.ImageSingleBand;
+import boofcv.struct.image.ImageUInt8;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Dense stereo disparity using Semi-Global Matching (SGM) [1].  The matching cost for each pixel and disparity
+ * is computed by a region based algorithm, e.g. SAD, and saved in a {@link SgmCostVolume}.  The costs are then
+ * aggregated along four paths (left, right, up, down) which penalize changes in disparity.  A small penalty, P1,
+ * is applied when the disparity changes by one and a large penalty, P2, for larger changes.  The disparity with
+ * the smallest aggregated cost is selected.  This produces much smoother disparity images than selecting
+ * the best region score independently for each pixel.
+ * </p>
+ *
+ * <p>
+ * Costs are stored as 16-bit integers, so memory is width*height*range*4 bytes for the cost and the aggregated
+ * cost combined.  Paths along each direction are independent and are processed in parallel when
+ * {@link BoofConcurrency#USE_CONCURRENT} is true.
+ * </p>
+ *
+ * <p>
+ * Output follows the same format as {@link DisparitySelect}.  Only the four path directions along the image
+ * axes are used.
+ * </p>
+ *
+ * <p>
+ * [1] Heiko Hirschmuller, "Stereo Processing by Semiglobal Matching and Mutual Information" IEEE Trans. PAMI,
+ * Vol. 30, No. 2, 2008
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class DisparitySgm<Input extends ImageSingleBand> extends DisparityScoreRowFormat<Input,ImageUInt8> {
+
+	// computes the cost for each pixel
+	private DisparityScoreRowFormat<Input,ImageUInt8> scoreRegion;
+	// storage for the cost
+	private SgmCostVolume costs;
+
+	// penalty for a change in disparity of one
+	private int penaltySmall;
+	// penalty for a change in disparity of more than one
+	private int penaltyLarge;
+	// tolerance for right to left validation. if < 0 then it's disabled
+	private int validateRtoL;
+
+	// sum of the aggregated cost along each path
+	private short aggregated[] = new short[0];
+	// storage for paths which is not being used by a block of rows or columns
+	private final List<PathStorage> available = new ArrayList<PathStorage>();
+
+	// size of the cost volume
+	private int width,height,range;
+	// first and last+1 row which are aggregated
+	private int y0,y1;
+
+	/**
+	 * Configures SGM
+	 *
+	 * @param scoreRegion Computes the matching cost. Must have been created with 'costs' as its selector.
+	 * @param costs Storage for matching costs.
+	 * @param penaltySmall Penalty for a change in disparity of one. P1
+	 * @param penaltyLarge Penalty for a change in disparity of more than one.  Must be >= P1. P2
+	 * @param validateRtoL Tolerance for how different the left to right associated values can be.  Disable with < 0.
+	 */
+	public DisparitySgm(DisparityScoreRowFormat<Input, ImageUInt8> scoreRegion,
+						SgmCostVolume costs,
+						int penaltySmall, int penaltyLarge,
+						int validateRtoL ) {
+		super(scoreRegion.getMinDisparity(), scoreRegion.getMaxDisparity(),
+				scoreRegion.getBorderX(), scoreRegion.getBorderY());
+
+		if( penaltySmall < 0 || penaltyLarge < penaltySmall )
+			throw new IllegalArgumentException("Penalties must be 0 <= P1 <= P2");
+		if( penaltyLarge > SgmCostVolume.MAX_COST )
+			throw new IllegalArgumentException("P2 must be <= "+SgmCostVolume.MAX_COST);
+
+		this.scoreRegion = scoreRegion;
+		this.costs = costs;
+		this.penaltySmall = penaltySmall;
+		this.penaltyLarge = penaltyLarge;
+		this.validateRtoL = validateRtoL;
+	}
+
+	@Override
+	public void _process(Input left, Input right, ImageUInt8 disparity) {
+		// compute the cost for each pixel and disparity
+		scoreRegion.process(left,right,disparity);
+
+		width = costs.getWidth();
+		height = costs.getHeight();
+		range = costs.getRangeDisparity();
+		y0 = radiusY;
+		y1 = height - radiusY;
+
+		if( width <= 0 || y1 <= y0 )
+			return;
+
+		int N = width*height*range;
+		if( aggregated.length < N )
+			aggregated = new short[N];
+
+		// horizontal paths in each row are independent of other rows
+		IntRangeTask horizontal = new IntRangeTask() {
+			@Override
+			public void process(int index0, int index1) {
+				aggregateHorizontal(index0, index1);
+			}
+		};
+		// vertical paths in each column are independent of other columns
+		IntRangeTask vertical = new IntRangeTask() {
+			@Override
+			public void process(int index0, int index1) {
+				aggregateVertical(index0, index1);
+			}
+		};
+
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			BoofConcurrency.loopBlocks(y0, y1, 8, horizontal);
+			BoofConcurrency.loopBlocks(0, width, 16, vertical);
+		} else {
+			horizontal.process(y0, y1);
+			vertical.process(0, width);
+		}
+
+		selectDisparity(disparity);
+	}
+
+	/**
+	 * Aggregates costs along the left to right and right to left paths.  The aggregated costs are
+	 * initialized here.
+	 */
+	protected void aggregateHorizontal( int rowStart , int rowEnd ) {
+		final short cost[] = costs.getCost();
+
+		PathStorage storage = pop();
+		storage.resize(range, 0);
+		int pathA[] = storage.pathA;
+		int pathB[] = storage.pathB;
+
+		for( int y = rowStart; y < rowEnd; y++ ) {
+			int indexRow = y*width*range;
+
+			// left to right
+			int minPrev = initializePath(cost, indexRow, pathA, 0, true);
+			for( int x = 1; x < width; x++ ) {
+				minPrev = computePathStep(cost, indexRow + x*range, pathA, 0, minPrev, pathB, 0, true);
+				int tmp[] = pathA; pathA = pathB; pathB = tmp;
+			}
+
+			// right to left
+			int indexLast = indexRow + (width-1)*range;
+			minPrev = initializePath(cost, indexLast, pathA, 0, false);
+			for( int x = width-2; x >= 0; x-- ) {
+				minPrev = computePathStep(cost, indexRow + x*range, pathA, 0, minPrev, pathB, 0, false);
+				int tmp[] = pathA; pathA = pathB; pathB = tmp;
+			}
+		}
+
+		push(storage);
+	}
+
+	/**
+	 * Aggregates costs along the top to bottom and bottom to top paths for a block of columns.
+	 * All the columns in the block are processed one row at a time to reduce cache misses.
+	 */
+	protected void aggregateVertical( int colStart , int colEnd ) {
+		final short cost[] = costs.getCost();
+		final int numCols = colEnd-colStart;
+
+		PathStorage storage = pop();
+		storage.resize(numCols*range, numCols);
+		int pathA[] = storage.pathA;
+		int pathB[] = storage.pathB;
+		int minA[] = storage.minA;
+
+		// top to bottom
+		for( int x = colStart; x < colEnd; x++ ) {
+			int i = x-colStart;
+			minA[i] = initializePath(cost, (y0*width + x)*range, pathA, i*range, false);
+		}
+		for( int y = y0+1; y < y1; y++ ) {
+			for( int x = colStart; x < colEnd; x++ ) {
+				int i = x-colStart;
+				minA[i] = computePathStep(cost, (y*width + x)*range, pathA, i*range, minA[i], pathB, i*range, false);
+			}
+			int tmp[] = pathA; pathA = pathB; pathB = tmp;
+		}
+
+		// bottom to top
+		for( int x = colStart; x < colEnd; x++ ) {
+			int i = x-colStart;
+			minA[i] = initializePath(cost, ((y1-1)*width + x)*range, pathA, i*range, false);
+		}
+		for( int y = y1-2; y >= y0; y-- ) {
+			for( int x = colStart; x < colEnd; x++ ) {
+				int i = x-colStart;
+				minA[i] = computePathStep(cost, (y*width + x)*range, pathA, i*range, minA[i], pathB, i*range, false);
+			}
+			int tmp[] = pathA; pathA = pathB; pathB = tmp;
+		}
+
+		push(storage);
+	}
+
+	private PathStorage pop() {
+		synchronized ( available ) {
+			if( available.size() > 0 )
+				return available.remove( available.size()-1 );
+		}
+		return new PathStorage();
+	}
+
+	private void push( PathStorage storage ) {
+		synchronized ( available ) {
+			available.add(storage);
+		}
+	}
+
+	/**
+	 * The first pixel along a path has an aggregated cost equal to its cost.
+	 *
+	 * @param assign If true the aggregated cost is assigned, otherwise it is added
+	 * @return Minimum cost along the path at this pixel
+	 */
+	private int initializePath( short cost[] , int indexCost , int path[] , int indexPath , boolean assign ) {
+		int min = Integer.MAX_VALUE;
+		for( int d = 0; d < range; d++ ) {
+			int c = cost[indexCost+d];
+			path[indexPath+d] = c;
+			if( c < min )
+				min = c;
+			if( assign )
+				aggregated[indexCost+d] = (short)c;
+			else
+				aggregated[indexCost+d] += c;
+		}
+		return min;
+	}
+
+	/**
+	 * Computes the aggregated cost along a path for the current pixel given the previous pixel along the path.
+	 * L(p,d) = C(p,d) + min( L(p-r,d) , L(p-r,d-1) + P1 , L(p-r,d+1) + P1 , min L(p-r) + P2 ) - min L(p-r)
+	 *
+	 * @param assign If true the aggregated cost is assigned, otherwise it is added
+	 * @return Minimum cost along the path at this pixel
+	 */
+	private int computePathStep( short cost[] , int indexCost ,
+								 int prev[] , int indexPrev , int minPrev ,
+								 int curr[] , int indexCurr , boolean assign ) {
+		final int limit = minPrev + penaltyLarge;
+		final int lastD = range-1;
+
+		int min = Integer.MAX_VALUE;
+		for( int d = 0; d < range; d++ ) {
+			int best = prev[indexPrev+d];
+			if( d > 0 ) {
+				int v = prev[indexPrev+d-1] + penaltySmall;
+				if( v < best ) best = v;
+			}
+			if( d < lastD ) {
+				int v = prev[indexPrev+d+1] + penaltySmall;
+				if( v < best ) best = v;
+			}
+			if( limit < best )
+				best = limit;
+
+			int l = cost[indexCost+d] + best - minPrev;
+			curr[indexCurr+d] = l;
+			if( l < min )
+				min = l;
+
+			if( assign )
+				aggregated[indexCost+d] = (short)l;
+			else
+				aggregated[indexCost+d] += l;
+		}
+		return min;
+	}
+
+	/**
+	 * Selects the disparity with the smallest aggregated cost and optionally validates it by
+	 * matching from right to left.
+	 */
+	protected void selectDisparity( ImageUInt8 disparity ) {
+		final int x0 = costs.getX0();
+		final int invalid = range + 1;
+
+		for( int y = y0; y < y1; y++ ) {
+			int indexRow = y*width*range;
+			int indexOut = disparity.startIndex + y*disparity.stride + x0;
+
+			for( int x = 0; x < width; x++ ) {
+				// disparities beyond this go outside the image
+				int localMax = Math.min(range, x+1);
+
+				int best = bestDisparity(indexRow + x*range, localMax);
+
+				if( validateRtoL >= 0 ) {
+					// column in the right image relative to x0
+					int xr = x - best;
+					int bestR = bestDisparityRight(indexRow, xr);
+					if( Math.abs(bestR - best) > validateRtoL )
+						best = invalid;
+				}
+
+				disparity.data[indexOut++] = (byte)best;
+			}
+		}
+	}
+
+	private int bestDisparity( int index , int localMax ) {
+		int best = 0;
+		int scoreBest = aggregated[index];
+		for( int d = 1; d < localMax; d++ ) {
+			int s = aggregated[index+d];
+			if( s < scoreBest ) {
+				scoreBest = s;
+				best = d;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Finds the best disparity for a pixel in the right image by searching the left pixels it could match.
+	 */
+	private int bestDisparityRight( int indexRow , int xr ) {
+		int localMax = Math.min(range, width - xr);
+
+		int best = 0;
+		int scoreBest = aggregated[indexRow + xr*range];
+		for( int d = 1; d < localMax; d++ ) {
+			int s = aggregated[indexRow + (xr+d)*range + d];
+			if( s < scoreBest ) {
+				scoreBest = s;
+				best = d;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Returns the sum of the aggregated costs along all the paths for the specified pixel and disparity.
+	 * Disparity is relative to minDisparity.
+	 */
+	public int getAggregated( int x , int y , int disparity ) {
+		return aggregated[(y*width + x - costs.getX0())*range + disparity];
+	}
+
+	public int getPenaltySmall() {
+		return penaltySmall;
+	}
+
+	public int getPenaltyLarge() {
+		return penaltyLarge;
+	}
+
+	/**
+	 * Costs are aggregated along paths which cross the entire image
+	 */
+	@Override
+	public boolean isRowLocal() {
+		return false;
+	}
+
+	@Override
+	public Class<Input> getInputType() {
+		return scoreRegion.getInputType();
+	}
+
+	@Override
+	public Class<ImageUInt8> getDisparityType() {
+		return ImageUInt8.class;
+	}
+
+	/**
+	 * Aggregated costs for the previous and current pixel along one or more paths.  Blocks of rows or columns
+	 * which are processed at the same time each need their own.
+	 */
+	private static class PathStorage {
+		int pathA[] = new int[0];
+		int pathB[] = new int[0];
+		// minimum aggregated cost along each path for the previous pixel
+		int minA[] = new int[0];
+
+		public void resize( int length , int numPaths ) {
+			if( pathA.length < length ) {
+				pathA = new int[length];
+				pathB = new int[length];
+			}
+			if( minA.length < numPaths )
+				minA = new int[numPaths];
+		}
+	}
+}
@@ -31,7 +31,7 @@ import boofcv.struct.image.ImageSingleBand;
  * @author Peter Abeles
  */
 public abstract class SelectRectBasicWta<Array , Disparity extends ImageSingleBand>
-		implements DisparitySelect<Array,Disparity>
+		implements DisparitySelectConcurrent<Array,Disparity>
 {
 	// Output disparity image
 	protected Disparity imageDisparity;
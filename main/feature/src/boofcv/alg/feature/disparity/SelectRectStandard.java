@@ -46,7 +46,7 @@ import boofcv.struct.image.ImageSingleBand;
  * @author Peter Abeles
  */
 public abstract class SelectRectStandard <Array , T extends ImageSingleBand>
-		implements DisparitySelect<Array,T>
+		implements DisparitySelectConcurrent<Array,T>
 {
 	// output containing disparity
 	protected T imageDisparity;
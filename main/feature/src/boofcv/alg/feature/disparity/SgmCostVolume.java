@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.disparity;
+
+import boofcv.struct.image.ImageUInt8;
+
+/**
+ * <p>
+ * Saves the region scores for every pixel and disparity into a cost volume which is then used by
+ * {@link DisparitySgm}.  Implements {@link DisparitySelect} so that it can be plugged into any dense
+ * region score algorithm, such as {@link DisparityScoreSadRect}, which computes scores one row at a time.
+ * No disparity is selected and the disparity image is not modified.  It does not implement
+ * {@link DisparitySelectConcurrent} since copies would need to write into the same cost volume, but rows are
+ * only known relative to the sub-image being processed.
+ * </p>
+ *
+ * <p>
+ * Costs are stored as 16-bit integers and saturate at {@link #MAX_COST}.  Disparities which go outside
+ * the image are assigned the maximum cost.  Cost of disparity d for a pixel with x-coordinate x on image
+ * row y is stored at index: ((y*width + x - x0)*range + d - minDisparity), where x0 = radiusX + minDisparity
+ * is the first column with a score and width = imageWidth - radiusX - x0.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class SgmCostVolume implements DisparitySelect<int[],ImageUInt8> {
+
+	/**
+	 * Largest cost which can be stored.  Small enough that the sum of several aggregated paths fits
+	 * inside a short.
+	 */
+	public static final int MAX_COST = 2047;
+
+	// cost for each pixel and disparity
+	protected short cost[] = new short[0];
+
+	// range of disparities
+	protected int minDisparity;
+	protected int rangeDisparity;
+	// first image column with a score
+	protected int x0;
+	// number of columns and rows in the cost volume
+	protected int width;
+	protected int height;
+
+	// width of the input image
+	protected int imageWidth;
+	// width of the region
+	protected int regionWidth;
+
+	@Override
+	public void configure(ImageUInt8 imageDisparity, int minDisparity, int maxDisparity, int radiusX) {
+		this.minDisparity = minDisparity;
+		this.rangeDisparity = maxDisparity - minDisparity;
+		this.imageWidth = imageDisparity.width;
+		this.regionWidth = radiusX*2+1;
+		this.x0 = radiusX + minDisparity;
+		this.width = Math.max(0,imageWidth - radiusX - x0);
+		this.height = imageDisparity.height;
+
+		int N = width*height*rangeDisparity;
+		if( cost.length < N )
+			cost = new short[ N ];
+	}
+
+	@Override
+	public void process(int row, int[] scores) {
+		int indexCost = row*width*rangeDisparity;
+
+		// col is the region's left most column
+		for( int col = minDisparity; col <= imageWidth-regionWidth; col++ ) {
+			// make sure the disparity search doesn't go outside the image border
+			int localMax = Math.min(rangeDisparity,col-minDisparity+1);
+
+			int indexScore = col-minDisparity;
+			for( int i = 0; i < localMax; i++ , indexScore += imageWidth ) {
+				int s = scores[indexScore];
+				cost[indexCost++] = (short)(s > MAX_COST ? MAX_COST : s);
+			}
+			for( int i = localMax; i < rangeDisparity; i++ ) {
+				cost[indexCost++] = MAX_COST;
+			}
+		}
+	}
+
+	/**
+	 * Returns the cost for the specified pixel and disparity.  Disparity is relative to minDisparity.
+	 */
+	public int get( int x , int y , int disparity ) {
+		return cost[((y*width + x - x0)*rangeDisparity + disparity)];
+	}
+
+	public short[] getCost() {
+		return cost;
+	}
+
+	public int getX0() {
+		return x0;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public int getRangeDisparity() {
+		return rangeDisparity;
+	}
+
+	@Override
+	public Class<ImageUInt8> getDisparityType() {
+		return ImageUInt8.class;
+	}
+}
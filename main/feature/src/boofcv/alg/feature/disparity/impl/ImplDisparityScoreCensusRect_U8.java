@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.disparity.impl;
+
+import boofcv.alg.feature.disparity.DisparityScoreRowFormat;
+import boofcv.alg.feature.disparity.DisparitySelect;
+import boofcv.alg.transform.census.CensusTransform;
+import boofcv.struct.image.ImageSInt32;
+import boofcv.struct.image.ImageSingleBand;
+import boofcv.struct.image.ImageUInt8;
+
+/**
+ * <p>
+ * Computes the disparity score for a rectangular region using the hamming distance between census transformed
+ * images.  The census transform of both images is computed first, see {@link CensusTransform}, and then the
+ * hamming distance of each pixel is summed inside the rectangular region.  Scores are computed in the same
+ * row format and with the same sliding window as {@link ImplDisparityScoreSadRect_U8}.
+ * </p>
+ *
+ * <p>
+ * Since the census transform only encodes the relative order of pixel values the score is robust to
+ * differences in gain and bias between the two cameras.  The score for a single pixel is the number of bits which
+ * differ, so it is at most 8 for a 3x3 census and 24 for a 5x5 census.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class ImplDisparityScoreCensusRect_U8<Disparity extends ImageSingleBand>
+	extends DisparityScoreRowFormat<ImageUInt8,Disparity>
+{
+	// Computes disparity from scores
+	DisparitySelect<int[],Disparity> computeDisparity;
+
+	// radius of the census transform's region
+	int censusRadius;
+
+	// census transform of the left and right images
+	ImageSInt32 censusLeft = new ImageSInt32(1,1);
+	ImageSInt32 censusRight = new ImageSInt32(1,1);
+
+	// stores the local scores for the width of the region
+	int elementScore[];
+	// scores along horizontal axis for current block
+	int horizontalScore[][];
+	// summed scores along vertical axis
+	int verticalScore[];
+
+	/**
+	 * Configures the disparity algorithm
+	 *
+	 * @param minDisparity Minimum disparity that it will check. Must be >= 0 and < maxDisparity
+	 * @param maxDisparity Maximum disparity that it will calculate. Must be > 0
+	 * @param regionRadiusX Radius of the rectangular region along x-axis.
+	 * @param regionRadiusY Radius of the rectangular region along y-axis.
+	 * @param censusRadius Radius of the census transform's region.  1 = 3x3 and 2 = 5x5
+	 * @param computeDisparity Selects the disparity from the scores
+	 */
+	public ImplDisparityScoreCensusRect_U8( int minDisparity , int maxDisparity,
+											int regionRadiusX, int regionRadiusY,
+											int censusRadius ,
+											DisparitySelect<int[],Disparity> computeDisparity) {
+		super(minDisparity,maxDisparity,regionRadiusX,regionRadiusY);
+
+		if( censusRadius != 1 && censusRadius != 2 )
+			throw new IllegalArgumentException("Census radius must be 1 or 2");
+
+		this.censusRadius = censusRadius;
+		this.computeDisparity = computeDisparity;
+	}
+
+	@Override
+	public void _process( ImageUInt8 left , ImageUInt8 right , Disparity disparity ) {
+		if( horizontalScore == null || verticalScore.length < lengthHorizontal ) {
+			horizontalScore = new int[regionHeight][lengthHorizontal];
+			verticalScore = new int[lengthHorizontal];
+		}
+		if( elementScore == null || elementScore.length < left.width )
+			elementScore = new int[ left.width ];
+
+		censusLeft.reshape(left.width,left.height);
+		censusRight.reshape(right.width,right.height);
+		CensusTransform.transform(left, censusRadius, censusLeft);
+		CensusTransform.transform(right, censusRadius, censusRight);
+
+		computeDisparity.configure(disparity,minDisparity,maxDisparity,radiusX);
+
+		// initialize computation
+		computeFirstRow(censusLeft, censusRight);
+		// efficiently compute rest of the rows using previous results to avoid repeat computations
+		computeRemainingRows(censusLeft, censusRight);
+	}
+
+	/**
+	 * Initializes disparity calculation by finding the scores for the initial block of horizontal
+	 * rows.
+	 */
+	private void computeFirstRow(ImageSInt32 left, ImageSInt32 right ) {
+		// compute horizontal scores for first row block
+		for( int row = 0; row < regionHeight; row++ ) {
+
+			int scores[] = horizontalScore[row];
+
+			UtilDisparityScore.computeScoreRow(left, right, row, scores,
+					minDisparity,maxDisparity,regionWidth,elementScore);
+		}
+
+		// compute score for the top possible row
+		for( int i = 0; i < lengthHorizontal; i++ ) {
+			int sum = 0;
+			for( int row = 0; row < regionHeight; row++ ) {
+				sum += horizontalScore[row][i];
+			}
+			verticalScore[i] = sum;
+		}
+
+		// compute disparity
+		computeDisparity.process(radiusY, verticalScore);
+	}
+
+	/**
+	 * Using previously computed results it efficiently finds the disparity in the remaining rows.
+	 * When a new block is processes the last row/column is subtracted and the new row/column is
+	 * added.
+	 */
+	private void computeRemainingRows( ImageSInt32 left, ImageSInt32 right )
+	{
+		for( int row = regionHeight; row < left.height; row++ ) {
+			int oldRow = row%regionHeight;
+
+			// subtract first row from vertical score
+			int scores[] = horizontalScore[oldRow];
+			for( int i = 0; i < lengthHorizontal; i++ ) {
+				verticalScore[i] -= scores[i];
+			}
+
+			UtilDisparityScore.computeScoreRow(left, right, row, scores,
+					minDisparity,maxDisparity,regionWidth,elementScore);
+
+			// add the new score
+			for( int i = 0; i < lengthHorizontal; i++ ) {
+				verticalScore[i] += scores[i];
+			}
+
+			// compute disparity
+			computeDisparity.process(row - regionHeight + 1 + radiusY, verticalScore);
+		}
+	}
+
+	public int getCensusRadius() {
+		return censusRadius;
+	}
+
+	/**
+	 * The census transform at the top and bottom of the image is computed using the image border
+	 */
+	@Override
+	public boolean isRowLocal() {
+		return false;
+	}
+
+	@Override
+	public Class<ImageUInt8> getInputType() {
+		return ImageUInt8.class;
+	}
+
+	@Override
+	public Class<Disparity> getDisparityType() {
+		return computeDisparity.getDisparityType();
+	}
+}
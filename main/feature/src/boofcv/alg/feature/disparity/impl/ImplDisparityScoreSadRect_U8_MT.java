@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.disparity.impl;
+
+import boofcv.alg.feature.disparity.DisparityScoreSadRect;
+import boofcv.alg.feature.disparity.DisparitySelect;
+import boofcv.alg.feature.disparity.DisparitySelectConcurrent;
+import boofcv.misc.BoofConcurrency;
+import boofcv.misc.IntRangeTask;
+import boofcv.struct.image.ImageSingleBand;
+import boofcv.struct.image.ImageUInt8;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Concurrent implementation of {@link ImplDisparityScoreSadRect_U8}.  The image is split into bands of rows
+ * which are processed in parallel.  Each band is processed by its own instance of
+ * {@link ImplDisparityScoreSadRect_U8}, with its own score buffers and {@link DisparitySelect}, on a sub-image
+ * which overlaps the neighboring bands by the region's radius.  Scores are integers, so the output is identical
+ * to the single threaded version.
+ * </p>
+ *
+ * <p>
+ * If the {@link DisparitySelect} doesn't implement {@link DisparitySelectConcurrent}, and so can't be split up
+ * by rows, then the whole image is processed in the calling thread.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class ImplDisparityScoreSadRect_U8_MT<Disparity extends ImageSingleBand>
+	extends DisparityScoreSadRect<ImageUInt8,Disparity>
+{
+	// Computes disparity from scores
+	DisparitySelect<int[],Disparity> computeDisparity;
+	// same as computeDisparity if it can be split up by rows, otherwise null.  Copies are used by each band
+	DisparitySelectConcurrent<int[],Disparity> concurrentDisparity;
+
+	// used when the selector can't be split up by rows
+	ImplDisparityScoreSadRect_U8<Disparity> sequential;
+
+	// instances which are not currently processing a band
+	final List<ImplDisparityScoreSadRect_U8<Disparity>> available =
+			new ArrayList<ImplDisparityScoreSadRect_U8<Disparity>>();
+
+	public ImplDisparityScoreSadRect_U8_MT( int minDisparity , int maxDisparity,
+										   int regionRadiusX, int regionRadiusY,
+										   DisparitySelect<int[],Disparity> computeDisparity) {
+		super(minDisparity,maxDisparity,regionRadiusX,regionRadiusY);
+
+		this.computeDisparity = computeDisparity;
+		if( computeDisparity instanceof DisparitySelectConcurrent )
+			concurrentDisparity = (DisparitySelectConcurrent<int[],Disparity>)computeDisparity;
+	}
+
+	@Override
+	public void _process( final ImageUInt8 left , final ImageUInt8 right , final Disparity disparity ) {
+		if( concurrentDisparity == null ) {
+			if( sequential == null )
+				sequential = new ImplDisparityScoreSadRect_U8<Disparity>(minDisparity,maxDisparity,
+						radiusX,radiusY,computeDisparity);
+			sequential.process(left,right,disparity);
+			return;
+		}
+
+		// rows for which a disparity is computed
+		int row0 = radiusY;
+		int row1 = left.height - radiusY;
+
+		// each band computes regionHeight-1 rows which it doesn't output, so don't make the bands too small
+		BoofConcurrency.loopBlocks(row0, row1, regionHeight*2, new IntRangeTask() {
+			@Override
+			public void process(int index0, int index1) {
+				ImplDisparityScoreSadRect_U8<Disparity> alg = pop();
+
+				// the band needs the rows inside the region's radius of its first and last row
+				int y0 = index0 - radiusY;
+				int y1 = index1 + radiusY;
+
+				ImageUInt8 bandLeft = left.subimage(0,y0,left.width,y1);
+				ImageUInt8 bandRight = right.subimage(0,y0,right.width,y1);
+				Disparity bandDisparity = getDisparityType().cast(disparity.subimage(0,y0,disparity.width,y1));
+
+				alg.process(bandLeft,bandRight,bandDisparity);
+
+				push(alg);
+			}
+		});
+	}
+
+	private ImplDisparityScoreSadRect_U8<Disparity> pop() {
+		synchronized ( available ) {
+			if( available.size() > 0 )
+				return available.remove( available.size()-1 );
+		}
+		return new ImplDisparityScoreSadRect_U8<Disparity>(minDisparity,maxDisparity,radiusX,radiusY,
+				concurrentDisparity.concurrentCopy());
+	}
+
+	private void push( ImplDisparityScoreSadRect_U8<Disparity> alg ) {
+		synchronized ( available ) {
+			available.add(alg);
+		}
+	}
+
+	@Override
+	public Class<ImageUInt8> getInputType() {
+		return ImageUInt8.class;
+	}
+
+	@Override
+	public Class<Disparity> getDisparityType() {
+		return computeDisparity.getDisparityType();
+	}
+}
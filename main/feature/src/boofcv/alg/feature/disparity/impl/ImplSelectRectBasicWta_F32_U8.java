@@ -18,6 +18,7 @@
 
 package boofcv.alg.feature.disparity.impl;
 
+import boofcv.alg.feature.disparity.DisparitySelect;
 import boofcv.alg.feature.disparity.SelectRectBasicWta;
 import boofcv.struct.image.ImageUInt8;
 
@@ -61,6 +62,11 @@ public class ImplSelectRectBasicWta_F32_U8 extends SelectRectBasicWta<float[],Im
 		}
 	}
 
+	@Override
+	public DisparitySelect<float[],ImageUInt8> concurrentCopy() {
+		return new ImplSelectRectBasicWta_F32_U8();
+	}
+
 	@Override
 	public Class<ImageUInt8> getDisparityType() {
 		return ImageUInt8.class;
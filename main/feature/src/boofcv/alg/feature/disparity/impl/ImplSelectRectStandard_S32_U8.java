@@ -18,6 +18,7 @@
 
 package boofcv.alg.feature.disparity.impl;
 
+import boofcv.alg.feature.disparity.DisparitySelect;
 import boofcv.struct.image.ImageUInt8;
 
 /**
@@ -45,6 +46,13 @@ public class ImplSelectRectStandard_S32_U8 extends ImplSelectRectStandardBase_S3
 		imageDisparity.data[index] = (byte)value;
 	}
 
+	@Override
+	public DisparitySelect<int[],ImageUInt8> concurrentCopy() {
+		ImplSelectRectStandard_S32_U8 ret = new ImplSelectRectStandard_S32_U8(maxError,rightToLeftTolerance,0);
+		ret.textureThreshold = textureThreshold;
+		return ret;
+	}
+
 	@Override
 	public Class<ImageUInt8> getDisparityType() {
 		return ImageUInt8.class;
@@ -18,6 +18,7 @@
 
 package boofcv.alg.feature.disparity.impl;
 
+import boofcv.alg.feature.disparity.DisparitySelect;
 import boofcv.struct.image.ImageFloat32;
 
 /**
@@ -63,6 +64,13 @@ public class SelectRectSubpixel {
 			}
 		}
 
+		@Override
+		public DisparitySelect<int[],ImageFloat32> concurrentCopy() {
+			S32_F32 ret = new S32_F32(maxError,rightToLeftTolerance,0);
+			ret.textureThreshold = textureThreshold;
+			return ret;
+		}
+
 		@Override
 		public Class<ImageFloat32> getDisparityType() {
 			return ImageFloat32.class;
@@ -93,6 +101,13 @@ public class SelectRectSubpixel {
 			}
 		}
 
+		@Override
+		public DisparitySelect<float[],ImageFloat32> concurrentCopy() {
+			F32_F32 ret = new F32_F32(maxError,rightToLeftTolerance,0);
+			ret.textureThreshold = textureThreshold;
+			return ret;
+		}
+
 		@Override
 		public Class<ImageFloat32> getDisparityType() {
 			return ImageFloat32.class;
@@ -18,7 +18,9 @@
 
 package boofcv.alg.feature.disparity.impl;
 
+import boofcv.alg.feature.associate.DescriptorDistance;
 import boofcv.struct.image.ImageFloat32;
+import boofcv.struct.image.ImageSInt32;
 import boofcv.struct.image.ImageUInt8;
 
 /**
@@ -165,4 +167,65 @@ public class UtilDisparityScore {
 			elementScore[rCol] = Math.abs(diff);
 		}
 	}
+
+	/**
+	 * Computes disparity score for an entire row using the hamming distance between census transformed images.
+	 *
+	 * @param left left census image
+	 * @param right Right census image
+	 * @param row Image row being examined
+	 * @param scores Storage for disparity scores.
+	 * @param minDisparity Minimum disparity to consider
+	 * @param maxDisparity Maximum disparity to consider
+	 * @param regionWidth Size of the sample region's width
+	 * @param elementScore Storage for scores of individual pixels
+	 *
+	 * @see boofcv.alg.transform.census.CensusTransform
+	 */
+	public static void computeScoreRow(ImageSInt32 left, ImageSInt32 right, int row, int[] scores,
+									   int minDisparity , int maxDisparity , int regionWidth ,
+									   int elementScore[] ) {
+
+		// disparity as the outer loop to maximize common elements in inner loops, reducing redundant calculations
+		for( int d = minDisparity; d < maxDisparity; d++ ) {
+			int dispFromMin = d - minDisparity;
+
+			// number of individual columns the error is computed in
+			final int colMax = left.width-d;
+			// number of regions that a score/error is computed in
+			final int scoreMax = colMax-regionWidth;
+
+			// indexes that data is read to/from for different data structures
+			int indexScore = left.width*dispFromMin + dispFromMin;
+			int indexLeft = left.startIndex + left.stride*row + d;
+			int indexRight = right.startIndex + right.stride*row;
+
+			// Fill elementScore with scores for individual elements for this row at disparity d
+			computeScoreRow(left, right, colMax, indexLeft, indexRight,elementScore );
+
+			// score at the first column
+			int score = 0;
+			for( int i = 0; i < regionWidth; i++ )
+				score += elementScore[i];
+
+			scores[indexScore++] = score;
+
+			// scores for the remaining columns
+			for( int col = 0; col < scoreMax; col++ , indexScore++ ) {
+				scores[indexScore] = score += elementScore[col+regionWidth] - elementScore[col];
+			}
+		}
+	}
+
+	/**
+	 * Hamming distance between census transformed pixels.
+	 */
+	public static void computeScoreRow(ImageSInt32 left, ImageSInt32 right,
+									   int elementMax, int indexLeft, int indexRight,
+									   int elementScore[] )
+	{
+		for( int rCol = 0; rCol < elementMax; rCol++ ) {
+			elementScore[rCol] = DescriptorDistance.hamming(left.data[ indexLeft++ ] ^ right.data[ indexRight++ ]);
+		}
+	}
 }
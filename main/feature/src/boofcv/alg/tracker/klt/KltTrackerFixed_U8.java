@@ -0,0 +1,441 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.tracker.klt;
+
+import boofcv.alg.InputSanityCheck;
+import boofcv.struct.image.ImageSInt16;
+import boofcv.struct.image.ImageUInt8;
+
+/**
+ * <p>
+ * Variant of {@link KltTracker} which has been specialized for {@link ImageUInt8} input images and
+ * {@link ImageSInt16} image derivatives.  Bilinear interpolation is done using integer weights and the
+ * residual is accumulated using integer arithmetic.  Instead of each feature having its own set of images,
+ * the templates for all the features are stored in a single flat array owned by the tracker and features are
+ * referenced by their index.  No memory is declared while tracking.
+ * </p>
+ *
+ * <p>
+ * For each pixel in a template the interpolated image value, with {@link #FRACTION_BITS} fractional bits,
+ * and the interpolated x and y derivatives, rounded to the nearest integer, are stored next to each other.
+ * This way the inner loop only needs to read from a single array.  Sub-pixel locations are rounded to the
+ * nearest 1/2<sup>{@link #FRACTION_BITS}</sup> of a pixel.  Results are very similar to {@link KltTracker}.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class KltTrackerFixed_U8 {
+
+	/** Number of fractional bits used by interpolation weights and template values */
+	public static final int FRACTION_BITS = 11;
+	private static final int ONE = 1 << FRACTION_BITS;
+	private static final float INV_ONE = 1.0f/ONE;
+	/** Number of fractional bits used by interpolation weights for the image derivative */
+	public static final int DERIV_BITS = 8;
+	private static final int ONE_D = 1 << DERIV_BITS;
+
+	// input image
+	protected ImageUInt8 image;
+	// image gradient
+	protected ImageSInt16 derivX, derivY;
+
+	// tracker configuration
+	protected KltConfig config;
+
+	// radius of each feature
+	protected int radius;
+	// width of the feature
+	protected int widthFeature;
+	// number of pixels in a feature
+	protected int lengthFeature;
+	// maximum number of features
+	protected int maxFeatures;
+
+	// location of each feature
+	protected float x[];
+	protected float y[];
+	// template for each feature.  Each pixel is stored as (value, derivX, derivY)
+	protected int template[];
+	// curvature information for each feature
+	protected float G[];
+
+	// the feature in the current image
+	protected int current[];
+
+	// residual times the gradient
+	protected float Ex, Ey;
+
+	// allowed feature bounds
+	float allowedLeft;
+	float allowedRight;
+	float allowedTop;
+	float allowedBottom;
+
+	/**
+	 * Configures the tracker
+	 *
+	 * @param config Tracker configuration
+	 * @param radius Radius of each feature
+	 * @param maxFeatures Maximum number of features which can be tracked
+	 */
+	public KltTrackerFixed_U8(KltConfig config, int radius, int maxFeatures) {
+		this.config = config;
+		this.radius = radius;
+		this.maxFeatures = maxFeatures;
+
+		widthFeature = radius * 2 + 1;
+		lengthFeature = widthFeature * widthFeature;
+
+		x = new float[maxFeatures];
+		y = new float[maxFeatures];
+		template = new int[maxFeatures*lengthFeature*3];
+		G = new float[maxFeatures*3];
+		current = new int[lengthFeature];
+	}
+
+	/**
+	 * Sets the current image it should be tracking with.
+	 *
+	 * @param image  Original input image.
+	 * @param derivX Image derivative along the x-axis
+	 * @param derivY Image derivative along the y-axis
+	 */
+	public void setImage(ImageUInt8 image, ImageSInt16 derivX, ImageSInt16 derivY) {
+		if (derivX != null && derivY != null)
+			InputSanityCheck.checkSameShape(image, derivX, derivY);
+
+		this.image = image;
+		this.derivX = derivX;
+		this.derivY = derivY;
+
+		allowedLeft = radius + config.forbiddenBorder;
+		allowedTop = radius + config.forbiddenBorder;
+		allowedRight = image.width - (radius + config.forbiddenBorder);
+		allowedBottom = image.height - (radius + config.forbiddenBorder);
+	}
+
+	/**
+	 * Specifies the location of a feature
+	 */
+	public void setPosition(int index, float x, float y) {
+		this.x[index] = x;
+		this.y[index] = y;
+	}
+
+	/**
+	 * Sets the features description using the current image and the feature's location.
+	 * If the feature is an illegal location and cannot be set then false is returned.
+	 *
+	 * @param index Index of the feature whose description is to be set.  Location must be specified.
+	 * @return true if the feature's description was modified.
+	 */
+	public boolean setDescription(int index) {
+		if (derivX == null || derivY == null)
+			throw new IllegalArgumentException("Image derivatives must be set");
+
+		float x = this.x[index], y = this.y[index];
+		if (!isFullyInside(x, y)) {
+			return false;
+		}
+
+		float tl_x = x - radius;
+		float tl_y = y - radius;
+		int offset = index*lengthFeature*3;
+
+		region(image, tl_x, tl_y, template, offset, 3);
+		region(derivX, tl_x, tl_y, template, offset+1, 3);
+		region(derivY, tl_x, tl_y, template, offset+2, 3);
+
+		long Gxx = 0, Gyy = 0, Gxy = 0;
+		for (int i = offset; i < offset+lengthFeature*3; i += 3) {
+			int dX = template[i+1];
+			int dY = template[i+2];
+
+			Gxx += dX * dX;
+			Gyy += dY * dY;
+			Gxy += dX * dY;
+		}
+
+		G[index*3] = Gxx;
+		G[index*3+1] = Gyy;
+		G[index*3+2] = Gxy;
+
+		return true;
+	}
+
+	/**
+	 * <p>
+	 * Updates the feature's location inside the image.  The feature's position can be modified
+	 * even if tracking fails.
+	 * </p>
+	 *
+	 * @param index Index of the feature being tracked.
+	 * @return If the tracking was successful or not.
+	 */
+	public KltTrackFault track(int index) {
+		float x = this.x[index], y = this.y[index];
+		// save the original location so that a drifting fault can be detected
+		float origX = x, origY = y;
+
+		// make sure its inside this image
+		if (!isFullyInside(x, y)) {
+			return KltTrackFault.OUT_OF_BOUNDS;
+		}
+
+		// see if the determinant is too small
+		float Gxx = G[index*3];
+		float Gyy = G[index*3+1];
+		float Gxy = G[index*3+2];
+		float det = Gxx * Gyy - Gxy * Gxy;
+		if (det < config.minDeterminant) {
+			return KltTrackFault.FAILED;
+		}
+
+		int offset = index*lengthFeature*3;
+
+		// location the residual was last computed at
+		float prevX = x, prevY = y;
+		try {
+			for (int iter = 0; iter < config.maxIterations; iter++) {
+				prevX = x;
+				prevY = y;
+				computeE(offset, x, y);
+
+				// solve for D
+				float dx = (Gyy * Ex - Gxy * Ey) / det;
+				float dy = (Gxx * Ey - Gxy * Ex) / det;
+
+				x += dx;
+				y += dy;
+
+				// see if it moved outside of the image
+				if (!isFullyInside(x, y))
+					return KltTrackFault.OUT_OF_BOUNDS;
+
+				// see if it has moved more than possible if it is really tracking a target
+				// this happens in regions with little texture
+				if (Math.abs(x - origX) > widthFeature
+						|| Math.abs(y - origY) > widthFeature)
+					return KltTrackFault.DRIFTED;
+
+				// see if it has converged to a solution
+				if (Math.abs(dx) < config.minPositionDelta && Math.abs(dy) < config.minPositionDelta) {
+					break;
+				}
+			}
+		} finally {
+			this.x[index] = x;
+			this.y[index] = y;
+		}
+
+		if (computeError(offset, prevX, prevY) > config.maxPerPixelError)
+			return KltTrackFault.LARGE_ERROR;
+
+		return KltTrackFault.SUCCESS;
+	}
+
+	/**
+	 * Computes the average absolute difference between the template and the region at the specified location
+	 */
+	private float computeError(int offset, float x, float y) {
+		region(image, x - radius, y - radius, current, 0, 1);
+
+		long error = 0;
+		for (int i = 0; i < lengthFeature; i++, offset += 3) {
+			// compute the difference between the previous and the current image
+			error += Math.abs(template[offset] - current[i]);
+		}
+		return error * INV_ONE / lengthFeature;
+	}
+
+	private void computeE(int offset, float x, float y) {
+		float tl_x = x - radius;
+		float tl_y = y - radius;
+		int xt = (int) tl_x;
+		int yt = (int) tl_y;
+
+		final int template[] = this.template;
+		long Ex = 0, Ey = 0;
+
+		// handle the rare situation where the region touches the image border
+		if (xt + widthFeature >= image.width || yt + widthFeature >= image.height) {
+			region(image, tl_x, tl_y, current, 0, 1);
+			for (int i = 0; i < lengthFeature; i++, offset += 3) {
+				// compute the difference between the previous and the current image
+				int d = template[offset] - current[i];
+
+				// can overflow an int with large derivatives
+				Ex += (long)d * template[offset+1];
+				Ey += (long)d * template[offset+2];
+			}
+		} else {
+			int ax = (int)((tl_x - xt)*ONE + 0.5f);
+			int ay = (int)((tl_y - yt)*ONE + 0.5f);
+			int bx = ONE - ax;
+			int by = ONE - ay;
+
+			final byte data[] = image.data;
+			final int stride = image.stride;
+
+			// interpolate the current image and compute the residual in a single pass
+			for (int i = 0; i < widthFeature; i++) {
+				int index = image.startIndex + (yt + i) * stride + xt;
+				int indexEnd = index + widthFeature;
+
+				int left = by * (data[index] & 0xFF) + ay * (data[index + stride] & 0xFF);
+				for (; index < indexEnd; index++, offset += 3) {
+					int right = by * (data[index + 1] & 0xFF) + ay * (data[index + stride + 1] & 0xFF);
+					int value = (bx * left + ax * right + ONE/2) >> FRACTION_BITS;
+					left = right;
+
+					// compute the difference between the previous and the current image
+					int d = template[offset] - value;
+
+					// can overflow an int with large derivatives
+					Ex += (long)d * template[offset+1];
+					Ey += (long)d * template[offset+2];
+				}
+			}
+		}
+		this.Ex = Ex * INV_ONE;
+		this.Ey = Ey * INV_ONE;
+	}
+
+	/**
+	 * Bilinear interpolation of a square region using integer weights.  Output has {@link #FRACTION_BITS}
+	 * fractional bits.
+	 *
+	 * @param step Number of elements between pixels in the output array
+	 */
+	protected void region(ImageUInt8 img, float tl_x, float tl_y, int output[], int offset, int step) {
+		int xt = (int) tl_x;
+		int yt = (int) tl_y;
+		int ax = (int)((tl_x - xt)*ONE + 0.5f);
+		int ay = (int)((tl_y - yt)*ONE + 0.5f);
+		int bx = ONE - ax;
+		int by = ONE - ay;
+
+		final byte data[] = img.data;
+		final int stride = img.stride;
+
+		// handle the rare situation where the region touches the image border
+		if (xt + widthFeature >= img.width || yt + widthFeature >= img.height) {
+			for (int i = 0; i < widthFeature; i++) {
+				int y0 = yt + i, y1 = Math.min(y0 + 1, img.height - 1);
+				for (int j = 0; j < widthFeature; j++, offset += step) {
+					int x0 = xt + j, x1 = Math.min(x0 + 1, img.width - 1);
+					int left = by * img.get(x0, y0) + ay * img.get(x0, y1);
+					int right = by * img.get(x1, y0) + ay * img.get(x1, y1);
+					output[offset] = (bx * left + ax * right + ONE/2) >> FRACTION_BITS;
+				}
+			}
+			return;
+		}
+
+		for (int i = 0; i < widthFeature; i++) {
+			int index = img.startIndex + (yt + i) * stride + xt;
+			int indexEnd = index + widthFeature;
+
+			// interpolate along the y-axis first so that each column only needs to be computed once
+			int left = by * (data[index] & 0xFF) + ay * (data[index + stride] & 0xFF);
+			for (; index < indexEnd; index++, offset += step) {
+				int right = by * (data[index + 1] & 0xFF) + ay * (data[index + stride + 1] & 0xFF);
+				output[offset] = (bx * left + ax * right + ONE/2) >> FRACTION_BITS;
+				left = right;
+			}
+		}
+	}
+
+	/**
+	 * Bilinear interpolation of a square region using integer weights.  Output is rounded to the
+	 * nearest integer.
+	 *
+	 * @param step Number of elements between pixels in the output array
+	 */
+	protected void region(ImageSInt16 img, float tl_x, float tl_y, int output[], int offset, int step) {
+		int xt = (int) tl_x;
+		int yt = (int) tl_y;
+		int ax = (int)((tl_x - xt)*ONE_D + 0.5f);
+		int ay = (int)((tl_y - yt)*ONE_D + 0.5f);
+		int bx = ONE_D - ax;
+		int by = ONE_D - ay;
+
+		final short data[] = img.data;
+		final int stride = img.stride;
+		final int round = 1 << (2*DERIV_BITS-1);
+
+		// handle the rare situation where the region touches the image border
+		if (xt + widthFeature >= img.width || yt + widthFeature >= img.height) {
+			for (int i = 0; i < widthFeature; i++) {
+				int y0 = yt + i, y1 = Math.min(y0 + 1, img.height - 1);
+				for (int j = 0; j < widthFeature; j++, offset += step) {
+					int x0 = xt + j, x1 = Math.min(x0 + 1, img.width - 1);
+					int left = by * img.get(x0, y0) + ay * img.get(x0, y1);
+					int right = by * img.get(x1, y0) + ay * img.get(x1, y1);
+					output[offset] = (bx * left + ax * right + round) >> 2*DERIV_BITS;
+				}
+			}
+			return;
+		}
+
+		for (int i = 0; i < widthFeature; i++) {
+			int index = img.startIndex + (yt + i) * stride + xt;
+			int indexEnd = index + widthFeature;
+
+			int left = by * data[index] + ay * data[index + stride];
+			for (; index < indexEnd; index++, offset += step) {
+				int right = by * data[index + 1] + ay * data[index + stride + 1];
+				output[offset] = (bx * left + ax * right + round) >> 2*DERIV_BITS;
+				left = right;
+			}
+		}
+	}
+
+	/**
+	 * Returns true if the features is entirely enclosed inside of the image.
+	 */
+	public boolean isFullyInside(float x, float y) {
+		if (x < allowedLeft || x >= allowedRight)
+			return false;
+		if (y < allowedTop || y >= allowedBottom)
+			return false;
+
+		return true;
+	}
+
+	public float getX(int index) {
+		return x[index];
+	}
+
+	public float getY(int index) {
+		return y[index];
+	}
+
+	public int getRadius() {
+		return radius;
+	}
+
+	public int getMaxFeatures() {
+		return maxFeatures;
+	}
+
+	public KltConfig getConfig() {
+		return config;
+	}
+}
@@ -65,22 +65,27 @@ public class PkltManager<I extends ImageSingleBand, D extends ImageSingleBand> {
 	 * @param config Configuration for the tracker/manager.
 	 */
 	public PkltManager(PkltManagerConfig<I, D> config) {
-		GeneralFeatureDetector<I, D> detector =
-				FactoryDetectPoint.createShiTomasi(config.featureRadius,
-						false, config.config.minDeterminant, config.maxFeatures, config.typeDeriv);
-
-		GenericPkltFeatSelector<I, D> featureSelector =
-				new GenericPkltFeatSelector<I, D>(detector, null);
-
 		configure(config,
 				FactoryInterpolation.<I>bilinearRectangle(config.typeInput),
 				FactoryInterpolation.<D>bilinearRectangle(config.typeDeriv),
-				featureSelector);
+				createDefaultSelector(config));
 	}
 
 	public PkltManager() {
 	}
 
+	/**
+	 * Creates the feature selector used by default, which uses a Shi-Tomasi corner detector.
+	 */
+	protected static <I extends ImageSingleBand, D extends ImageSingleBand>
+	GenericPkltFeatSelector<I, D> createDefaultSelector(PkltManagerConfig<I, D> config) {
+		GeneralFeatureDetector<I, D> detector =
+				FactoryDetectPoint.createShiTomasi(config.featureRadius,
+						false, config.config.minDeterminant, config.maxFeatures, config.typeDeriv);
+
+		return new GenericPkltFeatSelector<I, D>(detector, null);
+	}
+
 	public void configure(PkltManagerConfig<I, D> config,
 						  InterpolateRectangle<I> interpInput,
 						  InterpolateRectangle<D> interpDeriv,
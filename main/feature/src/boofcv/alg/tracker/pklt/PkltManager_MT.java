@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.tracker.pklt;
+
+import boofcv.alg.interpolate.InterpolateRectangle;
+import boofcv.alg.tracker.klt.KltTrackFault;
+import boofcv.alg.tracker.klt.KltTracker;
+import boofcv.factory.interpolate.FactoryInterpolation;
+import boofcv.misc.BoofConcurrency;
+import boofcv.misc.IntRangeTask;
+import boofcv.struct.image.ImageSingleBand;
+import boofcv.struct.pyramid.ImagePyramid;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * <p>
+ * Concurrent implementation of {@link PkltManager}.  Each track is independent of all the others given the
+ * image pyramids, so active tracks are split into contiguous blocks which are tracked in parallel.  Each worker
+ * has its own {@link PyramidKltTracker}, {@link KltTracker} and interpolation algorithms since they contain
+ * internal work space.  See {@link BoofConcurrency}.
+ * </p>
+ *
+ * <p>
+ * Once all the tracks have been updated the active, dropped, and unused lists are updated in the calling thread
+ * in the same order as {@link PkltManager}, so the results are identical to the single threaded implementation.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+@SuppressWarnings({"unchecked"})
+public class PkltManager_MT<I extends ImageSingleBand, D extends ImageSingleBand> extends PkltManager<I,D> {
+
+	// all the trackers.  The first one is the tracker used by the parent class
+	protected List<PyramidKltTracker<I, D>> trackers = new ArrayList<PyramidKltTracker<I, D>>();
+	// trackers which are not currently being used
+	private final List<PyramidKltTracker<I, D>> available = new ArrayList<PyramidKltTracker<I, D>>();
+
+	// tracking result for each active feature
+	private KltTrackFault results[] = new KltTrackFault[0];
+
+	/**
+	 * Creates a PkltManager_MT with a default interpolation and feature selector.  One tracker is
+	 * created for each thread, see {@link BoofConcurrency#getMaxThreads()}.
+	 *
+	 * @param config Configuration for the tracker/manager.
+	 */
+	public PkltManager_MT(PkltManagerConfig<I, D> config) {
+		this(config, createDefaultSelector(config));
+	}
+
+	/**
+	 * Creates a PkltManager_MT with a default interpolation and the specified feature selector.  One tracker is
+	 * created for each thread, see {@link BoofConcurrency#getMaxThreads()}.
+	 *
+	 * @param config Configuration for the tracker/manager.
+	 * @param featureSelector Selects new features.
+	 */
+	public PkltManager_MT(PkltManagerConfig<I, D> config, GenericPkltFeatSelector<I, D> featureSelector) {
+		int numWorkers = BoofConcurrency.getMaxThreads();
+		InterpolateRectangle<I> interpInput[] = new InterpolateRectangle[numWorkers];
+		InterpolateRectangle<D> interpDeriv[] = new InterpolateRectangle[numWorkers];
+		for( int i = 0; i < numWorkers; i++ ) {
+			interpInput[i] = FactoryInterpolation.<I>bilinearRectangle(config.typeInput);
+			interpDeriv[i] = FactoryInterpolation.<D>bilinearRectangle(config.typeDeriv);
+		}
+
+		configure(config, interpInput, interpDeriv, featureSelector);
+	}
+
+	public PkltManager_MT() {
+	}
+
+	/**
+	 * Configures the manager with one tracker for each pair of interpolation algorithms.  Each pair must
+	 * be a different instance.
+	 *
+	 * @param config Configuration for the tracker/manager.
+	 * @param interpInput Interpolation for the input image used by each worker.
+	 * @param interpDeriv Interpolation for the image derivative used by each worker.
+	 * @param featureSelector Selects new features.
+	 */
+	public void configure(PkltManagerConfig<I, D> config,
+						  InterpolateRectangle<I> interpInput[],
+						  InterpolateRectangle<D> interpDeriv[],
+						  GenericPkltFeatSelector<I, D> featureSelector) {
+		if( interpInput.length == 0 || interpInput.length != interpDeriv.length )
+			throw new IllegalArgumentException("Must have the same number of input and derivative interpolations");
+
+		configure(config, interpInput[0], interpDeriv[0], featureSelector);
+
+		for( int i = 1; i < interpInput.length; i++ ) {
+			KltTracker<I, D> klt = new KltTracker<I, D>(interpInput[i], interpDeriv[i], config.config);
+			PyramidKltTracker<I, D> t = new PyramidKltTracker<I, D>(klt);
+			trackers.add(t);
+			available.add(t);
+		}
+	}
+
+	/**
+	 * Configures the manager with a single tracker.  Tracking will only be performed in one thread.
+	 */
+	@Override
+	public void configure(PkltManagerConfig<I, D> config,
+						  InterpolateRectangle<I> interpInput,
+						  InterpolateRectangle<D> interpDeriv,
+						  GenericPkltFeatSelector<I, D> featureSelector) {
+		super.configure(config, interpInput, interpDeriv, featureSelector);
+
+		trackers.clear();
+		available.clear();
+		trackers.add(tracker);
+		available.add(tracker);
+	}
+
+	@Override
+	public void processFrame(ImagePyramid<I> image,
+							 ImagePyramid<D> derivX,
+							 ImagePyramid<D> derivY) {
+
+		spawned.clear();
+		dropped.clear();
+		for( int i = 0; i < trackers.size(); i++ ) {
+			trackers.get(i).setImage(image, derivX, derivY);
+		}
+
+		final int N = active.size();
+		if( results.length < N )
+			results = new KltTrackFault[N];
+
+		IntRangeTask task = new IntRangeTask() {
+			@Override
+			public void process(int index0, int index1) {
+				PyramidKltTracker<I, D> t = acquire();
+				try {
+					for( int i = index0; i < index1; i++ ) {
+						PyramidKltFeature f = active.get(i);
+						KltTrackFault result = results[i] = t.track(f);
+						if( result == KltTrackFault.SUCCESS )
+							t.setDescription(f);
+					}
+				} finally {
+					release(t);
+				}
+			}
+		};
+
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			// make sure there are no more blocks than trackers
+			int numWorkers = trackers.size();
+			BoofConcurrency.loopBlocks(0, N, (N + numWorkers - 1)/numWorkers, task);
+		} else {
+			task.process(0, N);
+		}
+
+		// update the lists in the same order as the single threaded implementation
+		for (int i = N - 1; i >= 0; i--) {
+			if( results[i] != KltTrackFault.SUCCESS ) {
+				PyramidKltFeature f = active.remove(i);
+				unused.add(f);
+				dropped.add(f);
+			}
+			results[i] = null;
+		}
+	}
+
+	private PyramidKltTracker<I, D> acquire() {
+		synchronized ( available ) {
+			return available.remove(available.size()-1);
+		}
+	}
+
+	private void release( PyramidKltTracker<I, D> t ) {
+		synchronized ( available ) {
+			available.add(t);
+		}
+	}
+
+	/**
+	 * Number of trackers which can be used in parallel
+	 */
+	public int getNumWorkers() {
+		return trackers.size();
+	}
+}
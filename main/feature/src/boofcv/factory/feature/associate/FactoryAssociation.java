@@ -20,6 +20,9 @@ package boofcv.factory.feature.associate;
 
 import boofcv.abst.feature.associate.*;
 import boofcv.alg.feature.associate.AssociateGreedy;
+import boofcv.alg.feature.associate.AssociateNearestNeighbor;
+import boofcv.alg.feature.associate.KdForestSearch_F64;
+import boofcv.alg.feature.associate.MultiIndexHashSearch_B;
 import boofcv.struct.feature.*;
 
 
@@ -55,6 +58,76 @@ public class FactoryAssociation {
 		return ret;
 	}
 
+	/**
+	 * <p>
+	 * Returns an algorithm for associating {@link TupleDesc_F64} features which uses approximate nearest-neighbor
+	 * search with a forest of randomized kd-trees.  Much faster than {@link #greedy} when there are a large number
+	 * of features, but the best match is not always found.  The fit score is the Euclidean distance squared.
+	 * See {@link AssociateNearestNeighbor} and
+	 * {@link KdForestSearch_F64} for details.
+	 * </p>
+	 *
+	 * @param numTrees Number of randomized kd-trees.  Try 4.
+	 * @param maxChecks Maximum number of features compared against when searching for a match.  Try 200.
+	 *                  Set to Integer.MAX_VALUE for an exact search.
+	 * @param maxError Maximum allowed Euclidean distance squared between two features.  To disable set to
+	 *                 Double.MAX_VALUE
+	 * @param maxMatches Maximum number of matches returned.  If more than this are found then only the ones with the
+	 *                  best fit score are returned.  To disable set to a value <= 0.
+	 * @param backwardsValidation If true associations are validated by associating in the reverse direction.
+	 * @param randSeed Random seed used to build the trees.
+	 * @return Association algorithm
+	 */
+	public static GeneralAssociation<TupleDesc_F64>
+	kdForest( int numTrees , int maxChecks ,
+			  double maxError ,
+			  int maxMatches ,
+			  boolean backwardsValidation ,
+			  long randSeed )
+	{
+		KdForestSearch_F64 searchDst = new KdForestSearch_F64(numTrees,maxChecks,randSeed);
+		KdForestSearch_F64 searchSrc = null;
+		if( backwardsValidation )
+			searchSrc = new KdForestSearch_F64(numTrees,maxChecks,randSeed+1);
+
+		AssociateNearestNeighbor<TupleDesc_F64> alg =
+				new AssociateNearestNeighbor<TupleDesc_F64>(searchDst,searchSrc,maxError,backwardsValidation);
+		return new WrapAssociateGreedy<TupleDesc_F64>(alg,maxMatches);
+	}
+
+	/**
+	 * <p>
+	 * Returns an algorithm for associating binary {@link TupleDesc_B} features which finds candidate matches using
+	 * multi-index hashing.  Much faster than {@link #greedy} when there are a large number of features.
+	 * The fit score is the Hamming distance.  See {@link AssociateNearestNeighbor} and
+	 * {@link MultiIndexHashSearch_B} for details.
+	 * </p>
+	 *
+	 * @param numTables Number of hash tables, each one is built from a 16-bit substring of the descriptor.
+	 *                  Set to a value <= 0 to use all the substrings.
+	 * @param maxSubRadius Maximum number of bits a substring can differ by. Try 2.  Set to 16 for an exact search.
+	 * @param maxError Maximum allowed Hamming distance between two features.  To disable set to Double.MAX_VALUE
+	 * @param maxMatches Maximum number of matches returned.  If more than this are found then only the ones with the
+	 *                  best fit score are returned.  To disable set to a value <= 0.
+	 * @param backwardsValidation If true associations are validated by associating in the reverse direction.
+	 * @return Association algorithm
+	 */
+	public static GeneralAssociation<TupleDesc_B>
+	multiIndexHash( int numTables , int maxSubRadius ,
+					double maxError ,
+					int maxMatches ,
+					boolean backwardsValidation )
+	{
+		MultiIndexHashSearch_B searchDst = new MultiIndexHashSearch_B(numTables,maxSubRadius);
+		MultiIndexHashSearch_B searchSrc = null;
+		if( backwardsValidation )
+			searchSrc = new MultiIndexHashSearch_B(numTables,maxSubRadius);
+
+		AssociateNearestNeighbor<TupleDesc_B> alg =
+				new AssociateNearestNeighbor<TupleDesc_B>(searchDst,searchSrc,maxError,backwardsValidation);
+		return new WrapAssociateGreedy<TupleDesc_B>(alg,maxMatches);
+	}
+
 	/**
 	 * Given a feature descriptor type it returns a "reasonable" default {@link ScoreAssociation}.
 	 *
@@ -31,6 +31,7 @@ import boofcv.alg.transform.ii.GIntegralImageOps;
 import boofcv.factory.feature.orientation.FactoryOrientationAlgs;
 import boofcv.factory.filter.blur.FactoryBlurFilter;
 import boofcv.factory.filter.derivative.FactoryDerivative;
+import boofcv.misc.BoofConcurrency;
 import boofcv.struct.feature.*;
 import boofcv.struct.image.ImageSingleBand;
 
@@ -99,6 +100,52 @@ public class FactoryDescribeRegionPoint {
 		return new WrapDescribeSurf<T,II>( alg ,orientation);
 	}
 
+	/**
+	 * <p>
+	 * Same as {@link #surf(boolean, Class)} and {@link #surfm(boolean, Class)} but can describe a batch of points
+	 * in one call.  If {@link BoofConcurrency#USE_CONCURRENT} is true then points are described in parallel by
+	 * {@link BoofConcurrency#getMaxThreads()} workers which share the integral image.
+	 * </p>
+	 *
+	 * @see WrapDescribeSurfBatch_MT
+	 *
+	 * @param isOriented True for orientation invariant.
+	 * @param modified If true the modified SURF descriptor, see {@link #surfm(boolean, Class)}, is used.
+	 * @param imageType Type of input image.
+	 * @return SURF description extractor
+	 */
+	@SuppressWarnings({"unchecked"})
+	public static <T extends ImageSingleBand, II extends ImageSingleBand>
+	DescribeRegionPointBatch<T,SurfFeature> surfBatch( boolean isOriented , boolean modified , Class<T> imageType ) {
+		if( !BoofConcurrency.USE_CONCURRENT ) {
+			DescribeRegionPoint<T,SurfFeature> alg = modified ?
+					FactoryDescribeRegionPoint.<T,II>surfm(isOriented, imageType) :
+					FactoryDescribeRegionPoint.<T,II>surf(isOriented, imageType);
+			return new WrapDescribeBatch<T,SurfFeature>(alg);
+		}
+
+		Class<II> integralType = GIntegralImageOps.getIntegralType(imageType);
+
+		int numWorkers = BoofConcurrency.getMaxThreads();
+		DescribePointSurf<II> surf[] = new DescribePointSurf[numWorkers];
+		OrientationIntegral<II> orientation[] = isOriented ? new OrientationIntegral[numWorkers] : null;
+
+		// configuration must be the same as in surf() and surfm()
+		for( int i = 0; i < numWorkers; i++ ) {
+			if( modified ) {
+				surf[i] = FactoryDescribePointAlgs.<II>msurf(integralType);
+				if( isOriented )
+					orientation[i] = FactoryOrientationAlgs.sliding_ii(0.65, Math.PI/3.0,8,-1, 6, integralType);
+			} else {
+				surf[i] = FactoryDescribePointAlgs.<II>surf(integralType);
+				if( isOriented )
+					orientation[i] = FactoryOrientationAlgs.average_ii(6, 1 , 6, -1, integralType);
+			}
+		}
+
+		return new WrapDescribeSurfBatch_MT<T,II>(surf,orientation);
+	}
+
 	/**
 	 * Steerable Gaussian descriptor normalized by 1st order gradient.
 	 *
@@ -18,10 +18,10 @@
 
 package boofcv.factory.feature.detect.template;
 
-import boofcv.alg.feature.detect.template.TemplateDiffSquared;
+import boofcv.alg.feature.detect.template.TemplateDiffSquaredIntegral;
 import boofcv.alg.feature.detect.template.TemplateMatching;
 import boofcv.alg.feature.detect.template.TemplateMatchingIntensity;
-import boofcv.alg.feature.detect.template.TemplateNCC;
+import boofcv.alg.feature.detect.template.TemplateNCCIntegral;
 import boofcv.struct.image.ImageFloat32;
 import boofcv.struct.image.ImageSingleBand;
 import boofcv.struct.image.ImageUInt8;
@@ -37,6 +37,7 @@ public class FactoryTemplateMatching {
 	/**
 	 * Creates {@link TemplateMatchingIntensity} of the specified type.  Likely
 	 * matches can be extracted using {@link boofcv.abst.feature.detect.extract.FeatureExtractor}.
+	 * Window statistics are computed using integral images, see {@link boofcv.alg.feature.detect.template.BaseTemplateIntegral}.
 	 *
 	 * @param type      Type of error function
 	 * @param imageType Image type being processed
@@ -46,19 +47,15 @@ public class FactoryTemplateMatching {
 	TemplateMatchingIntensity<T> createIntensity(TemplateScoreType type, Class<T> imageType) {
 		switch (type) {
 			case SUM_DIFF_SQ:
-				if (imageType == ImageUInt8.class) {
-					return (TemplateMatchingIntensity<T>) new TemplateDiffSquared.U8();
-				} else if (imageType == ImageFloat32.class) {
-					return (TemplateMatchingIntensity<T>) new TemplateDiffSquared.F32();
+				if (imageType == ImageUInt8.class || imageType == ImageFloat32.class) {
+					return new TemplateDiffSquaredIntegral<T>();
 				} else {
 					throw new IllegalArgumentException("Image type not supported. " + imageType.getSimpleName());
 				}
 
 			case NCC:
-				if (imageType == ImageUInt8.class) {
-					return (TemplateMatchingIntensity<T>) new TemplateNCC.U8();
-				} else if (imageType == ImageFloat32.class) {
-					return (TemplateMatchingIntensity<T>) new TemplateNCC.F32();
+				if (imageType == ImageUInt8.class || imageType == ImageFloat32.class) {
+					return new TemplateNCCIntegral<T>();
 				} else {
 					throw new IllegalArgumentException("Image type not supported. " + imageType.getSimpleName());
 				}
@@ -30,6 +30,7 @@ public enum TemplateScoreType {
 	 * <p>error = Sum<sub>(o,u)</sub> [ I(x,y) - T(x-o,y-u) ]^2 </p>
 	 *
 	 * @see boofcv.alg.feature.detect.template.TemplateDiffSquared
+	 * @see boofcv.alg.feature.detect.template.TemplateDiffSquaredIntegral
 	 */
 	SUM_DIFF_SQ,
 	/**
@@ -39,6 +40,7 @@ public enum TemplateScoreType {
 	 * </p>
 	 *
 	 * @see boofcv.alg.feature.detect.template.TemplateNCC
+	 * @see boofcv.alg.feature.detect.template.TemplateNCCIntegral
 	 */
 	NCC
 }
@@ -35,5 +35,14 @@ public enum DisparityAlgorithms {
 	 *
 	 * @see boofcv.alg.feature.disparity.DisparityScoreWindowFive
 	 */
-	RECT_FIVE
+	RECT_FIVE,
+	/**
+	 * Rectangular region where the score is the hamming distance between census transformed images.  A 5x5
+	 * census transform is used.  Robust to differences in gain and bias between the two images.
+	 * Only {@link boofcv.struct.image.ImageUInt8} images are supported and the per pixel error is the number of
+	 * bits which differ, with a maximum of 24.
+	 *
+	 * @see boofcv.alg.feature.disparity.impl.ImplDisparityScoreCensusRect_U8
+	 */
+	RECT_CENSUS
 }
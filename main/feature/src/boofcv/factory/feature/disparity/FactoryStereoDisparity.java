@@ -24,8 +24,11 @@ import boofcv.abst.feature.disparity.WrapDisparitySadRect;
 import boofcv.abst.feature.disparity.WrapDisparitySparseSadRect;
 import boofcv.alg.feature.disparity.DisparityScoreRowFormat;
 import boofcv.alg.feature.disparity.DisparitySelect;
+import boofcv.alg.feature.disparity.DisparitySgm;
 import boofcv.alg.feature.disparity.DisparitySparseScoreSadRect;
 import boofcv.alg.feature.disparity.DisparitySparseSelect;
+import boofcv.alg.feature.disparity.SgmCostVolume;
+import boofcv.alg.feature.disparity.impl.ImplDisparityScoreSadRect_U8;
 import boofcv.struct.image.ImageFloat32;
 import boofcv.struct.image.ImageSingleBand;
 import boofcv.struct.image.ImageUInt8;
@@ -57,7 +60,9 @@ public class FactoryStereoDisparity {
 	 * </p>
 	 *
 	 * <p>
-	 * NOTE: For RECT_FIVE the size of the sub-regions it uses is what is specified.
+	 * NOTE: For RECT_FIVE the size of the sub-regions it uses is what is specified.  For RECT_CENSUS the
+	 * per pixel error is the number of bits which differ in the census transform and only
+	 * {@link ImageUInt8} is supported.
 	 * </p>
 	 *
 	 * @param minDisparity Minimum disparity that it will check. Must be >= 0 and < maxDisparity
@@ -118,6 +123,13 @@ public class FactoryStereoDisparity {
 				}
 				break;
 
+			case RECT_CENSUS:
+				if( imageType == ImageUInt8.class ) {
+					alg = FactoryStereoDisparityAlgs.scoreDisparityCensusRect_U8(minDisparity,
+							maxDisparity,regionRadiusX,regionRadiusY,2,select);
+				}
+				break;
+
 			default:
 				throw new IllegalArgumentException("Unknown algorithms "+whichAlg);
 
@@ -134,7 +146,9 @@ public class FactoryStereoDisparity {
 	 * </p>
 	 *
 	 * <p>
-	 * NOTE: For RECT_FIVE the size of the sub-regions it uses is what is specified.
+	 * NOTE: For RECT_FIVE the size of the sub-regions it uses is what is specified.  For RECT_CENSUS the
+	 * per pixel error is the number of bits which differ in the census transform and only
+	 * {@link ImageUInt8} is supported.
 	 * </p>
 	 *
 	 * @param minDisparity Minimum disparity that it will check. Must be >= 0 and < maxDisparity
@@ -195,6 +209,13 @@ public class FactoryStereoDisparity {
 				}
 				break;
 
+			case RECT_CENSUS:
+				if( imageType == ImageUInt8.class ) {
+					alg = FactoryStereoDisparityAlgs.scoreDisparityCensusRect_U8(minDisparity,
+							maxDisparity,regionRadiusX,regionRadiusY,2,select);
+				}
+				break;
+
 			default:
 				throw new IllegalArgumentException("Unknown algorithms "+whichAlg);
 
@@ -205,6 +226,54 @@ public class FactoryStereoDisparity {
 		return new WrapDisparitySadRect<T,ImageFloat32>(alg);
 	}
 
+	/**
+	 * <p>
+	 * Creates a dense disparity algorithm which uses Semi-Global Matching (SGM).  The matching cost is the SAD
+	 * error of a square region.  Changes in disparity are penalized along several paths, producing smoother
+	 * disparity images than WTA algorithms.  See {@link DisparitySgm} for details.
+	 * </p>
+	 *
+	 * <p>
+	 * Penalties are specified for a single pixel and are scaled by the number of pixels in the region.  Costs
+	 * saturate at {@link SgmCostVolume#MAX_COST}, so the scaled penalties are clamped to that value too.
+	 * </p>
+	 *
+	 * @param minDisparity Minimum disparity that it will check. Must be >= 0 and < maxDisparity
+	 * @param maxDisparity Maximum disparity that it will calculate. Must be > 0
+	 * @param regionRadius Radius of the square region used to compute the matching cost.  Try 1 or 2.
+	 * @param penaltySmall Penalty for a change in disparity of one. Try 3
+	 * @param penaltyLarge Penalty for a change in disparity of more than one. Try 30
+	 * @param validateRtoL Tolerance for how difference the left to right associated values can be.  Try 1.
+	 *                     Disable with a value < 0.
+	 * @param imageType Type of input image.  Only {@link ImageUInt8} is supported.
+	 * @return SGM disparity algorithm.
+	 */
+	@SuppressWarnings({"unchecked"})
+	public static <T extends ImageSingleBand> StereoDisparity<T,ImageUInt8>
+	sgm( int minDisparity , int maxDisparity,
+		 int regionRadius ,
+		 int penaltySmall , int penaltyLarge ,
+		 int validateRtoL ,
+		 Class<T> imageType ) {
+
+		if( imageType != ImageUInt8.class )
+			throw new IllegalArgumentException("Image type not supported: "+imageType.getSimpleName() );
+
+		int area = (regionRadius*2+1)*(regionRadius*2+1);
+		int P2 = Math.min(penaltyLarge*area, SgmCostVolume.MAX_COST);
+		int P1 = Math.min(penaltySmall*area, P2);
+
+		SgmCostVolume costs = new SgmCostVolume();
+		// the cost volume can't be split into bands, so always use the single threaded score
+		DisparityScoreRowFormat<ImageUInt8,ImageUInt8> score = new ImplDisparityScoreSadRect_U8<ImageUInt8>(
+				minDisparity, maxDisparity, regionRadius, regionRadius, costs);
+
+		DisparitySgm<ImageUInt8> alg = new DisparitySgm<ImageUInt8>(score,costs,P1,P2,validateRtoL);
+
+		// T is ImageUInt8, which was checked above
+		return (StereoDisparity<T,ImageUInt8>)new WrapDisparitySadRect<ImageUInt8,ImageUInt8>(alg);
+	}
+
 	public static <T extends ImageSingleBand> StereoDisparitySparse<T>
 	regionSparseWta( int minDisparity , int maxDisparity,
 					 int regionRadiusX, int regionRadiusY ,
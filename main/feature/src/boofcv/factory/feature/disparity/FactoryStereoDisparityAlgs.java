@@ -20,6 +20,7 @@ package boofcv.factory.feature.disparity;
 
 import boofcv.alg.feature.disparity.*;
 import boofcv.alg.feature.disparity.impl.*;
+import boofcv.misc.BoofConcurrency;
 import boofcv.struct.image.ImageFloat32;
 import boofcv.struct.image.ImageSingleBand;
 import boofcv.struct.image.ImageUInt8;
@@ -86,10 +87,22 @@ public class FactoryStereoDisparityAlgs {
 						   int regionRadiusX, int regionRadiusY,
 						   DisparitySelect<int[],T> computeDisparity)
 	{
+		if( BoofConcurrency.USE_CONCURRENT && computeDisparity instanceof DisparitySelectConcurrent )
+			return new ImplDisparityScoreSadRect_U8_MT<T>(minDisparity,
+					maxDisparity,regionRadiusX,regionRadiusY,computeDisparity);
 		return new ImplDisparityScoreSadRect_U8<T>(minDisparity,
 				maxDisparity,regionRadiusX,regionRadiusY,computeDisparity);
 	}
 
+	public static <T extends ImageSingleBand> DisparityScoreRowFormat<ImageUInt8,T>
+	scoreDisparityCensusRect_U8( int minDisparity , int maxDisparity,
+								 int regionRadiusX, int regionRadiusY, int censusRadius,
+								 DisparitySelect<int[],T> computeDisparity)
+	{
+		return new ImplDisparityScoreCensusRect_U8<T>(minDisparity,
+				maxDisparity,regionRadiusX,regionRadiusY,censusRadius,computeDisparity);
+	}
+
 	public static <T extends ImageSingleBand> DisparityScoreSadRect<ImageFloat32,T>
 	scoreDisparitySadRect_F32( int minDisparity , int maxDisparity,
 							  int regionRadiusX, int regionRadiusY,
@@ -19,8 +19,15 @@
 package boofcv.abst.feature.associate;
 
 import boofcv.alg.feature.associate.AssociateGreedy;
+import boofcv.alg.feature.associate.AssociateNearestNeighbor;
+import boofcv.alg.feature.associate.GreedyAssociation;
+import boofcv.alg.feature.associate.KdForestSearch_F64;
+import boofcv.alg.feature.associate.MultiIndexHashSearch_B;
 import boofcv.struct.FastQueue;
 import boofcv.struct.feature.AssociatedIndex;
+import boofcv.struct.feature.TupleDescQueue;
+import boofcv.struct.feature.TupleDesc_B;
+import boofcv.struct.feature.TupleDesc_F64;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
@@ -38,24 +45,32 @@ public class TestWrapAssociateGreedy {
 	@Test
 	public void basicTests() {
 		// test the cases where the number of matches is more than and less than the maximum
-		performBasicTest(50, 100);
-		performBasicTest(150, 100);
+		for( int numFeatures : new int[]{50,150} ) {
+			AssociateGreedy<Double> greedy = new AssociateGreedy<Double>(new DoubleScore(),5,false);
+			performBasicTest(greedy,createDouble(numFeatures),100,true);
+
+			KdForestSearch_F64 kdSearch = new KdForestSearch_F64(2,Integer.MAX_VALUE,234);
+			performBasicTest(new AssociateNearestNeighbor<TupleDesc_F64>(kdSearch,null,5,false),
+					createTuple(numFeatures),100,true);
+
+			// all the fit scores are the same so the order of the selected matches is arbitrary
+			MultiIndexHashSearch_B hashSearch = new MultiIndexHashSearch_B(-1,16);
+			performBasicTest(new AssociateNearestNeighbor<TupleDesc_B>(hashSearch,null,5,false),
+					createBinary(numFeatures),100,false);
+		}
 	}
 
-	private void performBasicTest(int numFeatures, int maxAssoc) {
-		AssociateGreedy<Double> greedy = new AssociateGreedy<Double>(new DoubleScore(),5,false);
-		WrapAssociateGreedy<Double> alg = new WrapAssociateGreedy<Double>(greedy,maxAssoc);
-
-		FastQueue<Double> listSrc = new FastQueue<Double>(numFeatures,Double.class,false);
-		FastQueue<Double> listDst = new FastQueue<Double>(numFeatures,Double.class,false);
-
-		for( int i = 0; i < numFeatures; i++ ) {
-			listSrc.add((double)i);
-			listDst.add((double)i+0.1+i*0.00001);
+	/**
+	 * @param lists src and dst list, where src[i] should be associated with dst[i]
+	 * @param checkOrder if true the best matches are expected to have the lowest indexes
+	 */
+	private <T> void performBasicTest( GreedyAssociation<T> greedy , FastQueue<T>[] lists ,
+									   int maxAssoc , boolean checkOrder ) {
+		WrapAssociateGreedy<T> alg = new WrapAssociateGreedy<T>(greedy,maxAssoc);
 
-		}
+		int numFeatures = lists[0].size;
 
-		alg.associate(listSrc,listDst);
+		alg.associate(lists[0],lists[1]);
 
 		FastQueue<AssociatedIndex> matches = alg.getMatches();
 
@@ -66,11 +81,53 @@ public class TestWrapAssociateGreedy {
 		for( int i = 0; i < matches.size(); i++ ) {
 			AssociatedIndex a = matches.get(i);
 			assertEquals(a.src,a.dst);
-			assertTrue(a.src==i);
+			if( checkOrder )
+				assertTrue(a.src==i);
 			assertTrue(a.fitScore != 0 );
 		}
 	}
 
+	private FastQueue<Double>[] createDouble( int numFeatures ) {
+		FastQueue<Double> listSrc = new FastQueue<Double>(numFeatures,Double.class,false);
+		FastQueue<Double> listDst = new FastQueue<Double>(numFeatures,Double.class,false);
+
+		for( int i = 0; i < numFeatures; i++ ) {
+			listSrc.add((double)i);
+			listDst.add((double)i+0.1+i*0.00001);
+		}
+
+		return new FastQueue[]{listSrc,listDst};
+	}
+
+	private FastQueue<TupleDesc_F64>[] createTuple( int numFeatures ) {
+		FastQueue<TupleDesc_F64> listSrc = new TupleDescQueue<TupleDesc_F64>(TupleDesc_F64.class,1,true);
+		FastQueue<TupleDesc_F64> listDst = new TupleDescQueue<TupleDesc_F64>(TupleDesc_F64.class,1,true);
+
+		for( int i = 0; i < numFeatures; i++ ) {
+			listSrc.pop().set(i);
+			listDst.pop().set(i+0.1+i*0.00001);
+		}
+
+		return new FastQueue[]{listSrc,listDst};
+	}
+
+	private FastQueue<TupleDesc_B>[] createBinary( int numFeatures ) {
+		FastQueue<TupleDesc_B> listSrc = new TupleDescQueue<TupleDesc_B>(TupleDesc_B.class,64,true);
+		FastQueue<TupleDesc_B> listDst = new TupleDescQueue<TupleDesc_B>(TupleDesc_B.class,64,true);
+
+		// each descriptor is unique and differs from its match by one bit
+		for( int i = 0; i < numFeatures; i++ ) {
+			TupleDesc_B s = listSrc.pop();
+			s.data[0] = i*0x01010101;
+			s.data[1] = i;
+			TupleDesc_B d = listDst.pop();
+			d.setTo(s);
+			d.data[1] ^= 1 << 31;
+		}
+
+		return new FastQueue[]{listSrc,listDst};
+	}
+
 	private class DoubleScore implements ScoreAssociation<Double> {
 
 		@Override
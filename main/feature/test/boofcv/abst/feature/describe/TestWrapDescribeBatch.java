@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.feature.describe;
+
+import boofcv.alg.misc.ImageTestingOps;
+import boofcv.factory.feature.describe.FactoryDescribeRegionPoint;
+import boofcv.struct.FastQueue;
+import boofcv.struct.feature.TupleDescQueue;
+import boofcv.struct.feature.TupleDesc_F64;
+import boofcv.struct.image.ImageFloat32;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestWrapDescribeBatch {
+
+	Random rand = new Random(234);
+	int width = 60;
+	int height = 70;
+
+	/**
+	 * Compares against the single point interface and sees if points outside the image are handled
+	 */
+	@Test
+	public void compareToSingle() {
+		ImageFloat32 image = new ImageFloat32(width,height);
+		ImageTestingOps.randomize(image, rand, 0, 100);
+
+		DescribeRegionPoint<ImageFloat32,TupleDesc_F64> orig =
+				FactoryDescribeRegionPoint.gaussian12(10, ImageFloat32.class, ImageFloat32.class);
+		WrapDescribeBatch<ImageFloat32,TupleDesc_F64> alg = new WrapDescribeBatch<ImageFloat32,TupleDesc_F64>(
+				FactoryDescribeRegionPoint.gaussian12(10, ImageFloat32.class, ImageFloat32.class));
+
+		int N = 40;
+		double x[] = new double[N];
+		double y[] = new double[N];
+		double yaw[] = new double[N];
+		for( int i = 0; i < N; i++ ) {
+			// some of the points will be along the image border
+			x[i] = rand.nextDouble()*width;
+			y[i] = rand.nextDouble()*height;
+			yaw[i] = (rand.nextDouble()-0.5)*Math.PI;
+		}
+
+		orig.setImage(image);
+		alg.setImage(image);
+
+		FastQueue<TupleDesc_F64> output =
+				new TupleDescQueue<TupleDesc_F64>(TupleDesc_F64.class,alg.getDescriptionLength(),true);
+		boolean inBounds[] = new boolean[N];
+		alg.process(N,x,y,yaw,null,output,inBounds);
+
+		assertEquals(N,output.size);
+		int numOut = 0;
+		for( int i = 0; i < N; i++ ) {
+			boolean expected = orig.isInBounds(x[i],y[i],yaw[i],1);
+			assertEquals(expected,inBounds[i]);
+			if( !expected ) {
+				numOut++;
+				continue;
+			}
+			TupleDesc_F64 e = orig.process(x[i],y[i],yaw[i],1,null);
+			TupleDesc_F64 f = output.get(i);
+			for( int j = 0; j < e.value.length; j++ )
+				assertEquals(e.value[j],f.value[j],1e-8);
+		}
+		// sanity check the test
+		assertEquals(true, numOut > 0 && numOut < N);
+	}
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.feature.describe;
+
+import boofcv.alg.feature.describe.DescribePointSurf;
+import boofcv.alg.feature.orientation.OrientationIntegral;
+import boofcv.alg.misc.ImageTestingOps;
+import boofcv.factory.feature.describe.FactoryDescribePointAlgs;
+import boofcv.factory.feature.orientation.FactoryOrientationAlgs;
+import boofcv.misc.BoofConcurrency;
+import boofcv.struct.FastQueue;
+import boofcv.struct.feature.SurfFeature;
+import boofcv.struct.feature.TupleDescQueue;
+import boofcv.struct.image.ImageFloat32;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestWrapDescribeSurfBatch_MT {
+
+	Random rand = new Random(234);
+	int width = 80;
+	int height = 90;
+
+	int N = 50;
+	double x[] = new double[N];
+	double y[] = new double[N];
+	double yaw[] = new double[N];
+	double scale[] = new double[N];
+
+	public TestWrapDescribeSurfBatch_MT() {
+		for( int i = 0; i < N; i++ ) {
+			x[i] = rand.nextDouble()*width;
+			y[i] = rand.nextDouble()*height;
+			yaw[i] = (rand.nextDouble()-0.5)*Math.PI;
+			scale[i] = rand.nextDouble()*3+0.8;
+		}
+	}
+
+	/**
+	 * Compare the batch results against describing each point one at a time
+	 */
+	@Test
+	public void compareToSingle() {
+		boolean before = BoofConcurrency.USE_CONCURRENT;
+		try {
+			for( int numWorkers = 1; numWorkers <= 4; numWorkers++ ) {
+				BoofConcurrency.USE_CONCURRENT = false;
+				compareToSingle(numWorkers, true);
+				compareToSingle(numWorkers, false);
+				BoofConcurrency.USE_CONCURRENT = true;
+				compareToSingle(numWorkers, true);
+				compareToSingle(numWorkers, false);
+			}
+		} finally {
+			BoofConcurrency.USE_CONCURRENT = before;
+		}
+	}
+
+	private void compareToSingle( int numWorkers , boolean oriented ) {
+		ImageFloat32 image = new ImageFloat32(width,height);
+		ImageTestingOps.randomize(image, rand, 0, 100);
+
+		DescribePointSurf<ImageFloat32> surf[] = new DescribePointSurf[numWorkers];
+		OrientationIntegral<ImageFloat32> orientation[] = oriented ? new OrientationIntegral[numWorkers] : null;
+		for( int i = 0; i < numWorkers; i++ ) {
+			surf[i] = FactoryDescribePointAlgs.surf(ImageFloat32.class);
+			if( oriented )
+				orientation[i] = FactoryOrientationAlgs.average_ii(6, 1, 6, -1, ImageFloat32.class);
+		}
+		WrapDescribeSurfBatch_MT<ImageFloat32,ImageFloat32> alg =
+				new WrapDescribeSurfBatch_MT<ImageFloat32,ImageFloat32>(surf,orientation);
+
+		WrapDescribeSurf<ImageFloat32,ImageFloat32> expected = new WrapDescribeSurf<ImageFloat32,ImageFloat32>(
+				FactoryDescribePointAlgs.surf(ImageFloat32.class),
+				oriented ? FactoryOrientationAlgs.average_ii(6, 1, 6, -1, ImageFloat32.class) : null);
+
+		assertEquals(!oriented,alg.requiresOrientation());
+
+		alg.setImage(image);
+		expected.setImage(image);
+
+		// add an element to make sure the output isn't reset
+		FastQueue<SurfFeature> output = new TupleDescQueue<SurfFeature>(SurfFeature.class,64,true);
+		output.pop();
+		boolean inBounds[] = new boolean[N];
+		alg.process(N, x, y, oriented ? null : yaw, scale, output, inBounds);
+
+		assertEquals(N+1,output.size);
+		for( int i = 0; i < N; i++ ) {
+			assertTrue(inBounds[i]);
+			SurfFeature e = expected.process(x[i],y[i],yaw[i],scale[i],null);
+			SurfFeature f = output.get(i+1);
+			assertEquals(e.laplacianPositive,f.laplacianPositive);
+			for( int j = 0; j < e.value.length; j++ )
+				assertEquals(e.value[j],f.value[j],1e-8);
+
+			// single point interface should produce the same results too
+			f = alg.process(x[i],y[i],yaw[i],scale[i],null);
+			for( int j = 0; j < e.value.length; j++ )
+				assertEquals(e.value[j],f.value[j],1e-8);
+		}
+	}
+
+	/**
+	 * Scale is optional.  If null then a scale of one should be used
+	 */
+	@Test
+	public void nullScale() {
+		boolean before = BoofConcurrency.USE_CONCURRENT;
+		try {
+			BoofConcurrency.USE_CONCURRENT = true;
+
+			ImageFloat32 image = new ImageFloat32(width,height);
+			ImageTestingOps.randomize(image, rand, 0, 100);
+
+			DescribePointSurf<ImageFloat32> surf[] = new DescribePointSurf[2];
+			for( int i = 0; i < surf.length; i++ )
+				surf[i] = FactoryDescribePointAlgs.surf(ImageFloat32.class);
+			WrapDescribeSurfBatch_MT<ImageFloat32,ImageFloat32> alg =
+					new WrapDescribeSurfBatch_MT<ImageFloat32,ImageFloat32>(surf,null);
+			alg.setImage(image);
+
+			FastQueue<SurfFeature> output = new TupleDescQueue<SurfFeature>(SurfFeature.class,64,true);
+			alg.process(N, x, y, yaw, null, output, null);
+
+			assertEquals(N,output.size);
+			for( int i = 0; i < N; i++ ) {
+				SurfFeature e = alg.process(x[i],y[i],yaw[i],1,null);
+				SurfFeature f = output.get(i);
+				for( int j = 0; j < e.value.length; j++ )
+					assertEquals(e.value[j],f.value[j],1e-8);
+			}
+		} finally {
+			BoofConcurrency.USE_CONCURRENT = before;
+		}
+	}
+}
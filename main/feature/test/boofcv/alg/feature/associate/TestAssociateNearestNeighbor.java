@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.associate;
+
+import boofcv.abst.feature.associate.ScoreAssociateEuclideanSq_F64;
+import boofcv.abst.feature.associate.ScoreAssociateHamming_B;
+import boofcv.struct.FastQueue;
+import boofcv.struct.feature.TupleDescQueue;
+import boofcv.struct.feature.TupleDesc_B;
+import boofcv.struct.feature.TupleDesc_F64;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * @author Peter Abeles
+ */
+public class TestAssociateNearestNeighbor {
+
+	Random rand = new Random(234);
+
+	int numBits = 64;
+
+	@Test
+	public void basic() {
+		FastQueue<TupleDesc_F64> a = createData(1,2,3,4);
+		FastQueue<TupleDesc_F64> b = createData(3,4,1,40);
+
+		AssociateNearestNeighbor<TupleDesc_F64> alg = createKdForest(0.5,false);
+
+		alg.associate(a,b);
+
+		int pairs[] = alg.getPairs();
+
+		assertEquals(2,pairs[0]);
+		assertEquals(-1,pairs[1]);
+		assertEquals(0,pairs[2]);
+		assertEquals(1,pairs[3]);
+
+		double fitScore[] = alg.getFitQuality();
+
+		assertEquals(0,fitScore[0],1e-5);
+		assertEquals(0,fitScore[2],1e-5);
+		assertEquals(0,fitScore[3],1e-5);
+	}
+
+	@Test
+	public void backwards() {
+		FastQueue<TupleDesc_F64> a = createData(1,2,3,8);
+		FastQueue<TupleDesc_F64> b = createData(3,4,1,10);
+
+		AssociateNearestNeighbor<TupleDesc_F64> alg = createKdForest(10,true);
+
+		alg.associate(a,b);
+
+		int pairs[] = alg.getPairs();
+
+		assertEquals(2,pairs[0]);
+		assertEquals(-1,pairs[1]);
+		assertEquals(0,pairs[2]);
+		assertEquals(3,pairs[3]);
+
+		double fitScore[] = alg.getFitQuality();
+
+		assertEquals(0,fitScore[0],1e-5);
+		assertEquals(0,fitScore[2],1e-5);
+		assertEquals(4,fitScore[3],1e-5);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void backwards_noSearch() {
+		new AssociateNearestNeighbor<TupleDesc_F64>(new KdForestSearch_F64(2,Integer.MAX_VALUE,234),null,10,true);
+	}
+
+	/**
+	 * With an exact search the results should be the same as the brute force greedy algorithm
+	 */
+	@Test
+	public void compareToGreedy_kdForest() {
+		FastQueue<TupleDesc_F64> a = createRandom(200,6);
+		FastQueue<TupleDesc_F64> b = createRandom(150,6);
+
+		for( int i = 0; i < 2; i++ ) {
+			boolean backwards = i == 1;
+			AssociateGreedy<TupleDesc_F64> greedy =
+					new AssociateGreedy<TupleDesc_F64>(new ScoreAssociateEuclideanSq_F64(),20,backwards);
+			AssociateNearestNeighbor<TupleDesc_F64> alg = createKdForest(20,backwards);
+
+			greedy.associate(a,b);
+			alg.associate(a,b);
+
+			for( int j = 0; j < a.size; j++ ) {
+				assertEquals(greedy.getPairs()[j],alg.getPairs()[j]);
+				if( greedy.getPairs()[j] >= 0 )
+					assertEquals(greedy.getFitQuality()[j],alg.getFitQuality()[j],1e-8);
+			}
+		}
+	}
+
+	/**
+	 * With an exact search the results should be the same as the brute force greedy algorithm.  Ties
+	 * can be broken differently so the scores are compared.
+	 */
+	@Test
+	public void compareToGreedy_hash() {
+		FastQueue<TupleDesc_B> a = createRandomBinary(200);
+		FastQueue<TupleDesc_B> b = createRandomBinary(150);
+
+		for( int i = 0; i < 2; i++ ) {
+			boolean backwards = i == 1;
+			AssociateGreedy<TupleDesc_B> greedy =
+					new AssociateGreedy<TupleDesc_B>(new ScoreAssociateHamming_B(),22,backwards);
+			AssociateNearestNeighbor<TupleDesc_B> alg = createHash(22,backwards);
+
+			greedy.associate(a,b);
+			alg.associate(a,b);
+
+			for( int j = 0; j < a.size; j++ ) {
+				int expected = greedy.getPairs()[j];
+				int found = alg.getPairs()[j];
+				if( !backwards ) {
+					assertEquals(expected >= 0, found >= 0);
+					if( found >= 0 )
+						assertEquals(greedy.getFitQuality()[j],alg.getFitQuality()[j],1e-8);
+				} else if( found >= 0 ) {
+					// ties can cause a different dst feature to be selected, but any validated association
+					// must be mutually the best
+					double score = alg.getFitQuality()[j];
+					for( int k = 0; k < a.size; k++ )
+						assertTrue(DescriptorDistance.hamming(a.get(k),b.get(found)) >= score);
+					for( int k = 0; k < b.size; k++ )
+						assertTrue(DescriptorDistance.hamming(a.get(j),b.get(k)) >= score);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Associates binary features which are noisy copies of each other
+	 */
+	@Test
+	public void noisyCopies_hash() {
+		FastQueue<TupleDesc_B> a = createRandomBinary(300);
+		FastQueue<TupleDesc_B> b = new TupleDescQueue<TupleDesc_B>(TupleDesc_B.class,numBits, true);
+		for( int i = 0; i < a.size; i++ ) {
+			TupleDesc_B t = b.pop();
+			t.setTo(a.get(i));
+			for( int j = 0; j < 4; j++ ) {
+				int bit = rand.nextInt(numBits);
+				t.data[bit/32] ^= 1 << (bit%32);
+			}
+		}
+
+		AssociateNearestNeighbor<TupleDesc_B> alg = createHash(10,true);
+		alg.associate(a,b);
+
+		for( int i = 0; i < a.size; i++ ) {
+			assertEquals(i,alg.getPairs()[i]);
+			assertTrue(alg.getFitQuality()[i] <= 4);
+		}
+	}
+
+	private AssociateNearestNeighbor<TupleDesc_F64> createKdForest( double maxError , boolean backwards ) {
+		KdForestSearch_F64 searchDst = new KdForestSearch_F64(2,Integer.MAX_VALUE,234);
+		KdForestSearch_F64 searchSrc = new KdForestSearch_F64(2,Integer.MAX_VALUE,235);
+		return new AssociateNearestNeighbor<TupleDesc_F64>(searchDst,searchSrc,maxError,backwards);
+	}
+
+	private AssociateNearestNeighbor<TupleDesc_B> createHash( double maxError , boolean backwards ) {
+		MultiIndexHashSearch_B searchDst = new MultiIndexHashSearch_B(-1,16);
+		MultiIndexHashSearch_B searchSrc = new MultiIndexHashSearch_B(-1,16);
+		return new AssociateNearestNeighbor<TupleDesc_B>(searchDst,searchSrc,maxError,backwards);
+	}
+
+	private FastQueue<TupleDesc_F64> createRandom( int N , int DOF ) {
+		FastQueue<TupleDesc_F64> ret = new TupleDescQueue<TupleDesc_F64>(TupleDesc_F64.class,DOF, true);
+
+		for( int i = 0; i < N; i++ ) {
+			TupleDesc_F64 t = ret.pop();
+			for( int j = 0; j < DOF; j++ )
+				t.value[j] = (rand.nextDouble()-0.5)*10;
+		}
+		return ret;
+	}
+
+	private FastQueue<TupleDesc_B> createRandomBinary( int N ) {
+		FastQueue<TupleDesc_B> ret = new TupleDescQueue<TupleDesc_B>(TupleDesc_B.class,numBits, true);
+
+		for( int i = 0; i < N; i++ ) {
+			TupleDesc_B t = ret.pop();
+			for( int j = 0; j < t.data.length; j++ )
+				t.data[j] = rand.nextInt();
+		}
+		return ret;
+	}
+
+	private FastQueue<TupleDesc_F64> createData( double ...values )
+	{
+		FastQueue<TupleDesc_F64> ret = new TupleDescQueue<TupleDesc_F64>(TupleDesc_F64.class,1, true);
+
+		for( int i = 0; i < values.length; i++ ) {
+			ret.pop().set(values[i]);
+		}
+
+		return ret;
+	}
+}
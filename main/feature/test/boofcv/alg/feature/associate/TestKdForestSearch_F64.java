@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.associate;
+
+import boofcv.struct.FastQueue;
+import boofcv.struct.feature.TupleDescQueue;
+import boofcv.struct.feature.TupleDesc_F64;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestKdForestSearch_F64 {
+
+	Random rand = new Random(234);
+	int DOF = 8;
+
+	/**
+	 * If the number of checks is not limited the search should be exact
+	 */
+	@Test
+	public void exactSearch() {
+		FastQueue<TupleDesc_F64> points = createSet(300);
+		FastQueue<TupleDesc_F64> queries = createSet(50);
+
+		for( int numTrees = 1; numTrees <= 3; numTrees++ ) {
+			KdForestSearch_F64 alg = new KdForestSearch_F64(numTrees,Integer.MAX_VALUE,234);
+			alg.setPoints(points);
+
+			for( int i = 0; i < queries.size; i++ ) {
+				TupleDesc_F64 q = queries.get(i);
+				int expected = bruteForce(points, q);
+
+				int found = alg.findNearest(q, Double.MAX_VALUE);
+				assertEquals(expected,found);
+				assertEquals(DescriptorDistance.euclideanSq(q,points.get(expected)),alg.getBestDistance(),1e-8);
+				assertEquals(found,alg.getBestIndex());
+			}
+		}
+	}
+
+	/**
+	 * The number of distance computations should be limited and most of the matches still found
+	 */
+	@Test
+	public void approximateSearch() {
+		FastQueue<TupleDesc_F64> points = createSet(2000);
+
+		int maxChecks = 50;
+		KdForestSearch_F64 alg = new KdForestSearch_F64(4,maxChecks,234);
+		alg.setPoints(points);
+
+		int numCorrect = 0;
+		for( int i = 0; i < 100; i++ ) {
+			// noisy version of a point in the set
+			int target = rand.nextInt(points.size);
+			TupleDesc_F64 q = points.get(target).copy();
+			for( int j = 0; j < DOF; j++ )
+				q.value[j] += rand.nextGaussian()*0.05;
+
+			if( alg.findNearest(q,Double.MAX_VALUE) == bruteForce(points,q) )
+				numCorrect++;
+
+			// a check can be performed for each point in the last leaf after the limit is reached
+			assertTrue(alg.getNumChecks() <= maxChecks + alg.getMaxLeafSize()*alg.getNumTrees());
+		}
+
+		assertTrue(numCorrect >= 90);
+	}
+
+	/**
+	 * Only points with a distance less than the max distance should be returned
+	 */
+	@Test
+	public void maxDistance() {
+		FastQueue<TupleDesc_F64> points = createSet(100);
+
+		KdForestSearch_F64 alg = new KdForestSearch_F64(2,Integer.MAX_VALUE,234);
+		alg.setPoints(points);
+
+		TupleDesc_F64 q = points.get(10).copy();
+		q.value[0] += 0.5;
+
+		assertEquals(10,alg.findNearest(q,0.26));
+		assertEquals(-1,alg.findNearest(q,0.24));
+	}
+
+	/**
+	 * Several points are identical and can't be split
+	 */
+	@Test
+	public void duplicatePoints() {
+		FastQueue<TupleDesc_F64> points = new TupleDescQueue<TupleDesc_F64>(TupleDesc_F64.class,DOF, true);
+		for( int i = 0; i < 30; i++ ) {
+			TupleDesc_F64 t = points.pop();
+			for( int j = 0; j < DOF; j++ )
+				t.value[j] = i < 20 ? 1 : j;
+		}
+
+		KdForestSearch_F64 alg = new KdForestSearch_F64(2,Integer.MAX_VALUE,234);
+		alg.setPoints(points);
+
+		TupleDesc_F64 q = points.get(25).copy();
+		assertTrue(alg.findNearest(q, Double.MAX_VALUE) >= 20);
+		assertEquals(0,alg.getBestDistance(),1e-8);
+	}
+
+	@Test
+	public void emptySet() {
+		KdForestSearch_F64 alg = new KdForestSearch_F64(2,Integer.MAX_VALUE,234);
+		alg.setPoints(createSet(0));
+
+		assertEquals(-1,alg.findNearest(new TupleDesc_F64(DOF),Double.MAX_VALUE));
+	}
+
+	private int bruteForce( FastQueue<TupleDesc_F64> points , TupleDesc_F64 q ) {
+		double best = Double.MAX_VALUE;
+		int bestIndex = -1;
+		for( int i = 0; i < points.size; i++ ) {
+			double d = DescriptorDistance.euclideanSq(q,points.get(i));
+			if( d < best ) {
+				best = d;
+				bestIndex = i;
+			}
+		}
+		return bestIndex;
+	}
+
+	private FastQueue<TupleDesc_F64> createSet( int N ) {
+		FastQueue<TupleDesc_F64> ret = new TupleDescQueue<TupleDesc_F64>(TupleDesc_F64.class,DOF, true);
+
+		for( int i = 0; i < N; i++ ) {
+			TupleDesc_F64 t = ret.pop();
+			for( int j = 0; j < DOF; j++ ) {
+				t.value[j] = (rand.nextDouble()-0.5)*20;
+			}
+		}
+		return ret;
+	}
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.associate;
+
+import boofcv.struct.FastQueue;
+import boofcv.struct.feature.TupleDescQueue;
+import boofcv.struct.feature.TupleDesc_B;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestMultiIndexHashSearch_B {
+
+	Random rand = new Random(234);
+	int numBits = 64;
+
+	/**
+	 * With the maximum substring radius the search should be exact
+	 */
+	@Test
+	public void exactSearch() {
+		FastQueue<TupleDesc_B> points = createSet(200);
+
+		// try a partial and complete set of tables
+		for( int numTables = 2; numTables <= 4; numTables += 2 ) {
+			MultiIndexHashSearch_B alg = new MultiIndexHashSearch_B(numTables,16);
+			alg.setPoints(points);
+			assertEquals(numTables,alg.getNumTables());
+
+			for( int i = 0; i < 50; i++ ) {
+				TupleDesc_B q = createRandom();
+				int found = alg.findNearest(q,Integer.MAX_VALUE);
+
+				assertEquals(bruteForce(points,q),DescriptorDistance.hamming(q,points.get(found)));
+				assertEquals(found,alg.getBestIndex());
+				assertEquals(DescriptorDistance.hamming(q,points.get(found)),alg.getBestDistance(),0);
+			}
+		}
+	}
+
+	/**
+	 * Noisy copies of points in the set should be found with a small radius and few checks
+	 */
+	@Test
+	public void nearbyPoints() {
+		FastQueue<TupleDesc_B> points = createSet(2000);
+
+		MultiIndexHashSearch_B alg = new MultiIndexHashSearch_B(-1,1);
+		alg.setPoints(points);
+		assertEquals(4,alg.getNumTables());
+
+		for( int i = 0; i < 100; i++ ) {
+			int target = rand.nextInt(points.size);
+			TupleDesc_B q = points.get(target).copy();
+			// flip 7 bits, at least one substring will differ by one bit or less
+			for( int j = 0; j < 7; j++ ) {
+				int bit = rand.nextInt(numBits);
+				q.data[bit/32] ^= 1 << (bit%32);
+			}
+
+			assertEquals(bruteForce(points,q),DescriptorDistance.hamming(q,points.get(alg.findNearest(q,Integer.MAX_VALUE))));
+			assertTrue(alg.getNumChecks() < 200);
+		}
+	}
+
+	/**
+	 * Only points with a distance less than the max distance should be returned
+	 */
+	@Test
+	public void maxDistance() {
+		FastQueue<TupleDesc_B> points = createSet(100);
+
+		MultiIndexHashSearch_B alg = new MultiIndexHashSearch_B(-1,16);
+		alg.setPoints(points);
+
+		TupleDesc_B q = points.get(10).copy();
+		q.data[0] ^= 0x03;
+
+		int expected = bruteForce(points,q);
+		assertTrue(alg.findNearest(q,expected+1) >= 0);
+		assertEquals(expected,alg.getBestDistance(),0);
+		assertEquals(-1,alg.findNearest(q,expected));
+	}
+
+	/**
+	 * The number of bits is not a multiple of 16
+	 */
+	@Test
+	public void partialSubstring() {
+		numBits = 40;
+		FastQueue<TupleDesc_B> points = createSet(100);
+
+		MultiIndexHashSearch_B alg = new MultiIndexHashSearch_B(-1,16);
+		alg.setPoints(points);
+		assertEquals(3,alg.getNumTables());
+
+		for( int i = 0; i < 20; i++ ) {
+			TupleDesc_B q = createRandom();
+			int found = alg.findNearest(q,Integer.MAX_VALUE);
+			assertEquals(bruteForce(points,q),DescriptorDistance.hamming(q,points.get(found)));
+		}
+	}
+
+	@Test
+	public void emptySet() {
+		MultiIndexHashSearch_B alg = new MultiIndexHashSearch_B(-1,2);
+		alg.setPoints(createSet(0));
+
+		assertEquals(-1,alg.findNearest(createRandom(),Integer.MAX_VALUE));
+	}
+
+	private int bruteForce( FastQueue<TupleDesc_B> points , TupleDesc_B q ) {
+		int best = Integer.MAX_VALUE;
+		for( int i = 0; i < points.size; i++ ) {
+			best = Math.min(best,DescriptorDistance.hamming(q,points.get(i)));
+		}
+		return best;
+	}
+
+	private TupleDesc_B createRandom() {
+		TupleDesc_B t = new TupleDesc_B(numBits);
+		randomize(t);
+		return t;
+	}
+
+	private void randomize( TupleDesc_B t ) {
+		for( int j = 0; j < t.data.length; j++ )
+			t.data[j] = rand.nextInt();
+		// bits which are not part of the descriptor are zero
+		if( numBits % 32 != 0 )
+			t.data[t.data.length-1] &= (1 << (numBits%32)) - 1;
+	}
+
+	private FastQueue<TupleDesc_B> createSet( int N ) {
+		FastQueue<TupleDesc_B> ret = new TupleDescQueue<TupleDesc_B>(TupleDesc_B.class,numBits, true);
+
+		for( int i = 0; i < N; i++ ) {
+			randomize(ret.pop());
+		}
+		return ret;
+	}
+}
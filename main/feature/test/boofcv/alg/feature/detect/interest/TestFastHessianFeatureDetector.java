@@ -19,13 +19,22 @@
 package boofcv.alg.feature.detect.interest;
 
 import boofcv.abst.feature.detect.extract.FeatureExtractor;
+import boofcv.alg.feature.detect.intensity.IntegralImageFeatureIntensity;
+import boofcv.alg.misc.ImageTestingOps;
 import boofcv.alg.transform.ii.IntegralImageOps;
 import boofcv.factory.feature.detect.extract.FactoryFeatureExtractor;
+import boofcv.misc.BoofConcurrency;
+import boofcv.struct.feature.ScalePoint;
 import boofcv.struct.image.ImageFloat32;
 import georegression.struct.point.Point2D_I32;
+import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
 
 /**
  * @author Peter Abeles
@@ -37,9 +46,73 @@ public class TestFastHessianFeatureDetector extends GenericFeatureDetector {
 	}
 
 	@Override
-	protected Object createDetector( int maxFeatures ) {
+	protected FastHessianFeatureDetector<ImageFloat32> createDetector( int maxFeatures ) {
 		FeatureExtractor extractor = FactoryFeatureExtractor.nonmax(2, 1, 5, true);
-		return new FastHessianFeatureDetector(extractor,maxFeatures, 1, 9,4,4);
+		return new FastHessianFeatureDetector<ImageFloat32>(extractor,maxFeatures, 1, 9,4,4);
+	}
+
+	/**
+	 * Intensity images in higher octaves are sampled from lower octaves.  Make sure that produces the same
+	 * results as computing it directly.
+	 */
+	@Test
+	public void sample() {
+		ImageFloat32 input = new ImageFloat32(80,70);
+		ImageTestingOps.randomize(input,rand,0,100);
+		ImageFloat32 integral = IntegralImageOps.transform(input,null);
+
+		for( int period = 2; period <= 4; period += 2 ) {
+			ImageFloat32 full = new ImageFloat32(input.width,input.height);
+			ImageFloat32 expected = new ImageFloat32(input.width/period,input.height/period);
+			ImageFloat32 found = new ImageFloat32(input.width/period,input.height/period);
+
+			IntegralImageFeatureIntensity.hessian(integral,1,27,full);
+			IntegralImageFeatureIntensity.hessian(integral,period,27,expected);
+			FastHessianFeatureDetector.sample(full,period,found);
+
+			// border and inner pixels are computed using a different order of operations, so the results can
+			// differ by floating point round off
+			for( int y = 0; y < found.height; y++ ) {
+				for( int x = 0; x < found.width; x++ ) {
+					float e = expected.get(x,y);
+					assertEquals(e,found.get(x,y),Math.max(1e-4,Math.abs(e)*1e-4));
+				}
+			}
+		}
+	}
+
+	/**
+	 * The same features should be found when concurrency is turned on
+	 */
+	@Test
+	public void compareConcurrent() {
+		ImageFloat32 input = new ImageFloat32(200,180);
+		ImageTestingOps.randomize(input,rand,0,100);
+		ImageFloat32 integral = IntegralImageOps.transform(input,null);
+
+		FastHessianFeatureDetector<ImageFloat32> alg = createDetector(-1);
+		alg.detect(integral);
+		List<ScalePoint> expected = new ArrayList<ScalePoint>(alg.getFoundPoints());
+		assertTrue(expected.size() > 0);
+
+		boolean before = BoofConcurrency.USE_CONCURRENT;
+		BoofConcurrency.USE_CONCURRENT = true;
+		try {
+			alg = createDetector(-1);
+			alg.detect(integral);
+		} finally {
+			BoofConcurrency.USE_CONCURRENT = before;
+		}
+		List<ScalePoint> found = alg.getFoundPoints();
+
+		assertEquals(expected.size(),found.size());
+		for( int i = 0; i < found.size(); i++ ) {
+			ScalePoint e = expected.get(i);
+			ScalePoint f = found.get(i);
+			assertEquals(e.x,f.x,1e-8);
+			assertEquals(e.y,f.y,1e-8);
+			assertEquals(e.scale,f.scale,1e-8);
+		}
 	}
 
 	@SuppressWarnings({"unchecked"})
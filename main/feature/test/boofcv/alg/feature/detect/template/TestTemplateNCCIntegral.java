@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.detect.template;
+
+import boofcv.core.image.GeneralizedImageOps;
+import boofcv.struct.image.ImageFloat32;
+import boofcv.struct.image.ImageSingleBand;
+import boofcv.struct.image.ImageUInt8;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestTemplateNCCIntegral {
+
+	Random rand = new Random(234);
+
+	@Test
+	public void instanceF32() {
+		TemplateNCCIntegral<ImageFloat32> alg = new TemplateNCCIntegral<ImageFloat32>();
+
+		new GeneralTemplateMatchTests<ImageFloat32>(alg, ImageFloat32.class) {
+		}.allTests();
+	}
+
+	@Test
+	public void instanceU8() {
+		TemplateNCCIntegral<ImageUInt8> alg = new TemplateNCCIntegral<ImageUInt8>();
+
+		new GeneralTemplateMatchTests<ImageUInt8>(alg, ImageUInt8.class) {
+		}.allTests();
+	}
+
+	/**
+	 * Should produce the same scores as the brute force implementation
+	 */
+	@Test
+	public void compareToBruteForce() {
+		compare(new TemplateNCC.F32(), new TemplateNCCIntegral<ImageFloat32>(), ImageFloat32.class);
+		compare(new TemplateNCC.U8(), new TemplateNCCIntegral<ImageUInt8>(), ImageUInt8.class);
+	}
+
+	/**
+	 * Forces the correlation to be computed in the frequency domain
+	 */
+	@Test
+	public void compareToBruteForce_Fourier() {
+		compare(new TemplateNCC.F32(), new TemplateNCCIntegral<ImageFloat32>() {
+			@Override
+			protected boolean isFourierFaster(int imageWidth, int imageHeight, int kernelWidth, int kernelHeight) {
+				return true;
+			}
+		}, ImageFloat32.class);
+		compare(new TemplateNCC.U8(), new TemplateNCCIntegral<ImageUInt8>() {
+			@Override
+			protected boolean isFourierFaster(int imageWidth, int imageHeight, int kernelWidth, int kernelHeight) {
+				return true;
+			}
+		}, ImageUInt8.class);
+	}
+
+	private <T extends ImageSingleBand> void compare( TemplateMatchingIntensity<T> expected ,
+													  TemplateMatchingIntensity<T> found ,
+													  Class<T> imageType ) {
+		T image = GeneralizedImageOps.createSingleBand(imageType, 35, 40);
+		T template = GeneralizedImageOps.createSingleBand(imageType, 7, 6);
+
+		GeneralizedImageOps.randomize(image, rand, 0, 200);
+		GeneralizedImageOps.randomize(template, rand, 0, 200);
+
+		// see if it handles sub-images and multiple calls with different shapes
+		for( int i = 0; i < 2; i++ ) {
+			expected.process(image, template);
+			found.process(image, template);
+
+			ImageFloat32 a = expected.getIntensity();
+			ImageFloat32 b = found.getIntensity();
+
+			int x0 = expected.getOffsetX();
+			int y0 = expected.getOffsetY();
+			int x1 = x0 + image.width - template.width;
+			int y1 = y0 + image.height - template.height;
+
+			for( int y = y0; y < y1; y++ ) {
+				for( int x = x0; x < x1; x++ ) {
+					float va = a.get(x, y);
+					assertEquals(va, b.get(x, y), Math.max(1, Math.abs(va))*1e-4f);
+				}
+			}
+
+			image = BoofTesting.createSubImageOf(image);
+			template = (T)template.subimage(1, 0, template.width, template.height);
+		}
+	}
+}
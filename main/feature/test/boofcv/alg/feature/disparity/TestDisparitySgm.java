@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.disparity;
+
+import boofcv.alg.feature.disparity.impl.BasicDisparityTests;
+import boofcv.alg.feature.disparity.impl.ImplDisparityScoreSadRect_U8;
+import boofcv.alg.misc.ImageTestingOps;
+import boofcv.misc.BoofConcurrency;
+import boofcv.struct.image.ImageUInt8;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestDisparitySgm {
+
+	Random rand = new Random(234);
+
+	/**
+	 * Basic generic disparity calculation tests
+	 */
+	@Test
+	public void basicTest() {
+		BasicDisparityTests<ImageUInt8,ImageUInt8> alg =
+				new BasicDisparityTests<ImageUInt8,ImageUInt8>(ImageUInt8.class) {
+
+					DisparitySgm<ImageUInt8> alg;
+
+					@Override
+					public ImageUInt8 computeDisparity(ImageUInt8 left, ImageUInt8 right ) {
+						ImageUInt8 ret = new ImageUInt8(left.width,left.height);
+
+						alg.process(left,right,ret);
+
+						return ret;
+					}
+
+					@Override
+					public void initialize(int minDisparity , int maxDisparity) {
+						alg = create(minDisparity,maxDisparity,2,10,100,-1);
+					}
+
+					@Override public int getBorderX() { return 2; }
+
+					@Override public int getBorderY() { return 2; }
+				};
+
+		alg.allChecks();
+	}
+
+	/**
+	 * Compare the aggregated cost against a straight forward implementation
+	 */
+	@Test
+	public void compareToNaiveAggregation() {
+		int w = 30, h = 25;
+		ImageUInt8 left = new ImageUInt8(w,h);
+		ImageUInt8 right = new ImageUInt8(w,h);
+		ImageTestingOps.randomize(left,rand,0,30);
+		ImageTestingOps.randomize(right,rand,0,30);
+
+		int minDisparity = 2, maxDisparity = 10, radius = 1;
+		int P1 = 15, P2 = 60;
+
+		SgmCostVolume costs = new SgmCostVolume();
+		DisparitySgm<ImageUInt8> alg = new DisparitySgm<ImageUInt8>(
+				new ImplDisparityScoreSadRect_U8<ImageUInt8>(minDisparity,maxDisparity,radius,radius,costs),
+				costs,P1,P2,-1);
+		alg.process(left,right,new ImageUInt8(w,h));
+
+		int range = maxDisparity-minDisparity;
+		int x0 = radius+minDisparity, x1 = w-radius;
+		int y0 = radius, y1 = h-radius;
+
+		int expected[][][] = new int[h][w][range];
+
+		// left to right, right to left, top to bottom, bottom to top
+		int dx[] = new int[]{1,-1,0,0};
+		int dy[] = new int[]{0,0,1,-1};
+
+		for( int path = 0; path < 4; path++ ) {
+			int L[][][] = new int[h][w][range];
+
+			int ys = dy[path] >= 0 ? y0 : y1-1;
+			int xs = dx[path] >= 0 ? x0 : x1-1;
+			int stepY = dy[path] >= 0 ? 1 : -1;
+			int stepX = dx[path] >= 0 ? 1 : -1;
+
+			for( int y = ys; y >= y0 && y < y1; y += stepY ) {
+				for( int x = xs; x >= x0 && x < x1; x += stepX ) {
+					int px = x - dx[path], py = y - dy[path];
+					boolean first = px < x0 || px >= x1 || py < y0 || py >= y1;
+
+					int minPrev = Integer.MAX_VALUE;
+					if( !first ) {
+						for( int d = 0; d < range; d++ )
+							minPrev = Math.min(minPrev,L[py][px][d]);
+					}
+
+					for( int d = 0; d < range; d++ ) {
+						int c = costs.get(x,y,d);
+						if( first ) {
+							L[y][x][d] = c;
+						} else {
+							int best = L[py][px][d];
+							if( d > 0 ) best = Math.min(best,L[py][px][d-1]+P1);
+							if( d < range-1 ) best = Math.min(best,L[py][px][d+1]+P1);
+							best = Math.min(best,minPrev+P2);
+							L[y][x][d] = c + best - minPrev;
+						}
+						expected[y][x][d] += L[y][x][d];
+					}
+				}
+			}
+		}
+
+		for( int y = y0; y < y1; y++ ) {
+			for( int x = x0; x < x1; x++ ) {
+				for( int d = 0; d < range; d++ ) {
+					assertEquals(expected[y][x][d],alg.getAggregated(x,y,d));
+				}
+			}
+		}
+	}
+
+	/**
+	 * The concurrent and single threaded results should be identical
+	 */
+	@Test
+	public void compareConcurrent() {
+		int w = 80, h = 70;
+		ImageUInt8 left = new ImageUInt8(w,h);
+		ImageUInt8 right = new ImageUInt8(w,h);
+		ImageTestingOps.randomize(left,rand,0,30);
+		ImageTestingOps.randomize(right,rand,0,30);
+
+		ImageUInt8 expected = new ImageUInt8(w,h);
+		ImageUInt8 found = new ImageUInt8(w,h);
+
+		create(0,15,2,10,100,1).process(left,right,expected);
+
+		boolean before = BoofConcurrency.USE_CONCURRENT;
+		int threadsBefore = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.USE_CONCURRENT = true;
+			BoofConcurrency.setMaxThreads(4);
+			create(0,15,2,10,100,1).process(left,right,found);
+		} finally {
+			BoofConcurrency.USE_CONCURRENT = before;
+			BoofConcurrency.setMaxThreads(threadsBefore);
+		}
+
+		BoofTesting.assertEquals(expected,found,0);
+	}
+
+	private static DisparitySgm<ImageUInt8> create( int minDisparity , int maxDisparity , int radius ,
+													int P1 , int P2 , int validateRtoL ) {
+		SgmCostVolume costs = new SgmCostVolume();
+		return new DisparitySgm<ImageUInt8>(
+				new ImplDisparityScoreSadRect_U8<ImageUInt8>(minDisparity,maxDisparity,radius,radius,costs),
+				costs,P1,P2,validateRtoL);
+	}
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.disparity.impl;
+
+import boofcv.alg.feature.disparity.DisparitySelect;
+import boofcv.alg.transform.census.CensusTransform;
+import boofcv.core.image.GeneralizedImageOps;
+import boofcv.struct.image.ImageFloat32;
+import boofcv.struct.image.ImageSInt32;
+import boofcv.struct.image.ImageUInt8;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestImplDisparityScoreCensusRect_U8 {
+
+	Random rand = new Random(234);
+
+	DisparitySelect<int[],ImageUInt8> compDisp = new ImplSelectRectBasicWta_S32_U8();
+
+	/**
+	 * The right image is a shifted version of the left image with a different gain and bias.  The census
+	 * transform should be invariant to that and the correct disparity found.
+	 */
+	@Test
+	public void shiftedTexture() {
+		int w = 50, h = 40;
+		int disparity = 5;
+
+		ImageUInt8 left = new ImageUInt8(w,h);
+		ImageUInt8 right = new ImageUInt8(w,h);
+
+		GeneralizedImageOps.randomize(right,rand,0,100);
+		for( int y = 0; y < h; y++ ) {
+			for( int x = 0; x < w; x++ ) {
+				int xx = Math.max(0,x-disparity);
+				left.set(x, y, 2*right.get(xx, y) + 20);
+			}
+		}
+
+		int radiusX = 2, radiusY = 3;
+		for( int minDisparity = 0; minDisparity <= 3; minDisparity += 3 ) {
+			ImplDisparityScoreCensusRect_U8<ImageUInt8> alg =
+					new ImplDisparityScoreCensusRect_U8<ImageUInt8>(minDisparity,20,radiusX,radiusY,2,compDisp);
+
+			ImageUInt8 found = new ImageUInt8(w,h);
+			alg.process(left,right,found);
+
+			// skip pixels which are influenced by the image border
+			for( int y = radiusY+2; y < h-radiusY-2; y++ ) {
+				for( int x = disparity+radiusX+4; x < w-radiusX-2; x++ ) {
+					assertEquals("x = "+x+" y = "+y,disparity-minDisparity,found.get(x,y));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Compare to a simplistic implementation of stereo disparity which computes the hamming distance
+	 * between census images.
+	 */
+	@Test
+	public void compareToNaive() {
+		int w = 20, h = 25;
+		ImageUInt8 left = new ImageUInt8(w,h);
+		ImageUInt8 right = new ImageUInt8(w,h);
+
+		GeneralizedImageOps.randomize(left,rand,0,20);
+		GeneralizedImageOps.randomize(right,rand,0,20);
+
+		int radiusX = 3;
+		int radiusY = 2;
+
+		// compare to naive with different settings
+		compareToNaive(left, right, 0, 10, radiusX, radiusY, 1);
+		compareToNaive(left, right, 4, 10, radiusX, radiusY, 2);
+	}
+
+	private void compareToNaive(ImageUInt8 left, ImageUInt8 right,
+								int minDisparity, int maxDisparity,
+								int radiusX, int radiusY, int censusRadius )
+	{
+		int w = left.width;
+		int h = left.height;
+
+		ImplDisparityScoreCensusRect_U8<ImageUInt8> alg = new ImplDisparityScoreCensusRect_U8<ImageUInt8>(
+				minDisparity,maxDisparity,radiusX,radiusY,censusRadius,compDisp);
+		StereoDisparityWtoNaive<ImageSInt32> naive =
+				new StereoDisparityWtoNaive<ImageSInt32>(minDisparity,maxDisparity,radiusX,radiusY) {
+					@Override
+					protected double computeScore(int leftX, int rightX, int centerY) {
+						int ret = 0;
+						for( int y = -radiusY; y <= radiusY; y++ ) {
+							for( int x = -radiusX; x <= radiusX; x++ ) {
+								int l = imageLeft.get(leftX+x,centerY+y);
+								int r = imageRight.get(rightX+x,centerY+y);
+
+								ret += Integer.bitCount(l ^ r);
+							}
+						}
+						return ret;
+					}
+				};
+
+		ImageSInt32 censusLeft = CensusTransform.transform(left,censusRadius,null);
+		ImageSInt32 censusRight = CensusTransform.transform(right,censusRadius,null);
+
+		ImageUInt8 found = new ImageUInt8(w,h);
+		ImageFloat32 expected = new ImageFloat32(w,h);
+
+		alg.process(left,right,found);
+		naive.process(censusLeft,censusRight,expected);
+
+		BoofTesting.assertEqualsGeneric(found, expected, 0, 1e-8);
+	}
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.feature.disparity.impl;
+
+import boofcv.alg.feature.disparity.DisparitySelectConcurrent;
+import boofcv.alg.feature.disparity.SgmCostVolume;
+import boofcv.core.image.GeneralizedImageOps;
+import boofcv.misc.BoofConcurrency;
+import boofcv.struct.image.ImageSingleBand;
+import boofcv.struct.image.ImageUInt8;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestImplDisparityScoreSadRect_U8_MT {
+
+	Random rand = new Random(234);
+
+	int w = 60, h = 90;
+	ImageUInt8 left = new ImageUInt8(w,h);
+	ImageUInt8 right = new ImageUInt8(w,h);
+
+	public TestImplDisparityScoreSadRect_U8_MT() {
+		GeneralizedImageOps.randomize(left,rand,0,20);
+		GeneralizedImageOps.randomize(right,rand,0,20);
+	}
+
+	/**
+	 * Output should be identical to the single threaded version for different types of selectors
+	 */
+	@Test
+	public void compareToSingleThread() {
+		compare(new ImplSelectRectBasicWta_S32_U8(),0,10,2,3);
+		compare(new ImplSelectRectStandard_S32_U8(-1,2,0.1),4,15,3,2);
+		compare(new ImplSelectRectStandard_S32_U8(500,-1,-1),0,12,1,1);
+
+		compare(new SelectRectSubpixel.S32_F32(-1,2,0.1),0,10,2,3);
+	}
+
+	/**
+	 * If the selector can't be split up by rows then the image should be processed in a single thread
+	 */
+	@Test
+	public void selectNotRowSplittable() {
+		SgmCostVolume expected = new SgmCostVolume();
+		SgmCostVolume found = new SgmCostVolume();
+		assertFalse(found instanceof DisparitySelectConcurrent);
+
+		ImplDisparityScoreSadRect_U8<ImageUInt8> serial =
+				new ImplDisparityScoreSadRect_U8<ImageUInt8>(2,12,2,3,expected);
+		ImplDisparityScoreSadRect_U8_MT<ImageUInt8> concurrent =
+				new ImplDisparityScoreSadRect_U8_MT<ImageUInt8>(2,12,2,3,found);
+
+		serial.process(left,right,new ImageUInt8(w,h));
+
+		int before = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(3);
+			concurrent.process(left,right,new ImageUInt8(w,h));
+		} finally {
+			BoofConcurrency.setMaxThreads(before);
+		}
+
+		int N = expected.getWidth()*expected.getHeight()*expected.getRangeDisparity();
+		for( int i = 0; i < N; i++ )
+			assertEquals(expected.getCost()[i],found.getCost()[i]);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void compare( DisparitySelectConcurrent select , int minDisparity , int maxDisparity , int radiusX , int radiusY ) {
+		Class type = select.getDisparityType();
+
+		ImplDisparityScoreSadRect_U8 serial =
+				new ImplDisparityScoreSadRect_U8(minDisparity,maxDisparity,radiusX,radiusY,select);
+		ImplDisparityScoreSadRect_U8_MT concurrent =
+				new ImplDisparityScoreSadRect_U8_MT(minDisparity,maxDisparity,radiusX,radiusY,select.concurrentCopy());
+
+		ImageSingleBand expected = GeneralizedImageOps.createSingleBand(type,w,h);
+		serial.process(left,right,expected);
+
+		int before = BoofConcurrency.getMaxThreads();
+		try {
+			for( int numThreads = 1; numThreads <= 5; numThreads++ ) {
+				BoofConcurrency.setMaxThreads(numThreads);
+
+				ImageSingleBand found = GeneralizedImageOps.createSingleBand(type,w,h);
+				concurrent.process(left,right,found);
+
+				BoofTesting.assertEqualsGeneric(expected,found,0,1e-8);
+			}
+		} finally {
+			BoofConcurrency.setMaxThreads(before);
+		}
+	}
+}
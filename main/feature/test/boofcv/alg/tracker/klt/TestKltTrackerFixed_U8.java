@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.tracker.klt;
+
+import boofcv.alg.filter.derivative.GradientSobel;
+import boofcv.alg.misc.ImageTestingOps;
+import boofcv.core.image.ConvertImage;
+import boofcv.core.image.border.BorderIndex1D_Extend;
+import boofcv.core.image.border.ImageBorder1D_I32;
+import boofcv.factory.interpolate.FactoryInterpolation;
+import boofcv.struct.image.ImageFloat32;
+import boofcv.struct.image.ImageSInt16;
+import boofcv.struct.image.ImageUInt8;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestKltTrackerFixed_U8 {
+
+	Random rand = new Random(234);
+
+	int imageWidth = 40;
+	int imageHeight = 50;
+
+	ImageUInt8 image;
+	ImageSInt16 derivX;
+	ImageSInt16 derivY;
+
+	/**
+	 * Create an artificial image with a corner and create a feature over the corner.  Then move the corner and
+	 * see if the KLT tracker can accurate track that feature.
+	 */
+	@Test
+	public void testCornerTracking() {
+		checkMovementSub(3, 0, 0);
+		checkMovementSub(3, 1, 0);
+		checkMovementSub(3, -1, 0);
+		checkMovementSub(3, 0, 1);
+		checkMovementSub(3, 0, -1);
+		checkMovementSub(3, 1, 1);
+		checkMovementSub(3, -1, -1);
+		checkMovementSub(3, 2, 2);
+		checkMovementSub(3, -2, -2);
+		checkMovementSub(3, 2, -2);
+		checkMovementSub(3, -2, 2);
+
+		checkMovementSub(2, -1, 1);
+	}
+
+	private void checkMovementSub(int radius, int deltaX, int deltaY) {
+		declareImages();
+		checkMovement(radius, deltaX, deltaY);
+
+		image = BoofTesting.createSubImageOf(image);
+		derivX = BoofTesting.createSubImageOf(derivX);
+		derivY = BoofTesting.createSubImageOf(derivY);
+
+		checkMovement(radius, deltaX, deltaY);
+	}
+
+	private void checkMovement(int radius, int deltaX, int deltaY) {
+		ImageTestingOps.fill(image, 0);
+		ImageTestingOps.fillRectangle(image, 100, 20, 20, imageWidth-20, imageHeight-20);
+		computeDerivative();
+
+		KltTrackerFixed_U8 tracker = createDefaultTracker(radius);
+		tracker.setImage(image, derivX, derivY);
+
+		// put a feature right on the corner
+		tracker.setPosition(2, 20, 20);
+		assertTrue(tracker.setDescription(2));
+
+		// move the rectangle a bit
+		ImageTestingOps.fill(image, 0);
+		ImageTestingOps.fillRectangle(image, 100, 20 + deltaX, 20 + deltaY, imageWidth, imageHeight);
+		computeDerivative();
+
+		// update the feature's position
+		tracker.setImage(image, derivX, derivY);
+		assertTrue(tracker.track(2) == KltTrackFault.SUCCESS);
+
+		// see if it moved with the corner.  KltTracker has a similar error with U8 images
+		assertEquals(20 + deltaX, tracker.getX(2), 0.15f);
+		assertEquals(20 + deltaY, tracker.getY(2), 0.15f);
+	}
+
+	/**
+	 * Compare the results against the floating point tracker on a textured image with sub-pixel motion
+	 */
+	@Test
+	public void compareToFloat() {
+		imageWidth = 60;
+		imageHeight = 70;
+		declareImages();
+
+		ImageFloat32 blurred = new ImageFloat32(imageWidth,imageHeight);
+		ImageTestingOps.randomize(blurred, rand, 0, 200);
+		ImageUInt8 first = smoothShift(blurred, 0, 0);
+		ImageUInt8 second = smoothShift(blurred, 0.7f, -0.4f);
+
+		KltTracker<ImageUInt8,ImageSInt16> expected = new KltTracker<ImageUInt8, ImageSInt16>(
+				FactoryInterpolation.bilinearRectangle(ImageUInt8.class),
+				FactoryInterpolation.bilinearRectangle(ImageSInt16.class),
+				createDefaultTracker(3).getConfig());
+		KltTrackerFixed_U8 alg = new KltTrackerFixed_U8(expected.getConfig(),3,20);
+
+		image.setTo(first);
+		computeDerivative();
+		expected.setImage(image,derivX,derivY);
+		alg.setImage(image,derivX,derivY);
+
+		int N = 20;
+		KltFeature features[] = new KltFeature[N];
+		for( int i = 0; i < N; i++ ) {
+			// sub-pixel starting location, including locations next to the image border
+			float x = i == 0 ? imageWidth-5 : 5+rand.nextFloat()*(imageWidth-10);
+			float y = i == 0 ? imageHeight-5 : 5+rand.nextFloat()*(imageHeight-10);
+			features[i] = new KltFeature(3);
+			features[i].setPosition(x,y);
+			assertTrue(expected.setDescription(features[i]));
+			alg.setPosition(i,x,y);
+			assertTrue(alg.setDescription(i));
+		}
+
+		image.setTo(second);
+		computeDerivative();
+		expected.setImage(image,derivX,derivY);
+		alg.setImage(image,derivX,derivY);
+
+		int numSuccess = 0;
+		for( int i = 0; i < N; i++ ) {
+			KltTrackFault faultExpected = expected.track(features[i]);
+			KltTrackFault faultFound = alg.track(i);
+			assertEquals(faultExpected,faultFound);
+			if( faultExpected != KltTrackFault.SUCCESS )
+				continue;
+			numSuccess++;
+			assertEquals(features[i].x,alg.getX(i),0.02f);
+			assertEquals(features[i].y,alg.getY(i),0.02f);
+		}
+		assertTrue(numSuccess > N/2);
+	}
+
+	/**
+	 * Creates a smooth image which has been shifted by a sub-pixel amount
+	 */
+	private ImageUInt8 smoothShift( ImageFloat32 noise , float dx , float dy ) {
+		ImageFloat32 shifted = new ImageFloat32(imageWidth,imageHeight);
+		for( int y = 0; y < imageHeight; y++ ) {
+			for( int x = 0; x < imageWidth; x++ ) {
+				double sum = 0, total = 0;
+				for( int i = -3; i <= 3; i++ ) {
+					for( int j = -3; j <= 3; j++ ) {
+						int xx = x+j, yy = y+i;
+						if( !noise.isInBounds(xx,yy) )
+							continue;
+						double rx = xx - x + dx, ry = yy - y + dy;
+						double w = Math.exp(-(rx*rx + ry*ry)/(2*1.5*1.5));
+						sum += w*noise.get(xx,yy);
+						total += w;
+					}
+				}
+				shifted.set(x,y,(float)(sum/total));
+			}
+		}
+		return ConvertImage.convert(shifted,(ImageUInt8)null);
+	}
+
+	/**
+	 * Make sure it uses the border
+	 */
+	@Test
+	public void testBorder() {
+		declareImages();
+
+		KltTrackerFixed_U8 tracker = createDefaultTracker(2);
+		tracker.setImage(image, derivX, derivY);
+
+		tracker.setPosition(0, imageWidth/2, imageHeight/2);
+		tracker.setDescription(0);
+
+		// this should make the feature be out of bounds
+		tracker.getConfig().forbiddenBorder=10000;
+
+		tracker.setImage(image, derivX, derivY);
+		assertTrue(tracker.track(0) == KltTrackFault.OUT_OF_BOUNDS);
+	}
+
+	/**
+	 * Passes in a feature which is out of bands and sees if a fault happens.
+	 */
+	@Test
+	public void handleOutOfBounds() {
+		declareImages();
+
+		KltTrackerFixed_U8 tracker = createDefaultTracker(2);
+		tracker.setImage(image, derivX, derivY);
+
+		tracker.setPosition(0, imageWidth/2, imageHeight/2);
+		tracker.setDescription(0);
+		tracker.setPosition(0, imageWidth, imageHeight);
+
+		tracker.setImage(image, derivX, derivY);
+		assertTrue(tracker.track(0) == KltTrackFault.OUT_OF_BOUNDS);
+
+		// can't set the description outside the image either
+		assertTrue(!tracker.setDescription(0));
+	}
+
+	/**
+	 * Pass in a feature with a small determinant and see if it returns a fault.
+	 */
+	@Test
+	public void detectBadFeature() {
+		declareImages();
+
+		KltTrackerFixed_U8 tracker = createDefaultTracker(2);
+		tracker.setImage(image, derivX, derivY);
+
+		// Gxx, Gyy, and Gxy will all be zero, which is bad
+		tracker.setPosition(0, 20, 20);
+		tracker.setDescription(0);
+
+		tracker.setImage(image, derivX, derivY);
+		assertTrue(tracker.track(0) != KltTrackFault.SUCCESS);
+	}
+
+	private void declareImages() {
+		image = new ImageUInt8(imageWidth, imageHeight);
+		derivX = new ImageSInt16(imageWidth, imageHeight);
+		derivY = new ImageSInt16(imageWidth, imageHeight);
+	}
+
+	private void computeDerivative() {
+		GradientSobel.process(image, derivX, derivY, new ImageBorder1D_I32(BorderIndex1D_Extend.class));
+	}
+
+	public static KltTrackerFixed_U8 createDefaultTracker( int radius ) {
+		KltConfig config = new KltConfig();
+		config.forbiddenBorder = 1;
+		config.maxPerPixelError = 10;
+		config.maxIterations = 30;
+		config.minDeterminant = 0.01f;
+		config.minPositionDelta = 0.01f;
+
+		return new KltTrackerFixed_U8(config, radius, 5);
+	}
+}
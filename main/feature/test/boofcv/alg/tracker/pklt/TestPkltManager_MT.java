@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.tracker.pklt;
+
+import boofcv.abst.filter.derivative.ImageGradient;
+import boofcv.alg.misc.ImageTestingOps;
+import boofcv.alg.transform.pyramid.PyramidOps;
+import boofcv.factory.filter.derivative.FactoryDerivative;
+import boofcv.factory.transform.pyramid.FactoryPyramid;
+import boofcv.misc.BoofConcurrency;
+import boofcv.struct.image.ImageFloat32;
+import boofcv.struct.pyramid.PyramidDiscrete;
+import boofcv.struct.pyramid.PyramidUpdaterDiscrete;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestPkltManager_MT {
+
+	Random rand = new Random(234);
+
+	int width = 80;
+	int height = 90;
+
+	int scales[] = new int[]{1,2};
+
+	PyramidUpdaterDiscrete<ImageFloat32> updater = FactoryPyramid.discreteGaussian(ImageFloat32.class,-1,2);
+	ImageGradient<ImageFloat32,ImageFloat32> gradient = FactoryDerivative.sobel(ImageFloat32.class,ImageFloat32.class);
+
+	PyramidDiscrete<ImageFloat32> pyramid = new PyramidDiscrete<ImageFloat32>(ImageFloat32.class,false,scales);
+	PyramidDiscrete<ImageFloat32> derivX = new PyramidDiscrete<ImageFloat32>(ImageFloat32.class,false,scales);
+	PyramidDiscrete<ImageFloat32> derivY = new PyramidDiscrete<ImageFloat32>(ImageFloat32.class,false,scales);
+
+	/**
+	 * Tracks the same features with the single threaded and concurrent implementation and sees if the
+	 * results are identical.
+	 */
+	@Test
+	public void compareToSingleThread() {
+		boolean before = BoofConcurrency.USE_CONCURRENT;
+		try {
+			BoofConcurrency.USE_CONCURRENT = true;
+			compareToSingleThread(1);
+			compareToSingleThread(3);
+			BoofConcurrency.USE_CONCURRENT = false;
+			compareToSingleThread(3);
+		} finally {
+			BoofConcurrency.USE_CONCURRENT = before;
+		}
+	}
+
+	private void compareToSingleThread( int numWorkers ) {
+		PkltManagerConfig<ImageFloat32,ImageFloat32> config =
+				PkltManagerConfig.createDefault(ImageFloat32.class,ImageFloat32.class);
+		config.pyramidScaling = scales;
+		config.maxFeatures = 150;
+
+		int threadsBefore = BoofConcurrency.getMaxThreads();
+		PkltManager_MT<ImageFloat32,ImageFloat32> alg;
+		try {
+			BoofConcurrency.setMaxThreads(numWorkers);
+			alg = new PkltManager_MT<ImageFloat32,ImageFloat32>(config);
+		} finally {
+			BoofConcurrency.setMaxThreads(threadsBefore);
+		}
+		assertEquals(numWorkers,alg.getNumWorkers());
+
+		PkltManager<ImageFloat32,ImageFloat32> expected = new PkltManager<ImageFloat32,ImageFloat32>(config);
+
+		ImageFloat32 image = new ImageFloat32(width,height);
+		ImageTestingOps.randomize(image, rand, 0, 100);
+		// flat region where tracks should fail
+		ImageTestingOps.fillRectangle(image,50,0,0,20,20);
+		setImage(image);
+
+		expected.processFrame(pyramid,derivX,derivY);
+		alg.processFrame(pyramid,derivX,derivY);
+		for( int i = 0; i < config.maxFeatures; i++ ) {
+			float x = rand.nextFloat()*width;
+			float y = rand.nextFloat()*height;
+			assertEquals(expected.addTrack(x,y),alg.addTrack(x,y));
+		}
+
+		// move the image so that some tracks fail
+		ImageFloat32 moved = new ImageFloat32(width,height);
+		for( int y = 3; y < height; y++ ) {
+			for( int x = 4; x < width; x++ ) {
+				moved.set(x,y,image.get(x-4,y-3));
+			}
+		}
+		setImage(moved);
+
+		int totalDropped = 0;
+		for( int frame = 0; frame < 2; frame++ ) {
+			expected.processFrame(pyramid,derivX,derivY);
+			alg.processFrame(pyramid,derivX,derivY);
+
+			compare(expected.getTracks(),alg.getTracks());
+			compare(expected.getDropped(),alg.getDropped());
+			compare(expected.unused,alg.unused);
+			assertEquals(0,alg.getSpawned().size());
+			totalDropped += alg.getDropped().size();
+		}
+		// sanity check the test
+		assertTrue(totalDropped > 0);
+		assertTrue(expected.getTracks().size() > 10);
+	}
+
+	private void setImage( ImageFloat32 image ) {
+		updater.update(image,pyramid);
+		PyramidOps.gradient(pyramid,gradient,derivX,derivY);
+	}
+
+	private void compare( List<PyramidKltFeature> expected , List<PyramidKltFeature> found ) {
+		assertEquals(expected.size(),found.size());
+		for( int i = 0; i < expected.size(); i++ ) {
+			PyramidKltFeature e = expected.get(i);
+			PyramidKltFeature f = found.get(i);
+			assertEquals(e.x,f.x,1e-8);
+			assertEquals(e.y,f.y,1e-8);
+			assertEquals(e.maxLayer,f.maxLayer);
+		}
+	}
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.factory.feature.disparity;
+
+import boofcv.abst.feature.disparity.StereoDisparity;
+import boofcv.abst.feature.disparity.WrapDisparitySadRect;
+import boofcv.alg.feature.disparity.DisparitySgm;
+import boofcv.alg.feature.disparity.SgmCostVolume;
+import boofcv.alg.misc.ImageTestingOps;
+import boofcv.struct.image.ImageUInt8;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestFactoryStereoDisparity {
+
+	Random rand = new Random(234);
+
+	/**
+	 * With a large region the scaled penalties would exceed the maximum cost, so they must be clamped
+	 */
+	@Test
+	public void sgm_largeRegion() {
+		StereoDisparity<ImageUInt8,ImageUInt8> alg =
+				FactoryStereoDisparity.sgm(0,20,4,3,30,1,ImageUInt8.class);
+
+		DisparitySgm<ImageUInt8> sgm = (DisparitySgm<ImageUInt8>)((WrapDisparitySadRect<ImageUInt8,ImageUInt8>)alg).getAlg();
+		assertEquals(3*81,sgm.getPenaltySmall());
+		assertEquals(SgmCostVolume.MAX_COST,sgm.getPenaltyLarge());
+
+		ImageUInt8 left = new ImageUInt8(60,50);
+		ImageUInt8 right = new ImageUInt8(60,50);
+		ImageTestingOps.randomize(left,rand,0,255);
+		ImageTestingOps.randomize(right,rand,0,255);
+
+		alg.process(left,right);
+		assertEquals(60,alg.getDisparity().width);
+	}
+
+	/**
+	 * The small penalty can't be larger than the large penalty after clamping
+	 */
+	@Test
+	public void sgm_clampSmallPenalty() {
+		StereoDisparity<ImageUInt8,ImageUInt8> alg =
+				FactoryStereoDisparity.sgm(0,20,5,50,60,1,ImageUInt8.class);
+
+		DisparitySgm<ImageUInt8> sgm = (DisparitySgm<ImageUInt8>)((WrapDisparitySadRect<ImageUInt8,ImageUInt8>)alg).getAlg();
+		assertEquals(SgmCostVolume.MAX_COST,sgm.getPenaltySmall());
+		assertEquals(SgmCostVolume.MAX_COST,sgm.getPenaltyLarge());
+	}
+}
@@ -24,8 +24,8 @@ import boofcv.struct.image.ImageSingleBand;
 import georegression.struct.point.Point2D_F64;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.*;
 
 
 /**
@@ -35,6 +35,22 @@ import java.util.List;
  * and result in the correct association without any model of the model being fit.
  * </p>
  *
+ * <p>
+ * Pipelined Mode: If turned on, see {@link #setPipelined(boolean)}, then features are detected and described
+ * in a background thread while the previous frame is associated and the results are used by the caller.
+ * When {@link #process} is called with frame N it starts detecting features in frame N and then associates
+ * the features from frame N-1, which the background thread finished while the previous call returned.
+ * The tracks are always one frame behind the most recent image, but the time spent inside of process is
+ * reduced to association alone.  Detection runs on a copy of the input image, so the caller can modify
+ * the image after process returns.
+ * </p>
+ *
+ * <p>
+ * Tracks are stored in a {@link TrackStore} and the description of each track is kept at the same index
+ * in the list of descriptions passed to {@link #associate}, so tracks can be dropped without rebuilding that
+ * list.  Dropped tracks and their descriptions are recycled when new tracks are spawned.
+ * </p>
+ *
  * @author Peter Abeles
  */
 public abstract class DetectAssociateTracker<I extends ImageSingleBand, D >
@@ -42,19 +58,51 @@ public abstract class DetectAssociateTracker<I extends ImageSingleBand, D >
 
 	// location of interest points
 	private FastQueue<Point2D_F64> locDst = new FastQueue<Point2D_F64>(10,Point2D_F64.class,true);
-	// description of interest points
+	// description of each track in tracksAll, at the same index
 	private FastQueue<D> featSrc;
 	private FastQueue<D> featDst;
 
+	// storage for features detected by the background thread while featDst is being associated
+	private FastQueue<Point2D_F64> locNext = new FastQueue<Point2D_F64>(10,Point2D_F64.class,true);
+	private FastQueue<D> featNext;
+
+	// if true then features are detected in a background thread and tracks are one frame behind
+	private boolean pipelined = false;
+	// thread which detects features when pipelined
+	private ExecutorService worker;
+	// detection which is being processed by the worker, or null if there is none
+	private Future<?> pending;
+	// copy of the input image used by the worker
+	private I inputCopy;
+
 	private boolean keyFrameSet = false;
 
-	private List<PointTrack> tracksAll = new ArrayList<PointTrack>();
-	private List<PointTrack> tracksActive = new ArrayList<PointTrack>();
+	// all tracks which have not been dropped.  Dropped tracks are recycled from the end of the list
+	private TrackStore<PointTrack> tracksAll = new TrackStore<PointTrack>() {
+		@Override
+		protected int getIndex(PointTrack element) {
+			return element.<TrackInfo>getDescription().indexAll;
+		}
+
+		@Override
+		protected void setIndex(PointTrack element, int index) {
+			element.<TrackInfo>getDescription().indexAll = index;
+		}
+	};
+	private TrackStore<PointTrack> tracksActive = new TrackStore<PointTrack>() {
+		@Override
+		protected int getIndex(PointTrack element) {
+			return element.<TrackInfo>getDescription().indexActive;
+		}
+
+		@Override
+		protected void setIndex(PointTrack element, int index) {
+			element.<TrackInfo>getDescription().indexActive = index;
+		}
+	};
 	private List<PointTrack> tracksDropped = new ArrayList<PointTrack>();
 	private List<PointTrack> tracksNew = new ArrayList<PointTrack>();
 
-	private List<PointTrack> unused = new ArrayList<PointTrack>();
-
 	private FastQueue<AssociatedIndex> matches;
 
 	long featureID = 0;
@@ -98,25 +146,68 @@ public abstract class DetectAssociateTracker<I extends ImageSingleBand, D >
 		this.pruneThreshold = pruneThreshold;
 	}
 
+	/**
+	 * If true then features are detected in a background thread and the tracks are one frame behind
+	 * the most recently processed image.  If a frame is being processed when pipelining is turned off
+	 * then its features are discarded.
+	 */
+	public void setPipelined(boolean pipelined) {
+		if( !pipelined && pending != null ) {
+			waitForDetection();
+			locNext.reset();
+			if( featNext != null )
+				featNext.reset();
+		}
+		this.pipelined = pipelined;
+	}
+
+	public boolean isPipelined() {
+		return pipelined;
+	}
+
 	@Override
 	public void process( I input ) {
 		if( featSrc == null ) {
 			featSrc = createFeatureDescQueue(false);
 			featDst = createFeatureDescQueue(true);
+			featNext = createFeatureDescQueue(true);
+		}
+
+		if( pipelined ) {
+			// features from the previous image, if it hasn't been processed yet there is nothing to associate
+			boolean previous = waitForDetection();
+			if( previous ) {
+				swapDetected();
+			}
+			startDetection(input);
+
+			if( !previous ) {
+				tracksActive.clear();
+				tracksDropped.clear();
+				tracksNew.clear();
+				return;
+			}
+		} else {
+			featDst.reset();
+			locDst.reset();
+
+			setInputImage(input);
+			detectFeatures(locDst,featDst);
 		}
 
-		setInputImage(input);
+		updateTracks();
+	}
+
+	/**
+	 * Prunes old tracks and associates the tracks with the features in {@link #featDst}.
+	 */
+	private void updateTracks() {
 		tick++;
 
 		tracksActive.clear();
 		tracksDropped.clear();
 		tracksNew.clear();
 
-		featDst.reset();
-		locDst.reset();
-
-		detectFeatures(locDst,featDst);
-
 		pruneTracks();
 
 		// if the keyframe has been set associate
@@ -136,28 +227,111 @@ public abstract class DetectAssociateTracker<I extends ImageSingleBand, D >
 				if( updateState ) {
 					setDescription(info.desc, featDst.get(indexes.dst));
 				}
-//				System.out.println("i = "+i+"  x = "+loc.x+" y = "+loc.y);
 			}
-//			System.out.println("----------------- matched "+matches.size()+"  tracked "+locDst.size());
 		}
 	}
 
+	/**
+	 * Copies the input image and starts detecting features in the copy using the background thread.
+	 */
+	@SuppressWarnings({"unchecked"})
+	private void startDetection( I input ) {
+		if( inputCopy == null ) {
+			inputCopy = (I)input._createNew(input.width,input.height);
+		} else {
+			inputCopy.reshape(input.width,input.height);
+		}
+		inputCopy.setTo(input);
+
+		if( worker == null ) {
+			ThreadPoolExecutor pool = new ThreadPoolExecutor(1,1,1, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r,"DetectAssociateTracker");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+			// don't keep an idle thread around if the tracker is no longer being used
+			pool.allowCoreThreadTimeOut(true);
+			worker = pool;
+		}
+
+		locNext.reset();
+		featNext.reset();
+		pending = worker.submit(new Runnable() {
+			@Override
+			public void run() {
+				setInputImage(inputCopy);
+				detectFeatures(locNext,featNext);
+			}
+		});
+	}
+
+	/**
+	 * Blocks until the background thread has finished detecting features.  If detection failed the
+	 * exception is rethrown.
+	 *
+	 * @return true if there was a detection which was being processed
+	 */
+	private boolean waitForDetection() {
+		if( pending == null )
+			return false;
+
+		try {
+			pending.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if( cause instanceof Error )
+				throw (Error)cause;
+			throw cause instanceof RuntimeException ? (RuntimeException)cause : new RuntimeException(cause);
+		} finally {
+			pending = null;
+		}
+		return true;
+	}
+
+	/**
+	 * Makes the features found by the background thread the current set of detected features
+	 */
+	private void swapDetected() {
+		FastQueue<Point2D_F64> tmpLoc = locDst;
+		locDst = locNext;
+		locNext = tmpLoc;
+
+		FastQueue<D> tmpFeat = featDst;
+		featDst = featNext;
+		featNext = tmpFeat;
+	}
+
+	/**
+	 * Drops tracks which have not been associated recently.  Goes through the list backwards since
+	 * removing a track moves the last track into its place.
+	 */
 	private void pruneTracks() {
-		featSrc.reset();
-		Iterator<PointTrack> iter = tracksAll.iterator();
-		while( iter.hasNext() ) {
-			PointTrack p = iter.next();
+		for( int i = tracksAll.size()-1; i >= 0; i-- ) {
+			PointTrack p = tracksAll.get(i);
 			TrackInfo info = p.getDescription();
 			if( tick - info.lastAssociated > pruneThreshold ) {
 				tracksDropped.add(p);
-				unused.add(p);
-				iter.remove();
-			} else {
-				featSrc.add(info.desc);
+				removeTrack(i);
 			}
 		}
 	}
 
+	/**
+	 * Removes the track and its description in the same way so that they stay at the same index
+	 */
+	private void removeTrack( int index ) {
+		tracksAll.remove(index);
+		featSrc.data[index] = featSrc.data[featSrc.size-1];
+		featSrc.size--;
+	}
+
 	/**
 	 * Sets the 'src' description equal to 'dst'
 	 */
@@ -176,59 +350,55 @@ public abstract class DetectAssociateTracker<I extends ImageSingleBand, D >
 		tracksNew.clear();
 		tracksDropped.clear();
 		tracksActive.clear();
-		unused.addAll(tracksAll);
 		tracksAll.clear();
+		featSrc.reset();
 
 		// create new tracks from latest detected features
 		for( int i = 0; i < featDst.size; i++ ) {
 			PointTrack p = getUnused();
 			Point2D_F64 loc = locDst.get(i);
 			p.set(loc.x,loc.y);
-			setDescription(((TrackInfo)p.getDescription()).desc, featDst.get(i));
+			D desc = ((TrackInfo)p.getDescription()).desc;
+			setDescription(desc, featDst.get(i));
 			p.featureId = featureID++;
 
 			tracksNew.add(p);
 			tracksActive.add(p);
-			tracksAll.add(p);
-		}
-
-		featSrc.reset();
-		for( PointTrack p : tracksAll ) {
-			featSrc.add(p.<TrackInfo>getDescription().desc);
+			featSrc.add(desc);
 		}
 
 		keyFrameSet = true;
 	}
 
+	/**
+	 * Adds a track to the end of {@link #tracksAll}, recycling a dropped track if there is one
+	 */
 	private PointTrack getUnused() {
-		PointTrack p;
-		if( unused.size() > 0 ) {
-			p = unused.remove( unused.size()-1 );
-			((TrackInfo)p.getDescription()).reset();
-		} else {
+		PointTrack p = tracksAll.recycle();
+		if( p == null ) {
 			p = new PointTrack();
 			TrackInfo info = new TrackInfo();
 			info.desc = createDescription();
 			p.setDescription(info);
+			tracksAll.add(p);
 		}
+		((TrackInfo)p.getDescription()).reset();
 		return p;
 	}
 
 	@Override
 	public void dropTracks() {
-		unused.addAll(tracksAll);
 		tracksDropped.clear();
-		tracksDropped.addAll(tracksActive);
+		for( int i = 0; i < tracksActive.size(); i++ )
+			tracksDropped.add(tracksActive.get(i));
 		tracksActive.clear();
 		tracksAll.clear();
 		tracksNew.clear();
+		if( featSrc != null )
+			featSrc.reset();
 		matches = null;
 
 		keyFrameSet = false;
-//		if( featSrc != null ) {
-//			featSrc.reset();
-//			featDst.reset();
-//		}
 	}
 
 	/**
@@ -269,6 +439,9 @@ public abstract class DetectAssociateTracker<I extends ImageSingleBand, D >
 	{
 		// which tick was it last associated at.  Used for dropping tracks
 		long lastAssociated;
+		// location in tracksAll and tracksActive
+		int indexAll;
+		int indexActive = -1;
 		// description of the feature
 		D desc;
 
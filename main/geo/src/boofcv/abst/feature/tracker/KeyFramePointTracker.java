@@ -26,8 +26,16 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
+ * <p>
  * Point tracker which saves the location of features at the keyframe and keeps track of their current location.
  * Features are removed when the tracker looses them or when the user requests that a track be dropped.
+ * </p>
+ *
+ * <p>
+ * Pairs are stored in a {@link TrackStore} so they can be dropped in constant time.  When the tracker reports
+ * that a track has been dropped its {@link KeyFrameTrack} is recycled and used by the next track which is
+ * spawned, so references to dropped tracks should not be saved.
+ * </p>
  *
  * @author Peter Abeles
  */
@@ -43,7 +51,23 @@ public class KeyFramePointTracker<I extends ImageBase, R extends KeyFrameTrack>
 	Class<R> trackType;
 
 	// pairs of associated tracks
-	List<R> pairs = new ArrayList<R>();
+	TrackStore<R> pairs = new TrackStore<R>() {
+		@Override
+		protected int getIndex(R element) {
+			return element.index;
+		}
+
+		@Override
+		protected void setIndex(R element, int index) {
+			element.index = index;
+		}
+	};
+
+	// tracks which were spawned the last time spawnTracks() was called
+	List<R> spawned = new ArrayList<R>();
+
+	// tracks which have been dropped and can be recycled
+	List<R> unused = new ArrayList<R>();
 
 	// applies a distortion to each feature's track location
 	// can be used to convert points into normalized image coordinates
@@ -75,9 +99,12 @@ public class KeyFramePointTracker<I extends ImageBase, R extends KeyFrameTrack>
 	public void process( I image ) {
 		tracker.process(image);
 
+		recycleDropped();
+
 		pairs.clear();
 		List<PointTrack> tracks = tracker.getActiveTracks();
-		for( PointTrack t : tracks ) {
+		for( int i = 0; i < tracks.size(); i++ ) {
+			PointTrack t = tracks.get(i);
 			R p = t.getCookie();
 			p.pixel.currLoc.set(t);
 			pixelToNorm.compute(t.x, t.y, p.currLoc);
@@ -93,7 +120,8 @@ public class KeyFramePointTracker<I extends ImageBase, R extends KeyFrameTrack>
 
 		// todo purge non-active tracks here
 		List<PointTrack> tracks = tracker.getActiveTracks();
-		for( PointTrack t : tracks ) {
+		for( int i = 0; i < tracks.size(); i++ ) {
+			PointTrack t = tracks.get(i);
 			if( t.cookie == null )
 				throw new RuntimeException("Bug, cookie should have been set");
 			R p = t.getCookie();
@@ -106,36 +134,69 @@ public class KeyFramePointTracker<I extends ImageBase, R extends KeyFrameTrack>
 	}
 
 	/**
-	 * Requests that the tracker spawn new tracks
+	 * Requests that the tracker spawn new tracks.
+	 *
+	 * @return List of spawned tracks.  The list is modified the next time this function is called.
 	 */
 	public List<R> spawnTracks() {
-		List<R> spawned = new ArrayList<R>();
+		spawned.clear();
 		
 		tracker.spawnTracks();
 		List<PointTrack> tracks = tracker.getNewTracks();
-		for( PointTrack t : tracks ) {
+		for( int i = 0; i < tracks.size(); i++ ) {
+			PointTrack t = tracks.get(i);
 			if( t.cookie == null )
-				try {
-					t.cookie = trackType.newInstance();
-				} catch (InstantiationException e) {
-					throw new RuntimeException(e);
-				} catch (IllegalAccessException e) {
-					throw new RuntimeException(e);
-				}
+				t.cookie = getUnused();
 			R p = t.getCookie();
 			p.reset();
 			p.trackID = t.featureId;
+			p.track = t;
 			p.pixel.keyLoc.set(t);
 			p.pixel.currLoc.set(t);
 			pixelToNorm.compute(t.x, t.y, p.keyLoc);
 			p.currLoc.set(p.keyLoc);
-			pairs.add(p);
+			// the tracker might have reused a track which is still in the list
+			if( !pairs.contains(p) )
+				pairs.add(p);
 			spawned.add(p);
 		}
 
 		return spawned;
 	}
 
+	/**
+	 * Returns a recycled track or declares a new one
+	 */
+	private R getUnused() {
+		if( unused.size() > 0 )
+			return unused.remove(unused.size()-1);
+
+		try {
+			return trackType.newInstance();
+		} catch (InstantiationException e) {
+			throw new RuntimeException(e);
+		} catch (IllegalAccessException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Takes the data of tracks which the tracker has dropped so that it can be recycled
+	 */
+	private void recycleDropped() {
+		List<PointTrack> dropped = tracker.getDroppedTracks();
+		for( int i = 0; i < dropped.size(); i++ ) {
+			PointTrack t = dropped.get(i);
+			if( t.cookie != null ) {
+				R p = t.getCookie();
+				pairs.remove(p);
+				p.track = null;
+				unused.add(p);
+				t.cookie = null;
+			}
+		}
+	}
+
 	/**
 	 * Removes the track from the tracker and each keyframe
 	 * 
@@ -150,13 +211,9 @@ public class KeyFramePointTracker<I extends ImageBase, R extends KeyFrameTrack>
 	}
 
 	public void dropTrack( R track ) {
-		for( PointTrack t : tracker.getActiveTracks() ) {
-			if( t.getCookie() == track ) {
-				dropTrack(t);
-				return;
-			}
-		}
-		throw new RuntimeException("Couldn't find track to drop");
+		if( track.track == null || track.track.cookie != track )
+			throw new RuntimeException("Couldn't find track to drop");
+		dropTrack(track.track);
 	}
 
 	/**
@@ -183,6 +240,7 @@ public class KeyFramePointTracker<I extends ImageBase, R extends KeyFrameTrack>
 	public void reset() {
 		pairs.clear();
 		tracker.dropTracks();
+		recycleDropped();
 	}
 
 	public ImagePointTracker<I> getTracker() {
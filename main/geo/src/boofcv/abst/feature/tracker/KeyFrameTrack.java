@@ -33,6 +33,11 @@ public class KeyFrameTrack extends AssociatedPair {
 
 	long trackID;
 
+	// the tracker's track which this is attached to
+	PointTrack track;
+	// location inside of KeyFramePointTracker's list of pairs
+	int index = -1;
+
 	public void reset() {
 
 	}
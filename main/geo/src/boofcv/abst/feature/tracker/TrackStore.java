@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.feature.tracker;
+
+import java.util.AbstractList;
+
+/**
+ * <p>
+ * List of tracks which can add, remove, and look up elements in constant time.  Elements are stored in a dense
+ * array and are removed by moving the last element into the hole, so the order of the list changes when an element
+ * is removed.  For an element to be found in constant time it must save its location in the list, see
+ * {@link #getIndex(Object)} and {@link #setIndex(Object, int)}.  The same element can be in several lists
+ * at once if each list saves its location in a different field.
+ * </p>
+ *
+ * <p>
+ * Removed elements are kept in the array after the last element in the list and can be recycled, see
+ * {@link #recycle()}.  When used this way no memory is declared once the largest number of tracks has been seen.
+ * Adding an element using {@link #add(Object)} can overwrite a removed element, so a list should either
+ * recycle elements or have elements added to it, not both.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+@SuppressWarnings({"unchecked"})
+public abstract class TrackStore<T> extends AbstractList<T> {
+
+	// elements in the list followed by removed elements
+	private Object data[] = new Object[10];
+	// number of elements in the list
+	private int size;
+	// number of elements in the list plus the number of removed elements which can be recycled
+	private int allocated;
+
+	/**
+	 * Returns the element's location in the list which was saved by {@link #setIndex(Object, int)}.
+	 */
+	protected abstract int getIndex( T element );
+
+	/**
+	 * Saves the element's location in the list.  Set to -1 when the element is removed.
+	 */
+	protected abstract void setIndex( T element , int index );
+
+	@Override
+	public T get(int index) {
+		if( index < 0 || index >= size )
+			throw new IndexOutOfBoundsException("index = "+index+" size = "+size);
+		return (T)data[index];
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Adds the element to the end of the list
+	 */
+	@Override
+	public boolean add(T element) {
+		if( size == data.length ) {
+			Object tmp[] = new Object[ size*2 ];
+			System.arraycopy(data,0,tmp,0,size);
+			data = tmp;
+		}
+		data[size] = element;
+		setIndex(element,size++);
+		allocated = Math.max(allocated,size);
+		modCount++;
+		return true;
+	}
+
+	/**
+	 * Adds an element which has been removed back to the end of the list.
+	 *
+	 * @return The recycled element or null if there are none.
+	 */
+	public T recycle() {
+		if( size == allocated )
+			return null;
+
+		T element = (T)data[size];
+		setIndex(element,size++);
+		modCount++;
+		return element;
+	}
+
+	/**
+	 * Removes the element at the specified index by moving the last element in the list into its place.
+	 */
+	@Override
+	public T remove(int index) {
+		T element = get(index);
+		int last = size-1;
+		if( index != last ) {
+			T moved = (T)data[last];
+			data[index] = moved;
+			data[last] = element;
+			setIndex(moved,index);
+		}
+		setIndex(element,-1);
+		size--;
+		modCount++;
+		return element;
+	}
+
+	/**
+	 * Removes the element in constant time.
+	 *
+	 * @return true if the element was in the list
+	 */
+	@Override
+	public boolean remove(Object o) {
+		int index = indexOf(o);
+		if( index < 0 )
+			return false;
+		remove(index);
+		return true;
+	}
+
+	@Override
+	public int indexOf(Object o) {
+		if( o == null )
+			return -1;
+		int index = getIndex((T)o);
+		if( index < 0 || index >= size || data[index] != o )
+			return -1;
+		return index;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return indexOf(o) >= 0;
+	}
+
+	/**
+	 * Removes all the elements from the list.  They can still be recycled.
+	 */
+	@Override
+	public void clear() {
+		size = 0;
+		modCount++;
+	}
+}
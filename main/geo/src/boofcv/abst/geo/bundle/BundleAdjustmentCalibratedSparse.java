@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.geo.bundle;
+
+import boofcv.abst.geo.BundleAdjustmentCalibrated;
+import boofcv.alg.geo.bundle.*;
+import georegression.struct.se.Se3_F64;
+
+import java.util.List;
+
+/**
+ * Performs bundle adjustment using sparse matrices.  Points are eliminated using the Schur complement and only
+ * the reduced camera system is solved with a dense matrix.  See {@link CalibPoseAndPointLevenbergSchur}.
+ * Much faster and uses much less memory than {@link BundleAdjustmentCalibratedDense} when there are a lot
+ * of points.
+ *
+ * @author Peter Abeles
+ */
+public class BundleAdjustmentCalibratedSparse
+		implements BundleAdjustmentCalibrated
+{
+	// converts to and from a parameterized version of the model
+	CalibPoseAndPointRodriguesCodec codec = new CalibPoseAndPointRodriguesCodec();
+	// storage for model parameters
+	double param[] = new double[0];
+
+	// minimization algorithm
+	CalibPoseAndPointLevenbergSchur minimizer = new CalibPoseAndPointLevenbergSchur(1e-3);
+
+	// storage for known extrinsic parameters
+	Se3_F64 extrinsicStorage[] = new Se3_F64[0];
+	// known extrinsic parameters, null if unknown
+	Se3_F64 extrinsic[] = new Se3_F64[0];
+
+	int maxIterations;
+	double convergenceTol;
+
+	public BundleAdjustmentCalibratedSparse(double convergenceTol,
+											int maxIterations ) {
+		this.convergenceTol = convergenceTol;
+		this.maxIterations = maxIterations;
+	}
+
+	@Override
+	public boolean process(CalibratedPoseAndPoint initialModel,
+						   List<ViewPointObservations> observations)
+	{
+		int numViews = initialModel.getNumViews();
+		int numPoints = initialModel.getNumPoints();
+		int numViewsUnknown = initialModel.getNumUnknownViews();
+
+		codec.configure(numViews,numPoints,numViewsUnknown,initialModel.getKnownArray());
+
+		if( param.length < codec.getParamLength() )
+			param = new double[ codec.getParamLength() ];
+
+		if( extrinsic.length != numViews ) {
+			extrinsic = new Se3_F64[ numViews ];
+			if( extrinsicStorage.length < numViews ) {
+				Se3_F64 temp[] = new Se3_F64[ numViews ];
+				System.arraycopy(extrinsicStorage,0,temp,0,extrinsicStorage.length);
+				for( int i = extrinsicStorage.length; i < numViews; i++ )
+					temp[i] = new Se3_F64();
+				extrinsicStorage = temp;
+			}
+		}
+
+		boolean known[] = initialModel.getKnownArray();
+		for( int i = 0; i < numViews; i++ ) {
+			if( known[i]) {
+				extrinsic[i] = extrinsicStorage[i];
+				extrinsic[i].set( initialModel.getWorldToCamera(i));
+			} else {
+				extrinsic[i] = null;
+			}
+		}
+
+		codec.encode(initialModel,param);
+		minimizer.configure(codec,initialModel,observations,extrinsic);
+		minimizer.setConvergence(0,convergenceTol*observations.size());
+		minimizer.initialize(param);
+
+		for( int i = 0; i < maxIterations; i++ ) {
+			if( minimizer.iterate() )
+				break;
+		}
+
+		codec.decode(minimizer.getParameters(), initialModel);
+
+		return true;
+	}
+}
@@ -42,4 +42,9 @@ public class FlipVertical_F32 implements PointTransform_F32 {
 		out.x = x;
 		out.y = height - y;
 	}
+
+	@Override
+	public FlipVertical_F32 copy() {
+		return new FlipVertical_F32(height + 1);
+	}
 }
@@ -54,4 +54,11 @@ public class PixelToNormalized_F32 implements PointTransform_F32 {
 
 		GeometryMath_F32.mult(K_inv, out, out);
 	}
+
+	@Override
+	public PixelToNormalized_F32 copy() {
+		PixelToNormalized_F32 ret = new PixelToNormalized_F32();
+		ret.K_inv.set(K_inv);
+		return ret;
+	}
 }
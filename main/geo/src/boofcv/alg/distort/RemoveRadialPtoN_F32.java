@@ -119,4 +119,15 @@ public class RemoveRadialPtoN_F32 implements PointTransform_F32 {
 			}
 		}
 	}
+
+	@Override
+	public RemoveRadialPtoN_F32 copy() {
+		RemoveRadialPtoN_F32 ret = new RemoveRadialPtoN_F32();
+		ret.x_c = x_c;
+		ret.y_c = y_c;
+		ret.radial = radial == null ? null : radial.clone();
+		ret.K_inv.set(K_inv);
+		ret.tol = tol;
+		return ret;
+	}
 }
\ No newline at end of file
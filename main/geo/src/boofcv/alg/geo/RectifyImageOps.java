@@ -24,7 +24,9 @@ import boofcv.alg.geo.rectify.RectifyFundamental;
 import boofcv.alg.interpolate.InterpolatePixel;
 import boofcv.factory.distort.FactoryDistort;
 import boofcv.factory.interpolate.FactoryInterpolation;
+import boofcv.misc.BoofConcurrency;
 import boofcv.struct.calib.IntrinsicParameters;
+import boofcv.struct.distort.PixelTransformCached_F32;
 import boofcv.struct.distort.PointTransform_F32;
 import boofcv.struct.distort.PointTransform_F64;
 import boofcv.struct.distort.SequencePointTransform_F32;
@@ -35,6 +37,9 @@ import org.ejml.data.DenseMatrix64F;
 import org.ejml.ops.CommonOps;
 import org.ejml.simple.SimpleMatrix;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * <p>
  * Operations related to rectifying stereo image pairs. Provides functions for 1) creating rectification calculation
@@ -445,14 +450,12 @@ public class RectifyImageOps {
 	public static <T extends ImageSingleBand> ImageDistort<T>
 	rectifyImage( DenseMatrix64F rectify , Class<T> imageType)
 	{
-		InterpolatePixel<T> interp = FactoryInterpolation.bilinearPixel(imageType);
-
 		DenseMatrix64F rectifyInv = new DenseMatrix64F(3,3);
 		CommonOps.invert(rectify,rectifyInv);
 		PointTransformHomography_F32 rectifyTran = new PointTransformHomography_F32(rectifyInv);
 
 		// don't bother caching the results since it is likely to only be applied once and is cheap to compute
-		ImageDistort<T> ret = FactoryDistort.distort(interp, null, imageType);
+		ImageDistort<T> ret = createDistort(false, imageType);
 
 		ret.setModel(new PointToPixelTransform_F32(rectifyTran));
 
@@ -472,10 +475,8 @@ public class RectifyImageOps {
 	rectifyImage(IntrinsicParameters param,
 				 DenseMatrix64F rectify , Class<T> imageType)
 	{
-		InterpolatePixel<T> interp = FactoryInterpolation.bilinearPixel(imageType);
-
 		// only compute the transform once
-		ImageDistort<T> ret = FactoryDistort.distortCached(interp,null,imageType);
+		ImageDistort<T> ret = createDistort(true, imageType);
 
 		PointTransform_F32 transform = transformRectToPixel_F32(param, rectify);
 
@@ -484,4 +485,67 @@ public class RectifyImageOps {
 		return ret;
 	}
 
+	/**
+	 * Computes the transform from rectified to distorted pixels, see {@link #transformRectToPixel_F32},
+	 * for every pixel in the rectified image.  Computing this table can be slow for large images, so it can be
+	 * saved using {@link PixelTransformCached_F32#save(String)} and loaded again later.
+	 *
+	 * @see #rectifyImage(PixelTransformCached_F32, Class)
+	 *
+	 * @param param Intrinsic parameters.
+	 * @param rectify Transform for rectifying the image.
+	 * @param width Width of the rectified image.
+	 * @param height Height of the rectified image.
+	 * @return Table which describes the transform.
+	 */
+	public static PixelTransformCached_F32 rectifyMap(IntrinsicParameters param,
+													  DenseMatrix64F rectify ,
+													  int width , int height )
+	{
+		PointTransform_F32 transform = transformRectToPixel_F32(param, rectify);
+
+		return new PixelTransformCached_F32(width,height,new PointToPixelTransform_F32(transform));
+	}
+
+	/**
+	 * Creates an {@link ImageDistort} for rectifying an image using a precomputed table.
+	 *
+	 * @see #rectifyMap(IntrinsicParameters, DenseMatrix64F, int, int)
+	 *
+	 * @param map Table describing the transform from rectified to distorted pixels.
+	 * @param imageType Type of single band image the transform is to be applied to.
+	 * @return ImageDistort for rectifying the image.
+	 */
+	public static <T extends ImageSingleBand> ImageDistort<T>
+	rectifyImage(PixelTransformCached_F32 map , Class<T> imageType)
+	{
+		ImageDistort<T> ret = createDistort(true, imageType);
+
+		ret.setModel(map);
+
+		return ret;
+	}
+
+	/**
+	 * Creates an {@link ImageDistort} with bilinear interpolation which skips pixels outside the image.  If
+	 * {@link BoofConcurrency#USE_CONCURRENT} is true then the concurrent implementation is returned.
+	 */
+	private static <T extends ImageSingleBand>
+	ImageDistort<T> createDistort( boolean cached , Class<T> imageType ) {
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			int numWorkers = BoofConcurrency.getMaxThreads();
+			List<InterpolatePixel<T>> interp = new ArrayList<InterpolatePixel<T>>();
+			for( int i = 0; i < numWorkers; i++ ) {
+				interp.add(FactoryInterpolation.bilinearPixel(imageType));
+			}
+			return FactoryDistort.distort_MT(interp, null, cached, imageType);
+		}
+
+		InterpolatePixel<T> interp = FactoryInterpolation.bilinearPixel(imageType);
+
+		if( cached )
+			return FactoryDistort.distortCached(interp, null, imageType);
+		else
+			return FactoryDistort.distort(interp, null, imageType);
+	}
 }
@@ -0,0 +1,454 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.bundle;
+
+import boofcv.numerics.optimization.impl.LevenbergBase;
+import georegression.struct.se.Se3_F64;
+import org.ejml.alg.dense.mult.VectorVectorMult;
+import org.ejml.data.DenseMatrix64F;
+import org.ejml.factory.LinearSolver;
+import org.ejml.factory.LinearSolverFactory;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Levenberg-Marquardt for bundle adjustment with known calibration which takes advantage of the
+ * sparse structure in the Jacobian.  The approximate Hessian J'*J has a block-arrow structure:
+ * </p>
+ *
+ * <pre>
+ * [ U   W ] [dc]   [-gc]
+ * [ W'  V ] [dp] = [-gp]
+ * </pre>
+ *
+ * <p>
+ * where U is block diagonal with a 6x6 block for each unknown view, V is block diagonal with a 3x3 block for
+ * each point, and W contains one 6x3 block for each observation.  Points are eliminated using the Schur
+ * complement, S = U - W*inv(V)*W', and the much smaller reduced camera system S*dc = -gc + W*inv(V)*gp is solved
+ * using Cholesky decomposition.  The change in each point is then found by back substitution,
+ * dp = inv(V)*(-gp - W'*dc).  Memory and computation grow linearly with the number of observations, unlike the
+ * dense solver which grows with the square of the number of parameters.
+ * </p>
+ *
+ * <p>
+ * Dampening is applied to the diagonal elements as in
+ * {@link boofcv.numerics.optimization.impl.LevenbergMarquardtDampened}.  Internal storage is only declared
+ * when the problem grows in size.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class CalibPoseAndPointLevenbergSchur extends LevenbergBase {
+
+	// computes the residuals
+	CalibPoseAndPointResiduals func = new CalibPoseAndPointResiduals();
+	// computes the non-zero blocks in the Jacobian
+	CalibPoseAndPointRodriguesBlockJacobian jacobian = new CalibPoseAndPointRodriguesBlockJacobian();
+
+	// parameters the function is being evaluated at
+	double param[];
+
+	// number of views with unknown extrinsic parameters
+	int numViewsUnknown;
+	int numPoints;
+	int numObservations;
+
+	// index of the unknown view in each observation. -1 if the view is known
+	int obsView[] = new int[0];
+	// index of the point in each observation
+	int obsPoint[] = new int[0];
+	// observations sorted by point. pointObs[pointObsStart[j]] to pointObs[pointObsStart[j+1]-1]
+	int pointObsStart[] = new int[0];
+	int pointObs[] = new int[0];
+
+	// Jacobian blocks for each observation
+	double viewJac[] = new double[0];
+	double pointJac[] = new double[0];
+
+	// 6x6 blocks along the diagonal of J'*J for the views
+	double U[] = new double[0];
+	// 3x3 blocks along the diagonal of J'*J for the points
+	double V[] = new double[0];
+	// 6x3 off diagonal block for each observation
+	double W[] = new double[0];
+	// diagonal elements of J'*J
+	double diag[] = new double[0];
+
+	// inverse of the dampened point blocks
+	double Vinv[] = new double[0];
+	// W*inv(V) for each observation
+	double Y[] = new double[0];
+
+	// reduced camera system
+	DenseMatrix64F S = new DenseMatrix64F(1,1);
+	DenseMatrix64F b = new DenseMatrix64F(1,1);
+	DenseMatrix64F stepView = new DenseMatrix64F(1,1);
+	LinearSolver<DenseMatrix64F> solver;
+
+	// work space for a single point
+	double tempP[] = new double[3];
+	double tempV[] = new double[9];
+
+	/**
+	 * @param initialDampParam Initial value of the dampening parameter.  Tune.. try 1e-3;
+	 */
+	public CalibPoseAndPointLevenbergSchur(double initialDampParam) {
+		super(initialDampParam);
+	}
+
+	/**
+	 * Specifies the problem being optimized.
+	 *
+	 * @param codec Codec used to encode the parameters.
+	 * @param model Storage for the decoded model.
+	 * @param observations Observations in each view.
+	 * @param extrinsic Extrinsic parameters of each view.  Null if unknown.
+	 */
+	public void configure( CalibPoseAndPointRodriguesCodec codec ,
+						   CalibratedPoseAndPoint model ,
+						   List<ViewPointObservations> observations ,
+						   Se3_F64 ...extrinsic )
+	{
+		numPoints = model.getNumPoints();
+
+		func.configure(codec,model,observations);
+		jacobian.configure(observations,numPoints,extrinsic);
+
+		numViewsUnknown = jacobian.getNumViewsUnknown();
+		numObservations = jacobian.getNumObservations();
+
+		internalInitialize(func.getN(),func.getM());
+
+		declareStorage();
+
+		// look up table from observation to the unknown view and point
+		int indexObs = 0;
+		int indexUnknown = 0;
+		for( int view = 0; view < observations.size(); view++ ) {
+			int viewIndex = extrinsic[view] == null ? indexUnknown++ : -1;
+
+			ViewPointObservations obs = observations.get(view);
+			for( int i = 0; i < obs.points.size; i++ , indexObs++ ) {
+				obsView[indexObs] = viewIndex;
+				obsPoint[indexObs] = obs.points.get(i).pointIndex;
+			}
+		}
+
+		// sort observations by point
+		for( int i = 0; i <= numPoints; i++ )
+			pointObsStart[i] = 0;
+		for( int i = 0; i < numObservations; i++ )
+			pointObsStart[obsPoint[i]+1]++;
+		for( int i = 0; i < numPoints; i++ )
+			pointObsStart[i+1] += pointObsStart[i];
+		for( int i = 0; i < numObservations; i++ ) {
+			int j = obsPoint[i];
+			pointObs[pointObsStart[j]++] = i;
+		}
+		// undo the shift caused by adding the observations
+		for( int i = numPoints; i > 0; i-- )
+			pointObsStart[i] = pointObsStart[i-1];
+		pointObsStart[0] = 0;
+
+		// declare the reduced camera system
+		int numRows = numViewsUnknown*6;
+		S.reshape(numRows,numRows);
+		b.reshape(numRows,1);
+		stepView.reshape(numRows,1);
+		if( numRows > 0 )
+			solver = LinearSolverFactory.symmPosDef(numRows);
+	}
+
+	private void declareStorage() {
+		if( obsView.length < numObservations ) {
+			obsView = new int[numObservations];
+			obsPoint = new int[numObservations];
+			pointObs = new int[numObservations];
+			viewJac = new double[numObservations*12];
+			pointJac = new double[numObservations*6];
+			W = new double[numObservations*18];
+			Y = new double[numObservations*18];
+		}
+		if( pointObsStart.length < numPoints+1 ) {
+			pointObsStart = new int[numPoints+1];
+			V = new double[numPoints*9];
+			Vinv = new double[numPoints*9];
+		}
+		if( U.length < numViewsUnknown*36 )
+			U = new double[numViewsUnknown*36];
+		if( diag.length < N )
+			diag = new double[N];
+	}
+
+	@Override
+	protected void setFunctionParameters(double[] param) {
+		this.param = param;
+	}
+
+	@Override
+	protected void computeResiduals(double[] output) {
+		func.process(param,output);
+	}
+
+	@Override
+	protected void computeJacobian(DenseMatrix64F residuals, DenseMatrix64F gradient) {
+		jacobian.process(param,viewJac,pointJac);
+
+		final double r[] = residuals.data;
+		final double g[] = gradient.data;
+		final int indexFirstPoint = numViewsUnknown*6;
+
+		zero(U,numViewsUnknown*36);
+		zero(V,numPoints*9);
+		zero(g,N);
+
+		for( int k = 0; k < numObservations; k++ ) {
+			double rx = r[k*2];
+			double ry = r[k*2+1];
+
+			// point block
+			int indexJp = k*6;
+			int indexV = obsPoint[k]*9;
+			int indexG = indexFirstPoint + obsPoint[k]*3;
+			for( int i = 0; i < 3; i++ ) {
+				double ax = pointJac[indexJp+i];
+				double ay = pointJac[indexJp+3+i];
+				for( int j = 0; j < 3; j++ ) {
+					V[indexV+i*3+j] += ax*pointJac[indexJp+j] + ay*pointJac[indexJp+3+j];
+				}
+				g[indexG+i] += ax*rx + ay*ry;
+			}
+
+			int view = obsView[k];
+			if( view < 0 )
+				continue;
+
+			// view block and the off diagonal block
+			int indexJc = k*12;
+			int indexU = view*36;
+			int indexW = k*18;
+			indexG = view*6;
+			for( int i = 0; i < 6; i++ ) {
+				double ax = viewJac[indexJc+i];
+				double ay = viewJac[indexJc+6+i];
+				for( int j = 0; j < 6; j++ ) {
+					U[indexU+i*6+j] += ax*viewJac[indexJc+j] + ay*viewJac[indexJc+6+j];
+				}
+				for( int j = 0; j < 3; j++ ) {
+					W[indexW+i*3+j] = ax*pointJac[indexJp+j] + ay*pointJac[indexJp+3+j];
+				}
+				g[indexG+i] += ax*rx + ay*ry;
+			}
+		}
+
+		// save the diagonal elements for dampening
+		for( int view = 0; view < numViewsUnknown; view++ ) {
+			for( int i = 0; i < 6; i++ )
+				diag[view*6+i] = U[view*36+i*7];
+		}
+		for( int point = 0; point < numPoints; point++ ) {
+			for( int i = 0; i < 3; i++ )
+				diag[indexFirstPoint+point*3+i] = V[point*9+i*4];
+		}
+	}
+
+	@Override
+	protected boolean computeStep(double lambda, DenseMatrix64F gradientNegative, DenseMatrix64F step) {
+		final double gn[] = gradientNegative.data;
+		final int indexFirstPoint = numViewsUnknown*6;
+		final int numRows = indexFirstPoint;
+
+		// inverse of the dampened point blocks
+		for( int point = 0; point < numPoints; point++ ) {
+			System.arraycopy(V,point*9,tempV,0,9);
+			for( int i = 0; i < 3; i++ )
+				tempV[i*4] *= 1+lambda;
+			if( !invertSymm3(tempV,Vinv,point*9) )
+				return false;
+		}
+
+		// dampened view blocks along the diagonal of the reduced system
+		S.zero();
+		for( int view = 0; view < numViewsUnknown; view++ ) {
+			for( int i = 0; i < 6; i++ ) {
+				int indexS = (view*6+i)*numRows + view*6;
+				int indexU = view*36+i*6;
+				for( int j = 0; j < 6; j++ ) {
+					S.data[indexS+j] = U[indexU+j];
+				}
+				S.data[indexS+i] *= 1+lambda;
+			}
+		}
+		System.arraycopy(gn,0,b.data,0,numRows);
+
+		// eliminate the points
+		for( int point = 0; point < numPoints; point++ ) {
+			int start = pointObsStart[point];
+			int end = pointObsStart[point+1];
+			int indexVinv = point*9;
+			int indexG = indexFirstPoint+point*3;
+
+			for( int a = start; a < end; a++ ) {
+				int k = pointObs[a];
+				int viewK = obsView[k];
+				if( viewK < 0 )
+					continue;
+
+				// Y = W*inv(V)
+				int indexW = k*18;
+				for( int i = 0; i < 6; i++ ) {
+					for( int j = 0; j < 3; j++ ) {
+						double sum = 0;
+						for( int l = 0; l < 3; l++ )
+							sum += W[indexW+i*3+l]*Vinv[indexVinv+l*3+j];
+						Y[indexW+i*3+j] = sum;
+					}
+					// b = -gc + Y*gp
+					double sum = 0;
+					for( int j = 0; j < 3; j++ )
+						sum += Y[indexW+i*3+j]*gn[indexG+j];
+					b.data[viewK*6+i] -= sum;
+				}
+
+				// S = U - Y*W'
+				for( int c = start; c < end; c++ ) {
+					int l = pointObs[c];
+					int viewL = obsView[l];
+					if( viewL < 0 )
+						continue;
+
+					int indexWL = l*18;
+					for( int i = 0; i < 6; i++ ) {
+						int indexS = (viewK*6+i)*numRows + viewL*6;
+						for( int j = 0; j < 6; j++ ) {
+							double sum = 0;
+							for( int m = 0; m < 3; m++ )
+								sum += Y[indexW+i*3+m]*W[indexWL+j*3+m];
+							S.data[indexS+j] -= sum;
+						}
+					}
+				}
+			}
+		}
+
+		// solve the reduced camera system
+		if( numRows > 0 ) {
+			if( !solver.setA(S) )
+				return false;
+			solver.solve(b,stepView);
+			System.arraycopy(stepView.data,0,step.data,0,numRows);
+		}
+
+		// back substitute to find the change in each point
+		for( int point = 0; point < numPoints; point++ ) {
+			int indexG = indexFirstPoint+point*3;
+
+			tempP[0] = gn[indexG];
+			tempP[1] = gn[indexG+1];
+			tempP[2] = gn[indexG+2];
+
+			for( int a = pointObsStart[point]; a < pointObsStart[point+1]; a++ ) {
+				int k = pointObs[a];
+				int view = obsView[k];
+				if( view < 0 )
+					continue;
+
+				// t = -gp - W'*dc
+				int indexW = k*18;
+				for( int j = 0; j < 3; j++ ) {
+					double sum = 0;
+					for( int i = 0; i < 6; i++ )
+						sum += W[indexW+i*3+j]*step.data[view*6+i];
+					tempP[j] -= sum;
+				}
+			}
+
+			int indexVinv = point*9;
+			for( int i = 0; i < 3; i++ ) {
+				step.data[indexG+i] = Vinv[indexVinv+i*3]*tempP[0] +
+						Vinv[indexVinv+i*3+1]*tempP[1] + Vinv[indexVinv+i*3+2]*tempP[2];
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * compute the change predicted by the model
+	 *
+	 * m_k(0) - m_k(p_k) = -g_k'*p - 0.5*p'*B*p
+	 * (J'*J+mu*diag(J'*J))*p = -J'*r = -g
+	 *
+	 * @return predicted reduction
+	 */
+	@Override
+	protected double predictedReduction(DenseMatrix64F param, DenseMatrix64F gradientNegative, double mu) {
+		double p_dot_g = VectorVectorMult.innerProd(param,gradientNegative);
+		double p_JJ_p = 0;
+		for( int i = 0; i < N; i++ )
+			p_JJ_p += param.data[i]*diag[i]*param.data[i];
+
+		// The variable g is really the negative of g
+		return 0.5*(p_dot_g + mu*p_JJ_p);
+	}
+
+	@Override
+	protected double getMinimumDampening() {
+		double max = 0;
+		for( int i = 0; i < N; i++ )
+			max = Math.max(max,diag[i]);
+		return max;
+	}
+
+	/**
+	 * Inverts a symmetric 3x3 matrix using its adjugate.
+	 *
+	 * @return false if the matrix is not positive definite
+	 */
+	private static boolean invertSymm3( double a[] , double inv[] , int index ) {
+		double a11 = a[0], a12 = a[1], a13 = a[2];
+		double a22 = a[4], a23 = a[5];
+		double a33 = a[8];
+
+		double c11 = a22*a33 - a23*a23;
+		double c12 = a13*a23 - a12*a33;
+		double c13 = a12*a23 - a13*a22;
+
+		double det = a11*c11 + a12*c12 + a13*c13;
+
+		if( !(det > 0) || a11 <= 0 )
+			return false;
+
+		double c22 = a11*a33 - a13*a13;
+		double c23 = a12*a13 - a11*a23;
+		double c33 = a11*a22 - a12*a12;
+
+		inv[index  ] = c11/det; inv[index+1] = c12/det; inv[index+2] = c13/det;
+		inv[index+3] = c12/det; inv[index+4] = c22/det; inv[index+5] = c23/det;
+		inv[index+6] = c13/det; inv[index+7] = c23/det; inv[index+8] = c33/det;
+
+		return true;
+	}
+
+	private static void zero( double a[] , int length ) {
+		for( int i = 0; i < length; i++ )
+			a[i] = 0;
+	}
+}
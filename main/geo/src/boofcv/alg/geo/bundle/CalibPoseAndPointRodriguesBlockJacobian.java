@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.bundle;
+
+import boofcv.alg.geo.RodriguesRotationJacobian;
+import georegression.geometry.GeometryMath_F64;
+import georegression.geometry.RotationMatrixGenerator;
+import georegression.struct.point.Point3D_F64;
+import georegression.struct.point.Vector3D_F64;
+import georegression.struct.se.Se3_F64;
+import georegression.struct.so.Rodrigues;
+import org.ejml.data.DenseMatrix64F;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Computes the same Jacobian as {@link CalibPoseAndPointRodriguesJacobian}, but only the non-zero blocks are
+ * saved.  Each observation of a point only depends on the parameters of one view and one point, so its two rows
+ * in the Jacobian are fully described by a 2x6 block for the view and a 2x3 block for the point.
+ * </p>
+ *
+ * <p>
+ * Observations are ordered the same as in {@link CalibPoseAndPointResiduals}.  For observation 'k' the view
+ * block is stored row-major in viewJac starting at index k*12 and the point block starting in pointJac at
+ * index k*6.  View blocks for views with known extrinsic parameters are not written to.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class CalibPoseAndPointRodriguesBlockJacobian {
+
+	// if the extrinsic parameters are known, specify them here
+	Se3_F64 extrinsic[];
+	// observed location of features in each view
+	List<ViewPointObservations> observations;
+
+	// number of camera views
+	int numViews;
+	// number of points in world coordinates
+	int numPoints;
+	// number of views with unknown extrinsic parameters
+	int numViewsUnknown;
+	// number of observations across all views
+	int numObservations;
+
+	// index in parameters of the first point
+	int indexFirstPoint;
+
+	// used to compute the Jacobian from Rodrigues coordinates
+	RodriguesRotationJacobian rodJacobian = new RodriguesRotationJacobian();
+
+	Rodrigues rodrigues = new Rodrigues();
+	// rotation matrix
+	DenseMatrix64F R = new DenseMatrix64F(3,3);
+	// translation vector
+	Vector3D_F64 T = new Vector3D_F64();
+	// feature location in world coordinates
+	Point3D_F64 worldPt = new Point3D_F64();
+	// feature location in camera coordinates
+	Point3D_F64 cameraPt = new Point3D_F64();
+
+	public void configure( List<ViewPointObservations> observations , int numPoints , Se3_F64 ...extrinsic) {
+		if( extrinsic.length < observations.size() )
+			throw new RuntimeException("knownExtrinsic length is less than the number of views in 'observations'");
+
+		this.observations = observations;
+		this.extrinsic = extrinsic;
+		this.numViews = observations.size();
+		this.numPoints = numPoints;
+
+		numViewsUnknown = 0;
+		numObservations = 0;
+		for( int i = 0; i < numViews; i++ ) {
+			if( extrinsic[i] == null )
+				numViewsUnknown++;
+			numObservations += observations.get(i).points.size;
+		}
+
+		indexFirstPoint = numViewsUnknown*6;
+	}
+
+	/**
+	 * Computes the Jacobian blocks for every observation
+	 *
+	 * @param input Encoded parameters, see {@link CalibPoseAndPointRodriguesCodec}.
+	 * @param viewJac Storage for the view blocks.  Must be at least 12*numObservations long.
+	 * @param pointJac Storage for the point blocks.  Must be at least 6*numObservations long.
+	 */
+	public void process(double[] input, double[] viewJac , double[] pointJac ) {
+		int paramIndex = 0;
+		int indexObs = 0;
+
+		for( int i = 0; i < numViews; i++ ) {
+			ViewPointObservations obs = observations.get(i);
+			boolean unknown = extrinsic[i] == null;
+
+			if( unknown ) {
+				double rodX = input[paramIndex++];
+				double rodY = input[paramIndex++];
+				double rodZ = input[paramIndex++];
+
+				T.x = input[paramIndex++];
+				T.y = input[paramIndex++];
+				T.z = input[paramIndex++];
+
+				rodrigues.setParamVector(rodX,rodY,rodZ);
+				rodJacobian.process(rodX,rodY,rodZ);
+
+				RotationMatrixGenerator.rodriguesToMatrix(rodrigues,R);
+			} else {
+				T.set( extrinsic[i].getT());
+				R.set( extrinsic[i].getR());
+			}
+
+			for( int j = 0; j < obs.points.size; j++ , indexObs++ ) {
+				PointIndexObservation o = obs.points.get(j);
+				int indexParamWorld = indexFirstPoint+o.pointIndex*3;
+
+				// extract location of world point
+				worldPt.x = input[indexParamWorld];
+				worldPt.y = input[indexParamWorld+1];
+				worldPt.z = input[indexParamWorld+2];
+
+				// location of point in camera view
+				GeometryMath_F64.mult(R, worldPt, cameraPt);
+				cameraPt.x += T.x;
+				cameraPt.y += T.y;
+				cameraPt.z += T.z;
+
+				if( unknown ) {
+					int indexX = indexObs*12;
+					addRodriguesJacobian(rodJacobian.Rx,viewJac,indexX);
+					addRodriguesJacobian(rodJacobian.Ry,viewJac,indexX+1);
+					addRodriguesJacobian(rodJacobian.Rz,viewJac,indexX+2);
+					addTranslationJacobian(viewJac,indexX+3);
+				}
+
+				addWorldPointGradient(R,pointJac,indexObs*6);
+			}
+		}
+	}
+
+	/**
+	 * Partial for a Rodrigues parameter.  See {@link CalibPoseAndPointRodriguesJacobian}.
+	 */
+	private void addRodriguesJacobian( DenseMatrix64F Rj , double[] output , int indexX )
+	{
+		// (1/z)*dot(R)*X
+		double Rx = (Rj.data[0]*worldPt.x + Rj.data[1]*worldPt.y + Rj.data[2]*worldPt.z)/cameraPt.z;
+		double Ry = (Rj.data[3]*worldPt.x + Rj.data[4]*worldPt.y + Rj.data[5]*worldPt.z)/cameraPt.z;
+
+		// dot(z)/(z^2)
+		double zDot_div_z2 = (Rj.data[6]*worldPt.x + Rj.data[7]*worldPt.y + Rj.data[8]*worldPt.z)/
+				(cameraPt.z*cameraPt.z);
+
+		output[indexX] = -zDot_div_z2*cameraPt.x + Rx;
+		output[indexX+6] = -zDot_div_z2*cameraPt.y + Ry;
+	}
+
+	/**
+	 * Partials for the translation.  See {@link CalibPoseAndPointRodriguesJacobian}.
+	 */
+	private void addTranslationJacobian( double[] output , int indexX )
+	{
+		double divZ = 1.0/cameraPt.z;
+		double divZ2 = 1.0/(cameraPt.z*cameraPt.z);
+
+		int indexY = indexX + 6;
+
+		// partial T.x
+		output[indexX++] = divZ;
+		output[indexY++] = 0;
+		// partial T.y
+		output[indexX++] = 0;
+		output[indexY++] = divZ;
+		// partial T.z
+		output[indexX] = -cameraPt.x*divZ2;
+		output[indexY] = -cameraPt.y*divZ2;
+	}
+
+	/**
+	 * Partials for the feature's 3D location.  See {@link CalibPoseAndPointRodriguesJacobian}.
+	 */
+	private void addWorldPointGradient( DenseMatrix64F R , double[] output , int indexX ) {
+		double divZ2 = 1.0/(cameraPt.z*cameraPt.z);
+
+		int indexY = indexX + 3;
+
+		// partial P.x
+		output[indexX++] = -R.data[6]*divZ2*cameraPt.x + R.data[0]/cameraPt.z;
+		output[indexY++] = -R.data[6]*divZ2*cameraPt.y + R.data[3]/cameraPt.z;
+		// partial P.y
+		output[indexX++] = -R.data[7]*divZ2*cameraPt.x + R.data[1]/cameraPt.z;
+		output[indexY++] = -R.data[7]*divZ2*cameraPt.y + R.data[4]/cameraPt.z;
+		// partial P.z
+		output[indexX] = -R.data[8]*divZ2*cameraPt.x + R.data[2]/cameraPt.z;
+		output[indexY] = -R.data[8]*divZ2*cameraPt.y + R.data[5]/cameraPt.z;
+	}
+
+	public int getNumObservations() {
+		return numObservations;
+	}
+
+	public int getNumViewsUnknown() {
+		return numViewsUnknown;
+	}
+}
@@ -37,6 +37,7 @@ import boofcv.alg.filter.derivative.GImageDerivativeOps;
 import boofcv.alg.tracker.pklt.GenericPkltFeatSelector;
 import boofcv.alg.tracker.pklt.PkltManager;
 import boofcv.alg.tracker.pklt.PkltManagerConfig;
+import boofcv.alg.tracker.pklt.PkltManager_MT;
 import boofcv.alg.transform.ii.GIntegralImageOps;
 import boofcv.factory.feature.associate.FactoryAssociation;
 import boofcv.factory.feature.describe.FactoryDescribePointAlgs;
@@ -46,6 +47,7 @@ import boofcv.factory.feature.detect.interest.FactoryInterestPoint;
 import boofcv.factory.feature.orientation.FactoryOrientationAlgs;
 import boofcv.factory.filter.blur.FactoryBlurFilter;
 import boofcv.factory.interpolate.FactoryInterpolation;
+import boofcv.misc.BoofConcurrency;
 import boofcv.struct.feature.NccFeature;
 import boofcv.struct.feature.TupleDesc_B;
 import boofcv.struct.feature.TupleDesc_F64;
@@ -88,11 +90,16 @@ public class FactoryPointSequentialTracker {
 		GenericPkltFeatSelector<I, D> featureSelector = new GenericPkltFeatSelector<I, D>(detector, null);
 
 
-		PkltManager<I, D> trackManager = new PkltManager<I, D>();
-		trackManager.configure(config,
-				FactoryInterpolation.<I>bilinearRectangle(config.typeInput),
-				FactoryInterpolation.<D>bilinearRectangle(config.typeDeriv),
-				featureSelector);
+		PkltManager<I, D> trackManager;
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			trackManager = new PkltManager_MT<I, D>(config, featureSelector);
+		} else {
+			trackManager = new PkltManager<I, D>();
+			trackManager.configure(config,
+					FactoryInterpolation.<I>bilinearRectangle(config.typeInput),
+					FactoryInterpolation.<D>bilinearRectangle(config.typeDeriv),
+					featureSelector);
+		}
 
 		return new PstWrapperKltPyramid<I, D>(trackManager);
 	}
@@ -105,7 +112,11 @@ public class FactoryPointSequentialTracker {
 	 */
 	public static <I extends ImageSingleBand, D extends ImageSingleBand>
 	ImagePointTracker<I> klt(PkltManagerConfig<I, D> config) {
-		PkltManager<I, D> trackManager = new PkltManager<I, D>(config);
+		PkltManager<I, D> trackManager;
+		if( BoofConcurrency.USE_CONCURRENT )
+			trackManager = new PkltManager_MT<I, D>(config);
+		else
+			trackManager = new PkltManager<I, D>(config);
 
 		return new PstWrapperKltPyramid<I, D>(trackManager);
 	}
@@ -19,7 +19,7 @@
 package boofcv.factory.geo;
 
 import boofcv.abst.geo.*;
-import boofcv.abst.geo.bundle.BundleAdjustmentCalibratedDense;
+import boofcv.abst.geo.bundle.BundleAdjustmentCalibratedSparse;
 import boofcv.abst.geo.f.*;
 import boofcv.abst.geo.h.LeastSquaresHomography;
 import boofcv.abst.geo.h.WrapHomographyLinear;
@@ -51,14 +51,15 @@ import georegression.struct.se.Se3_F64;
 public class FactoryMultiView {
 
 	/**
-	 * Creates bundle adjustment for a camera with a know and fixed intrinsic calibration
+	 * Creates bundle adjustment for a camera with a know and fixed intrinsic calibration.  Takes advantage
+	 * of the sparse structure of the problem and can handle thousands of points.
 	 *
 	 * @param tol Convergence tolerance.  Try 1e-8
 	 * @param maxIterations Maximum number of iterations. Try 200 or more
 	 * @return Bundle Adjustment
 	 */
 	public static BundleAdjustmentCalibrated bundleCalibrated(double tol , int maxIterations) {
-		return new BundleAdjustmentCalibratedDense(tol,maxIterations);
+		return new BundleAdjustmentCalibratedSparse(tol,maxIterations);
 	}
 
 	/**
@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.feature.tracker;
+
+import boofcv.struct.FastQueue;
+import boofcv.struct.feature.AssociatedIndex;
+import boofcv.struct.image.ImageFloat32;
+import georegression.struct.point.Point2D_F64;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestDetectAssociateTracker {
+
+	Random rand = new Random(234);
+
+	/**
+	 * When pipelined the results should be identical to the sequential tracker, but one frame behind
+	 */
+	@Test
+	public void pipelined_compareToSequential() {
+		Dummy sequential = new Dummy();
+		Dummy pipelined = new Dummy();
+		pipelined.setPipelined(true);
+
+		ImageFloat32 image = new ImageFloat32(30,1);
+
+		// the first frame has nothing to associate against
+		randomFeatures(image);
+		pipelined.process(image);
+		assertEquals(0,pipelined.getActiveTracks().size());
+
+		for( int frame = 0; frame < 20; frame++ ) {
+			sequential.process(image);
+			// the pipeline should not be affected by the image changing after process returns
+			randomFeatures(image);
+			pipelined.process(image);
+
+			compare(sequential.getActiveTracks(),pipelined.getActiveTracks());
+			compare(sequential.getDroppedTracks(),pipelined.getDroppedTracks());
+
+			if( frame % 7 == 0 ) {
+				sequential.spawnTracks();
+				pipelined.spawnTracks();
+				compare(sequential.getNewTracks(),pipelined.getNewTracks());
+			} else if( frame % 5 == 0 ) {
+				sequential.dropTrack(sequential.getActiveTracks().get(0));
+				pipelined.dropTrack(pipelined.getActiveTracks().get(0));
+			}
+			compare(sequential.getActiveTracks(),pipelined.getActiveTracks());
+		}
+
+		// the background thread should have been used
+		assertTrue(pipelined.detectThread != Thread.currentThread());
+	}
+
+	/**
+	 * Turning off pipelining should discard the frame being processed and go back to processing
+	 * images as they are passed in
+	 */
+	@Test
+	public void setPipelined_off() {
+		Dummy alg = new Dummy();
+		alg.setPipelined(true);
+
+		ImageFloat32 image = new ImageFloat32(30,1);
+		randomFeatures(image);
+		alg.process(image);
+		alg.setPipelined(false);
+		alg.process(image);
+		alg.spawnTracks();
+
+		int total = 0;
+		for( int x = 0; x < image.width; x++ )
+			if( image.get(x,0) > 0 )
+				total++;
+		assertEquals(total,alg.getActiveTracks().size());
+		assertTrue(alg.detectThread == Thread.currentThread());
+	}
+
+	/**
+	 * Exceptions thrown while detecting features in the background should be passed to the caller
+	 */
+	@Test
+	public void pipelined_exception() {
+		Dummy alg = new Dummy();
+		alg.setPipelined(true);
+
+		// a negative value causes detection to fail
+		ImageFloat32 image = new ImageFloat32(30,1);
+		image.set(0,0,-1);
+		alg.process(image);
+		image.set(0,0,0);
+		try {
+			alg.process(image);
+			fail("Exception should have been thrown");
+		} catch( IllegalStateException e ) {}
+
+		// it should recover after the exception
+		randomFeatures(image);
+		alg.process(image);
+		alg.process(image);
+		alg.spawnTracks();
+		assertTrue(alg.getActiveTracks().size() > 0);
+	}
+
+	/**
+	 * Tracks which have been dropped should be recycled instead of declaring new ones
+	 */
+	@Test
+	public void recycleTracks() {
+		Dummy alg = new Dummy();
+		alg.setPruneThreshold(1);
+
+		ImageFloat32 image = new ImageFloat32(30,1);
+		for( int x = 0; x < image.width; x++ )
+			image.set(x,0,1);
+		alg.process(image);
+		alg.spawnTracks();
+		List<PointTrack> original = new ArrayList<PointTrack>(alg.getActiveTracks());
+		assertEquals(30,original.size());
+
+		// drop every other feature.  They are pruned after going unassociated for more than one frame
+		for( int x = 0; x < image.width; x += 2 )
+			image.set(x,0,0);
+		alg.process(image);
+		assertEquals(0,alg.getDroppedTracks().size());
+		alg.process(image);
+		assertEquals(15,alg.getActiveTracks().size());
+		assertEquals(15,alg.getDroppedTracks().size());
+		assertEquals(15,alg.getTracksAll().size());
+
+		// the remaining tracks should still be associated with the correct features
+		for( PointTrack t : alg.getActiveTracks() ) {
+			assertEquals(1,((int)t.x)%2);
+		}
+
+		alg.dropTrack(alg.getActiveTracks().get(3));
+		assertEquals(14,alg.getActiveTracks().size());
+
+		// all the spawned tracks should be recycled
+		for( int x = 0; x < image.width; x++ )
+			image.set(x,0,1);
+		alg.process(image);
+		alg.spawnTracks();
+		assertEquals(30,alg.getActiveTracks().size());
+		for( PointTrack t : alg.getActiveTracks() ) {
+			assertTrue(original.contains(t));
+		}
+	}
+
+	private void randomFeatures( ImageFloat32 image ) {
+		for( int x = 0; x < image.width; x++ ) {
+			image.set(x,0,rand.nextInt(3) == 0 ? 0 : 1 + rand.nextInt(5));
+		}
+	}
+
+	private void compare( List<PointTrack> expected , List<PointTrack> found ) {
+		assertEquals(expected.size(),found.size());
+		for( int i = 0; i < expected.size(); i++ ) {
+			PointTrack e = expected.get(i);
+			PointTrack f = found.get(i);
+			assertEquals(e.featureId,f.featureId);
+			assertEquals(e.x,f.x,1e-8);
+			assertEquals(e.y,f.y,1e-8);
+		}
+	}
+
+	/**
+	 * Each column with a value greater than zero is a feature.  The feature's location is the column and
+	 * its value.  Features are associated if they are in the same column.
+	 */
+	private static class Dummy extends DetectAssociateTracker<ImageFloat32,Point2D_F64> {
+
+		ImageFloat32 input;
+		FastQueue<AssociatedIndex> matches = new FastQueue<AssociatedIndex>(10,AssociatedIndex.class,true);
+		volatile Thread detectThread;
+
+		@Override
+		public void setInputImage(ImageFloat32 input) {
+			this.input = input;
+		}
+
+		@Override
+		public FastQueue<Point2D_F64> createFeatureDescQueue(boolean declareData) {
+			return new FastQueue<Point2D_F64>(10,Point2D_F64.class,declareData);
+		}
+
+		@Override
+		public Point2D_F64 createDescription() {
+			return new Point2D_F64();
+		}
+
+		@Override
+		public void detectFeatures(FastQueue<Point2D_F64> location, FastQueue<Point2D_F64> description) {
+			detectThread = Thread.currentThread();
+			if( input.get(0,0) < 0 )
+				throw new IllegalStateException("Failed");
+
+			for( int x = 0; x < input.width; x++ ) {
+				float value = input.get(x,0);
+				if( value > 0 ) {
+					location.pop().set(x,value);
+					description.pop().set(x,value);
+				}
+			}
+		}
+
+		@Override
+		public FastQueue<AssociatedIndex> associate(FastQueue<Point2D_F64> featSrc, FastQueue<Point2D_F64> featDst) {
+			matches.reset();
+			for( int i = 0; i < featSrc.size; i++ ) {
+				for( int j = 0; j < featDst.size; j++ ) {
+					if( featSrc.get(i).x == featDst.get(j).x ) {
+						matches.pop().setAssociation(i,j,0);
+						break;
+					}
+				}
+			}
+			return matches;
+		}
+
+		@Override
+		protected void setDescription(Point2D_F64 src, Point2D_F64 dst) {
+			src.set(dst);
+		}
+	}
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.feature.tracker;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestTrackStore {
+
+	@Test
+	public void add_get() {
+		Store alg = new Store();
+
+		for( int i = 0; i < 25; i++ ) {
+			Element e = new Element();
+			alg.add(e);
+			assertEquals(i,e.index);
+		}
+		assertEquals(25,alg.size());
+
+		for( int i = 0; i < 25; i++ ) {
+			assertEquals(i,alg.get(i).index);
+		}
+
+		try {
+			alg.get(25);
+			fail("Should have thrown an exception");
+		} catch( IndexOutOfBoundsException e ) {}
+	}
+
+	/**
+	 * The last element should be moved into the removed element's place
+	 */
+	@Test
+	public void remove_index() {
+		Store alg = createStore(5);
+
+		Element a = alg.get(1);
+		Element b = alg.get(4);
+
+		assertTrue(a == alg.remove(1));
+		assertEquals(4,alg.size());
+		assertTrue(b == alg.get(1));
+		assertEquals(1,b.index);
+		assertEquals(-1,a.index);
+
+		// remove the last element
+		b = alg.get(3);
+		assertTrue(b == alg.remove(3));
+		assertEquals(3,alg.size());
+	}
+
+	@Test
+	public void remove_object() {
+		Store alg = createStore(5);
+
+		Element a = alg.get(2);
+		assertTrue(alg.remove(a));
+		assertEquals(4,alg.size());
+		assertFalse(alg.contains(a));
+
+		// it's no longer in the list
+		assertFalse(alg.remove(a));
+		assertFalse(alg.remove(new Element()));
+		assertEquals(4,alg.size());
+
+		for( int i = 0; i < alg.size(); i++ ) {
+			assertEquals(i,alg.indexOf(alg.get(i)));
+		}
+	}
+
+	/**
+	 * Stale indexes from before the list was cleared should not be used
+	 */
+	@Test
+	public void clear() {
+		Store alg = createStore(5);
+		Element a = alg.get(3);
+
+		alg.clear();
+		assertEquals(0,alg.size());
+		assertFalse(alg.contains(a));
+
+		for( int i = 0; i < 5; i++ )
+			alg.add(new Element());
+		assertFalse(alg.contains(a));
+		assertFalse(alg.remove(a));
+	}
+
+	@Test
+	public void recycle() {
+		Store alg = createStore(5);
+
+		assertTrue(alg.recycle() == null);
+
+		Element a = alg.get(1);
+		Element b = alg.get(3);
+		alg.remove(a);
+		alg.remove(b);
+
+		// removed elements should be returned, no new ones
+		Element c = alg.recycle();
+		Element d = alg.recycle();
+		assertTrue(alg.recycle() == null);
+		assertEquals(5,alg.size());
+		assertTrue((c == a && d == b) || (c == b && d == a));
+		assertEquals(3,c.index);
+		assertEquals(4,d.index);
+
+		// everything is recycled after being cleared
+		alg.clear();
+		for( int i = 0; i < 5; i++ )
+			assertTrue(alg.recycle() != null);
+		assertTrue(alg.recycle() == null);
+	}
+
+	private Store createStore( int N ) {
+		Store alg = new Store();
+		for( int i = 0; i < N; i++ )
+			alg.add(new Element());
+		return alg;
+	}
+
+	private static class Element {
+		int index = -1;
+	}
+
+	private static class Store extends TrackStore<Element> {
+		@Override
+		protected int getIndex(Element element) {
+			return element.index;
+		}
+
+		@Override
+		protected void setIndex(Element element, int index) {
+			element.index = index;
+		}
+	}
+}
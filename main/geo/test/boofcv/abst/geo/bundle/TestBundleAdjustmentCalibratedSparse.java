@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.abst.geo.bundle;
+
+import boofcv.alg.geo.GeoTestingOps;
+import boofcv.alg.geo.bundle.CalibPoseAndPointResiduals;
+import boofcv.alg.geo.bundle.CalibratedPoseAndPoint;
+import boofcv.alg.geo.bundle.ViewPointObservations;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static boofcv.abst.geo.bundle.TestBundleAdjustmentCalibratedDense.createModel;
+import static boofcv.abst.geo.bundle.TestBundleAdjustmentCalibratedDense.createObservations;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestBundleAdjustmentCalibratedSparse {
+
+	Random rand = new Random(234);
+	int numViews = 2;
+	int numPoints = 4;
+
+	/**
+	 * Perfect observations and model
+	 */
+	@Test
+	public void perfect() {
+
+		CalibratedPoseAndPoint model = createModel(numViews,numPoints,rand);
+		List<ViewPointObservations> observations = createObservations(model,numViews,numPoints);
+
+		BundleAdjustmentCalibratedSparse alg = new BundleAdjustmentCalibratedSparse(1e-8,500);
+
+		assertTrue(alg.process(model, observations));
+
+		// compute error, which should be zero
+		assertEquals(0,computeError(model,observations),1e-8);
+	}
+
+	/**
+	 * Perfect observations with a corrupted model.  See if the error decreases
+	 */
+	@Test
+	public void noisy() {
+		CalibratedPoseAndPoint model = createModel(numViews,numPoints,rand);
+		List<ViewPointObservations> observations = createObservations(model,numViews,numPoints);
+
+		BundleAdjustmentCalibratedSparse alg = new BundleAdjustmentCalibratedSparse(1e-12,500);
+
+		// add noise to the model
+		model.getWorldToCamera(0).getT().x += 0.02;
+		model.getWorldToCamera(1).getT().y -= 0.01;
+
+		double errorBefore = computeError(model,observations);
+
+		assertTrue(alg.process(model, observations));
+
+		double errorAfter = computeError(model,observations);
+
+		// the error should be less now
+		assertTrue(errorAfter<errorBefore*0.1);
+	}
+
+	/**
+	 * Several views, one of which is known, and lots of points.  Noise is added to the points and the
+	 * unknown views.  The same instance is used twice to make sure internal storage is handled correctly.
+	 */
+	@Test
+	public void noisy_knownView_manyPoints() {
+		BundleAdjustmentCalibratedSparse alg = new BundleAdjustmentCalibratedSparse(1e-12,500);
+
+		for( int trial = 0; trial < 2; trial++ ) {
+			int numViews = 4;
+			int numPoints = 200 - trial*50;
+
+			CalibratedPoseAndPoint model = createModel(numViews,numPoints,rand);
+			List<ViewPointObservations> observations = createObservations(model,numViews,numPoints);
+			model.setViewKnown(0,true);
+
+			for( int i = 1; i < numViews; i++ ) {
+				model.getWorldToCamera(i).getT().x += rand.nextGaussian()*0.01;
+				model.getWorldToCamera(i).getT().y += rand.nextGaussian()*0.01;
+			}
+			for( int i = 0; i < numPoints; i++ ) {
+				model.getPoint(i).x += rand.nextGaussian()*0.01;
+				model.getPoint(i).y += rand.nextGaussian()*0.01;
+			}
+
+			double errorBefore = computeError(model,observations);
+
+			assertTrue(alg.process(model, observations));
+
+			double errorAfter = computeError(model,observations);
+
+			assertTrue(errorAfter<errorBefore*0.1);
+		}
+	}
+
+	/**
+	 * Compare the results against the dense implementation, which should converge to the same solution
+	 */
+	@Test
+	public void compareToDense() {
+		CalibratedPoseAndPoint modelA = createModel(3,20,rand);
+		List<ViewPointObservations> observations = createObservations(modelA,3,20);
+		modelA.setViewKnown(0,true);
+
+		modelA.getWorldToCamera(1).getT().x += 0.01;
+		modelA.getWorldToCamera(2).getT().y -= 0.01;
+		modelA.getPoint(4).z += 0.05;
+
+		CalibratedPoseAndPoint modelB = new CalibratedPoseAndPoint();
+		modelB.configure(3,20);
+		modelB.setViewKnown(0,true);
+		for( int i = 0; i < 3; i++ )
+			modelB.getWorldToCamera(i).set(modelA.getWorldToCamera(i));
+		for( int i = 0; i < 20; i++ )
+			modelB.getPoint(i).set(modelA.getPoint(i));
+
+		new BundleAdjustmentCalibratedSparse(1e-12,500).process(modelA,observations);
+		new BundleAdjustmentCalibratedDense(1e-12,500).process(modelB,observations);
+
+		assertEquals(computeError(modelB,observations),computeError(modelA,observations),1e-8);
+	}
+
+	private double computeError( CalibratedPoseAndPoint model ,
+								 List<ViewPointObservations> observations )
+	{
+		CalibPoseAndPointResiduals func = new CalibPoseAndPointResiduals();
+		func.configure(null,model,observations);
+		double residuals[] = new double[ func.getM() ];
+
+		func.process(model,residuals);
+
+		return GeoTestingOps.residualError(residuals);
+	}
+}
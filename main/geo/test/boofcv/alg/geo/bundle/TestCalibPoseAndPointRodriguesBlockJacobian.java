@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.geo.bundle;
+
+import georegression.struct.se.Se3_F64;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static boofcv.abst.geo.bundle.TestBundleAdjustmentCalibratedDense.createModel;
+import static boofcv.abst.geo.bundle.TestBundleAdjustmentCalibratedDense.createObservations;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestCalibPoseAndPointRodriguesBlockJacobian {
+
+	Random rand = new Random(48854);
+	int numViews = 3;
+	int numPoints = 4;
+
+	CalibPoseAndPointRodriguesCodec codec = new CalibPoseAndPointRodriguesCodec();
+
+	@Test
+	public void allUnknown() {
+		check(false,false,false);
+	}
+
+	@Test
+	public void mixed() {
+		check(false,true,false);
+	}
+
+	/**
+	 * Compares the blocks against the dense Jacobian, which has been tested against a numerical Jacobian
+	 */
+	private void check( boolean ...known ) {
+		CalibratedPoseAndPoint model = createModel(numViews,numPoints,rand);
+		List<ViewPointObservations> observations = createObservations(model,numViews,numPoints);
+
+		Se3_F64 extrinsic[] = new Se3_F64[known.length];
+
+		for( int i = 0; i < known.length; i++ ) {
+			model.setViewKnown(i,known[i]);
+			if( known[i] ) {
+				Se3_F64 e = new Se3_F64();
+				e.set(model.getWorldToCamera(i));
+				extrinsic[i] = e;
+			}
+		}
+
+		int numViewsUnknown = model.getNumUnknownViews();
+		codec.configure(numViews,numPoints,numViewsUnknown,known);
+
+		double []param = new double[ codec.getParamLength() ];
+		codec.encode(model,param);
+
+		CalibPoseAndPointRodriguesJacobian dense = new CalibPoseAndPointRodriguesJacobian();
+		dense.configure(observations,numPoints,extrinsic);
+		double expected[] = new double[ dense.getN()*dense.getM() ];
+		dense.process(param,expected);
+
+		CalibPoseAndPointRodriguesBlockJacobian alg = new CalibPoseAndPointRodriguesBlockJacobian();
+		alg.configure(observations,numPoints,extrinsic);
+		int numObs = alg.getNumObservations();
+		double viewJac[] = new double[ numObs*12 ];
+		double pointJac[] = new double[ numObs*6 ];
+		alg.process(param,viewJac,pointJac);
+
+		int N = dense.getN();
+		int indexObs = 0;
+		int indexUnknown = 0;
+		for( int view = 0; view < numViews; view++ ) {
+			for( int i = 0; i < observations.get(view).getPoints().size; i++ , indexObs++ ) {
+				int point = observations.get(view).getPoints().get(i).getPointIndex();
+				for( int row = 0; row < 2; row++ ) {
+					int indexRow = (indexObs*2+row)*N;
+					if( !known[view] ) {
+						for( int j = 0; j < 6; j++ )
+							assertEquals(expected[indexRow+indexUnknown*6+j],viewJac[indexObs*12+row*6+j],1e-8);
+					}
+					for( int j = 0; j < 3; j++ )
+						assertEquals(expected[indexRow+numViewsUnknown*6+point*3+j],pointJac[indexObs*6+row*3+j],1e-8);
+				}
+			}
+			if( !known[view] )
+				indexUnknown++;
+		}
+	}
+}
@@ -20,6 +20,7 @@ package boofcv.alg.geo.trackers;
 
 import boofcv.abst.feature.tracker.ImagePointTracker;
 import boofcv.abst.feature.tracker.KeyFramePointTracker;
+import boofcv.abst.feature.tracker.KeyFrameTrack;
 import boofcv.abst.feature.tracker.PointTrack;
 import boofcv.struct.image.ImageBase;
 import org.junit.Test;
@@ -27,7 +28,7 @@ import org.junit.Test;
 import java.util.ArrayList;
 import java.util.List;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 /**
  * @author Peter Abeles
@@ -80,6 +81,46 @@ public class TestKeyFramePointTracker {
 		assertEquals(1, tracker.numCalledSpawn);
 	}
 
+	/**
+	 * Tracks which the tracker drops should be recycled when new tracks are spawned
+	 */
+	@Test
+	public void recycleDropped() {
+		Dummy tracker = new Dummy(0,2,5);
+		KeyFramePointTracker<ImageBase,KeyFrameTrack> alg = new KeyFramePointTracker(tracker);
+
+		alg.spawnTracks();
+		alg.setKeyFrame();
+		List<KeyFrameTrack> original = new ArrayList<KeyFrameTrack>(alg.getPairs());
+
+		alg.process(null);
+		assertEquals(3, alg.getPairs().size());
+
+		tracker.numToSpawn = 2;
+		tracker.spawned.clear();
+		List<KeyFrameTrack> spawned = alg.spawnTracks();
+		assertEquals(2, spawned.size());
+		assertEquals(5, alg.getPairs().size());
+		for( KeyFrameTrack t : spawned ) {
+			assertTrue(original.contains(t));
+		}
+	}
+
+	@Test
+	public void dropTrack_pair() {
+		Dummy tracker = new Dummy(0,0,5);
+		KeyFramePointTracker<ImageBase,KeyFrameTrack> alg = new KeyFramePointTracker(tracker);
+
+		alg.spawnTracks();
+		alg.setKeyFrame();
+		KeyFrameTrack pair = alg.getPairs().get(2);
+		alg.dropTrack(pair);
+
+		assertEquals(4, alg.getActiveTracks().size());
+		assertEquals(4, alg.getPairs().size());
+		assertFalse(alg.getPairs().contains(pair));
+	}
+
 	@Test
 	public void dropTrack() {
 		Dummy tracker = new Dummy(0,0,5);
@@ -57,7 +57,7 @@ implements SimpleImageSequence<T>
 	private void readNext() {
 		byte[] data = codec.readFrame(in);
 		if( data == null ) {
-			original = null;
+			next = null;
 		} else {
 			try {
 				next = ImageIO.read(new ByteArrayInputStream(data));
@@ -0,0 +1,328 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.io.wrapper.images;
+
+import boofcv.io.image.SimpleImageSequence;
+import boofcv.struct.image.ImageBase;
+import boofcv.struct.image.ImageSingleBand;
+import boofcv.struct.image.MultiSpectral;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * <p>
+ * Wraps around another {@link SimpleImageSequence} and reads images from it in a background thread, so that
+ * disk I/O and decompression of the next frames is done while the current frame is being processed.  Up to
+ * N frames are read ahead of the frame being processed.  Once N frames are waiting the background thread
+ * blocks until the next frame is requested.
+ * </p>
+ *
+ * <p>
+ * Each image read from the wrapped sequence is copied into one of N+1 recycled images, along with its GUI
+ * image, since the wrapped sequence is free to recycle both.  The images returned by {@link #next()} and
+ * {@link #getGuiImage()} are only valid until the next time next() is called.  The GUI image must be
+ * a {@link BufferedImage} or {@link ImageBase}.
+ * </p>
+ *
+ * <p>
+ * The wrapped sequence should not be accessed directly while it is being wrapped.  {@link #close()} stops
+ * the background thread and closes the wrapped sequence.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class PrefetchImageSequence<T extends ImageBase> implements SimpleImageSequence<T> {
+
+	// sequence that the images are read from
+	SimpleImageSequence<T> sequence;
+
+	// frames which can be written to by the reader thread
+	BlockingQueue<Frame<T>> free;
+	// frames which have been read and are waiting to be returned
+	BlockingQueue<Frame<T>> ready;
+
+	// frame which has been read but not yet returned by next()
+	Frame<T> pending;
+	// frame which was last returned by next()
+	Frame<T> current;
+
+	// background thread which reads the images
+	Thread thread;
+
+	/**
+	 * Wraps the sequence and starts reading images from it.
+	 *
+	 * @param sequence The sequence which is to be read in the background.
+	 * @param numAhead Maximum number of frames which are read ahead of the current frame.  Must be one or more.
+	 */
+	public PrefetchImageSequence(SimpleImageSequence<T> sequence, int numAhead) {
+		if( numAhead < 1 )
+			throw new IllegalArgumentException("Must read at least one frame ahead");
+
+		this.sequence = sequence;
+
+		// one additional frame is owned by the user
+		free = new ArrayBlockingQueue<Frame<T>>(numAhead+1);
+		ready = new ArrayBlockingQueue<Frame<T>>(numAhead+1);
+		for( int i = 0; i < numAhead; i++ ) {
+			free.add(new Frame<T>());
+		}
+		current = new Frame<T>();
+
+		startThread();
+	}
+
+	@Override
+	public boolean hasNext() {
+		if( thread == null )
+			throw new IllegalArgumentException("The sequence has been closed");
+
+		if( pending == null ) {
+			try {
+				pending = ready.take();
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+		}
+
+		return !pending.end;
+	}
+
+	@Override
+	public T next() {
+		if( !hasNext() )
+			throw new IllegalArgumentException("No more images in the sequence");
+
+		if( pending.error != null )
+			throw pending.error;
+
+		// the previous image is no longer being used so it can be written to
+		free.add(current);
+		current = pending;
+		pending = null;
+
+		return current.image;
+	}
+
+	// the type of the GUI image is specified by the caller
+	@SuppressWarnings("unchecked")
+	@Override
+	public <InternalImage> InternalImage getGuiImage() {
+		return (InternalImage)current.gui;
+	}
+
+	/**
+	 * Stops the background thread and closes the wrapped sequence.
+	 */
+	@Override
+	public void close() {
+		if( thread == null )
+			return;
+		stopThread();
+		sequence.close();
+	}
+
+	@Override
+	public int getFrameNumber() {
+		return current.frameNumber;
+	}
+
+	@Override
+	public void setLoop(boolean loop) {
+		stopThread();
+		sequence.setLoop(loop);
+		// if it had reached the end then it might have more images now.  Images which have already been
+		// read are kept, but the end and error markers are discarded so they will be read again
+		if( pending != null && (pending.end || pending.error != null) ) {
+			free.add(pending);
+			pending = null;
+		}
+		List<Frame<T>> frames = new ArrayList<Frame<T>>();
+		ready.drainTo(frames);
+		for( Frame<T> f : frames ) {
+			if( f.end || f.error != null )
+				free.add(f);
+			else
+				ready.add(f);
+		}
+		startThread();
+	}
+
+	@Override
+	public Class<T> getImageType() {
+		return sequence.getImageType();
+	}
+
+	@Override
+	public void reset() {
+		stopThread();
+		sequence.reset();
+
+		// discard all the images which have been read ahead
+		if( pending != null ) {
+			free.add(pending);
+			pending = null;
+		}
+		ready.drainTo(free);
+		startThread();
+	}
+
+	/**
+	 * Returns the wrapped sequence.
+	 */
+	public SimpleImageSequence<T> getSequence() {
+		return sequence;
+	}
+
+	private void startThread() {
+		thread = new Thread(new Reader(),"PrefetchImageSequence");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stops the background thread and waits for it to exit.  The thread only stops while waiting for
+	 * a free frame, so a frame which has been read from the sequence is never discarded.
+	 */
+	private void stopThread() {
+		if( thread == null )
+			throw new IllegalArgumentException("The sequence has been closed");
+		thread.interrupt();
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		}
+		thread = null;
+	}
+
+	/**
+	 * Copies the image into the frame's image, declaring or reshaping the frame's image as needed.
+	 */
+	private static <T extends ImageBase> void copy( T src , Frame<T> frame ) {
+		frame.image = copy(src,frame.image);
+	}
+
+	/**
+	 * Copies the GUI image into the frame's GUI image, declaring or reshaping the frame's GUI image as needed.
+	 */
+	private static void copyGui( Object src , Frame<?> frame ) {
+		if( src == null ) {
+			frame.gui = null;
+		} else if( src instanceof BufferedImage ) {
+			BufferedImage s = (BufferedImage)src;
+			BufferedImage d = frame.gui instanceof BufferedImage ? (BufferedImage)frame.gui : null;
+			if( d == null || d.getWidth() != s.getWidth() || d.getHeight() != s.getHeight() ||
+					!d.getColorModel().equals(s.getColorModel()) ) {
+				ColorModel cm = s.getColorModel();
+				d = new BufferedImage(cm,cm.createCompatibleWritableRaster(s.getWidth(),s.getHeight()),
+						cm.isAlphaPremultiplied(),null);
+			}
+			s.copyData(d.getRaster());
+			frame.gui = d;
+		} else if( src instanceof ImageBase ) {
+			ImageBase d = frame.gui != null && frame.gui.getClass() == src.getClass() ? (ImageBase)frame.gui : null;
+			frame.gui = copy((ImageBase)src,d);
+		} else {
+			throw new IllegalArgumentException("Unsupported GUI image type: "+src.getClass().getSimpleName());
+		}
+	}
+
+	/**
+	 * Copies src into dst.  If dst is null then a new image is declared, otherwise it is reshaped.
+	 *
+	 * @return The copy
+	 */
+	// ImageBase is the same type as the images it creates and the bands of both images have the same type
+	@SuppressWarnings("unchecked")
+	private static <T extends ImageBase> T copy( T src , T dst ) {
+		if( dst == null )
+			dst = (T)src._createNew(src.width,src.height);
+		else
+			dst.reshape(src.width,src.height);
+
+		if( src instanceof ImageSingleBand ) {
+			((ImageSingleBand)dst).setTo((ImageSingleBand)src);
+		} else if( src instanceof MultiSpectral ) {
+			MultiSpectral s = (MultiSpectral)src;
+			MultiSpectral d = (MultiSpectral)dst;
+			for( int i = 0; i < s.getNumBands(); i++ ) {
+				d.getBand(i).setTo(s.getBand(i));
+			}
+		} else {
+			throw new IllegalArgumentException("Unsupported image type: "+src.getClass().getSimpleName());
+		}
+		return dst;
+	}
+
+	/**
+	 * Reads images from the sequence until it runs out of images or is interrupted.
+	 */
+	private class Reader implements Runnable {
+		@Override
+		public void run() {
+			while( true ) {
+				Frame<T> frame;
+				try {
+					frame = free.take();
+				} catch (InterruptedException e) {
+					return;
+				}
+				frame.end = false;
+				frame.error = null;
+
+				try {
+					if( sequence.hasNext() ) {
+						copy(sequence.next(),frame);
+						copyGui(sequence.getGuiImage(),frame);
+						frame.frameNumber = sequence.getFrameNumber();
+					} else {
+						frame.end = true;
+					}
+				} catch( RuntimeException e ) {
+					frame.error = e;
+				}
+
+				// there is always room since there are as many slots as frames
+				ready.add(frame);
+
+				if( frame.end || frame.error != null )
+					return;
+			}
+		}
+	}
+
+	/**
+	 * Storage for an image which has been read and information about it.
+	 */
+	private static class Frame<T extends ImageBase> {
+		T image;
+		Object gui;
+		int frameNumber = -1;
+		// true if this frame marks the end of the sequence
+		boolean end;
+		// exception thrown while reading the image
+		RuntimeException error;
+	}
+}
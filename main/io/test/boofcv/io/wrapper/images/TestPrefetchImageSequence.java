@@ -0,0 +1,325 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.io.wrapper.images;
+
+import boofcv.io.image.SimpleImageSequence;
+import boofcv.struct.image.ImageUInt8;
+import boofcv.struct.image.MultiSpectral;
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestPrefetchImageSequence {
+
+	/**
+	 * Reads in all the images and sees if they are in the correct order and have the expected contents
+	 */
+	@Test
+	public void readAll() {
+		Dummy seq = new Dummy(7);
+		PrefetchImageSequence<ImageUInt8> alg = new PrefetchImageSequence<ImageUInt8>(seq,3);
+
+		assertTrue(ImageUInt8.class == alg.getImageType());
+
+		int total = 0;
+		while( alg.hasNext() ) {
+			ImageUInt8 image = alg.next();
+			assertEquals(total,alg.getFrameNumber());
+			assertEquals(total,image.get(2,3));
+			BufferedImage gui = alg.getGuiImage();
+			assertEquals(total,gui.getRaster().getSample(2,3,0));
+			total++;
+		}
+		assertEquals(7,total);
+		assertFalse(alg.hasNext());
+
+		alg.close();
+		assertTrue(seq.closed);
+	}
+
+	/**
+	 * The image and GUI image returned must not be modified until next() is called again, even though the
+	 * wrapped sequence recycles its images.
+	 */
+	@Test
+	public void imageNotModifiedByReader() throws InterruptedException {
+		Dummy seq = new Dummy(10);
+		PrefetchImageSequence<ImageUInt8> alg = new PrefetchImageSequence<ImageUInt8>(seq,2);
+
+		ImageUInt8 image = alg.next();
+		BufferedImage gui = alg.getGuiImage();
+		// give the reader a chance to read ahead
+		waitForRead(seq,3);
+		assertEquals(0,image.get(2,3));
+		assertEquals(0,gui.getRaster().getSample(2,3,0));
+
+		ImageUInt8 image2 = alg.next();
+		BufferedImage gui2 = alg.getGuiImage();
+		assertTrue(image != image2);
+		assertTrue(gui != gui2);
+		assertEquals(1,image2.get(2,3));
+		assertEquals(1,gui2.getRaster().getSample(2,3,0));
+
+		alg.close();
+	}
+
+	/**
+	 * Makes sure it doesn't read more than the specified number of frames ahead
+	 */
+	@Test
+	public void boundedReadAhead() throws InterruptedException {
+		Dummy seq = new Dummy(100);
+		PrefetchImageSequence<ImageUInt8> alg = new PrefetchImageSequence<ImageUInt8>(seq,4);
+
+		waitForRead(seq,4);
+
+		for( int i = 0; i < 5; i++ ) {
+			alg.next();
+			waitForRead(seq,i+1+4);
+		}
+
+		alg.close();
+		assertTrue(seq.closed);
+	}
+
+	/**
+	 * Waits until the expected number of images have been read then checks to see that no more are read
+	 */
+	private static void waitForRead( Dummy seq , int expected ) throws InterruptedException {
+		long end = System.currentTimeMillis() + 2000;
+		while( seq.numRead < expected && System.currentTimeMillis() < end )
+			Thread.sleep(5);
+		Thread.sleep(20);
+		assertEquals(expected,seq.numRead);
+	}
+
+	@Test
+	public void reset() {
+		Dummy seq = new Dummy(6);
+		PrefetchImageSequence<ImageUInt8> alg = new PrefetchImageSequence<ImageUInt8>(seq,2);
+
+		alg.next();
+		alg.next();
+		alg.reset();
+
+		int total = 0;
+		while( alg.hasNext() ) {
+			assertEquals(total,alg.next().get(2,3));
+			total++;
+		}
+		assertEquals(6,total);
+
+		// reset after reaching the end
+		alg.reset();
+		assertTrue(alg.hasNext());
+		assertEquals(0,alg.next().get(2,3));
+
+		alg.close();
+	}
+
+	/**
+	 * Turning looping on after reaching the end should let it read more images
+	 */
+	@Test
+	public void setLoop() {
+		Dummy seq = new Dummy(3);
+		PrefetchImageSequence<ImageUInt8> alg = new PrefetchImageSequence<ImageUInt8>(seq,2);
+
+		for( int i = 0; i < 3; i++ )
+			alg.next();
+		assertFalse(alg.hasNext());
+
+		alg.setLoop(true);
+		assertTrue(alg.hasNext());
+		assertEquals(0,alg.next().get(2,3));
+
+		alg.close();
+	}
+
+	/**
+	 * Turning looping on after the end has been read ahead, but before the user has reached it, should
+	 * let it read more images
+	 */
+	@Test
+	public void setLoop_endReadAhead() throws InterruptedException {
+		Dummy seq = new Dummy(3);
+		PrefetchImageSequence<ImageUInt8> alg = new PrefetchImageSequence<ImageUInt8>(seq,4);
+
+		assertEquals(0,alg.next().get(2,3));
+		// the remaining images and the end of the sequence are now waiting to be returned
+		waitForRead(seq,3);
+
+		alg.setLoop(true);
+		for( int i = 1; i < 8; i++ ) {
+			assertTrue(alg.hasNext());
+			assertEquals(i%3,alg.next().get(2,3));
+		}
+
+		alg.close();
+	}
+
+	/**
+	 * An exception thrown by the wrapped sequence should be thrown by next()
+	 */
+	@Test
+	public void exceptionPassedOn() {
+		Dummy seq = new Dummy(5);
+		seq.failAt = 2;
+		PrefetchImageSequence<ImageUInt8> alg = new PrefetchImageSequence<ImageUInt8>(seq,3);
+
+		alg.next();
+		alg.next();
+		try {
+			alg.next();
+			fail("Exception should have been thrown");
+		} catch( IllegalStateException e ) {}
+
+		alg.close();
+	}
+
+	@Test
+	public void multiSpectral() {
+		SimpleImageSequence<MultiSpectral<ImageUInt8>> seq = new DummyMulti();
+		PrefetchImageSequence<MultiSpectral<ImageUInt8>> alg =
+				new PrefetchImageSequence<MultiSpectral<ImageUInt8>>(seq,2);
+
+		for( int i = 0; i < 4; i++ ) {
+			MultiSpectral<ImageUInt8> image = alg.next();
+			assertEquals(2,image.getNumBands());
+			assertEquals(i,image.getBand(0).get(1,1));
+			assertEquals(i+10,image.getBand(1).get(1,1));
+		}
+		assertFalse(alg.hasNext());
+		alg.close();
+	}
+
+	/**
+	 * Sequence which recycles its output and GUI images and fills them with the frame number
+	 */
+	private static class Dummy implements SimpleImageSequence<ImageUInt8> {
+		ImageUInt8 image = new ImageUInt8(10,12);
+		BufferedImage gui = new BufferedImage(10,12,BufferedImage.TYPE_BYTE_GRAY);
+		int total;
+		volatile int numRead;
+		int failAt = -1;
+		boolean loop;
+		volatile boolean closed;
+
+		private Dummy(int total) {
+			this.total = total;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return loop || numRead < total;
+		}
+
+		@Override
+		public ImageUInt8 next() {
+			if( numRead == failAt )
+				throw new IllegalStateException("Failed");
+			if( numRead >= total )
+				numRead = 0;
+			for( int i = 0; i < image.data.length; i++ )
+				image.data[i] = (byte)numRead;
+			for( int y = 0; y < gui.getHeight(); y++ )
+				for( int x = 0; x < gui.getWidth(); x++ )
+					gui.getRaster().setSample(x,y,0,numRead);
+			numRead++;
+			return image;
+		}
+
+		@Override
+		public <InternalImage> InternalImage getGuiImage() {
+			return (InternalImage)gui;
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+		}
+
+		@Override
+		public int getFrameNumber() {
+			return numRead-1;
+		}
+
+		@Override
+		public void setLoop(boolean loop) {
+			this.loop = loop;
+		}
+
+		@Override
+		public Class<ImageUInt8> getImageType() {
+			return ImageUInt8.class;
+		}
+
+		@Override
+		public void reset() {
+			numRead = 0;
+		}
+	}
+
+	private static class DummyMulti implements SimpleImageSequence<MultiSpectral<ImageUInt8>> {
+		MultiSpectral<ImageUInt8> image = new MultiSpectral<ImageUInt8>(ImageUInt8.class,5,6,2);
+		int count;
+
+		@Override
+		public boolean hasNext() {
+			return count < 4;
+		}
+
+		@Override
+		public MultiSpectral<ImageUInt8> next() {
+			image.getBand(0).set(1,1,count);
+			image.getBand(1).set(1,1,count+10);
+			count++;
+			return image;
+		}
+
+		@Override
+		public <InternalImage> InternalImage getGuiImage() {
+			return null;
+		}
+
+		@Override
+		public void close() {}
+
+		@Override
+		public int getFrameNumber() {
+			return count-1;
+		}
+
+		@Override
+		public void setLoop(boolean loop) {}
+
+		@Override
+		public Class<MultiSpectral<ImageUInt8>> getImageType() {
+			return null;
+		}
+
+		@Override
+		public void reset() {}
+	}
+}
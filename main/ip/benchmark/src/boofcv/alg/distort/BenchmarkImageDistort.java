@@ -25,6 +25,7 @@ import boofcv.core.image.border.FactoryImageBorder;
 import boofcv.core.image.border.ImageBorder;
 import boofcv.factory.distort.FactoryDistort;
 import boofcv.factory.interpolate.FactoryInterpolation;
+import boofcv.misc.BoofConcurrency;
 import boofcv.misc.PerformerBase;
 import boofcv.misc.ProfileOperation;
 import boofcv.struct.distort.PixelTransform_F32;
@@ -32,6 +33,8 @@ import boofcv.struct.image.ImageFloat32;
 import boofcv.struct.image.ImageSingleBand;
 import georegression.struct.homo.Homography2D_F32;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 /**
@@ -108,6 +111,29 @@ public class BenchmarkImageDistort<T extends ImageSingleBand> {
 		}
 	}
 
+	public class HomographyBilinear_MT extends PerformerBase {
+		ImageDistort<T> alg;
+
+		public HomographyBilinear_MT( Homography2D_F32 homography ) {
+			PixelTransform_F32 tran = new PixelTransformHomography_F32(homography);
+			int numWorkers = BoofConcurrency.getMaxThreads();
+			List<InterpolatePixel<T>> interp = new ArrayList<InterpolatePixel<T>>();
+			List<ImageBorder<T>> border = new ArrayList<ImageBorder<T>>();
+			for( int i = 0; i < numWorkers; i++ ) {
+				interp.add(FactoryInterpolation.bilinearPixel(imageType));
+				border.add(FactoryImageBorder.general(imageType, BorderType.EXTENDED));
+			}
+
+			alg = FactoryDistort.distort_MT(interp,border,false,imageType);
+			alg.setModel(tran);
+		}
+
+		@Override
+		public void process() {
+			alg.apply(src_F32, dst_F32);
+		}
+	}
+
 	private void benchmark() {
 		Random rand = new Random(234);
 
@@ -123,6 +149,10 @@ public class BenchmarkImageDistort<T extends ImageSingleBand> {
 		ProfileOperation.printOpsPerSec(new HomographyBilinear_F32(affine),TEST_TIME);
 		ProfileOperation.printOpsPerSec(new HomographyBilinearCrop_F32(affine),TEST_TIME);
 
+		BoofConcurrency.USE_CONCURRENT = true;
+		ProfileOperation.printOpsPerSec(new HomographyBilinear_MT(affine),TEST_TIME);
+		BoofConcurrency.USE_CONCURRENT = false;
+
 	}
 
 
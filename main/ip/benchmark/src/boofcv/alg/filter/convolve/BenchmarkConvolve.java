@@ -23,6 +23,7 @@ import boofcv.alg.misc.ImageTestingOps;
 import boofcv.core.image.border.BorderIndex1D_Extend;
 import boofcv.core.image.border.ImageBorder1D_I32;
 import boofcv.factory.filter.kernel.FactoryKernelGaussian;
+import boofcv.misc.BoofConcurrency;
 import boofcv.struct.convolve.Kernel1D_F32;
 import boofcv.struct.convolve.Kernel1D_I32;
 import boofcv.struct.convolve.Kernel2D_F32;
@@ -35,6 +36,8 @@ import com.google.caliper.Param;
 import com.google.caliper.Runner;
 import com.google.caliper.SimpleBenchmark;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 /**
@@ -63,6 +66,17 @@ public class BenchmarkConvolve extends SimpleBenchmark {
 	// iterate through different sized kernel radius
 	@Param({"1", "2"}) private int radius;
 
+	// number of threads used by the concurrent algorithms
+	@Param private int threads;
+
+	public static List<Integer> threadsValues() {
+		List<Integer> ret = new ArrayList<Integer>();
+		int N = Runtime.getRuntime().availableProcessors();
+		for( int i = 1; i <= N; i++ )
+			ret.add(i);
+		return ret;
+	}
+
 	public BenchmarkConvolve() {
 		ImageTestingOps.randomize(input_U8,rand,0,20);
 		ImageTestingOps.randomize(input_S16,rand,0,20);
@@ -74,6 +88,7 @@ public class BenchmarkConvolve extends SimpleBenchmark {
 		kernelI32 = FactoryKernelGaussian.gaussian(Kernel1D_I32.class,-1,radius);
 		kernel2D_F32 = FactoryKernelGaussian.gaussian(Kernel2D_F32.class,-1,radius);
 		kernel2D_I32 = FactoryKernelGaussian.gaussian(Kernel2D_I32.class, -1, radius);
+		BoofConcurrency.setMaxThreads(threads);
 	}
 
 	public int timeHorizontal_F32(int reps) {
@@ -235,6 +250,36 @@ public class BenchmarkConvolve extends SimpleBenchmark {
 		return 0;
 	}
 
+	public int timeHorizontal_MT_F32(int reps) {
+		for( int i = 0; i < reps; i++ )
+			ConvolveImageNoBorder_MT.horizontal(kernelF32, input_F32, out_F32, false);
+		return 0;
+	}
+
+	public int timeVertical_MT_F32(int reps) {
+		for( int i = 0; i < reps; i++ )
+			ConvolveImageNoBorder_MT.vertical(kernelF32, input_F32, out_F32, false);
+		return 0;
+	}
+
+	public int timeHorizontal_MT_U8_I16(int reps) {
+		for( int i = 0; i < reps; i++ )
+			ConvolveImageNoBorder_MT.horizontal(kernelI32, input_U8, out_S16, false);
+		return 0;
+	}
+
+	public int timeVertical_MT_U8_I16(int reps) {
+		for( int i = 0; i < reps; i++ )
+			ConvolveImageNoBorder_MT.vertical(kernelI32, input_U8, out_S16, false);
+		return 0;
+	}
+
+	public int timeConvolve2D_MT_F32(int reps) {
+		for( int i = 0; i < reps; i++ )
+			ConvolveImageNoBorder_MT.convolve(kernel2D_F32, input_F32, out_F32);
+		return 0;
+	}
+
 	public int timeBox_U8_S32_Vertical6(int reps) {
 		for( int i = 0; i < reps; i++ )
 			ImplConvolveBox.vertical(input_U8, out_S32,radius,false);
@@ -59,7 +59,7 @@ public class BenchmarkConvolveWithBorder extends SimpleBenchmark {
 	static private ImageBorder_F32 border_F32 = new ImageBorder1D_F32(BorderIndex1D_Extend.class);
 
 	// iterate through different sized kernel radius
-	@Param({"1", "2", "3", "5","10"}) private int radius;
+	@Param({"1", "2", "3", "5","10","20"}) private int radius;
 
 	public BenchmarkConvolveWithBorder() {
 		imgInt8 = new ImageUInt8(imgWidth,imgHeight);
@@ -143,6 +143,12 @@ public class BenchmarkConvolveWithBorder extends SimpleBenchmark {
 		return 0;
 	}
 
+	public int timeConvolve2D_Fourier_F32(int reps) {
+		for( int i = 0; i < reps; i++ )
+			ConvolveFourier.convolve(kernel2D_F32,imgFloat32,out_F32,border_F32);
+		return 0;
+	}
+
 	public int timeConvolve2D_I8(int reps) {
 		for( int i = 0; i < reps; i++ )
 			ConvolveWithBorder.convolve(kernel2D_I32,imgInt8,out_I16,border_I32);
@@ -76,6 +76,14 @@ public class BenchmarkConvertBufferedImage {
 		}
 	}
 
+	public static class ExtractOrConvert extends PerformerBase
+	{
+		@Override
+		public void process() {
+			ConvertBufferedImage.extractOrConvert(imgBuff,imgInt8);
+		}
+	}
+
 	public static class ExtractBuffered extends PerformerBase
 	{
 		@Override
@@ -135,6 +143,8 @@ public class BenchmarkConvertBufferedImage {
 
 		System.out.printf("extractImageInt8             %10.2f ops/sec\n",
 				ProfileOperation.profileOpsPerSec(new ExtractImageInt8(),1000, false));
+		System.out.printf("extractOrConvert             %10.2f ops/sec\n",
+				ProfileOperation.profileOpsPerSec(new ExtractOrConvert(),1000, false));
 		System.out.printf("extractBuffered              %10.2f ops/sec\n",
 				ProfileOperation.profileOpsPerSec(new ExtractBuffered(),1000, false));
 
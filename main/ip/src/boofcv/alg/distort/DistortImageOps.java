@@ -25,6 +25,7 @@ import boofcv.core.image.border.FactoryImageBorder;
 import boofcv.core.image.border.ImageBorder;
 import boofcv.factory.distort.FactoryDistort;
 import boofcv.factory.interpolate.FactoryInterpolation;
+import boofcv.misc.BoofConcurrency;
 import boofcv.struct.ImageRectangle_F32;
 import boofcv.struct.distort.PixelTransform_F32;
 import boofcv.struct.distort.PointTransform_F32;
@@ -35,6 +36,9 @@ import georegression.struct.affine.Affine2D_F32;
 import georegression.struct.shapes.Rectangle2D_F32;
 import georegression.struct.shapes.Rectangle2D_I32;
 
+import java.util.ArrayList;
+import java.util.List;
+
 
 /**
  * <p>
@@ -100,16 +104,7 @@ public class DistortImageOps {
 					   boolean skipOutsidePixels, TypeInterpolate interpType)
 	{
 		Class<T> inputType = (Class<T>)input.getClass();
-		InterpolatePixel<T> interp = FactoryInterpolation.createPixel(0, 255, interpType, inputType);
-
-		ImageBorder<T> border;
-		if( skipOutsidePixels ) {
-			border = null;
-		} else {
-			border = FactoryImageBorder.value(inputType,0);
-		}
-
-		ImageDistort<T> distorter = FactoryDistort.distort(interp, border, inputType);
+		ImageDistort<T> distorter = createDistort(interpType, skipOutsidePixels, false, inputType);
 		distorter.setModel(transform);
 		distorter.apply(input,output);
 	}
@@ -151,16 +146,7 @@ public class DistortImageOps {
 				   TypeInterpolate interpType)
 	{
 		Class<T> bandType = input.getType();
-		InterpolatePixel<T> interp = FactoryInterpolation.createPixel(0, 255, interpType, bandType);
-
-		ImageBorder<T> border;
-		if( skipOutsidePixels ) {
-			border = null;
-		} else {
-			border = FactoryImageBorder.value(bandType,0);
-		}
-
-		ImageDistort<T> distorter = FactoryDistort.distort(interp, border, bandType);
+		ImageDistort<T> distorter = createDistort(interpType, skipOutsidePixels, false, bandType);
 		distorter.setModel(transform);
 
 		distortMS(input,output,distorter);
@@ -182,13 +168,40 @@ public class DistortImageOps {
 	ImageDistort<T> createImageDistort( PointTransform_F32 transform ,
 										TypeInterpolate interpType,
 										Class<T> imageType ) {
-		InterpolatePixel<T> interp = FactoryInterpolation.createPixel(0, 255, interpType, imageType);
-		ImageDistort<T> distorter = FactoryDistort.distortCached(interp, FactoryImageBorder.value(imageType, 0), imageType);
+		ImageDistort<T> distorter = createDistort(interpType, false, true, imageType);
 		distorter.setModel(new PointToPixelTransform_F32(transform));
 
 		return distorter;
 	}
 
+	/**
+	 * Creates an {@link ImageDistort} with a value of zero for pixels outside the image.  If
+	 * {@link BoofConcurrency#USE_CONCURRENT} is true then the concurrent implementation is returned.
+	 */
+	private static <T extends ImageSingleBand>
+	ImageDistort<T> createDistort( TypeInterpolate interpType, boolean skipOutsidePixels,
+								   boolean cached, Class<T> imageType ) {
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			int numWorkers = BoofConcurrency.getMaxThreads();
+			List<InterpolatePixel<T>> interp = new ArrayList<InterpolatePixel<T>>();
+			List<ImageBorder<T>> border = skipOutsidePixels ? null : new ArrayList<ImageBorder<T>>();
+			for( int i = 0; i < numWorkers; i++ ) {
+				interp.add(FactoryInterpolation.createPixel(0, 255, interpType, imageType));
+				if( border != null )
+					border.add(FactoryImageBorder.value(imageType, 0));
+			}
+			return FactoryDistort.distort_MT(interp, border, cached, imageType);
+		}
+
+		InterpolatePixel<T> interp = FactoryInterpolation.createPixel(0, 255, interpType, imageType);
+		ImageBorder<T> border = skipOutsidePixels ? null : FactoryImageBorder.value(imageType, 0);
+
+		if( cached )
+			return FactoryDistort.distortCached(interp, border, imageType);
+		else
+			return FactoryDistort.distort(interp, border, imageType);
+	}
+
 	/**
 	 * Rescales the input image and writes the results into the output image.  The scale
 	 * factor is determined independently of the width and height.
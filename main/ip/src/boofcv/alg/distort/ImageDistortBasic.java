@@ -41,6 +41,10 @@ public abstract class ImageDistortBasic<T extends ImageSingleBand> implements Im
 	// crop boundary
 	private int x0,y0,x1,y1;
 
+	// distorted coordinates of each pixel in the current row
+	private float rowX[] = new float[0];
+	private float rowY[] = new float[0];
+
 	protected T srcImg;
 	protected T dstImg;
 
@@ -89,6 +93,11 @@ public abstract class ImageDistortBasic<T extends ImageSingleBand> implements Im
 		this.srcImg = srcImg;
 		this.dstImg = dstImg;
 		interp.setImage(srcImg);
+
+		if( rowX.length < dstImg.width ) {
+			rowX = new float[ dstImg.width ];
+			rowY = new float[ dstImg.width ];
+		}
 	}
 
 	public void applyBorder() {
@@ -103,19 +112,27 @@ public abstract class ImageDistortBasic<T extends ImageSingleBand> implements Im
 		final float widthF = srcImg.getWidth();
 		final float heightF = srcImg.getHeight();
 
+		final float rowX[] = this.rowX;
+		final float rowY[] = this.rowY;
+		final int length = x1-x0;
+
 		for( int y = y0; y < y1; y++ ) {
-			int indexDst = dstImg.startIndex + dstImg.stride*y + x0;
-			for( int x = x0; x < x1; x++ , indexDst++ ) {
-				dstToSrc.compute(x,y);
+			// the transform is evaluated for the entire row at once, which is much faster for some models
+			dstToSrc.computeRow(x0,y,length,rowX,rowY);
 
-				if( dstToSrc.distX < minInterpX || dstToSrc.distX >= maxInterpX ||
-						dstToSrc.distY < minInterpY || dstToSrc.distY >= maxInterpY ) {
-					if( dstToSrc.distX < 0f || dstToSrc.distX >= widthF || dstToSrc.distY < 0f || dstToSrc.distY >= heightF )
-						assign(indexDst,(float)border.getGeneral((int)dstToSrc.distX,(int)dstToSrc.distY));
+			int indexDst = dstImg.startIndex + dstImg.stride*y + x0;
+			for( int i = 0; i < length; i++ , indexDst++ ) {
+				final float distX = rowX[i];
+				final float distY = rowY[i];
+
+				if( distX < minInterpX || distX >= maxInterpX ||
+						distY < minInterpY || distY >= maxInterpY ) {
+					if( distX < 0f || distX >= widthF || distY < 0f || distY >= heightF )
+						assign(indexDst,(float)border.getGeneral((int)distX,(int)distY));
 					else
-						assign(indexDst,interp.get(dstToSrc.distX, dstToSrc.distY));
+						assign(indexDst,interp.get(distX, distY));
 				} else {
-					assign(indexDst,interp.get_unsafe(dstToSrc.distX, dstToSrc.distY));
+					assign(indexDst,interp.get_unsafe(distX, distY));
 				}
 			}
 		}
@@ -130,17 +147,25 @@ public abstract class ImageDistortBasic<T extends ImageSingleBand> implements Im
 		final float widthF = srcImg.getWidth();
 		final float heightF = srcImg.getHeight();
 
+		final float rowX[] = this.rowX;
+		final float rowY[] = this.rowY;
+		final int length = x1-x0;
+
 		for( int y = y0; y < y1; y++ ) {
-			int indexDst = dstImg.startIndex + dstImg.stride*y + x0;
-			for( int x = x0; x < x1; x++ , indexDst++ ) {
-				dstToSrc.compute(x,y);
+			// the transform is evaluated for the entire row at once, which is much faster for some models
+			dstToSrc.computeRow(x0,y,length,rowX,rowY);
 
-				if( dstToSrc.distX < minInterpX || dstToSrc.distX >= maxInterpX ||
-						dstToSrc.distY < minInterpY || dstToSrc.distY >= maxInterpY ) {
-					if( dstToSrc.distX >= 0f && dstToSrc.distX < widthF && dstToSrc.distY >= 0f && dstToSrc.distY < heightF )
-						assign(indexDst,interp.get(dstToSrc.distX, dstToSrc.distY));
+			int indexDst = dstImg.startIndex + dstImg.stride*y + x0;
+			for( int i = 0; i < length; i++ , indexDst++ ) {
+				final float distX = rowX[i];
+				final float distY = rowY[i];
+
+				if( distX < minInterpX || distX >= maxInterpX ||
+						distY < minInterpY || distY >= maxInterpY ) {
+					if( distX >= 0f && distX < widthF && distY >= 0f && distY < heightF )
+						assign(indexDst,interp.get(distX, distY));
 				} else {
-					assign(indexDst,interp.get_unsafe(dstToSrc.distX, dstToSrc.distY));
+					assign(indexDst,interp.get_unsafe(distX, distY));
 				}
 			}
 		}
@@ -20,22 +20,23 @@ package boofcv.alg.distort;
 
 import boofcv.alg.interpolate.InterpolatePixel;
 import boofcv.core.image.border.ImageBorder;
+import boofcv.struct.distort.PixelTransformCached_F32;
 import boofcv.struct.distort.PixelTransform_F32;
 import boofcv.struct.image.ImageSingleBand;
-import georegression.struct.point.Point2D_F32;
 
 /**
  * Except for very simple functions, computing the per pixel distortion is an expensive operation.
  * To overcome this problem the distortion is computed once and cached.  Then when the image is distorted
- * again the save results are simply recalled and not computed again.
+ * again the save results are simply recalled and not computed again.  The cached distortion is stored in a
+ * {@link PixelTransformCached_F32}.  If the model is already a {@link PixelTransformCached_F32}, such as one loaded
+ * from a file, then it is used directly.
  *
  * @author Peter Abeles
  */
 public abstract class ImageDistortCache<T extends ImageSingleBand> implements ImageDistort<T> {
 
-	// size of output image
-	private int width=-1,height=-1;
-	private Point2D_F32 map[];
+	// cached distortion for each pixel in the output image
+	private PixelTransformCached_F32 map;
 	// sub pixel interpolation
 	private InterpolatePixel<T> interp;
 	// handle the image border
@@ -65,6 +66,17 @@ public abstract class ImageDistortCache<T extends ImageSingleBand> implements Im
 	@Override
 	public void setModel(PixelTransform_F32 dstToSrc) {
 		this.dstToSrc = dstToSrc;
+		if( dstToSrc instanceof PixelTransformCached_F32 )
+			map = (PixelTransformCached_F32)dstToSrc;
+		else
+			map = null;
+	}
+
+	/**
+	 * Returns the cached distortion.  Null if it has not yet been computed.
+	 */
+	public PixelTransformCached_F32 getMap() {
+		return map;
 	}
 
 	@Override
@@ -92,22 +104,9 @@ public abstract class ImageDistortCache<T extends ImageSingleBand> implements Im
 	}
 
 	private void init(T srcImg, T dstImg) {
-		if( width == -1 ) {
-			width = dstImg.width;
-			height = dstImg.height;
-			map = new Point2D_F32[width*height];
-			for( int i = 0; i < map.length; i++ ) {
-				map[i] = new Point2D_F32();
-			}
-
-			int index = 0;
-			for( int y = 0; y < height; y++ ) {
-				for( int x = 0; x < width; x++ ) {
-					dstToSrc.compute(x,y);
-					map[index++].set(dstToSrc.distX,dstToSrc.distY);
-				}
-			}
-		} else if( dstImg.width != width || dstImg.height != height )
+		if( map == null ) {
+			map = new PixelTransformCached_F32(dstImg.width,dstImg.height,dstToSrc);
+		} else if( dstImg.width != map.getWidth() || dstImg.height != map.getHeight() )
 			throw new IllegalArgumentException("Unexpected dstImg dimension");
 
 		this.srcImg = srcImg;
@@ -127,18 +126,24 @@ public abstract class ImageDistortCache<T extends ImageSingleBand> implements Im
 		final float widthF = srcImg.getWidth();
 		final float heightF = srcImg.getHeight();
 
+		final float mapX[] = map.getMapX();
+		final float mapY[] = map.getMapY();
+		final int width = map.getWidth();
+
 		for( int y = y0; y < y1; y++ ) {
 			int indexDst = dstImg.startIndex + dstImg.stride*y + x0;
-			for( int x = x0; x < x1; x++ , indexDst++ ) {
-				Point2D_F32 s = map[indexDst];
-
-				if( s.x < minInterpX || s.x >= maxInterpX || s.y < minInterpY || s.y >= maxInterpY ) {
-					if( s.x < 0f || s.x >= widthF || s.y < 0f || s.y >= heightF )
-						assign(indexDst,(float)border.getGeneral((int)s.x,(int)s.y));
+			int indexMap = y*width + x0;
+			for( int x = x0; x < x1; x++ , indexDst++ , indexMap++ ) {
+				float sx = mapX[indexMap];
+				float sy = mapY[indexMap];
+
+				if( sx < minInterpX || sx >= maxInterpX || sy < minInterpY || sy >= maxInterpY ) {
+					if( sx < 0f || sx >= widthF || sy < 0f || sy >= heightF )
+						assign(indexDst,(float)border.getGeneral((int)sx,(int)sy));
 					else
-						assign(indexDst,interp.get(s.x, s.y));
+						assign(indexDst,interp.get(sx, sy));
 				} else {
-					assign(indexDst,interp.get_unsafe(s.x, s.y));
+					assign(indexDst,interp.get_unsafe(sx, sy));
 				}
 			}
 		}
@@ -153,16 +158,22 @@ public abstract class ImageDistortCache<T extends ImageSingleBand> implements Im
 		final float widthF = srcImg.getWidth();
 		final float heightF = srcImg.getHeight();
 
+		final float mapX[] = map.getMapX();
+		final float mapY[] = map.getMapY();
+		final int width = map.getWidth();
+
 		for( int y = y0; y < y1; y++ ) {
 			int indexDst = dstImg.startIndex + dstImg.stride*y + x0;
-			for( int x = x0; x < x1; x++ , indexDst++ ) {
-				Point2D_F32 s = map[indexDst];
-
-				if( s.x < minInterpX || s.x >= maxInterpX || s.y < minInterpY || s.y >= maxInterpY ) {
-					if( s.x >= 0f && s.x < widthF && s.y >= 0f && s.y < heightF )
-						assign(indexDst,interp.get(s.x, s.y));
+			int indexMap = y*width + x0;
+			for( int x = x0; x < x1; x++ , indexDst++ , indexMap++ ) {
+				float sx = mapX[indexMap];
+				float sy = mapY[indexMap];
+
+				if( sx < minInterpX || sx >= maxInterpX || sy < minInterpY || sy >= maxInterpY ) {
+					if( sx >= 0f && sx < widthF && sy >= 0f && sy < heightF )
+						assign(indexDst,interp.get(sx, sy));
 				} else {
-					assign(indexDst,interp.get_unsafe(s.x, s.y));
+					assign(indexDst,interp.get_unsafe(sx, sy));
 				}
 			}
 		}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.distort;
+
+import boofcv.misc.BoofConcurrency;
+import boofcv.misc.IntRangeTask;
+import boofcv.struct.distort.PixelTransformCached_F32;
+import boofcv.struct.distort.PixelTransform_F32;
+import boofcv.struct.image.ImageSingleBand;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Concurrent implementation of {@link ImageDistort}.  The destination image is split into horizontal bands
+ * of rows and each band is processed by a different worker.  Each worker is a complete {@link ImageDistort}
+ * with its own interpolation and border instance, since those contain internal state, and its own copy of the
+ * transform, see {@link PixelTransform_F32#copy()}.  The output is identical to the single threaded version.
+ * </p>
+ *
+ * <p>
+ * If the transform can't be copied then the distortion must be cached, otherwise apply() will throw an
+ * {@link UnsupportedOperationException}.  When cached the distortion is computed once for the entire destination
+ * image and the table is shared between all the workers, which allows any transform to be processed concurrently.
+ * </p>
+ *
+ * <p>
+ * The transform is copied each time apply() is called, so changes to the transform after {@link #setModel} are
+ * seen just like with other {@link ImageDistort}.  The exception is when caching is turned on, then like
+ * {@link ImageDistortCache} the table is only computed again when the shape of the destination image changes.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class ImageDistort_MT<T extends ImageSingleBand> implements ImageDistort<T> {
+
+	// workers which are not currently being used
+	private final List<ImageDistort<T>> available = new ArrayList<ImageDistort<T>>();
+	// number of workers
+	private int numWorkers;
+
+	// should the distortion be cached
+	private boolean cached;
+	// cached distortion for the entire destination image
+	private PixelTransformCached_F32 map;
+	// true if the cached distortion was passed in by the user
+	private boolean userMap;
+
+	// transform from destination to source pixels
+	private PixelTransform_F32 dstToSrc;
+
+	/**
+	 * Specifies the distortion algorithm used by each worker.  All the workers must be configured identically
+	 * and should not cache the distortion themselves.
+	 *
+	 * @param workers Distortion algorithm for each worker.
+	 * @param cached If true the distortion is computed once and saved for the entire destination image.
+	 */
+	public ImageDistort_MT(List<ImageDistort<T>> workers, boolean cached) {
+		if( workers.isEmpty() )
+			throw new IllegalArgumentException("There must be at least one worker");
+
+		this.cached = cached;
+		numWorkers = workers.size();
+		available.addAll(workers);
+	}
+
+	@Override
+	public void setModel(PixelTransform_F32 dstToSrc) {
+		this.dstToSrc = dstToSrc;
+		userMap = dstToSrc instanceof PixelTransformCached_F32;
+		map = userMap ? (PixelTransformCached_F32)dstToSrc : null;
+	}
+
+
+	@Override
+	public void apply(T srcImg, T dstImg) {
+		apply(srcImg,dstImg,0,0,dstImg.width,dstImg.height);
+	}
+
+	@Override
+	public void apply(final T srcImg, final T dstImg,
+					  final int dstX0, int dstY0, final int dstX1, int dstY1)
+	{
+		if( userMap ) {
+			if( map.getWidth() != dstImg.width || map.getHeight() != dstImg.height )
+				throw new IllegalArgumentException("Unexpected dstImg dimension");
+		} else if( cached && (map == null || map.getWidth() != dstImg.width || map.getHeight() != dstImg.height) ) {
+			map = new PixelTransformCached_F32(dstImg.width,dstImg.height,dstToSrc);
+		}
+
+		PixelTransform_F32 transform = map != null ? map : dstToSrc;
+
+		if( !BoofConcurrency.USE_CONCURRENT ) {
+			ImageDistort<T> w = available.get(0);
+			w.setModel(transform);
+			w.apply(srcImg,dstImg,dstX0,dstY0,dstX1,dstY1);
+			return;
+		}
+
+		// copy the transform each time so that changes made to it after setModel() are used
+		for( ImageDistort<T> w : available ) {
+			w.setModel(transform.copy());
+		}
+
+		// make sure there are no more blocks than workers
+		int minBlock = (dstY1 - dstY0 + numWorkers - 1)/numWorkers;
+
+		BoofConcurrency.loopBlocks(dstY0,dstY1,minBlock,new IntRangeTask() {
+			@Override
+			public void process(int index0, int index1) {
+				ImageDistort<T> w = acquire();
+				try {
+					w.apply(srcImg,dstImg,dstX0,index0,dstX1,index1);
+				} finally {
+					release(w);
+				}
+			}
+		});
+	}
+
+	private ImageDistort<T> acquire() {
+		synchronized ( available ) {
+			return available.remove(available.size()-1);
+		}
+	}
+
+	private void release( ImageDistort<T> w ) {
+		synchronized ( available ) {
+			available.add(w);
+		}
+	}
+
+	/**
+	 * Returns the cached distortion.  Null if caching is off or it has not yet been computed.
+	 */
+	public PixelTransformCached_F32 getMap() {
+		return map;
+	}
+
+	/**
+	 * Number of workers which process the image.
+	 */
+	public int getNumWorkers() {
+		return numWorkers;
+	}
+}
@@ -64,6 +64,31 @@ public class PixelTransformAffine_F32 extends PixelTransform_F32 {
 		distY = tran.y;
 	}
 
+	/**
+	 * Terms which only depend on y are computed once for the entire row.  The operations are done in the same
+	 * order as {@link #compute(int, int)} so the results are identical.
+	 */
+	@Override
+	public void computeRow(int x0, int y, int length, float[] distX, float[] distY) {
+		final float a11 = affine.a11, a21 = affine.a21;
+		final float tx = affine.tx, ty = affine.ty;
+		final float rowX = affine.a12*y;
+		final float rowY = affine.a22*y;
+
+		float x = x0;
+		for( int i = 0; i < length; i++ , x++ ) {
+			distX[i] = tx + a11*x + rowX;
+			distY[i] = ty + a21*x + rowY;
+		}
+	}
+
+	@Override
+	public PixelTransformAffine_F32 copy() {
+		PixelTransformAffine_F32 ret = new PixelTransformAffine_F32();
+		ret.set(affine);
+		return ret;
+	}
+
 	public Affine2D_F32 getModel() {
 		return affine;
 	}
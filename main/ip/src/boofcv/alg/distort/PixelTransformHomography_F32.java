@@ -68,6 +68,33 @@ public class PixelTransformHomography_F32 extends PixelTransform_F32 {
 		distY = tran.y;
 	}
 
+	/**
+	 * Terms which only depend on y are computed once for the entire row.  The operations are done in the same
+	 * order as {@link #compute(int, int)} so the results are identical.
+	 */
+	@Override
+	public void computeRow(int x0, int y, int length, float[] distX, float[] distY) {
+		final float a11 = homo.a11, a21 = homo.a21, a31 = homo.a31;
+		final float a13 = homo.a13, a23 = homo.a23, a33 = homo.a33;
+		final float rowX = homo.a12*y;
+		final float rowY = homo.a22*y;
+		final float rowZ = homo.a32*y;
+
+		float x = x0;
+		for( int i = 0; i < length; i++ , x++ ) {
+			float z = a31*x + rowZ + a33;
+			distX[i] = (a11*x + rowX + a13)/z;
+			distY[i] = (a21*x + rowY + a23)/z;
+		}
+	}
+
+	@Override
+	public PixelTransformHomography_F32 copy() {
+		PixelTransformHomography_F32 ret = new PixelTransformHomography_F32();
+		ret.set(homo);
+		return ret;
+	}
+
 	public Homography2D_F32 getModel() {
 		return homo;
 	}
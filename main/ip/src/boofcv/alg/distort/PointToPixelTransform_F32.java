@@ -42,4 +42,9 @@ public class PointToPixelTransform_F32 extends PixelTransform_F32 {
 		distX = point.x;
 		distY = point.y;
 	}
+
+	@Override
+	public PointToPixelTransform_F32 copy() {
+		return new PointToPixelTransform_F32(alg.copy());
+	}
 }
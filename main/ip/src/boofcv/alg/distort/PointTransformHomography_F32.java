@@ -63,6 +63,13 @@ public class PointTransformHomography_F32 implements PointTransform_F32 {
 		HomographyPointOps_F32.transform(homo, x, y, out);
 	}
 
+	@Override
+	public PointTransformHomography_F32 copy() {
+		PointTransformHomography_F32 ret = new PointTransformHomography_F32();
+		ret.set(homo);
+		return ret;
+	}
+
 	public Homography2D_F32 getModel() {
 		return homo;
 	}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.filter.convolve;
+
+import boofcv.alg.InputSanityCheck;
+import boofcv.alg.transform.fft.DiscreteFourierTransform;
+import boofcv.alg.transform.fft.DiscreteFourierTransformOps;
+import boofcv.core.image.border.ImageBorder;
+import boofcv.core.image.border.ImageBorder_F32;
+import boofcv.core.image.border.ImageBorder_F64;
+import boofcv.struct.convolve.Kernel2D_F32;
+import boofcv.struct.convolve.Kernel2D_F64;
+import boofcv.struct.image.ImageFloat32;
+import boofcv.struct.image.ImageFloat64;
+import boofcv.struct.image.ImageInterleavedFloat64;
+
+/**
+ * <p>
+ * 2D convolution computed in the frequency domain using the Fast Fourier Transform.  Produces the same
+ * results as {@link ConvolveWithBorder}, up to floating point round off error.  The cost does not depend
+ * on the size of the kernel, making it much faster for large kernels.  For small kernels the direct
+ * convolution is faster.
+ * </p>
+ *
+ * <p>
+ * The image is expanded by the kernel's radius using the border and then zero padded to a size which can be
+ * quickly transformed.  Padding ensures that the circular convolution computed by the DFT does not wrap
+ * around.  All computations are done using doubles.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class ConvolveFourier {
+
+	/**
+	 * Performs a 2D convolution across the image.  Borders are handled as specified by the 'border' parameter.
+	 *
+	 * @param kernel The kernel that is being convolved. Not modified.
+	 * @param input The original image. Not modified.
+	 * @param output Where the resulting image is written to. Modified.
+	 * @param border How the image borders are handled.
+	 */
+	public static void convolve( Kernel2D_F32 kernel , ImageFloat32 input , ImageFloat32 output ,
+								 ImageBorder_F32 border ) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		double data[] = new double[kernel.width*kernel.width];
+		for( int i = 0; i < data.length; i++ )
+			data[i] = kernel.data[i];
+
+		border.setImage(input);
+		ImageFloat64 result = convolve(data, kernel.width, border, input.width, input.height);
+
+		int r = kernel.getRadius();
+		for( int y = 0; y < output.height; y++ ) {
+			int indexSrc = result.startIndex + (y+r)*result.stride + r;
+			int indexDst = output.startIndex + y*output.stride;
+			for( int x = 0; x < output.width; x++ ) {
+				output.data[indexDst++] = (float)result.data[indexSrc++];
+			}
+		}
+	}
+
+	/**
+	 * Performs a 2D convolution across the image.  Borders are handled as specified by the 'border' parameter.
+	 *
+	 * @param kernel The kernel that is being convolved. Not modified.
+	 * @param input The original image. Not modified.
+	 * @param output Where the resulting image is written to. Modified.
+	 * @param border How the image borders are handled.
+	 */
+	public static void convolve( Kernel2D_F64 kernel , ImageFloat64 input , ImageFloat64 output ,
+								 ImageBorder_F64 border ) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		border.setImage(input);
+		ImageFloat64 result = convolve(kernel.data, kernel.width, border, input.width, input.height);
+
+		int r = kernel.getRadius();
+		for( int y = 0; y < output.height; y++ ) {
+			System.arraycopy(result.data, result.startIndex + (y+r)*result.stride + r,
+					output.data, output.startIndex + y*output.stride, output.width);
+		}
+	}
+
+	/**
+	 * Convolves the kernel with the image after it has been expanded by the border.  The output pixel (x,y)
+	 * is stored at pixel (x+r,y+r) in the returned image, where r is the kernel's radius.
+	 */
+	private static ImageFloat64 convolve( double kernel[] , int kernelWidth , ImageBorder border ,
+										  int width , int height ) {
+		int r = kernelWidth/2;
+		int paddedWidth = width + 2*r;
+		int paddedHeight = height + 2*r;
+		int fftWidth = DiscreteFourierTransformOps.nextFastSize(paddedWidth);
+		int fftHeight = DiscreteFourierTransformOps.nextFastSize(paddedHeight);
+
+		// image expanded by the border and zero padded
+		ImageFloat64 image = new ImageFloat64(fftWidth,fftHeight);
+		for( int y = 0; y < paddedHeight; y++ ) {
+			int index = y*fftWidth;
+			for( int x = 0; x < paddedWidth; x++ ) {
+				image.data[index++] = border.getGeneral(x-r,y-r);
+			}
+		}
+
+		// flip the kernel and wrap it around so that its center is at (0,0)
+		ImageFloat64 kernelImage = new ImageFloat64(fftWidth,fftHeight);
+		for( int i = -r; i <= r; i++ ) {
+			int y = i <= 0 ? -i : fftHeight - i;
+			for( int j = -r; j <= r; j++ ) {
+				int x = j <= 0 ? -j : fftWidth - j;
+				kernelImage.data[y*fftWidth + x] = kernel[(i+r)*kernelWidth + j+r];
+			}
+		}
+
+		DiscreteFourierTransform dft = DiscreteFourierTransformOps.createTransform();
+		ImageInterleavedFloat64 transformImage = new ImageInterleavedFloat64(fftWidth,fftHeight,2);
+		ImageInterleavedFloat64 transformKernel = new ImageInterleavedFloat64(fftWidth,fftHeight,2);
+
+		dft.forward(image,transformImage);
+		dft.forward(kernelImage,transformKernel);
+		DiscreteFourierTransformOps.multiplyComplex(transformImage,transformKernel,transformImage);
+		dft.inverse(transformImage,image);
+
+		return image;
+	}
+}
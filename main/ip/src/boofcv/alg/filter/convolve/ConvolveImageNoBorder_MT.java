@@ -0,0 +1,452 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.filter.convolve;
+
+import boofcv.alg.InputSanityCheck;
+import boofcv.alg.filter.convolve.noborder.*;
+import boofcv.misc.BoofConcurrency;
+import boofcv.misc.IntRangeTask;
+import boofcv.struct.convolve.Kernel1D_F32;
+import boofcv.struct.convolve.Kernel1D_I32;
+import boofcv.struct.convolve.Kernel2D_F32;
+import boofcv.struct.convolve.Kernel2D_I32;
+import boofcv.struct.image.*;
+
+
+/**
+ * <p>
+ * Concurrent implementation of {@link ConvolveImageNoBorder}.  The image is split into horizontal bands of rows
+ * and each band is convolved in its own thread using a sub-image.  Each output pixel is computed by the same
+ * code as the single threaded version, so the results are identical.
+ * </p>
+ *
+ * <p>
+ * For vertical and 2D kernels the input band is expanded by the kernel's radius so that each band can read
+ * the rows above and below it.  Bands never write to the same rows.
+ * </p>
+ *
+ * @see BoofConcurrency
+ *
+ * @author Peter Abeles
+ */
+@SuppressWarnings({"ForLoopReplaceableByForEach"})
+public class ConvolveImageNoBorder_MT {
+
+	/**
+	 * The minimum number of rows in a band.  Prevents small images from being split up into lots of tiny bands
+	 */
+	public static int MIN_BAND = 8;
+
+	/**
+	 * Concurrent version of {@link ConvolveImageNoBorder#horizontal(Kernel1D_F32, ImageFloat32, ImageFloat32, boolean)}.
+	 */
+	public static void horizontal(final Kernel1D_F32 kernel,
+								  final ImageFloat32 input, final ImageFloat32 output, boolean includeVerticalBorder) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		final int border = includeVerticalBorder ? 0 : kernel.getRadius();
+
+		BoofConcurrency.loopBlocks(border, input.height - border, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				ImageFloat32 bandIn = input.subimage(0, y0, input.width, y1);
+				ImageFloat32 bandOut = output.subimage(0, y0, output.width, y1);
+				if( !ConvolveImageUnrolled_F32_F32.horizontal(kernel, bandIn, bandOut, true) )
+					ConvolveImageStandard.horizontal(kernel, bandIn, bandOut, true);
+			}
+		});
+	}
+
+	/**
+	 * Concurrent version of {@link ConvolveImageNoBorder#horizontal(Kernel1D_I32, ImageUInt8, ImageInt8, int, boolean)}.
+	 */
+	public static void horizontal(final Kernel1D_I32 kernel,
+								  final ImageUInt8 input, final ImageInt8 output, final int divisor, boolean includeVerticalBorder) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		final int border = includeVerticalBorder ? 0 : kernel.getRadius();
+
+		BoofConcurrency.loopBlocks(border, input.height - border, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				ImageUInt8 bandIn = input.subimage(0, y0, input.width, y1);
+				ImageInt8 bandOut = (ImageInt8)output.subimage(0, y0, output.width, y1);
+				if( !ConvolveImageUnrolled_U8_I8_Div.horizontal(kernel, bandIn, bandOut, divisor, true) )
+					ConvolveImageStandard.horizontal(kernel, bandIn, bandOut, divisor, true);
+			}
+		});
+	}
+
+	/**
+	 * Concurrent version of {@link ConvolveImageNoBorder#horizontal(Kernel1D_I32, ImageUInt8, ImageInt16, boolean)}.
+	 */
+	public static void horizontal(final Kernel1D_I32 kernel,
+								  final ImageUInt8 input, final ImageInt16 output, boolean includeVerticalBorder) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		final int border = includeVerticalBorder ? 0 : kernel.getRadius();
+
+		BoofConcurrency.loopBlocks(border, input.height - border, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				ImageUInt8 bandIn = input.subimage(0, y0, input.width, y1);
+				ImageInt16 bandOut = (ImageInt16)output.subimage(0, y0, output.width, y1);
+				if( !ConvolveImageUnrolled_U8_I16.horizontal(kernel, bandIn, bandOut, true) )
+					ConvolveImageStandard.horizontal(kernel, bandIn, bandOut, true);
+			}
+		});
+	}
+
+	/**
+	 * Concurrent version of {@link ConvolveImageNoBorder#horizontal(Kernel1D_I32, ImageUInt8, ImageSInt32, boolean)}.
+	 */
+	public static void horizontal(final Kernel1D_I32 kernel,
+								  final ImageUInt8 input, final ImageSInt32 output, boolean includeVerticalBorder) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		final int border = includeVerticalBorder ? 0 : kernel.getRadius();
+
+		BoofConcurrency.loopBlocks(border, input.height - border, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				ImageUInt8 bandIn = input.subimage(0, y0, input.width, y1);
+				ImageSInt32 bandOut = output.subimage(0, y0, output.width, y1);
+				ConvolveImageStandard.horizontal(kernel, bandIn, bandOut, true);
+			}
+		});
+	}
+
+	/**
+	 * Concurrent version of {@link ConvolveImageNoBorder#horizontal(Kernel1D_I32, ImageSInt16, ImageInt16, boolean)}.
+	 */
+	public static void horizontal(final Kernel1D_I32 kernel,
+								  final ImageSInt16 input, final ImageInt16 output, boolean includeVerticalBorder) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		final int border = includeVerticalBorder ? 0 : kernel.getRadius();
+
+		BoofConcurrency.loopBlocks(border, input.height - border, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				ImageSInt16 bandIn = input.subimage(0, y0, input.width, y1);
+				ImageInt16 bandOut = (ImageInt16)output.subimage(0, y0, output.width, y1);
+				if( !ConvolveImageUnrolled_S16_I16.horizontal(kernel, bandIn, bandOut, true) )
+					ConvolveImageStandard.horizontal(kernel, bandIn, bandOut, true);
+			}
+		});
+	}
+
+	/**
+	 * Concurrent version of {@link ConvolveImageNoBorder#horizontal(Kernel1D_I32, ImageSInt16, ImageInt16, int, boolean)}.
+	 */
+	public static void horizontal(final Kernel1D_I32 kernel,
+								  final ImageSInt16 input, final ImageInt16 output, final int divisor, boolean includeVerticalBorder) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		final int border = includeVerticalBorder ? 0 : kernel.getRadius();
+
+		BoofConcurrency.loopBlocks(border, input.height - border, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				ImageSInt16 bandIn = input.subimage(0, y0, input.width, y1);
+				ImageInt16 bandOut = (ImageInt16)output.subimage(0, y0, output.width, y1);
+				if( !ConvolveImageUnrolled_S16_I16_Div.horizontal(kernel, bandIn, bandOut, divisor, true) )
+					ConvolveImageStandard.horizontal(kernel, bandIn, bandOut, divisor, true);
+			}
+		});
+	}
+
+	/**
+	 * Concurrent version of {@link ConvolveImageNoBorder#horizontal(Kernel1D_I32, ImageSInt32, ImageSInt32, int, boolean)}.
+	 */
+	public static void horizontal(final Kernel1D_I32 kernel,
+								  final ImageSInt32 input, final ImageSInt32 output, final int divisor, boolean includeVerticalBorder) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		final int border = includeVerticalBorder ? 0 : kernel.getRadius();
+
+		BoofConcurrency.loopBlocks(border, input.height - border, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				ImageSInt32 bandIn = input.subimage(0, y0, input.width, y1);
+				ImageSInt32 bandOut = output.subimage(0, y0, output.width, y1);
+				if( !ConvolveImageUnrolled_S32_S32_Div.horizontal(kernel, bandIn, bandOut, divisor, true) )
+					ConvolveImageStandard.horizontal(kernel, bandIn, bandOut, divisor, true);
+			}
+		});
+	}
+
+	/**
+	 * Concurrent version of {@link ConvolveImageNoBorder#vertical(Kernel1D_F32, ImageFloat32, ImageFloat32, boolean)}.
+	 */
+	public static void vertical(final Kernel1D_F32 kernel,
+								final ImageFloat32 input, final ImageFloat32 output, final boolean includeHorizontalBorder) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		final int radius = kernel.getRadius();
+
+		BoofConcurrency.loopBlocks(radius, input.height - radius, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				ImageFloat32 bandIn = input.subimage(0, y0 - radius, input.width, y1 + radius);
+				ImageFloat32 bandOut = output.subimage(0, y0 - radius, output.width, y1 + radius);
+				if( !ConvolveImageUnrolled_F32_F32.vertical(kernel, bandIn, bandOut, includeHorizontalBorder) )
+					ConvolveImageStandard.vertical(kernel, bandIn, bandOut, includeHorizontalBorder);
+			}
+		});
+	}
+
+	/**
+	 * Concurrent version of {@link ConvolveImageNoBorder#vertical(Kernel1D_I32, ImageUInt8, ImageInt8, int, boolean)}.
+	 */
+	public static void vertical(final Kernel1D_I32 kernel,
+								final ImageUInt8 input, final ImageInt8 output, final int divisor, final boolean includeHorizontalBorder) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		final int radius = kernel.getRadius();
+
+		BoofConcurrency.loopBlocks(radius, input.height - radius, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				ImageUInt8 bandIn = input.subimage(0, y0 - radius, input.width, y1 + radius);
+				ImageInt8 bandOut = (ImageInt8)output.subimage(0, y0 - radius, output.width, y1 + radius);
+				if( !ConvolveImageUnrolled_U8_I8_Div.vertical(kernel, bandIn, bandOut, divisor, includeHorizontalBorder) )
+					ConvolveImageStandard.vertical(kernel, bandIn, bandOut, divisor, includeHorizontalBorder);
+			}
+		});
+	}
+
+	/**
+	 * Concurrent version of {@link ConvolveImageNoBorder#vertical(Kernel1D_I32, ImageUInt8, ImageInt16, boolean)}.
+	 */
+	public static void vertical(final Kernel1D_I32 kernel,
+								final ImageUInt8 input, final ImageInt16 output, final boolean includeHorizontalBorder) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		final int radius = kernel.getRadius();
+
+		BoofConcurrency.loopBlocks(radius, input.height - radius, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				ImageUInt8 bandIn = input.subimage(0, y0 - radius, input.width, y1 + radius);
+				ImageInt16 bandOut = (ImageInt16)output.subimage(0, y0 - radius, output.width, y1 + radius);
+				if( !ConvolveImageUnrolled_U8_I16.vertical(kernel, bandIn, bandOut, includeHorizontalBorder) )
+					ConvolveImageStandard.vertical(kernel, bandIn, bandOut, includeHorizontalBorder);
+			}
+		});
+	}
+
+	/**
+	 * Concurrent version of {@link ConvolveImageNoBorder#vertical(Kernel1D_I32, ImageUInt8, ImageSInt32, boolean)}.
+	 */
+	public static void vertical(final Kernel1D_I32 kernel,
+								final ImageUInt8 input, final ImageSInt32 output, final boolean includeHorizontalBorder) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		final int radius = kernel.getRadius();
+
+		BoofConcurrency.loopBlocks(radius, input.height - radius, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				ImageUInt8 bandIn = input.subimage(0, y0 - radius, input.width, y1 + radius);
+				ImageSInt32 bandOut = output.subimage(0, y0 - radius, output.width, y1 + radius);
+				ConvolveImageStandard.vertical(kernel, bandIn, bandOut, includeHorizontalBorder);
+			}
+		});
+	}
+
+	/**
+	 * Concurrent version of {@link ConvolveImageNoBorder#vertical(Kernel1D_I32, ImageSInt16, ImageInt16, boolean)}.
+	 */
+	public static void vertical(final Kernel1D_I32 kernel,
+								final ImageSInt16 input, final ImageInt16 output, final boolean includeHorizontalBorder) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		final int radius = kernel.getRadius();
+
+		BoofConcurrency.loopBlocks(radius, input.height - radius, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				ImageSInt16 bandIn = input.subimage(0, y0 - radius, input.width, y1 + radius);
+				ImageInt16 bandOut = (ImageInt16)output.subimage(0, y0 - radius, output.width, y1 + radius);
+				if( !ConvolveImageUnrolled_S16_I16.vertical(kernel, bandIn, bandOut, includeHorizontalBorder) )
+					ConvolveImageStandard.vertical(kernel, bandIn, bandOut, includeHorizontalBorder);
+			}
+		});
+	}
+
+	/**
+	 * Concurrent version of {@link ConvolveImageNoBorder#vertical(Kernel1D_I32, ImageSInt16, ImageInt16, int, boolean)}.
+	 */
+	public static void vertical(final Kernel1D_I32 kernel,
+								final ImageSInt16 input, final ImageInt16 output, final int divisor, final boolean includeHorizontalBorder) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		final int radius = kernel.getRadius();
+
+		BoofConcurrency.loopBlocks(radius, input.height - radius, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				ImageSInt16 bandIn = input.subimage(0, y0 - radius, input.width, y1 + radius);
+				ImageInt16 bandOut = (ImageInt16)output.subimage(0, y0 - radius, output.width, y1 + radius);
+				if( !ConvolveImageUnrolled_S16_I16_Div.vertical(kernel, bandIn, bandOut, divisor, includeHorizontalBorder) )
+					ConvolveImageStandard.vertical(kernel, bandIn, bandOut, divisor, includeHorizontalBorder);
+			}
+		});
+	}
+
+	/**
+	 * Concurrent version of {@link ConvolveImageNoBorder#vertical(Kernel1D_I32, ImageSInt32, ImageSInt32, int, boolean)}.
+	 */
+	public static void vertical(final Kernel1D_I32 kernel,
+								final ImageSInt32 input, final ImageSInt32 output, final int divisor, final boolean includeHorizontalBorder) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		final int radius = kernel.getRadius();
+
+		BoofConcurrency.loopBlocks(radius, input.height - radius, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				ImageSInt32 bandIn = input.subimage(0, y0 - radius, input.width, y1 + radius);
+				ImageSInt32 bandOut = output.subimage(0, y0 - radius, output.width, y1 + radius);
+				if( !ConvolveImageUnrolled_S32_S32_Div.vertical(kernel, bandIn, bandOut, divisor, includeHorizontalBorder) )
+					ConvolveImageStandard.vertical(kernel, bandIn, bandOut, divisor, includeHorizontalBorder);
+			}
+		});
+	}
+
+	/**
+	 * Concurrent version of {@link ConvolveImageNoBorder#convolve(Kernel2D_F32, ImageFloat32, ImageFloat32)}.
+	 */
+	public static void convolve(final Kernel2D_F32 kernel,
+								final ImageFloat32 input, final ImageFloat32 output) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		final int radius = kernel.getRadius();
+
+		BoofConcurrency.loopBlocks(radius, input.height - radius, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				ImageFloat32 bandIn = input.subimage(0, y0 - radius, input.width, y1 + radius);
+				ImageFloat32 bandOut = output.subimage(0, y0 - radius, output.width, y1 + radius);
+				if( !ConvolveImageUnrolled_F32_F32.convolve(kernel, bandIn, bandOut) )
+					ConvolveImageStandard.convolve(kernel, bandIn, bandOut);
+			}
+		});
+	}
+
+	/**
+	 * Concurrent version of {@link ConvolveImageNoBorder#convolve(Kernel2D_I32, ImageUInt8, ImageInt8, int)}.
+	 */
+	public static void convolve(final Kernel2D_I32 kernel,
+								final ImageUInt8 input, final ImageInt8 output, final int divisor) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		final int radius = kernel.getRadius();
+
+		BoofConcurrency.loopBlocks(radius, input.height - radius, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				ImageUInt8 bandIn = input.subimage(0, y0 - radius, input.width, y1 + radius);
+				ImageInt8 bandOut = (ImageInt8)output.subimage(0, y0 - radius, output.width, y1 + radius);
+				if( !ConvolveImageUnrolled_U8_I8_Div.convolve(kernel, bandIn, bandOut, divisor) )
+					ConvolveImageStandard.convolve(kernel, bandIn, bandOut, divisor);
+			}
+		});
+	}
+
+	/**
+	 * Concurrent version of {@link ConvolveImageNoBorder#convolve(Kernel2D_I32, ImageUInt8, ImageInt16)}.
+	 */
+	public static void convolve(final Kernel2D_I32 kernel,
+								final ImageUInt8 input, final ImageInt16 output) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		final int radius = kernel.getRadius();
+
+		BoofConcurrency.loopBlocks(radius, input.height - radius, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				ImageUInt8 bandIn = input.subimage(0, y0 - radius, input.width, y1 + radius);
+				ImageInt16 bandOut = (ImageInt16)output.subimage(0, y0 - radius, output.width, y1 + radius);
+				if( !ConvolveImageUnrolled_U8_I16.convolve(kernel, bandIn, bandOut) )
+					ConvolveImageStandard.convolve(kernel, bandIn, bandOut);
+			}
+		});
+	}
+
+	/**
+	 * Concurrent version of {@link ConvolveImageNoBorder#convolve(Kernel2D_I32, ImageUInt8, ImageSInt32)}.
+	 */
+	public static void convolve(final Kernel2D_I32 kernel,
+								final ImageUInt8 input, final ImageSInt32 output) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		final int radius = kernel.getRadius();
+
+		BoofConcurrency.loopBlocks(radius, input.height - radius, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				ImageUInt8 bandIn = input.subimage(0, y0 - radius, input.width, y1 + radius);
+				ImageSInt32 bandOut = output.subimage(0, y0 - radius, output.width, y1 + radius);
+				ConvolveImageStandard.convolve(kernel, bandIn, bandOut);
+			}
+		});
+	}
+
+	/**
+	 * Concurrent version of {@link ConvolveImageNoBorder#convolve(Kernel2D_I32, ImageSInt16, ImageInt16)}.
+	 */
+	public static void convolve(final Kernel2D_I32 kernel,
+								final ImageSInt16 input, final ImageInt16 output) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		final int radius = kernel.getRadius();
+
+		BoofConcurrency.loopBlocks(radius, input.height - radius, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				ImageSInt16 bandIn = input.subimage(0, y0 - radius, input.width, y1 + radius);
+				ImageInt16 bandOut = (ImageInt16)output.subimage(0, y0 - radius, output.width, y1 + radius);
+				if( !ConvolveImageUnrolled_S16_I16.convolve(kernel, bandIn, bandOut) )
+					ConvolveImageStandard.convolve(kernel, bandIn, bandOut);
+			}
+		});
+	}
+
+	/**
+	 * Concurrent version of {@link ConvolveImageNoBorder#convolve(Kernel2D_I32, ImageSInt16, ImageInt16, int)}.
+	 */
+	public static void convolve(final Kernel2D_I32 kernel,
+								final ImageSInt16 input, final ImageInt16 output, final int divisor) {
+		InputSanityCheck.checkSameShape(input, output);
+
+		final int radius = kernel.getRadius();
+
+		BoofConcurrency.loopBlocks(radius, input.height - radius, MIN_BAND, new IntRangeTask() {
+			@Override
+			public void process(int y0, int y1) {
+				ImageSInt16 bandIn = input.subimage(0, y0 - radius, input.width, y1 + radius);
+				ImageInt16 bandOut = (ImageInt16)output.subimage(0, y0 - radius, output.width, y1 + radius);
+				if( !ConvolveImageUnrolled_S16_I16_Div.convolve(kernel, bandIn, bandOut, divisor) )
+					ConvolveImageStandard.convolve(kernel, bandIn, bandOut, divisor);
+			}
+		});
+	}
+}
@@ -20,6 +20,7 @@ package boofcv.alg.filter.convolve;
 
 import boofcv.core.image.border.ImageBorder;
 import boofcv.core.image.border.ImageBorder_F32;
+import boofcv.core.image.border.ImageBorder_F64;
 import boofcv.core.image.border.ImageBorder_I32;
 import boofcv.struct.convolve.*;
 import boofcv.struct.image.*;
@@ -104,6 +105,27 @@ public class GConvolveImageOps {
 		}
 	}
 
+	/**
+	 * Performs a 2D convolution across the image in the frequency domain, see {@link ConvolveFourier}.
+	 * Much faster than {@link #convolve(Kernel2D, ImageSingleBand, ImageSingleBand, ImageBorder)} for large
+	 * kernels.  Borders are handled as specified by the 'border' parameter.
+	 *
+	 * @param input The original image. Not modified.
+	 * @param output Where the resulting image is written to. Modified.
+	 * @param kernel The kernel that is being convolved. Not modified.
+	 * @param border How the image borders are handled.
+	 */
+	public static <T extends ImageSingleBand, K extends Kernel2D, B extends ImageBorder<T>>
+	void convolveFourier(K kernel, T input, T output , B border ) {
+		if( input instanceof ImageFloat32 ) {
+			ConvolveFourier.convolve((Kernel2D_F32) kernel, (ImageFloat32) input, (ImageFloat32) output, (ImageBorder_F32) border);
+		} else if( input instanceof ImageFloat64 ) {
+			ConvolveFourier.convolve((Kernel2D_F64) kernel, (ImageFloat64) input, (ImageFloat64) output, (ImageBorder_F64) border);
+		} else {
+			throw new IllegalArgumentException("Unknown image type: "+input.getClass().getName());
+		}
+	}
+
 	/**
 	 * Performs a horizontal 1D convolution across the image.  The horizontal border
 	 * is not processed and the vertical border is optionally processed.  The border is as wide
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.transform.census;
+
+import boofcv.alg.InputSanityCheck;
+import boofcv.struct.image.ImageSInt32;
+import boofcv.struct.image.ImageUInt8;
+
+/**
+ * <p>
+ * The census transform encodes the local structure around each pixel as a bit string [1].  Each bit corresponds to
+ * a pixel in the surrounding square region and is set to 1 if that pixel is darker than the center pixel.  Two
+ * encoded pixels are compared using the hamming distance.  Since only the relative order of pixel values is
+ * encoded the transform is invariant to changes in gain and bias.
+ * </p>
+ *
+ * <p>
+ * Bits are ordered in a row-major order with the center pixel skipped.  Pixels outside the image are replaced by the
+ * closest pixel inside the image.
+ * </p>
+ *
+ * <p>
+ * [1] Zabih, Ramin and Woodfill, John. "Non-parametric local transforms for computing visual correspondence"
+ * ECCV 1994
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class CensusTransform {
+
+	/**
+	 * Census transform using a 3x3 region.  Each output pixel has 8 bits.
+	 *
+	 * @param input Input image. Not modified.
+	 * @param output Census transformed image.  If null a new image will be created. Modified.
+	 * @return Census transformed image.
+	 */
+	public static ImageSInt32 region3x3( ImageUInt8 input , ImageSInt32 output ) {
+		return transform(input, 1, output);
+	}
+
+	/**
+	 * Census transform using a 5x5 region.  Each output pixel has 24 bits.
+	 *
+	 * @param input Input image. Not modified.
+	 * @param output Census transformed image.  If null a new image will be created. Modified.
+	 * @return Census transformed image.
+	 */
+	public static ImageSInt32 region5x5( ImageUInt8 input , ImageSInt32 output ) {
+		return transform(input, 2, output);
+	}
+
+	/**
+	 * Census transform for a square region of the specified radius.
+	 *
+	 * @param input Input image. Not modified.
+	 * @param radius Radius of the square region.  Must be 1 or 2 so that all the bits fit in an int.
+	 * @param output Census transformed image.  If null a new image will be created. Modified.
+	 * @return Census transformed image.
+	 */
+	public static ImageSInt32 transform( ImageUInt8 input , int radius , ImageSInt32 output ) {
+		if( radius < 1 || radius > 2 )
+			throw new IllegalArgumentException("Radius must be 1 or 2");
+
+		output = InputSanityCheck.checkDeclare(input, output, ImageSInt32.class);
+
+		int width = radius*2+1;
+		int offsets[] = new int[ width*width-1 ];
+		int n = 0;
+		for( int y = -radius; y <= radius; y++ ) {
+			for( int x = -radius; x <= radius; x++ ) {
+				if( x != 0 || y != 0 )
+					offsets[n++] = y*input.stride + x;
+			}
+		}
+
+		// inner image where no bounds checks are needed
+		for( int y = radius; y < input.height-radius; y++ ) {
+			int indexIn = input.startIndex + y*input.stride + radius;
+			int indexOut = output.startIndex + y*output.stride + radius;
+
+			for( int x = radius; x < input.width-radius; x++ , indexIn++ ) {
+				int center = input.data[indexIn] & 0xFF;
+
+				int bits = 0;
+				for( int i = 0; i < n; i++ ) {
+					if( (input.data[indexIn+offsets[i]] & 0xFF) < center )
+						bits |= 1 << i;
+				}
+				output.data[indexOut++] = bits;
+			}
+		}
+
+		// image border
+		for( int y = 0; y < input.height; y++ ) {
+			if( y >= radius && y < input.height-radius ) {
+				for( int x = 0; x < radius && x < input.width; x++ )
+					output.unsafe_set(x,y,border(input,x,y,radius));
+				for( int x = Math.max(radius,input.width-radius); x < input.width; x++ )
+					output.unsafe_set(x,y,border(input,x,y,radius));
+			} else {
+				for( int x = 0; x < input.width; x++ )
+					output.unsafe_set(x,y,border(input,x,y,radius));
+			}
+		}
+
+		return output;
+	}
+
+	/**
+	 * Computes the census transform for a pixel while handling the image border.
+	 */
+	private static int border( ImageUInt8 input , int cx , int cy , int radius ) {
+		int center = input.unsafe_get(cx,cy);
+
+		int bits = 0;
+		int i = 0;
+		for( int y = -radius; y <= radius; y++ ) {
+			int py = Math.min(input.height-1,Math.max(0,cy+y));
+			for( int x = -radius; x <= radius; x++ ) {
+				if( x == 0 && y == 0 )
+					continue;
+				int px = Math.min(input.width-1,Math.max(0,cx+x));
+				if( input.unsafe_get(px,py) < center )
+					bits |= 1 << i;
+				i++;
+			}
+		}
+		return bits;
+	}
+}
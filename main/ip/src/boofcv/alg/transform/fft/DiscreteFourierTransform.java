@@ -0,0 +1,382 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.transform.fft;
+
+import boofcv.alg.InputSanityCheck;
+import boofcv.misc.IntRangeTask;
+import boofcv.struct.image.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>
+ * Two dimensional Discrete Fourier Transform (DFT) of real images.  The transform is stored in an interleaved
+ * image with two bands, real and imaginary, and is the same size as the input image.  The zero frequency
+ * is at pixel (0,0).  The transform is computed using the Fast Fourier Transform (FFT), see {@link FftPlan},
+ * by first transforming each row and then each column.  Any image size is supported, but sizes which are
+ * a product of small primes are much faster.
+ * </p>
+ *
+ * <p>
+ * Since the input is real, two rows are transformed at once by packing one into the real part and the other
+ * into the imaginary part of the same complex signal.  The inverse transform assumes that the transform is
+ * of a real image, i.e. it has Hermitian symmetry, and only outputs the real part.  The inverse is normalized.
+ * </p>
+ *
+ * <p>
+ * Internally all computations are done using doubles in a work buffer which is saved between calls.  The
+ * FFT plans and the temporary storage used to transform a row or column are also saved, and are only
+ * declared again when the image size changes.  Not thread safe, but see {@link DiscreteFourierTransform_MT}
+ * for a version which processes rows and columns in parallel.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class DiscreteFourierTransform {
+
+	// complex image being transformed.  Row major and interleaved
+	protected double work[] = new double[0];
+	protected int width;
+	protected int height;
+
+	// plans for transforming the rows and columns
+	protected FftPlan planRow;
+	protected FftPlan planCol;
+
+	// storage for transforming rows and columns which is not currently being used.  One for each thread
+	private final List<Workspace> available = new ArrayList<Workspace>();
+
+	/**
+	 * Computes the DFT of a real image.
+	 *
+	 * @param image Input image. Not modified.
+	 * @param transform Output transform.  Must have two bands and be the same size as the input image.  Modified.
+	 */
+	public void forward( ImageFloat32 image , ImageInterleavedFloat32 transform ) {
+		checkShape(image, transform);
+		declareWork(image.width,image.height);
+
+		for( int y = 0; y < height; y++ ) {
+			int indexSrc = image.startIndex + y*image.stride;
+			int indexDst = 2*y*width;
+			for( int x = 0; x < width; x++ ) {
+				work[indexDst++] = image.data[indexSrc++];
+				work[indexDst++] = 0;
+			}
+		}
+
+		forward();
+
+		for( int y = 0; y < height; y++ ) {
+			int indexSrc = 2*y*width;
+			int indexDst = transform.startIndex + y*transform.stride;
+			for( int x = 0; x < 2*width; x++ ) {
+				transform.data[indexDst++] = (float)work[indexSrc++];
+			}
+		}
+	}
+
+	/**
+	 * Computes the DFT of a real image.
+	 *
+	 * @param image Input image. Not modified.
+	 * @param transform Output transform.  Must have two bands and be the same size as the input image.  Modified.
+	 */
+	public void forward( ImageFloat64 image , ImageInterleavedFloat64 transform ) {
+		checkShape(image, transform);
+		declareWork(image.width,image.height);
+
+		for( int y = 0; y < height; y++ ) {
+			int indexSrc = image.startIndex + y*image.stride;
+			int indexDst = 2*y*width;
+			for( int x = 0; x < width; x++ ) {
+				work[indexDst++] = image.data[indexSrc++];
+				work[indexDst++] = 0;
+			}
+		}
+
+		forward();
+
+		for( int y = 0; y < height; y++ ) {
+			System.arraycopy(work,2*y*width,transform.data,transform.startIndex + y*transform.stride,2*width);
+		}
+	}
+
+	/**
+	 * Computes the inverse DFT.  The transform is assumed to be of a real image and only the real
+	 * part of the result is saved.
+	 *
+	 * @param transform Input transform.  Must have two bands. Not modified.
+	 * @param image Output image.  Must be the same size as the transform.  Modified.
+	 */
+	public void inverse( ImageInterleavedFloat32 transform , ImageFloat32 image ) {
+		checkShape(image, transform);
+		declareWork(image.width,image.height);
+
+		for( int y = 0; y < height; y++ ) {
+			int indexSrc = transform.startIndex + y*transform.stride;
+			int indexDst = 2*y*width;
+			for( int x = 0; x < 2*width; x++ ) {
+				work[indexDst++] = transform.data[indexSrc++];
+			}
+		}
+
+		inverse();
+
+		for( int y = 0; y < height; y++ ) {
+			int indexSrc = 2*y*width;
+			int indexDst = image.startIndex + y*image.stride;
+			for( int x = 0; x < width; x++, indexSrc += 2 ) {
+				image.data[indexDst++] = (float)work[indexSrc];
+			}
+		}
+	}
+
+	/**
+	 * Computes the inverse DFT.  The transform is assumed to be of a real image and only the real
+	 * part of the result is saved.
+	 *
+	 * @param transform Input transform.  Must have two bands. Not modified.
+	 * @param image Output image.  Must be the same size as the transform.  Modified.
+	 */
+	public void inverse( ImageInterleavedFloat64 transform , ImageFloat64 image ) {
+		checkShape(image, transform);
+		declareWork(image.width,image.height);
+
+		for( int y = 0; y < height; y++ ) {
+			System.arraycopy(transform.data,transform.startIndex + y*transform.stride,work,2*y*width,2*width);
+		}
+
+		inverse();
+
+		for( int y = 0; y < height; y++ ) {
+			int indexSrc = 2*y*width;
+			int indexDst = image.startIndex + y*image.stride;
+			for( int x = 0; x < width; x++, indexSrc += 2 ) {
+				image.data[indexDst++] = work[indexSrc];
+			}
+		}
+	}
+
+	private static void checkShape( ImageSingleBand image , ImageInterleaved transform ) {
+		if( transform.numBands != 2 )
+			throw new IllegalArgumentException("The transform must have two bands, real and imaginary");
+		InputSanityCheck.checkSameShape(image, transform);
+	}
+
+	private void declareWork( int width , int height ) {
+		this.width = width;
+		this.height = height;
+		int N = 2*width*height;
+		if( work.length < N )
+			work = new double[N];
+
+		if( planRow == null || planRow.getLength() != width )
+			planRow = planCol != null && planCol.getLength() == width ? planCol : new FftPlan(width);
+		if( planCol == null || planCol.getLength() != height )
+			planCol = planRow.getLength() == height ? planRow : new FftPlan(height);
+	}
+
+	/**
+	 * Forward transform of the real image in the work buffer
+	 */
+	private void forward() {
+		loop(0, (height+1)/2, new IntRangeTask() {
+			@Override
+			public void process(int index0, int index1) {
+				Workspace w = pop();
+				for( int i = index0; i < index1; i++ )
+					forwardRows(2*i, w.buffer, w.rowWork);
+				push(w);
+			}
+		});
+
+		transformColumns(true);
+	}
+
+	/**
+	 * Inverse transform of the complex image in the work buffer.  The result is stored in the real component.
+	 */
+	private void inverse() {
+		transformColumns(false);
+
+		loop(0, (height+1)/2, new IntRangeTask() {
+			@Override
+			public void process(int index0, int index1) {
+				Workspace w = pop();
+				for( int i = index0; i < index1; i++ )
+					inverseRows(2*i, w.buffer, w.rowWork);
+				push(w);
+			}
+		});
+	}
+
+	private void transformColumns( final boolean forward ) {
+		loop(0, width, new IntRangeTask() {
+			@Override
+			public void process(int index0, int index1) {
+				Workspace w = pop();
+				double buffer[] = w.buffer;
+
+				for( int x = index0; x < index1; x++ ) {
+					int index = 2*x;
+					for( int y = 0; y < height; y++, index += 2*width ) {
+						buffer[2*y] = work[index];
+						buffer[2*y+1] = work[index+1];
+					}
+
+					if( forward )
+						planCol.forward(buffer, w.colWork);
+					else
+						planCol.inverse(buffer, w.colWork);
+
+					index = 2*x;
+					for( int y = 0; y < height; y++, index += 2*width ) {
+						work[index] = buffer[2*y];
+						work[index+1] = buffer[2*y+1];
+					}
+				}
+				push(w);
+			}
+		});
+	}
+
+	/**
+	 * Transforms rows y0 and y0+1 by packing them into a single complex signal, then separates the two
+	 * transforms using their Hermitian symmetry.
+	 */
+	private void forwardRows( int y0 , double buffer[] , double planWork[] ) {
+		int index0 = 2*y0*width;
+		int index1 = index0 + 2*width;
+		boolean pair = y0+1 < height;
+
+		for( int x = 0; x < width; x++ ) {
+			buffer[2*x] = work[index0 + 2*x];
+			buffer[2*x+1] = pair ? work[index1 + 2*x] : 0;
+		}
+
+		planRow.forward(buffer, planWork);
+
+		if( !pair ) {
+			System.arraycopy(buffer,0,work,index0,2*width);
+			return;
+		}
+
+		for( int k = 0; k < width; k++ ) {
+			int nk = k == 0 ? 0 : width - k;
+			double zr = buffer[2*k], zi = buffer[2*k+1];
+			// conjugate of Z[N-k]
+			double cr = buffer[2*nk], ci = -buffer[2*nk+1];
+
+			// A = (Z + conj(Z[N-k]))/2
+			work[index0 + 2*k] = (zr + cr)/2.0;
+			work[index0 + 2*k+1] = (zi + ci)/2.0;
+			// B = (Z - conj(Z[N-k]))/(2i)
+			work[index1 + 2*k] = (zi - ci)/2.0;
+			work[index1 + 2*k+1] = -(zr - cr)/2.0;
+		}
+	}
+
+	/**
+	 * Inverse transform of rows y0 and y0+1.  Since both have real inverses, A + i*B is transformed and the
+	 * two rows are the real and imaginary parts of the result.
+	 */
+	private void inverseRows( int y0 , double buffer[] , double planWork[] ) {
+		int index0 = 2*y0*width;
+		int index1 = index0 + 2*width;
+		boolean pair = y0+1 < height;
+		double scale = width*(double)height;
+
+		for( int x = 0; x < width; x++ ) {
+			double ar = work[index0 + 2*x], ai = work[index0 + 2*x+1];
+			if( pair ) {
+				double br = work[index1 + 2*x], bi = work[index1 + 2*x+1];
+				buffer[2*x] = ar - bi;
+				buffer[2*x+1] = ai + br;
+			} else {
+				buffer[2*x] = ar;
+				buffer[2*x+1] = ai;
+			}
+		}
+
+		planRow.inverse(buffer, planWork);
+
+		for( int x = 0; x < width; x++ ) {
+			work[index0 + 2*x] = buffer[2*x]/scale;
+			work[index0 + 2*x+1] = 0;
+			if( pair ) {
+				work[index1 + 2*x] = buffer[2*x+1]/scale;
+				work[index1 + 2*x+1] = 0;
+			}
+		}
+	}
+
+	/**
+	 * Processes all the indexes in the range.  Overridden by the concurrent implementation.
+	 */
+	protected void loop( int start , int end , IntRangeTask task ) {
+		task.process(start,end);
+	}
+
+	/**
+	 * Returns storage which is not being used by another thread, resized for the current plans.
+	 */
+	private Workspace pop() {
+		Workspace w = null;
+		synchronized ( available ) {
+			if( available.size() > 0 )
+				w = available.remove( available.size()-1 );
+		}
+		if( w == null )
+			w = new Workspace();
+
+		int N = 2*Math.max(width,height);
+		if( w.buffer.length < N )
+			w.buffer = new double[N];
+		if( w.rowPlan != planRow ) {
+			w.rowPlan = planRow;
+			w.rowWork = planRow.createWork();
+		}
+		if( w.colPlan != planCol ) {
+			w.colPlan = planCol;
+			w.colWork = planCol.createWork();
+		}
+		return w;
+	}
+
+	private void push( Workspace w ) {
+		synchronized ( available ) {
+			available.add(w);
+		}
+	}
+
+	/**
+	 * Storage used to transform a single row or column
+	 */
+	private static class Workspace {
+		// the row or column being transformed, interleaved complex
+		double buffer[] = new double[0];
+		// temporary storage for the row and column plans and the plans it was declared for
+		double rowWork[];
+		double colWork[];
+		FftPlan rowPlan;
+		FftPlan colPlan;
+	}
+}
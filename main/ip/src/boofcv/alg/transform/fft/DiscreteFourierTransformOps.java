@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.transform.fft;
+
+import boofcv.alg.InputSanityCheck;
+import boofcv.misc.BoofConcurrency;
+import boofcv.struct.image.ImageInterleaved;
+import boofcv.struct.image.ImageInterleavedFloat32;
+import boofcv.struct.image.ImageInterleavedFloat64;
+
+/**
+ * Functions for computing and manipulating the Discrete Fourier Transform (DFT) of images.  Transforms are
+ * stored in interleaved images with two bands, real and imaginary.
+ *
+ * @author Peter Abeles
+ */
+public class DiscreteFourierTransformOps {
+
+	/**
+	 * Creates a new {@link DiscreteFourierTransform}.  If {@link BoofConcurrency#USE_CONCURRENT} is true then the
+	 * concurrent implementation is returned.
+	 */
+	public static DiscreteFourierTransform createTransform() {
+		if( BoofConcurrency.USE_CONCURRENT )
+			return new DiscreteFourierTransform_MT();
+		else
+			return new DiscreteFourierTransform();
+	}
+
+	/**
+	 * Returns the smallest length which is equal to or larger than 'length' and can be factored into 2 and 3.
+	 * The FFT is much faster for these lengths, making them a good choice when a signal is padded.
+	 *
+	 * @param length Minimum length.
+	 * @return A length that can be quickly transformed.
+	 */
+	public static int nextFastSize( int length ) {
+		int best = Integer.MAX_VALUE;
+
+		for( long pow2 = 1; pow2 < 2L*length; pow2 *= 2 ) {
+			long size = pow2;
+			while( size < length )
+				size *= 3;
+			if( size < best )
+				best = (int)size;
+		}
+
+		return Math.max(1,best);
+	}
+
+	/**
+	 * Performs element-wise complex multiplication between two transforms.  The output can be the same
+	 * image as one of the inputs.
+	 *
+	 * @param a Input transform. Not modified.
+	 * @param b Input transform. Not modified.
+	 * @param c Output transform. Modified.
+	 */
+	public static void multiplyComplex( ImageInterleavedFloat32 a , ImageInterleavedFloat32 b , ImageInterleavedFloat32 c ) {
+		checkComplex(a, b, c);
+
+		for( int y = 0; y < a.height; y++ ) {
+			int indexA = a.startIndex + y*a.stride;
+			int indexB = b.startIndex + y*b.stride;
+			int indexC = c.startIndex + y*c.stride;
+
+			for( int x = 0; x < a.width; x++, indexA += 2, indexB += 2, indexC += 2 ) {
+				float ar = a.data[indexA], ai = a.data[indexA+1];
+				float br = b.data[indexB], bi = b.data[indexB+1];
+
+				c.data[indexC] = ar*br - ai*bi;
+				c.data[indexC+1] = ar*bi + ai*br;
+			}
+		}
+	}
+
+	/**
+	 * Performs element-wise complex multiplication between two transforms.  The output can be the same
+	 * image as one of the inputs.
+	 *
+	 * @param a Input transform. Not modified.
+	 * @param b Input transform. Not modified.
+	 * @param c Output transform. Modified.
+	 */
+	public static void multiplyComplex( ImageInterleavedFloat64 a , ImageInterleavedFloat64 b , ImageInterleavedFloat64 c ) {
+		checkComplex(a, b, c);
+
+		for( int y = 0; y < a.height; y++ ) {
+			int indexA = a.startIndex + y*a.stride;
+			int indexB = b.startIndex + y*b.stride;
+			int indexC = c.startIndex + y*c.stride;
+
+			for( int x = 0; x < a.width; x++, indexA += 2, indexB += 2, indexC += 2 ) {
+				double ar = a.data[indexA], ai = a.data[indexA+1];
+				double br = b.data[indexB], bi = b.data[indexB+1];
+
+				c.data[indexC] = ar*br - ai*bi;
+				c.data[indexC+1] = ar*bi + ai*br;
+			}
+		}
+	}
+
+	private static void checkComplex( ImageInterleaved a , ImageInterleaved b , ImageInterleaved c ) {
+		if( a.numBands != 2 || b.numBands != 2 || c.numBands != 2 )
+			throw new IllegalArgumentException("Transforms must have two bands, real and imaginary");
+		InputSanityCheck.checkSameShape(a, b, c);
+	}
+}
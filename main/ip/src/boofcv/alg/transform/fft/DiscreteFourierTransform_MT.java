@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.transform.fft;
+
+import boofcv.misc.BoofConcurrency;
+import boofcv.misc.IntRangeTask;
+
+/**
+ * <p>
+ * Concurrent implementation of {@link DiscreteFourierTransform}.  Rows and then columns are split into
+ * blocks which are transformed in parallel.  Each row and column is computed by the same code as the single
+ * threaded version, so the results are identical.
+ * </p>
+ *
+ * @see BoofConcurrency
+ *
+ * @author Peter Abeles
+ */
+public class DiscreteFourierTransform_MT extends DiscreteFourierTransform {
+
+	// the minimum number of rows or columns in a block
+	private int minBlock = 4;
+
+	@Override
+	protected void loop(int start, int end, IntRangeTask task) {
+		BoofConcurrency.loopBlocks(start, end, minBlock, task);
+	}
+
+	public int getMinBlock() {
+		return minBlock;
+	}
+
+	/**
+	 * Specifies the minimum number of rows or columns in a block.
+	 */
+	public void setMinBlock(int minBlock) {
+		if( minBlock < 1 )
+			throw new IllegalArgumentException("The minimum block size must be one or more");
+		this.minBlock = minBlock;
+	}
+}
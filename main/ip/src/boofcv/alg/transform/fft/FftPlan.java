@@ -0,0 +1,440 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.transform.fft;
+
+/**
+ * <p>
+ * Precomputed plan for a one dimensional complex Fast Fourier Transform (FFT) of a specific length.
+ * Complex numbers are stored interleaved, [real,imaginary], in a double array.  Any length is supported.
+ * Lengths which can be factored into small primes are computed using a mixed-radix Stockham algorithm,
+ * with optimized butterflies for radix 2, 3, and 4.  Lengths with a large prime factor are computed with
+ * Bluestein's algorithm, which turns the transform into a convolution that can be done with a power of
+ * two FFT.
+ * </p>
+ *
+ * <p>
+ * Plans are immutable and can be shared between threads.  All temporary storage is passed in by the caller,
+ * see {@link #createWork()}.  Plans are expensive to create and should be saved and reused by the caller.
+ * Neither the forward or inverse transform is normalized.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class FftPlan {
+
+	// prime factors larger than this are handled using Bluestein's algorithm
+	public static final int MAX_RADIX = 50;
+
+	// number of elements in the transform
+	private int length;
+
+	// radix used in each stage
+	private int factors[];
+	// twiddle factors for each stage, interleaved complex
+	private double twiddles[][];
+	// roots of unity for stages which use a generic radix, interleaved complex
+	private double roots[][];
+	// largest radix which is processed by the generic butterfly
+	private int maxGeneric;
+
+	// power of two plan used to compute the convolution in Bluestein's algorithm
+	private FftPlan bluestein;
+	// chirp used by Bluestein's algorithm, exp(-i*pi*k^2/N), interleaved complex
+	private double chirp[];
+	// transform of the conjugate chirp sequence
+	private double chirpTransform[];
+
+	/**
+	 * Creates a new plan.
+	 *
+	 * @param length Number of elements in the transform.  Must be one or more.
+	 */
+	public FftPlan( int length ) {
+		if( length < 1 )
+			throw new IllegalArgumentException("Length must be one or more");
+		this.length = length;
+
+		int found[] = factor(length);
+
+		if( found.length > 0 && found[found.length-1] > MAX_RADIX ) {
+			createBluestein();
+		} else {
+			createStockham(found);
+		}
+	}
+
+	/**
+	 * Factors the number into the radix used by each stage.  Radix 4 is preferred over 2.  The largest
+	 * factor will be last.  A length of one has no factors.
+	 */
+	private static int[] factor( int n ) {
+		int found[] = new int[32];
+		int total = 0;
+
+		while( n % 4 == 0 ) {
+			found[total++] = 4;
+			n /= 4;
+		}
+		while( n % 2 == 0 ) {
+			found[total++] = 2;
+			n /= 2;
+		}
+		for( int f = 3; f*f <= n; f += 2 ) {
+			while( n % f == 0 ) {
+				found[total++] = f;
+				n /= f;
+			}
+		}
+		if( n > 1 )
+			found[total++] = n;
+
+		int ret[] = new int[total];
+		System.arraycopy(found,0,ret,0,total);
+		return ret;
+	}
+
+	private void createStockham( int found[] ) {
+		factors = found;
+		twiddles = new double[factors.length][];
+		roots = new double[factors.length][];
+
+		int n = length;
+		for( int stage = 0; stage < factors.length; stage++ ) {
+			int p = factors[stage];
+			int m = n/p;
+
+			double tw[] = twiddles[stage] = new double[2*m*(p-1)];
+			for( int pp = 0; pp < m; pp++ ) {
+				for( int k = 1; k < p; k++ ) {
+					double angle = -2.0*Math.PI*pp*k/n;
+					int index = 2*(pp*(p-1) + k-1);
+					tw[index] = Math.cos(angle);
+					tw[index+1] = Math.sin(angle);
+				}
+			}
+
+			if( p > 4 ) {
+				maxGeneric = Math.max(maxGeneric,p);
+				double r[] = roots[stage] = new double[2*p];
+				for( int j = 0; j < p; j++ ) {
+					double angle = -2.0*Math.PI*j/p;
+					r[2*j] = Math.cos(angle);
+					r[2*j+1] = Math.sin(angle);
+				}
+			}
+
+			n = m;
+		}
+	}
+
+	private void createBluestein() {
+		int M = 1;
+		while( M < 2*length-1 )
+			M *= 2;
+
+		bluestein = new FftPlan(M);
+
+		chirp = new double[2*length];
+		for( int k = 0; k < length; k++ ) {
+			// k^2 is computed modulo 2N to avoid a loss of precision for large k
+			long kk = ((long)k*k) % (2*length);
+			double angle = -Math.PI*kk/length;
+			chirp[2*k] = Math.cos(angle);
+			chirp[2*k+1] = Math.sin(angle);
+		}
+
+		// conjugate of the chirp, wrapped around for negative indexes
+		chirpTransform = new double[2*M];
+		chirpTransform[0] = chirp[0];
+		chirpTransform[1] = -chirp[1];
+		for( int k = 1; k < length; k++ ) {
+			chirpTransform[2*k] = chirpTransform[2*(M-k)] = chirp[2*k];
+			chirpTransform[2*k+1] = chirpTransform[2*(M-k)+1] = -chirp[2*k+1];
+		}
+		bluestein.forward(chirpTransform, bluestein.createWork());
+	}
+
+	/**
+	 * Number of elements in the transform
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * Creates an array which is large enough to be used as temporary storage by this plan.
+	 */
+	public double[] createWork() {
+		if( bluestein != null )
+			return new double[4*bluestein.length];
+		else
+			return new double[2*length + 2*maxGeneric];
+	}
+
+	/**
+	 * Computes the forward transform in place.  Not normalized.
+	 *
+	 * @param data Array containing interleaved complex numbers.  Must be at least 2*length.  Modified.
+	 * @param work Temporary storage, see {@link #createWork()}.  Modified.
+	 */
+	public void forward( double data[] , double work[] ) {
+		if( bluestein != null )
+			bluestein(data, work);
+		else
+			stockham(data, 0, work, 0, work, 2*length);
+	}
+
+	/**
+	 * Computes the inverse transform in place.  Not normalized, divide by the length to get the original
+	 * signal back.
+	 *
+	 * @param data Array containing interleaved complex numbers.  Must be at least 2*length.  Modified.
+	 * @param work Temporary storage, see {@link #createWork()}.  Modified.
+	 */
+	public void inverse( double data[] , double work[] ) {
+		// inverse(x) = conj(forward(conj(x)))
+		conjugate(data, 0, length);
+		forward(data, work);
+		conjugate(data, 0, length);
+	}
+
+	private static void conjugate( double data[] , int offset , int length ) {
+		int end = offset + 2*length;
+		for( int i = offset+1; i < end; i += 2 )
+			data[i] = -data[i];
+	}
+
+	/**
+	 * Mixed-radix Stockham FFT.  Each stage reads from one array and writes to the other, with the output
+	 * being in the natural order.  The result is copied into 'data' if it ended up in the work array.
+	 */
+	private void stockham( double data[] , int dataOffset ,
+						   double work[] , int workOffset ,
+						   double temp[] , int tempOffset ) {
+		double x[] = data, y[] = work;
+		int xo = dataOffset, yo = workOffset;
+
+		int n = length;
+		int s = 1;
+		for( int stage = 0; stage < factors.length; stage++ ) {
+			int p = factors[stage];
+			int m = n/p;
+
+			switch( p ) {
+				case 2: radix2(x, xo, y, yo, m, s, twiddles[stage]); break;
+				case 3: radix3(x, xo, y, yo, m, s, twiddles[stage]); break;
+				case 4: radix4(x, xo, y, yo, m, s, twiddles[stage]); break;
+				default: radixGeneric(x, xo, y, yo, m, s, p, twiddles[stage], roots[stage], temp, tempOffset);
+			}
+
+			double tmp[] = x; x = y; y = tmp;
+			int tmpo = xo; xo = yo; yo = tmpo;
+			n = m;
+			s *= p;
+		}
+
+		if( x != data || xo != dataOffset )
+			System.arraycopy(x, xo, data, dataOffset, 2*length);
+	}
+
+	private static void radix2( double x[] , int xo , double y[] , int yo , int m , int s , double tw[] ) {
+		for( int pp = 0; pp < m; pp++ ) {
+			double wr = tw[2*pp];
+			double wi = tw[2*pp+1];
+
+			int indexA = xo + 2*s*pp;
+			int indexB = xo + 2*s*(pp+m);
+			int index0 = yo + 2*s*(2*pp);
+			int index1 = index0 + 2*s;
+
+			for( int q = 0; q < s; q++ ) {
+				double ar = x[indexA++], ai = x[indexA++];
+				double br = x[indexB++], bi = x[indexB++];
+
+				y[index0++] = ar + br;
+				y[index0++] = ai + bi;
+
+				double dr = ar - br, di = ai - bi;
+				y[index1++] = dr*wr - di*wi;
+				y[index1++] = dr*wi + di*wr;
+			}
+		}
+	}
+
+	private static void radix3( double x[] , int xo , double y[] , int yo , int m , int s , double tw[] ) {
+		final double c = Math.sqrt(3)/2.0;
+
+		for( int pp = 0; pp < m; pp++ ) {
+			double w1r = tw[4*pp], w1i = tw[4*pp+1];
+			double w2r = tw[4*pp+2], w2i = tw[4*pp+3];
+
+			int indexA = xo + 2*s*pp;
+			int indexB = xo + 2*s*(pp+m);
+			int indexC = xo + 2*s*(pp+2*m);
+			int index0 = yo + 2*s*(3*pp);
+			int index1 = index0 + 2*s;
+			int index2 = index1 + 2*s;
+
+			for( int q = 0; q < s; q++ ) {
+				double ar = x[indexA++], ai = x[indexA++];
+				double br = x[indexB++], bi = x[indexB++];
+				double cr = x[indexC++], ci = x[indexC++];
+
+				double tr = br + cr, ti = bi + ci;
+				double hr = ar - 0.5*tr, hi = ai - 0.5*ti;
+				double dr = c*(br - cr), di = c*(bi - ci);
+
+				y[index0++] = ar + tr;
+				y[index0++] = ai + ti;
+
+				double v1r = hr + di, v1i = hi - dr;
+				double v2r = hr - di, v2i = hi + dr;
+
+				y[index1++] = v1r*w1r - v1i*w1i;
+				y[index1++] = v1r*w1i + v1i*w1r;
+				y[index2++] = v2r*w2r - v2i*w2i;
+				y[index2++] = v2r*w2i + v2i*w2r;
+			}
+		}
+	}
+
+	private static void radix4( double x[] , int xo , double y[] , int yo , int m , int s , double tw[] ) {
+		for( int pp = 0; pp < m; pp++ ) {
+			double w1r = tw[6*pp], w1i = tw[6*pp+1];
+			double w2r = tw[6*pp+2], w2i = tw[6*pp+3];
+			double w3r = tw[6*pp+4], w3i = tw[6*pp+5];
+
+			int indexA = xo + 2*s*pp;
+			int indexB = xo + 2*s*(pp+m);
+			int indexC = xo + 2*s*(pp+2*m);
+			int indexD = xo + 2*s*(pp+3*m);
+			int index0 = yo + 2*s*(4*pp);
+			int index1 = index0 + 2*s;
+			int index2 = index1 + 2*s;
+			int index3 = index2 + 2*s;
+
+			for( int q = 0; q < s; q++ ) {
+				double ar = x[indexA++], ai = x[indexA++];
+				double br = x[indexB++], bi = x[indexB++];
+				double cr = x[indexC++], ci = x[indexC++];
+				double dr = x[indexD++], di = x[indexD++];
+
+				double s0r = ar + cr, s0i = ai + ci;
+				double d0r = ar - cr, d0i = ai - ci;
+				double s1r = br + dr, s1i = bi + di;
+				double d1r = br - dr, d1i = bi - di;
+
+				y[index0++] = s0r + s1r;
+				y[index0++] = s0i + s1i;
+
+				// b1 = d0 - i*d1
+				double v1r = d0r + d1i, v1i = d0i - d1r;
+				// b2 = s0 - s1
+				double v2r = s0r - s1r, v2i = s0i - s1i;
+				// b3 = d0 + i*d1
+				double v3r = d0r - d1i, v3i = d0i + d1r;
+
+				y[index1++] = v1r*w1r - v1i*w1i;
+				y[index1++] = v1r*w1i + v1i*w1r;
+				y[index2++] = v2r*w2r - v2i*w2i;
+				y[index2++] = v2r*w2i + v2i*w2r;
+				y[index3++] = v3r*w3r - v3i*w3i;
+				y[index3++] = v3r*w3i + v3i*w3r;
+			}
+		}
+	}
+
+	private static void radixGeneric( double x[] , int xo , double y[] , int yo , int m , int s , int p ,
+									  double tw[] , double roots[] , double temp[] , int tempOffset ) {
+		for( int pp = 0; pp < m; pp++ ) {
+			for( int q = 0; q < s; q++ ) {
+				// copy the inputs for this butterfly
+				for( int r = 0; r < p; r++ ) {
+					int index = xo + 2*(q + s*(pp + r*m));
+					temp[tempOffset+2*r] = x[index];
+					temp[tempOffset+2*r+1] = x[index+1];
+				}
+
+				for( int k = 0; k < p; k++ ) {
+					double sumR = 0, sumI = 0;
+					int rootIndex = 0;
+					for( int r = 0; r < p; r++ ) {
+						double tr = temp[tempOffset+2*r], ti = temp[tempOffset+2*r+1];
+						double wr = roots[2*rootIndex], wi = roots[2*rootIndex+1];
+						sumR += tr*wr - ti*wi;
+						sumI += tr*wi + ti*wr;
+						rootIndex += k;
+						if( rootIndex >= p )
+							rootIndex -= p;
+					}
+
+					int index = yo + 2*(q + s*(p*pp + k));
+					if( k == 0 ) {
+						y[index] = sumR;
+						y[index+1] = sumI;
+					} else {
+						int indexTw = 2*(pp*(p-1) + k-1);
+						double wr = tw[indexTw], wi = tw[indexTw+1];
+						y[index] = sumR*wr - sumI*wi;
+						y[index+1] = sumR*wi + sumI*wr;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Bluestein's algorithm.  X[k] = w[k] * sum_n (x[n]*w[n]) * conj(w[k-n]), where w[k] = exp(-i*pi*k^2/N).
+	 * The sum is a convolution which is computed using a power of two FFT.
+	 */
+	private void bluestein( double data[] , double work[] ) {
+		int M = bluestein.length;
+
+		// a = x*w, zero padded
+		for( int k = 0; k < length; k++ ) {
+			double xr = data[2*k], xi = data[2*k+1];
+			double wr = chirp[2*k], wi = chirp[2*k+1];
+			work[2*k] = xr*wr - xi*wi;
+			work[2*k+1] = xr*wi + xi*wr;
+		}
+		for( int i = 2*length; i < 2*M; i++ )
+			work[i] = 0;
+
+		// power of two plans only use radix 2 and 4, so no additional temporary storage is needed
+		bluestein.stockham(work, 0, work, 2*M, null, 0);
+
+		for( int k = 0; k < M; k++ ) {
+			double ar = work[2*k], ai = work[2*k+1];
+			double br = chirpTransform[2*k], bi = chirpTransform[2*k+1];
+			// multiply and conjugate to compute the inverse using the forward transform
+			work[2*k] = ar*br - ai*bi;
+			work[2*k+1] = -(ar*bi + ai*br);
+		}
+
+		bluestein.stockham(work, 0, work, 2*M, null, 0);
+
+		// conjugate the result, normalize, and multiply by the chirp
+		for( int k = 0; k < length; k++ ) {
+			double ar = work[2*k]/M, ai = -work[2*k+1]/M;
+			double wr = chirp[2*k], wi = chirp[2*k+1];
+			data[2*k] = ar*wr - ai*wi;
+			data[2*k+1] = ar*wi + ai*wr;
+		}
+	}
+}
@@ -39,7 +39,8 @@ public class ConvertBufferedImage {
 	 * For BufferedImage stored as a byte array internally it extracts an
 	 * interlaced image.  The input image and the returned image will both
 	 * share the same internal data array.  Using this function allows unnecessary
-	 * memory copying to be avoided.
+	 * memory copying to be avoided.  Images created using {@link BufferedImage#getSubimage} are
+	 * also supported and will be returned as a sub-image.
 	 *
 	 * @param img Image whose internal data is extracted and wrapped.
 	 * @return An image whose internal data is the same as the input image.
@@ -47,12 +48,15 @@ public class ConvertBufferedImage {
 	public static ImageInterleavedInt8 extractInterlacedInt8(BufferedImage img) {
 		if (img.getRaster() instanceof ByteInterleavedRaster) {
 			ByteInterleavedRaster raster = (ByteInterleavedRaster) img.getRaster();
+			if (raster.getPixelStride() != raster.getNumBands())
+				throw new IllegalArgumentException("Raster has padding between pixels");
 			ImageInterleavedInt8 ret = new ImageInterleavedInt8();
 
 			ret.width = img.getWidth();
 			ret.height = img.getHeight();
-			ret.stride = ret.width;
 			ret.numBands = raster.getNumBands();
+			ret.stride = raster.getScanlineStride();
+			ret.startIndex = ConvertRaster.startIndex(raster);
 			ret.data = raster.getDataStorage();
 
 			return ret;
@@ -64,7 +68,8 @@ public class ConvertBufferedImage {
 	 * For BufferedImage stored as a byte array internally it extracts an
 	 * image.  The input image and the returned image will both
 	 * share the same internal data array.  Using this function allows unnecessary
-	 * memory copying to be avoided.
+	 * memory copying to be avoided.  Images created using {@link BufferedImage#getSubimage} are
+	 * also supported and will be returned as a sub-image.
 	 *
 	 * @param img Image whose internal data is extracted and wrapped.
 	 * @return An image whose internal data is the same as the input image.
@@ -72,13 +77,14 @@ public class ConvertBufferedImage {
 	public static ImageUInt8 extractImageInt8(BufferedImage img) {
 		if (img.getRaster() instanceof ByteInterleavedRaster) {
 			ByteInterleavedRaster raster = (ByteInterleavedRaster) img.getRaster();
-			if (raster.getNumBands() != 1)
+			if (raster.getNumBands() != 1 || raster.getPixelStride() != 1)
 				throw new IllegalArgumentException("Input image has more than one channel");
 			ImageUInt8 ret = new ImageUInt8();
 
 			ret.width = img.getWidth();
 			ret.height = img.getHeight();
-			ret.stride = ret.width;
+			ret.stride = raster.getScanlineStride();
+			ret.startIndex = ConvertRaster.startIndex(raster);
 			ret.data = raster.getDataStorage();
 
 			return ret;
@@ -86,6 +92,40 @@ public class ConvertBufferedImage {
 		throw new IllegalArgumentException("Buffered image does not have a byte raster");
 	}
 
+	/**
+	 * <p>
+	 * Returns an {@link ImageUInt8} which shares its data with the BufferedImage if possible.  This is the
+	 * fastest way to get a gray scale image from a BufferedImage, since no data is copied.  If the BufferedImage
+	 * isn't an 8-bit gray scale image or its raster can't be accessed then it is converted into 'storage'.
+	 * </p>
+	 *
+	 * <p>
+	 * NOTE: If a view is returned then changes to the BufferedImage will be reflected in the returned image.
+	 * </p>
+	 *
+	 * @param src Input BufferedImage.
+	 * @param storage Storage for the converted image.  Reshaped if needed.  If null a new image is declared.
+	 * @return Either a view of the BufferedImage or 'storage'.
+	 */
+	public static ImageUInt8 extractOrConvert(BufferedImage src, ImageUInt8 storage) {
+		try {
+			WritableRaster raster = src.getRaster();
+			if (raster instanceof ByteInterleavedRaster && raster.getNumBands() == 1 &&
+					((ByteInterleavedRaster) raster).getPixelStride() == 1 ) {
+				return extractImageInt8(src);
+			}
+		} catch( java.security.AccessControlException e) {
+			// Applets don't allow access to the raster()
+		}
+
+		if (storage == null)
+			storage = new ImageUInt8(src.getWidth(), src.getHeight());
+		else
+			storage.reshape(src.getWidth(), src.getHeight());
+
+		return convertFrom(src, storage);
+	}
+
 	/**
 	 * Creates a new BufferedImage that internally uses the same data as the provided
 	 * ImageInterleavedInt8.  If 3 bands then the image will be of type TYPE_3BYTE_BGR
@@ -19,11 +19,15 @@
 package boofcv.factory.distort;
 
 import boofcv.alg.distort.ImageDistort;
+import boofcv.alg.distort.ImageDistort_MT;
 import boofcv.alg.distort.impl.*;
 import boofcv.alg.interpolate.InterpolatePixel;
 import boofcv.core.image.border.ImageBorder;
 import boofcv.struct.image.*;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * @author Peter Abeles
  */
@@ -79,4 +83,34 @@ public class FactoryDistort {
 			throw new IllegalArgumentException("Image type not supported: "+imageType.getSimpleName());
 		}
 	}
+
+	/**
+	 * Creates an {@link ImageDistort} which splits the destination image into bands of rows which are processed
+	 * concurrently, one worker per interpolation instance.  Each worker needs its own interpolation and border
+	 * instance since they contain internal state.  Each worker is given a copy of the transform when
+	 * apply() is called.  If cached then the table is computed once and changes to the transform are
+	 * ignored until the destination image changes shape.
+	 *
+	 * @see boofcv.misc.BoofConcurrency
+	 *
+	 * @param interp Interpolation algorithm for each worker.
+	 * @param border How the border is handled by each worker.  If null then pixels outside the image are skipped.
+	 * @param cached If true the distortion is computed once and saved for the entire destination image.
+	 * @param imageType Type of image being processed.
+	 * @return Concurrent image distort.
+	 */
+	public static <T extends ImageSingleBand>
+	ImageDistort_MT<T> distort_MT(List<InterpolatePixel<T>> interp, List<ImageBorder<T>> border ,
+								  boolean cached, Class<T> imageType)
+	{
+		if( border != null && border.size() != interp.size() )
+			throw new IllegalArgumentException("One border is required for each worker");
+
+		List<ImageDistort<T>> workers = new ArrayList<ImageDistort<T>>();
+		for( int i = 0; i < interp.size(); i++ ) {
+			workers.add(distort(interp.get(i), border == null ? null : border.get(i), imageType));
+		}
+
+		return new ImageDistort_MT<T>(workers,cached);
+	}
 }
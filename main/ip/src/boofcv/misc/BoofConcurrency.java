@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.misc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * <p>
+ * Shared thread pool used by algorithms which have a concurrent implementation.  By default concurrency is
+ * turned off and all algorithms run in the calling thread.  Set {@link #USE_CONCURRENT} to true to have
+ * algorithms which support it automatically switch to their concurrent implementation.
+ * </p>
+ *
+ * <p>
+ * Work is split into contiguous blocks with one block per thread.  One of the blocks is always processed
+ * by the calling thread.  If called from inside a worker thread the work is processed in the calling thread
+ * to prevent nested tasks from dead locking the pool.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class BoofConcurrency {
+
+	/**
+	 * If true then algorithms which support concurrency will use it.  Volatile since it is read by factories
+	 * and worker threads which might not be the thread which changed it.
+	 */
+	public static volatile boolean USE_CONCURRENT = false;
+
+	// maximum number of threads which will process a single task
+	private static int maxThreads = Runtime.getRuntime().availableProcessors();
+
+	// pool of worker threads. Lazily created
+	private static ExecutorService pool;
+
+	/**
+	 * Specifies the maximum number of threads which can be used by a single task.  Any work currently being
+	 * processed by the old pool will finish.
+	 *
+	 * @param maxThreads Maximum number of threads.  Must be one or more.
+	 */
+	public static synchronized void setMaxThreads( int maxThreads ) {
+		if( maxThreads < 1 )
+			throw new IllegalArgumentException("Number of threads must be one or more");
+		if( BoofConcurrency.maxThreads == maxThreads )
+			return;
+
+		BoofConcurrency.maxThreads = maxThreads;
+		if( pool != null ) {
+			pool.shutdown();
+			pool = null;
+		}
+	}
+
+	/**
+	 * Returns the maximum number of threads which can be used by a single task.
+	 */
+	public static synchronized int getMaxThreads() {
+		return maxThreads;
+	}
+
+	/**
+	 * Returns true if the current thread is one of the pool's worker threads.
+	 */
+	public static boolean isWorkerThread() {
+		return Thread.currentThread() instanceof WorkerThread;
+	}
+
+	/**
+	 * Splits the range of indexes into contiguous blocks and processes the blocks in parallel.  Blocks
+	 * are at least 'minBlock' in size.  Returns after all the blocks have been processed.
+	 *
+	 * @param start First index, inclusive.
+	 * @param end Last index, exclusive.
+	 * @param minBlock Minimum number of indexes in a block.
+	 * @param task Processes a single block.
+	 */
+	public static void loopBlocks( int start , int end , int minBlock , final IntRangeTask task ) {
+		int length = end - start;
+		if( length <= 0 )
+			return;
+
+		ExecutorService pool;
+		int numBlocks;
+		synchronized ( BoofConcurrency.class ) {
+			numBlocks = Math.min(maxThreads, length/Math.max(1,minBlock));
+			pool = numBlocks > 1 ? getPool() : null;
+		}
+
+		if( numBlocks <= 1 || isWorkerThread() ) {
+			task.process(start,end);
+			return;
+		}
+
+		List<Future<?>> futures = new ArrayList<Future<?>>(numBlocks-1);
+		for( int i = 0; i < numBlocks-1; i++ ) {
+			final int index0 = start + i*length/numBlocks;
+			final int index1 = start + (i+1)*length/numBlocks;
+			try {
+				futures.add(pool.submit(new Runnable() {
+					@Override
+					public void run() {
+						task.process(index0, index1);
+					}
+				}));
+			} catch( RejectedExecutionException e ) {
+				// the pool was shutdown by setMaxThreads() while this task was being scheduled
+				task.process(index0, index1);
+			}
+		}
+
+		// the calling thread processes the last block
+		task.process(start + (numBlocks-1)*length/numBlocks, end);
+
+		waitForAll(futures);
+	}
+
+	/**
+	 * Same as {@link #loopBlocks(int, int, int, IntRangeTask)} but with a minimum block size of one.
+	 */
+	public static void loopBlocks( int start , int end , IntRangeTask task ) {
+		loopBlocks(start, end, 1, task);
+	}
+
+	/**
+	 * Blocks until all the futures have finished.  If any of them threw an exception it is rethrown.
+	 */
+	private static void waitForAll( List<Future<?>> futures ) {
+		RuntimeException exception = null;
+		for( Future<?> f : futures ) {
+			try {
+				f.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				if( exception == null )
+					exception = new RuntimeException(e);
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if( cause instanceof Error )
+					throw (Error)cause;
+				if( exception == null )
+					exception = cause instanceof RuntimeException ?
+							(RuntimeException)cause : new RuntimeException(cause);
+			}
+		}
+		if( exception != null )
+			throw exception;
+	}
+
+	private static ExecutorService getPool() {
+		if( pool == null ) {
+			// the calling thread processes one of the blocks, so one less worker is needed
+			pool = Executors.newFixedThreadPool(Math.max(1, maxThreads - 1), new ThreadFactory() {
+				int count = 0;
+
+				@Override
+				public Thread newThread(Runnable r) {
+					WorkerThread t = new WorkerThread(r, "BoofConcurrency-" + (count++));
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		}
+		return pool;
+	}
+
+	private static class WorkerThread extends Thread {
+		public WorkerThread(Runnable target, String name) {
+			super(target, name);
+		}
+	}
+}
@@ -32,4 +32,9 @@ public class DoNothingTransform_F32 implements PointTransform_F32 {
 		out.x = x;
 		out.y = y;
 	}
+
+	@Override
+	public DoNothingTransform_F32 copy() {
+		return new DoNothingTransform_F32();
+	}
 }
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.struct.distort;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * <p>
+ * Precomputed {@link PixelTransform_F32} which looks up the distortion for each pixel in a table.  The x and y
+ * coordinates are stored in two separate arrays, in row-major order, instead of as an array of points, which
+ * greatly reduces memory usage and improves cache locality for large images.
+ * </p>
+ *
+ * <p>
+ * The table can be saved to and loaded from a file, see {@link #save(String)} and {@link #load(String)}.
+ * Files are read using a memory mapped buffer so large tables can be loaded much faster than they can be
+ * recomputed.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class PixelTransformCached_F32 extends PixelTransform_F32 {
+
+	// identifies the file format
+	private static final int FILE_MAGIC = 0x50544D46;
+	private static final int FILE_VERSION = 1;
+	// size of the file header in bytes
+	private static final int HEADER_SIZE = 16;
+
+	// size of the image the table was computed for
+	protected int width;
+	protected int height;
+
+	// distorted coordinate of each pixel
+	protected float mapX[];
+	protected float mapY[];
+
+	/**
+	 * Computes the distortion for every pixel in the image.
+	 *
+	 * @param width Width of the image
+	 * @param height Height of the image
+	 * @param transform The transform being cached
+	 */
+	public PixelTransformCached_F32(int width, int height, PixelTransform_F32 transform) {
+		this(width,height);
+
+		int index = 0;
+		for( int y = 0; y < height; y++ ) {
+			for( int x = 0; x < width; x++ , index++ ) {
+				transform.compute(x,y);
+				mapX[index] = transform.distX;
+				mapY[index] = transform.distY;
+			}
+		}
+	}
+
+	/**
+	 * Declares storage for the table but does not fill it in.
+	 *
+	 * @param width Width of the image
+	 * @param height Height of the image
+	 */
+	public PixelTransformCached_F32(int width, int height) {
+		this.width = width;
+		this.height = height;
+		mapX = new float[width*height];
+		mapY = new float[width*height];
+	}
+
+	/**
+	 * Creates a new instance which shares the same table as the original.
+	 */
+	protected PixelTransformCached_F32( PixelTransformCached_F32 original ) {
+		this.width = original.width;
+		this.height = original.height;
+		this.mapX = original.mapX;
+		this.mapY = original.mapY;
+	}
+
+	@Override
+	public void compute(int x, int y) {
+		int index = y*width + x;
+		distX = mapX[index];
+		distY = mapY[index];
+	}
+
+	@Override
+	public void computeRow(int x0, int y, int length, float[] distX, float[] distY) {
+		int index = y*width + x0;
+		System.arraycopy(mapX,index,distX,0,length);
+		System.arraycopy(mapY,index,distY,0,length);
+	}
+
+	/**
+	 * The table is shared with the copy since it isn't modified
+	 */
+	@Override
+	public PixelTransformCached_F32 copy() {
+		return new PixelTransformCached_F32(this);
+	}
+
+	/**
+	 * Saves the table to a file.
+	 *
+	 * @param fileName Name of the output file.
+	 */
+	public void save( String fileName ) throws IOException {
+		RandomAccessFile file = new RandomAccessFile(fileName,"rw");
+		try {
+			FileChannel channel = file.getChannel();
+			long size = HEADER_SIZE + 8L*mapX.length;
+			file.setLength(size);
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+			buffer.putInt(FILE_MAGIC);
+			buffer.putInt(FILE_VERSION);
+			buffer.putInt(width);
+			buffer.putInt(height);
+
+			FloatBuffer floats = buffer.asFloatBuffer();
+			floats.put(mapX);
+			floats.put(mapY);
+			buffer.force();
+		} finally {
+			file.close();
+		}
+	}
+
+	/**
+	 * Loads a table which was previously saved using {@link #save(String)}.
+	 *
+	 * @param fileName Name of the input file.
+	 * @return The loaded table.
+	 */
+	public static PixelTransformCached_F32 load( String fileName ) throws IOException {
+		RandomAccessFile file = new RandomAccessFile(fileName,"r");
+		try {
+			FileChannel channel = file.getChannel();
+			if( channel.size() < HEADER_SIZE )
+				throw new IOException("File is too small to be a distortion table");
+
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+			header.order(ByteOrder.LITTLE_ENDIAN);
+
+			if( header.getInt() != FILE_MAGIC )
+				throw new IOException("Not a distortion table file");
+			if( header.getInt() != FILE_VERSION )
+				throw new IOException("Unsupported distortion table version");
+			int width = header.getInt();
+			int height = header.getInt();
+
+			long size = 8L*width*height;
+			if( width < 0 || height < 0 || channel.size() < HEADER_SIZE + size )
+				throw new IOException("Distortion table file is truncated");
+
+			PixelTransformCached_F32 ret = new PixelTransformCached_F32(width,height);
+
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, size);
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			FloatBuffer floats = buffer.asFloatBuffer();
+			floats.get(ret.mapX);
+			floats.get(ret.mapY);
+
+			return ret;
+		} finally {
+			file.close();
+		}
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Distorted x-coordinate of each pixel in row-major order
+	 */
+	public float[] getMapX() {
+		return mapX;
+	}
+
+	/**
+	 * Distorted y-coordinate of each pixel in row-major order
+	 */
+	public float[] getMapY() {
+		return mapY;
+	}
+}
@@ -38,6 +38,37 @@ public abstract class PixelTransform_F32 {
 	 */
 	public abstract void compute( int x , int y );
 
+	/**
+	 * Computes the distortion for a contiguous set of pixels along a row.  Equivalent to calling
+	 * {@link #compute(int, int)} for each pixel.  Transforms which can be evaluated more efficiently one row at a
+	 * time should override this function.
+	 *
+	 * @param x0 Pixel x-coordinate of the first pixel.
+	 * @param y Pixel y-coordinate of the row.
+	 * @param length Number of pixels.
+	 * @param distX Output. Distorted x-coordinate of each pixel.  Must be at least length long.
+	 * @param distY Output. Distorted y-coordinate of each pixel.  Must be at least length long.
+	 */
+	public void computeRow( int x0 , int y , int length , float distX[] , float distY[] ) {
+		for( int i = 0; i < length; i++ ) {
+			compute(x0+i,y);
+			distX[i] = this.distX;
+			distY[i] = this.distY;
+		}
+	}
+
+	/**
+	 * Creates a copy of this transform which can be used at the same time as the original, e.g. in a
+	 * different thread.  Immutable internal data may be shared between the two.  Transforms which support
+	 * copying must override this function.
+	 *
+	 * @return The copy.
+	 * @throws UnsupportedOperationException If the transform can't be copied.
+	 */
+	public PixelTransform_F32 copy() {
+		throw new UnsupportedOperationException(getClass().getSimpleName()+" doesn't support copy()");
+	}
+
 	public float getDistX() {
 		return distX;
 	}
@@ -35,4 +35,12 @@ public interface PointTransform_F32 {
 	 * @param out Transformed point location.
 	 */
 	public void compute( float x , float y , Point2D_F32 out );
+
+	/**
+	 * Creates a copy of this transform which can be used at the same time as the original, e.g. in a
+	 * different thread.  Immutable internal data may be shared between the two.
+	 *
+	 * @return The copy.
+	 */
+	public PointTransform_F32 copy();
 }
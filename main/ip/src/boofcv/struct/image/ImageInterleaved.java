@@ -93,12 +93,22 @@ public abstract class ImageInterleaved<T extends ImageInterleaved> extends Image
 
 		if( Array.getLength(data) < width*height*numBands ) {
 			ImageInterleaved<?> a = _createNew(width,height);
-			_setData(a);
+			_setData(a._getData());
 		}
 
 		this.width = width;
 		this.height = height;
-		this.stride = width;
+		this.stride = width*numBands;
+	}
+
+	/**
+	 * If this matrix is a sub-image or not.
+	 *
+	 * @return true if it is a subimage, otherwise false.
+	 */
+	@Override
+	public boolean isSubimage() {
+		return startIndex != 0 || width * numBands != stride;
 	}
 
 	@Override
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.struct.image;
+
+/**
+ * <p>
+ * An image where the primitive type is a float.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class ImageInterleavedFloat32 extends ImageInterleaved<ImageInterleavedFloat32> {
+
+	public float data[];
+
+	/**
+	 * Creates a new image with an arbitrary number of bands/colors.
+	 *
+	 * @param width	number of columns in the image.
+	 * @param height   number of rows in the image.
+	 * @param numBands number of bands/colors in the image.
+	 */
+	public ImageInterleavedFloat32(int width, int height, int numBands) {
+		super(width, height, numBands);
+	}
+
+	public ImageInterleavedFloat32() {
+	}
+
+	@Override
+	public ImageTypeInfo<ImageInterleavedFloat32> getTypeInfo() {
+		return ImageTypeInfo.INTER_F32;
+	}
+
+	/**
+	 * Returns the pixel's value for all the bands as an array.
+	 *
+	 * @param x	   pixel coordinate.
+	 * @param y	   pixel coordinate.
+	 * @param storage If not null then the pixel's value is written here.  If null a new array is created.
+	 * @return The pixel's value.
+	 */
+	public float[] get(int x, int y, float[] storage) {
+		if (!isInBounds(x, y))
+			throw new ImageAccessException("Requested pixel is out of bounds");
+
+		if (storage == null) {
+			storage = new float[numBands];
+		}
+
+		int index = getIndex(x, y, 0);
+		for (int i = 0; i < numBands; i++, index++) {
+			storage[i] = data[index];
+		}
+
+		return storage;
+	}
+
+	/**
+	 * Sets the pixel's value for all the bands using an array.
+	 *
+	 * @param x	 pixel coordinate.
+	 * @param y	 pixel coordinate.
+	 * @param value The pixel's new value for each band.
+	 */
+	public void set(int x, int y, float... value) {
+		if (!isInBounds(x, y))
+			throw new ImageAccessException("Requested pixel is out of bounds");
+
+		int index = getIndex(x, y, 0);
+		for (int i = 0; i < numBands; i++, index++) {
+			data[index] = value[i];
+		}
+	}
+
+	/**
+	 * Returns the value of the specified band in the specified pixel.
+	 *
+	 * @param x	pixel coordinate.
+	 * @param y	pixel coordinate.
+	 * @param band which color band in the pixel
+	 * @return an intensity value.
+	 */
+	public float getBand(int x, int y, int band) {
+		if (!isInBounds(x, y))
+			throw new ImageAccessException("Requested pixel is out of bounds.");
+		if (band < 0 || band >= numBands)
+			throw new ImageAccessException("Invalid band requested.");
+
+		return data[getIndex(x, y, band)];
+	}
+
+	/**
+	 * Returns the value of the specified band in the specified pixel.
+	 *
+	 * @param x	 pixel coordinate.
+	 * @param y	 pixel coordinate.
+	 * @param band  which color band in the pixel
+	 * @param value The new value of the element.
+	 */
+	public void setBand(int x, int y, int band, float value) {
+		if (!isInBounds(x, y))
+			throw new ImageAccessException("Requested pixel is out of bounds.");
+		if (band < 0 || band >= numBands)
+			throw new ImageAccessException("Invalid band requested.");
+
+		data[getIndex(x, y, band)] = value;
+	}
+
+	/**
+	 * If this matrix is a sub-image or not.
+	 *
+	 * @return true if it is a subimage, otherwise false.
+	 */
+	@Override
+	public boolean isSubimage() {
+		return startIndex != 0 || width * numBands != stride;
+	}
+
+	@Override
+	protected Object _getData() {
+		return data;
+	}
+
+	@Override
+	protected void _setData(Object data) {
+		this.data = (float[]) data;
+	}
+
+	@Override
+	public ImageInterleavedFloat32 _createNew(int imgWidth, int imgHeight) {
+		if (imgWidth == -1 || imgHeight == -1)
+			return new ImageInterleavedFloat32();
+		return new ImageInterleavedFloat32(imgWidth, imgHeight, numBands);
+	}
+}
@@ -50,6 +50,8 @@ public final class ImageTypeInfo <T extends ImageSingleBand> {
 	/** Single Band floating point image */
 	public static ImageTypeInfo<ImageFloat> F = new ImageTypeInfo<ImageFloat>(true,ImageFloat.class);
 	public static ImageTypeInfo<ImageInterleavedInt8> INTER_U8 = new ImageTypeInfo<ImageInterleavedInt8>(false,byte.class,ImageInterleavedInt8.class);
+	public static ImageTypeInfo<ImageInterleavedFloat32> INTER_F32 = new ImageTypeInfo<ImageInterleavedFloat32>(true,float.class,ImageInterleavedFloat32.class);
+	public static ImageTypeInfo<ImageInterleavedFloat64> INTER_F64 = new ImageTypeInfo<ImageInterleavedFloat64>(true,double.class,ImageInterleavedFloat64.class);
 
 	private int numBits;
 	private boolean isAbstract;
@@ -86,6 +88,12 @@ public final class ImageTypeInfo <T extends ImageSingleBand> {
 			return I;
 		else if( imageClass == ImageFloat.class )
 			return F;
+		else if( imageClass == ImageInterleavedInt8.class )
+			return INTER_U8;
+		else if( imageClass == ImageInterleavedFloat32.class )
+			return INTER_F32;
+		else if( imageClass == ImageInterleavedFloat64.class )
+			return INTER_F64;
 		else
 			throw new RuntimeException("Add");
 	}
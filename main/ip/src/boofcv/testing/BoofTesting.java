@@ -18,6 +18,7 @@
 
 package boofcv.testing;
 
+import boofcv.core.image.ConvertRaster;
 import boofcv.core.image.FactoryGImageSingleBand;
 import boofcv.core.image.GImageSingleBand;
 import boofcv.core.image.GeneralizedImageOps;
@@ -624,7 +625,7 @@ public class BoofTesting {
 				for (int i = 0; i < imgA.getHeight(); i++) {
 					for (int j = 0; j < imgA.getWidth(); j++) {
 						int valB = imgB.get(j, i);
-						int valA = raster.getDataStorage()[i * imgA.getWidth() + j];
+						int valA = raster.getDataStorage()[ConvertRaster.startIndex(raster) + i * raster.getScanlineStride() + j];
 						if (!imgB.getTypeInfo().isSigned())
 							valA &= 0xFF;
 
@@ -668,7 +669,7 @@ public class BoofTesting {
 				for (int i = 0; i < imgA.getHeight(); i++) {
 					for (int j = 0; j < imgA.getWidth(); j++) {
 						float valB = imgB.get(j, i);
-						int valA = raster.getDataStorage()[i * imgA.getWidth() + j];
+						int valA = raster.getDataStorage()[ConvertRaster.startIndex(raster) + i * raster.getScanlineStride() + j];
 						valA &= 0xFF;
 
 						if (Math.abs(valA - valB) > tol)
@@ -709,7 +710,7 @@ public class BoofTesting {
 				for (int i = 0; i < imgA.getHeight(); i++) {
 					for (int j = 0; j < imgA.getWidth(); j++) {
 						byte valB = imgB.getBand(j, i, 0);
-						byte valA = raster.getDataStorage()[i * imgA.getWidth() + j];
+						byte valA = raster.getDataStorage()[ConvertRaster.startIndex(raster) + i * raster.getScanlineStride() + j];
 
 						if (valA != valB)
 							throw new RuntimeException("Images are not equal");
@@ -749,7 +750,7 @@ public class BoofTesting {
 				for (int i = 0; i < imgA.getHeight(); i++) {
 					for (int j = 0; j < imgA.getWidth(); j++) {
 						double valB = band.get(j, i).doubleValue();
-						int valA = raster.getDataStorage()[i * imgA.getWidth() + j];
+						int valA = raster.getDataStorage()[ConvertRaster.startIndex(raster) + i * raster.getScanlineStride() + j];
 						valA &= 0xFF;
 
 						if (Math.abs(valA - valB) > tol)
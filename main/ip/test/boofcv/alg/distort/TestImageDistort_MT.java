@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.distort;
+
+import boofcv.alg.interpolate.InterpolatePixel;
+import boofcv.alg.interpolate.TypeInterpolate;
+import boofcv.core.image.GeneralizedImageOps;
+import boofcv.core.image.border.FactoryImageBorder;
+import boofcv.core.image.border.ImageBorder;
+import boofcv.factory.distort.FactoryDistort;
+import boofcv.factory.interpolate.FactoryInterpolation;
+import boofcv.misc.BoofConcurrency;
+import boofcv.struct.distort.PixelTransformCached_F32;
+import boofcv.struct.distort.PixelTransform_F32;
+import boofcv.struct.image.ImageFloat32;
+import boofcv.struct.image.ImageSingleBand;
+import boofcv.struct.image.ImageUInt8;
+import boofcv.testing.BoofTesting;
+import georegression.struct.affine.Affine2D_F32;
+import georegression.struct.homo.Homography2D_F32;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestImageDistort_MT {
+
+	Random rand = new Random(234);
+
+	int width = 60;
+	int height = 70;
+
+	PixelTransformAffine_F32 tran = new PixelTransformAffine_F32(new Affine2D_F32(1.1f,0.2f,-0.3f,0.9f,5,-6));
+
+	/**
+	 * Results should be identical to the single threaded version
+	 */
+	@Test
+	public void compareToSingle() {
+		boolean before = BoofConcurrency.USE_CONCURRENT;
+		int beforeThreads = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(3);
+			for( int i = 0; i < 2; i++ ) {
+				BoofConcurrency.USE_CONCURRENT = i == 1;
+				for( int j = 0; j < 2; j++ ) {
+					boolean cached = j == 1;
+					compareToSingle(ImageFloat32.class, tran, cached, true);
+					compareToSingle(ImageFloat32.class, tran, cached, false);
+					compareToSingle(ImageUInt8.class, tran, cached, true);
+				}
+			}
+		} finally {
+			BoofConcurrency.USE_CONCURRENT = before;
+			BoofConcurrency.setMaxThreads(beforeThreads);
+		}
+	}
+
+	/**
+	 * A point transform wrapped by {@link PointToPixelTransform_F32} can be copied and processed concurrently
+	 */
+	@Test
+	public void pointTransform() {
+		PixelTransform_F32 model = new PointToPixelTransform_F32(new PointTransformHomography_F32(
+				new Homography2D_F32(1.1f,0.2f,5,-0.3f,0.9f,-6,0.001f,0.002f,1)));
+
+		boolean before = BoofConcurrency.USE_CONCURRENT;
+		int beforeThreads = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(3);
+			BoofConcurrency.USE_CONCURRENT = true;
+			compareToSingle(ImageFloat32.class, model, false, true);
+			compareToSingle(ImageFloat32.class, model, true, true);
+		} finally {
+			BoofConcurrency.USE_CONCURRENT = before;
+			BoofConcurrency.setMaxThreads(beforeThreads);
+		}
+	}
+
+	/**
+	 * The transform can't be copied, so it must be cached to be processed concurrently
+	 */
+	@Test
+	public void notCopyable() {
+		PixelTransform_F32 model = new PixelTransform_F32() {
+			@Override
+			public void compute(int x, int y) {
+				distX = 0.9f*x + 2;
+				distY = 1.1f*y - 3;
+			}
+		};
+
+		boolean before = BoofConcurrency.USE_CONCURRENT;
+		int beforeThreads = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(3);
+			BoofConcurrency.USE_CONCURRENT = true;
+			compareToSingle(ImageFloat32.class, model, true, true);
+
+			try {
+				compareToSingle(ImageFloat32.class, model, false, true);
+				fail("Exception should have been thrown");
+			} catch( UnsupportedOperationException e ) {}
+
+			// no copy is needed when running in a single thread
+			BoofConcurrency.USE_CONCURRENT = false;
+			compareToSingle(ImageFloat32.class, model, false, true);
+		} finally {
+			BoofConcurrency.USE_CONCURRENT = before;
+			BoofConcurrency.setMaxThreads(beforeThreads);
+		}
+	}
+
+	/**
+	 * The cached table should be recomputed if the output image changes shape
+	 */
+	@Test
+	public void cached_changeShape() {
+		ImageDistort_MT<ImageFloat32> alg = create(ImageFloat32.class, true, true);
+		alg.setModel(tran);
+
+		ImageFloat32 src = new ImageFloat32(width,height);
+		GeneralizedImageOps.randomize(src, rand, 0, 100);
+
+		alg.apply(src,new ImageFloat32(width,height));
+		assertTrue(alg.getMap().getWidth() == width);
+
+		ImageFloat32 found = new ImageFloat32(width+5,height-5);
+		ImageFloat32 expected = found.clone();
+		alg.apply(src,found);
+		assertTrue(alg.getMap().getWidth() == width+5);
+
+		ImageDistort<ImageFloat32> single = createSingle(ImageFloat32.class, true);
+		single.setModel(tran);
+		single.apply(src,expected);
+
+		BoofTesting.assertEqualsGeneric(expected, found, 0, 1e-4);
+	}
+
+	/**
+	 * Changes to the transform after setModel() has been called should be used
+	 */
+	@Test
+	public void modifyTransformAfterSetModel() {
+		boolean before = BoofConcurrency.USE_CONCURRENT;
+		int beforeThreads = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.setMaxThreads(3);
+			BoofConcurrency.USE_CONCURRENT = true;
+
+			PixelTransformAffine_F32 model = new PixelTransformAffine_F32(new Affine2D_F32(1,0,0,1,0,0));
+			ImageDistort_MT<ImageFloat32> alg = create(ImageFloat32.class, true, false);
+			alg.setModel(model);
+
+			ImageFloat32 src = new ImageFloat32(width,height);
+			GeneralizedImageOps.randomize(src, rand, 0, 100);
+			ImageFloat32 found = new ImageFloat32(width,height);
+			alg.apply(src,found);
+
+			model.set(tran.getModel());
+			alg.apply(src,found);
+
+			ImageFloat32 expected = new ImageFloat32(width,height);
+			ImageDistort<ImageFloat32> single = createSingle(ImageFloat32.class, true);
+			single.setModel(tran);
+			single.apply(src,expected);
+
+			BoofTesting.assertEqualsGeneric(expected, found, 0, 1e-4);
+		} finally {
+			BoofConcurrency.USE_CONCURRENT = before;
+			BoofConcurrency.setMaxThreads(beforeThreads);
+		}
+	}
+
+	/**
+	 * A cached distortion passed in by the user which doesn't match the destination image should be rejected
+	 */
+	@Test
+	public void userMap_wrongShape() {
+		for( int i = 0; i < 2; i++ ) {
+			ImageDistort_MT<ImageFloat32> alg = create(ImageFloat32.class, true, i == 0);
+			alg.setModel(new PixelTransformCached_F32(width-5,height,tran));
+
+			try {
+				alg.apply(new ImageFloat32(width,height),new ImageFloat32(width,height));
+				fail("Exception should have been thrown");
+			} catch( IllegalArgumentException e ) {}
+		}
+	}
+
+	private <T extends ImageSingleBand>
+	void compareToSingle( Class<T> imageType , PixelTransform_F32 model , boolean cached , boolean useBorder ) {
+		T src = GeneralizedImageOps.createSingleBand(imageType, width, height);
+		GeneralizedImageOps.randomize(src, rand, 0, 100);
+
+		T expected = GeneralizedImageOps.createSingleBand(imageType, width, height);
+		GeneralizedImageOps.randomize(expected, rand, 0, 100);
+		T found = (T)expected.clone();
+
+		ImageDistort<T> single = createSingle(imageType, useBorder);
+		single.setModel(model);
+		ImageDistort_MT<T> alg = create(imageType, useBorder, cached);
+		alg.setModel(model);
+
+		// entire image
+		single.apply(src,expected);
+		alg.apply(src,found);
+		BoofTesting.assertEqualsGeneric(expected, found, 0, 1e-4);
+
+		// cropped region
+		GeneralizedImageOps.randomize(expected, rand, 0, 100);
+		found.setTo(expected);
+		single.apply(src,expected,5,7,width-3,height-11);
+		alg.apply(src,found,5,7,width-3,height-11);
+		BoofTesting.assertEqualsGeneric(expected, found, 0, 1e-4);
+	}
+
+	private <T extends ImageSingleBand> ImageDistort<T> createSingle( Class<T> imageType , boolean useBorder ) {
+		InterpolatePixel<T> interp = FactoryInterpolation.createPixel(0, 255, TypeInterpolate.BILINEAR, imageType);
+		ImageBorder<T> border = useBorder ? FactoryImageBorder.value(imageType, 0) : null;
+		return FactoryDistort.distort(interp, border, imageType);
+	}
+
+	private <T extends ImageSingleBand>
+	ImageDistort_MT<T> create( Class<T> imageType , boolean useBorder , boolean cached ) {
+		int numWorkers = 3;
+		List<InterpolatePixel<T>> interp = new ArrayList<InterpolatePixel<T>>();
+		List<ImageBorder<T>> border = useBorder ? new ArrayList<ImageBorder<T>>() : null;
+		for( int i = 0; i < numWorkers; i++ ) {
+			interp.add(FactoryInterpolation.createPixel(0, 255, TypeInterpolate.BILINEAR, imageType));
+			if( useBorder )
+				border.add(FactoryImageBorder.value(imageType, 0));
+		}
+		return FactoryDistort.distort_MT(interp, border, cached, imageType);
+	}
+}
@@ -26,6 +26,7 @@ import georegression.transform.affine.AffinePointOps;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 
 /**
@@ -63,4 +64,41 @@ public class TestPixelDistortAffine_F32 {
 		assertEquals(expected.x,alg.distX,1e-4);
 		assertEquals(expected.y,alg.distY,1e-4);
 	}
+
+	@Test
+	public void copy() {
+		PixelTransformAffine_F32 alg = new PixelTransformAffine_F32();
+		alg.set(new Affine2D_F32(1,2,3,4,5,6));
+
+		PixelTransformAffine_F32 found = alg.copy();
+		assertTrue(found != alg);
+		assertTrue(found.getModel() != alg.getModel());
+
+		alg.compute(2,3);
+		found.compute(2,3);
+
+		assertEquals(alg.distX,found.distX,1e-6);
+		assertEquals(alg.distY,found.distY,1e-6);
+	}
+
+	/**
+	 * The row should be identical to computing each pixel individually
+	 */
+	@Test
+	public void computeRow() {
+		PixelTransformAffine_F32 alg = new PixelTransformAffine_F32();
+		alg.set(new Affine2D_F32(1.1f,0.2f,-0.3f,0.9f,5,-6));
+
+		int length = 500;
+		float distX[] = new float[length];
+		float distY[] = new float[length];
+
+		alg.computeRow(20,30,length,distX,distY);
+
+		for( int i = 0; i < length; i++ ) {
+			alg.compute(20+i,30);
+			assertTrue(alg.distX == distX[i]);
+			assertTrue(alg.distY == distY[i]);
+		}
+	}
 }
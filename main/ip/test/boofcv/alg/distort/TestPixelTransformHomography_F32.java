@@ -28,6 +28,7 @@ import georegression.transform.homo.HomographyPointOps_F64;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author Peter Abeles
@@ -64,4 +65,41 @@ public class TestPixelTransformHomography_F32 {
 		assertEquals(expected.x,alg.distX,1e-4);
 		assertEquals(expected.y,alg.distY,1e-4);
 	}
+
+	@Test
+	public void copy() {
+		PixelTransformHomography_F32 alg = new PixelTransformHomography_F32();
+		alg.set(new Homography2D_F32(1,2,3,4,5,6,7,8,9));
+
+		PixelTransformHomography_F32 found = alg.copy();
+		assertTrue(found != alg);
+		assertTrue(found.getModel() != alg.getModel());
+
+		alg.compute(2,3);
+		found.compute(2,3);
+
+		assertEquals(alg.distX,found.distX,1e-6);
+		assertEquals(alg.distY,found.distY,1e-6);
+	}
+
+	/**
+	 * The row should be identical to computing each pixel individually
+	 */
+	@Test
+	public void computeRow() {
+		PixelTransformHomography_F32 alg = new PixelTransformHomography_F32();
+		alg.set(new Homography2D_F32(1.1f,0.2f,5,-0.3f,0.9f,-6,0.001f,-0.002f,1));
+
+		int length = 500;
+		float distX[] = new float[length];
+		float distY[] = new float[length];
+
+		alg.computeRow(20,30,length,distX,distY);
+
+		for( int i = 0; i < length; i++ ) {
+			alg.compute(20+i,30);
+			assertTrue(alg.distX == distX[i]);
+			assertTrue(alg.distY == distY[i]);
+		}
+	}
 }
@@ -23,6 +23,7 @@ import georegression.struct.point.Point2D_F32;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author Peter Abeles
@@ -42,6 +43,24 @@ public class TestPointToPixelTransform_F32 {
 		assertEquals(expected.y,alg.distY,1e-6);
 	}
 
+	/**
+	 * The copy should produce the same results and not share the wrapped transform
+	 */
+	@Test
+	public void copy() {
+		Dummy p = new Dummy();
+		PointToPixelTransform_F32 alg = new PointToPixelTransform_F32(p);
+		PointToPixelTransform_F32 found = alg.copy();
+
+		assertTrue(found.alg != alg.alg);
+
+		alg.compute(1,2);
+		found.compute(1,2);
+
+		assertEquals(alg.distX,found.distX,1e-6);
+		assertEquals(alg.distY,found.distY,1e-6);
+	}
+
 	private static class Dummy implements PointTransform_F32 {
 
 		@Override
@@ -49,5 +68,10 @@ public class TestPointToPixelTransform_F32 {
 			out.x = x + 0.1f;
 			out.y = y + 0.2f;
 		}
+
+		@Override
+		public Dummy copy() {
+			return new Dummy();
+		}
 	}
 }
@@ -27,6 +27,7 @@ import boofcv.core.image.border.FactoryImageBorder;
 import boofcv.core.image.border.ImageBorder;
 import boofcv.factory.distort.FactoryDistort;
 import boofcv.factory.interpolate.FactoryInterpolation;
+import boofcv.struct.distort.PixelTransformCached_F32;
 import boofcv.struct.image.ImageSingleBand;
 import boofcv.testing.BoofTesting;
 import georegression.struct.affine.Affine2D_F32;
@@ -34,6 +35,8 @@ import org.junit.Test;
 
 import java.util.Random;
 
+import static org.junit.Assert.assertTrue;
+
 /**
  * @author Peter Abeles
  */
@@ -95,6 +98,49 @@ public abstract class CommonImageDistortCacheTests<T extends ImageSingleBand> {
 		BoofTesting.assertEqualsGeneric(dst0,dst1,0,1e-4);
 	}
 	
+	@Test
+	public void compareSubImage() {
+		ImageDistort<T> standard = FactoryDistort.distort(interp,border,imageType);
+		ImageDistortCache<T> alg = create(interp,border,imageType);
+
+		standard.setModel(tran);
+		alg.setModel(tran);
+
+		T dstSub = BoofTesting.createSubImageOf(dst1);
+
+		standard.apply(src,dst0,10,30,80,60);
+		alg.apply(src,dstSub,10,30,80,60);
+
+		BoofTesting.assertEqualsGeneric(dst0,dstSub,0,1e-4);
+	}
+
+	/**
+	 * If the model is already a cached transform it should be used directly
+	 */
+	@Test
+	public void precomputedMap() {
+		ImageDistort<T> standard = FactoryDistort.distort(interp,border,imageType);
+		ImageDistortCache<T> alg = create(interp,border,imageType);
+
+		PixelTransformCached_F32 map = new PixelTransformCached_F32(dst0.width,dst0.height,tran);
+
+		standard.setModel(tran);
+		alg.setModel(map);
+		assertTrue(map == alg.getMap());
+
+		standard.apply(src,dst0);
+		alg.apply(src,dst1);
+
+		BoofTesting.assertEqualsGeneric(dst0,dst1,0,1e-4);
+
+		// changing the model should discard the old map
+		alg.setModel(tran);
+		assertTrue(alg.getMap() == null);
+		alg.apply(src,dst1);
+		assertTrue(map != alg.getMap());
+		BoofTesting.assertEqualsGeneric(dst0,dst1,0,1e-4);
+	}
+
 	public abstract ImageDistortCache<T> 
 	create(InterpolatePixel<T> interp, ImageBorder<T> border , Class<T> imageType );
 }
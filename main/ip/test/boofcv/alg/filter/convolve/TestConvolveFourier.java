@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.filter.convolve;
+
+import boofcv.alg.misc.ImageTestingOps;
+import boofcv.core.image.border.BorderType;
+import boofcv.core.image.border.FactoryImageBorder;
+import boofcv.core.image.border.ImageBorder_F32;
+import boofcv.core.image.border.ImageBorder_F64;
+import boofcv.struct.convolve.Kernel2D_F32;
+import boofcv.struct.convolve.Kernel2D_F64;
+import boofcv.struct.image.ImageFloat32;
+import boofcv.struct.image.ImageFloat64;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestConvolveFourier {
+
+	Random rand = new Random(234);
+
+	/**
+	 * Compare against direct convolution for different kernel sizes and border types
+	 */
+	@Test
+	public void compareToWithBorder_F32() {
+		for( int width : new int[]{1,3,11} ) {
+			for( BorderType type : new BorderType[]{BorderType.EXTENDED,BorderType.REFLECT} ) {
+				Kernel2D_F32 kernel = new Kernel2D_F32(width);
+				for( int i = 0; i < kernel.data.length; i++ )
+					kernel.data[i] = rand.nextFloat()*2-1;
+
+				ImageFloat32 input = new ImageFloat32(25,18);
+				ImageTestingOps.randomize(input, rand, 0, 100);
+
+				ImageFloat32 expected = new ImageFloat32(25,18);
+				ImageFloat32 found = BoofTesting.createSubImageOf(new ImageFloat32(25,18));
+
+				ConvolveWithBorder.convolve(kernel, input, expected,
+						(ImageBorder_F32)FactoryImageBorder.general(input, type));
+				ConvolveFourier.convolve(kernel, BoofTesting.createSubImageOf(input), found,
+						(ImageBorder_F32)FactoryImageBorder.general(input, type));
+
+				BoofTesting.assertEquals(expected, found, 0, 1e-3);
+			}
+		}
+	}
+
+	/**
+	 * Compare against a brute force convolution which uses the border
+	 */
+	@Test
+	public void compareToBruteForce_F64() {
+		Kernel2D_F64 kernel = new Kernel2D_F64(7);
+		for( int i = 0; i < kernel.data.length; i++ )
+			kernel.data[i] = rand.nextDouble()*2-1;
+
+		ImageFloat64 input = new ImageFloat64(20,23);
+		ImageTestingOps.randomize(input, rand, 0, 100);
+		ImageFloat64 found = new ImageFloat64(20,23);
+
+		ImageBorder_F64 border = (ImageBorder_F64)FactoryImageBorder.general(input, BorderType.EXTENDED);
+		ConvolveFourier.convolve(kernel, input, found, border);
+
+		int r = kernel.getRadius();
+		for( int y = 0; y < input.height; y++ ) {
+			for( int x = 0; x < input.width; x++ ) {
+				double total = 0;
+				for( int i = -r; i <= r; i++ ) {
+					for( int j = -r; j <= r; j++ ) {
+						total += border.get(x+j,y+i)*kernel.get(j+r,i+r);
+					}
+				}
+				assertEquals(total, found.get(x,y), 1e-8);
+			}
+		}
+	}
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.transform.census;
+
+import boofcv.core.image.GeneralizedImageOps;
+import boofcv.struct.image.ImageSInt32;
+import boofcv.struct.image.ImageUInt8;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestCensusTransform {
+
+	Random rand = new Random(234);
+	int width = 20;
+	int height = 25;
+
+	@Test
+	public void region3x3() {
+		ImageUInt8 input = new ImageUInt8(width,height);
+		GeneralizedImageOps.randomize(input,rand,0,100);
+
+		ImageSInt32 found = CensusTransform.region3x3(input,null);
+		checkNaive(input,found,1);
+	}
+
+	@Test
+	public void region5x5() {
+		ImageUInt8 input = new ImageUInt8(width,height);
+		GeneralizedImageOps.randomize(input,rand,0,100);
+
+		ImageSInt32 found = CensusTransform.region5x5(input,null);
+		checkNaive(input,found,2);
+	}
+
+	@Test
+	public void subImage() {
+		ImageUInt8 input = new ImageUInt8(width,height);
+		GeneralizedImageOps.randomize(input,rand,0,100);
+		ImageSInt32 expected = CensusTransform.transform(input,2,null);
+
+		ImageUInt8 subInput = BoofTesting.createSubImageOf(input);
+		ImageSInt32 subOutput = BoofTesting.createSubImageOf(new ImageSInt32(width,height));
+		CensusTransform.transform(subInput,2,subOutput);
+
+		BoofTesting.assertEquals(expected,subOutput,0);
+	}
+
+	/**
+	 * The transform should not be changed by a change in gain and bias
+	 */
+	@Test
+	public void gainBiasInvariant() {
+		ImageUInt8 input = new ImageUInt8(width,height);
+		GeneralizedImageOps.randomize(input,rand,0,100);
+
+		ImageUInt8 adjusted = new ImageUInt8(width,height);
+		for( int i = 0; i < input.data.length; i++ ) {
+			adjusted.data[i] = (byte)(2*(input.data[i] & 0xFF) + 15);
+		}
+
+		ImageSInt32 expected = CensusTransform.transform(input,2,null);
+		ImageSInt32 found = CensusTransform.transform(adjusted,2,null);
+
+		BoofTesting.assertEquals(expected,found,0);
+	}
+
+	private void checkNaive( ImageUInt8 input , ImageSInt32 found , int radius ) {
+		for( int y = 0; y < height; y++ ) {
+			for( int x = 0; x < width; x++ ) {
+				int center = input.get(x,y);
+				int expected = 0;
+				int bit = 0;
+				for( int i = -radius; i <= radius; i++ ) {
+					for( int j = -radius; j <= radius; j++ ) {
+						if( i == 0 && j == 0 )
+							continue;
+						int xx = Math.min(width-1,Math.max(0,x+j));
+						int yy = Math.min(height-1,Math.max(0,y+i));
+						if( input.get(xx,yy) < center )
+							expected |= 1 << bit;
+						bit++;
+					}
+				}
+				assertEquals("x = "+x+" y = "+y,expected,found.get(x,y));
+			}
+		}
+	}
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.transform.fft;
+
+import boofcv.alg.misc.ImageTestingOps;
+import boofcv.struct.image.ImageFloat32;
+import boofcv.struct.image.ImageFloat64;
+import boofcv.struct.image.ImageInterleavedFloat32;
+import boofcv.struct.image.ImageInterleavedFloat64;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestDiscreteFourierTransform {
+
+	Random rand = new Random(234);
+
+	// sizes with even and odd number of rows, primes, and sizes which use Bluestein's algorithm
+	int sizes[][] = new int[][]{{1,1},{8,6},{7,5},{12,9},{5,16},{61,3}};
+
+	/**
+	 * Compare against a brute force 2D DFT
+	 */
+	@Test
+	public void forward_F64() {
+		DiscreteFourierTransform alg = new DiscreteFourierTransform();
+
+		for( int size[] : sizes ) {
+			ImageFloat64 image = new ImageFloat64(size[0],size[1]);
+			ImageTestingOps.randomize(image, rand, -1, 1);
+
+			ImageInterleavedFloat64 expected = dft(image);
+			// see if sub-images are handled correctly
+			ImageInterleavedFloat64 found = BoofTesting.createSubImageOf(new ImageInterleavedFloat64(size[0],size[1],2));
+
+			alg.forward(BoofTesting.createSubImageOf(image), found);
+
+			for( int y = 0; y < image.height; y++ ) {
+				for( int x = 0; x < image.width; x++ ) {
+					for( int band = 0; band < 2; band++ )
+						assertEquals(expected.getBand(x,y,band), found.getBand(x,y,band), 1e-8);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void forward_F32() {
+		DiscreteFourierTransform alg = new DiscreteFourierTransform();
+
+		for( int size[] : sizes ) {
+			ImageFloat32 image = new ImageFloat32(size[0],size[1]);
+			ImageTestingOps.randomize(image, rand, -1, 1);
+
+			ImageFloat64 image64 = new ImageFloat64(size[0],size[1]);
+			for( int i = 0; i < image.data.length; i++ )
+				image64.data[i] = image.data[i];
+
+			ImageInterleavedFloat64 expected = dft(image64);
+			ImageInterleavedFloat32 found = new ImageInterleavedFloat32(size[0],size[1],2);
+
+			alg.forward(image, found);
+
+			for( int y = 0; y < image.height; y++ ) {
+				for( int x = 0; x < image.width; x++ ) {
+					for( int band = 0; band < 2; band++ )
+						assertEquals(expected.getBand(x,y,band), found.getBand(x,y,band), 1e-4);
+				}
+			}
+		}
+	}
+
+	/**
+	 * The inverse of the forward transform should be the original image
+	 */
+	@Test
+	public void inverse_F64() {
+		DiscreteFourierTransform alg = new DiscreteFourierTransform();
+
+		for( int size[] : sizes ) {
+			ImageFloat64 image = new ImageFloat64(size[0],size[1]);
+			ImageTestingOps.randomize(image, rand, -1, 1);
+
+			ImageInterleavedFloat64 transform = new ImageInterleavedFloat64(size[0],size[1],2);
+			ImageFloat64 found = BoofTesting.createSubImageOf(new ImageFloat64(size[0],size[1]));
+
+			alg.forward(image, transform);
+			alg.inverse(BoofTesting.createSubImageOf(transform), found);
+
+			BoofTesting.assertEquals(image, found, 0, 1e-8);
+		}
+	}
+
+	@Test
+	public void inverse_F32() {
+		DiscreteFourierTransform alg = new DiscreteFourierTransform();
+
+		for( int size[] : sizes ) {
+			ImageFloat32 image = new ImageFloat32(size[0],size[1]);
+			ImageTestingOps.randomize(image, rand, -1, 1);
+
+			ImageInterleavedFloat32 transform = new ImageInterleavedFloat32(size[0],size[1],2);
+			ImageFloat32 found = new ImageFloat32(size[0],size[1]);
+
+			alg.forward(image, transform);
+			alg.inverse(transform, found);
+
+			BoofTesting.assertEquals(image, found, 0, 1e-4);
+		}
+	}
+
+	/**
+	 * Plans should only be created again when the image size changes
+	 */
+	@Test
+	public void plansSaved() {
+		DiscreteFourierTransform alg = new DiscreteFourierTransform();
+
+		alg.forward(new ImageFloat64(8,6),new ImageInterleavedFloat64(8,6,2));
+		FftPlan planRow = alg.planRow;
+		FftPlan planCol = alg.planCol;
+
+		alg.inverse(new ImageInterleavedFloat64(8,6,2),new ImageFloat64(8,6));
+		assertTrue(planRow == alg.planRow);
+		assertTrue(planCol == alg.planCol);
+
+		// rows and columns have the same length so only one plan is needed
+		alg.forward(new ImageFloat64(6,6),new ImageInterleavedFloat64(6,6,2));
+		assertTrue(planCol == alg.planRow);
+		assertTrue(planCol == alg.planCol);
+
+		alg.forward(new ImageFloat64(7,6),new ImageInterleavedFloat64(7,6,2));
+		assertEquals(7,alg.planRow.getLength());
+		assertTrue(planCol == alg.planCol);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void checkNumberOfBands() {
+		new DiscreteFourierTransform().forward(new ImageFloat32(5,6),new ImageInterleavedFloat32(5,6,3));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void checkShape() {
+		new DiscreteFourierTransform().forward(new ImageFloat32(5,6),new ImageInterleavedFloat32(5,7,2));
+	}
+
+	public static ImageInterleavedFloat64 dft( ImageFloat64 image ) {
+		int w = image.width, h = image.height;
+		ImageInterleavedFloat64 ret = new ImageInterleavedFloat64(w,h,2);
+
+		for( int v = 0; v < h; v++ ) {
+			for( int u = 0; u < w; u++ ) {
+				double sumR = 0, sumI = 0;
+				for( int y = 0; y < h; y++ ) {
+					for( int x = 0; x < w; x++ ) {
+						double angle = -2.0*Math.PI*((double)u*x/w + (double)v*y/h);
+						double value = image.get(x,y);
+						sumR += value*Math.cos(angle);
+						sumI += value*Math.sin(angle);
+					}
+				}
+				ret.set(u,v,sumR,sumI);
+			}
+		}
+		return ret;
+	}
+}
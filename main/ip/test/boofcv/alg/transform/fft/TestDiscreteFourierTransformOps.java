@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.transform.fft;
+
+import boofcv.misc.BoofConcurrency;
+import boofcv.struct.image.ImageInterleavedFloat32;
+import boofcv.struct.image.ImageInterleavedFloat64;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestDiscreteFourierTransformOps {
+
+	Random rand = new Random(234);
+
+	@Test
+	public void createTransform() {
+		boolean before = BoofConcurrency.USE_CONCURRENT;
+		try {
+			BoofConcurrency.USE_CONCURRENT = false;
+			assertTrue(DiscreteFourierTransformOps.createTransform().getClass() == DiscreteFourierTransform.class);
+			BoofConcurrency.USE_CONCURRENT = true;
+			assertTrue(DiscreteFourierTransformOps.createTransform() instanceof DiscreteFourierTransform_MT);
+		} finally {
+			BoofConcurrency.USE_CONCURRENT = before;
+		}
+	}
+
+	@Test
+	public void nextFastSize() {
+		assertEquals(1,DiscreteFourierTransformOps.nextFastSize(1));
+		assertEquals(2,DiscreteFourierTransformOps.nextFastSize(2));
+		assertEquals(3,DiscreteFourierTransformOps.nextFastSize(3));
+		assertEquals(6,DiscreteFourierTransformOps.nextFastSize(5));
+		assertEquals(8,DiscreteFourierTransformOps.nextFastSize(7));
+		assertEquals(12,DiscreteFourierTransformOps.nextFastSize(11));
+		assertEquals(96,DiscreteFourierTransformOps.nextFastSize(82));
+		assertEquals(1024,DiscreteFourierTransformOps.nextFastSize(1024));
+		assertEquals(1152,DiscreteFourierTransformOps.nextFastSize(1025));
+	}
+
+	@Test
+	public void multiplyComplex_F32() {
+		ImageInterleavedFloat32 a = new ImageInterleavedFloat32(4,5,2);
+		ImageInterleavedFloat32 b = new ImageInterleavedFloat32(4,5,2);
+		ImageInterleavedFloat32 c = new ImageInterleavedFloat32(4,5,2);
+
+		for( int i = 0; i < a.data.length; i++ ) {
+			a.data[i] = rand.nextFloat();
+			b.data[i] = rand.nextFloat();
+		}
+
+		DiscreteFourierTransformOps.multiplyComplex(a, b, c);
+
+		for( int i = 0; i < a.data.length; i += 2 ) {
+			assertEquals(a.data[i]*b.data[i] - a.data[i+1]*b.data[i+1], c.data[i], 1e-6f);
+			assertEquals(a.data[i]*b.data[i+1] + a.data[i+1]*b.data[i], c.data[i+1], 1e-6f);
+		}
+	}
+
+	@Test
+	public void multiplyComplex_F64() {
+		ImageInterleavedFloat64 a = new ImageInterleavedFloat64(4,5,2);
+		ImageInterleavedFloat64 b = new ImageInterleavedFloat64(4,5,2);
+		ImageInterleavedFloat64 c = new ImageInterleavedFloat64(4,5,2);
+
+		for( int i = 0; i < a.data.length; i++ ) {
+			a.data[i] = rand.nextDouble();
+			b.data[i] = rand.nextDouble();
+		}
+
+		double expected[] = new double[c.data.length];
+		for( int i = 0; i < a.data.length; i += 2 ) {
+			expected[i] = a.data[i]*b.data[i] - a.data[i+1]*b.data[i+1];
+			expected[i+1] = a.data[i]*b.data[i+1] + a.data[i+1]*b.data[i];
+		}
+
+		// output is the same as an input
+		DiscreteFourierTransformOps.multiplyComplex(a, b, a);
+
+		for( int i = 0; i < a.data.length; i++ ) {
+			assertEquals(expected[i], a.data[i], 1e-12);
+		}
+	}
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.transform.fft;
+
+import boofcv.alg.misc.ImageTestingOps;
+import boofcv.misc.BoofConcurrency;
+import boofcv.struct.image.ImageFloat64;
+import boofcv.struct.image.ImageInterleavedFloat64;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestDiscreteFourierTransform_MT {
+
+	Random rand = new Random(234);
+
+	/**
+	 * Results should be identical to the single threaded version
+	 */
+	@Test
+	public void compareToSingle() {
+		int before = BoofConcurrency.getMaxThreads();
+		BoofConcurrency.setMaxThreads(3);
+		try {
+			ImageFloat64 image = new ImageFloat64(30,25);
+			ImageTestingOps.randomize(image, rand, -1, 1);
+
+			ImageInterleavedFloat64 expected = new ImageInterleavedFloat64(30,25,2);
+			ImageInterleavedFloat64 found = new ImageInterleavedFloat64(30,25,2);
+
+			new DiscreteFourierTransform().forward(image, expected);
+			DiscreteFourierTransform_MT alg = new DiscreteFourierTransform_MT();
+			alg.forward(image, found);
+
+			BoofTesting.assertEquals(expected.data, found.data, 0);
+
+			ImageFloat64 inverseExpected = new ImageFloat64(30,25);
+			ImageFloat64 inverseFound = new ImageFloat64(30,25);
+			new DiscreteFourierTransform().inverse(expected, inverseExpected);
+			alg.inverse(found, inverseFound);
+
+			BoofTesting.assertEquals(inverseExpected, inverseFound, 0, 0);
+		} finally {
+			BoofConcurrency.setMaxThreads(before);
+		}
+	}
+}
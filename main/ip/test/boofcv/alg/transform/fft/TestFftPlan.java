@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.transform.fft;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestFftPlan {
+
+	Random rand = new Random(234);
+
+	/**
+	 * Compare against a brute force DFT for lengths which use every type of radix and Bluestein's algorithm
+	 */
+	@Test
+	public void forward_compareToDft() {
+		for( int N = 1; N <= 70; N++ )
+			checkForward(N);
+
+		checkForward(97);    // prime, Bluestein
+		checkForward(2*53);  // large prime factor, Bluestein
+		checkForward(256);
+		checkForward(360);
+		checkForward(47*7);  // large generic radix
+	}
+
+	private void checkForward( int N ) {
+		double input[] = random(N);
+		double expected[] = dft(input, N);
+
+		FftPlan alg = new FftPlan(N);
+		assertEquals(N,alg.getLength());
+		double found[] = input.clone();
+		alg.forward(found, alg.createWork());
+
+		for( int i = 0; i < 2*N; i++ ) {
+			assertEquals("N = "+N, expected[i], found[i], 1e-8);
+		}
+	}
+
+	/**
+	 * Inverse of the forward transform should return the original signal multiplied by the length
+	 */
+	@Test
+	public void inverse() {
+		int lengths[] = new int[]{1,2,3,5,8,12,17,97,100};
+
+		for( int N : lengths ) {
+			double input[] = random(N);
+			FftPlan alg = new FftPlan(N);
+			double work[] = alg.createWork();
+
+			double found[] = input.clone();
+			alg.forward(found, work);
+			alg.inverse(found, work);
+
+			for( int i = 0; i < 2*N; i++ ) {
+				assertEquals(input[i], found[i]/N, 1e-8);
+			}
+		}
+	}
+
+	/**
+	 * Elements past the end of the transform should not be modified
+	 */
+	@Test
+	public void largerArray() {
+		for( int N : new int[]{6,97} ) {
+			double input[] = random(N+3);
+			double found[] = input.clone();
+
+			FftPlan alg = new FftPlan(N);
+			alg.forward(found, alg.createWork());
+
+			double expected[] = dft(input, N);
+			for( int i = 0; i < 2*N; i++ )
+				assertEquals(expected[i], found[i], 1e-8);
+			for( int i = 2*N; i < input.length; i++ )
+				assertEquals(input[i], found[i], 0);
+		}
+	}
+
+	private double[] random( int N ) {
+		double ret[] = new double[2*N];
+		for( int i = 0; i < ret.length; i++ )
+			ret[i] = rand.nextDouble()*2-1;
+		return ret;
+	}
+
+	private static double[] dft( double input[] , int N ) {
+		double ret[] = new double[2*N];
+		for( int k = 0; k < N; k++ ) {
+			double sumR = 0, sumI = 0;
+			for( int n = 0; n < N; n++ ) {
+				double angle = -2.0*Math.PI*k*n/N;
+				double c = Math.cos(angle), s = Math.sin(angle);
+				sumR += input[2*n]*c - input[2*n+1]*s;
+				sumI += input[2*n]*s + input[2*n+1]*c;
+			}
+			ret[2*k] = sumR;
+			ret[2*k+1] = sumI;
+		}
+		return ret;
+	}
+}
@@ -76,6 +76,60 @@ public class TestConvertBufferedImage {
 		assertEquals(imgWidth * imgHeight, found.data.length);
 	}
 
+	/**
+	 * The BufferedImage is a sub-image of a larger image
+	 */
+	@Test
+	public void extractImageInt8_subimage() {
+		BufferedImage origImg = TestConvertRaster.createByteBuff(imgWidth+5, imgHeight+4, 1, rand);
+		BufferedImage subImg = origImg.getSubimage(2,3,imgWidth,imgHeight);
+
+		ImageUInt8 found = ConvertBufferedImage.extractImageInt8(subImg);
+
+		assertEquals(imgWidth, found.width);
+		assertEquals(imgHeight, found.height);
+		assertTrue(found.isSubimage());
+		BoofTesting.checkEquals(subImg, found, 0);
+	}
+
+	@Test
+	public void extractInterlacedInt8_subimage() {
+		BufferedImage origImg = TestConvertRaster.createByteBuff(imgWidth+5, imgHeight+4, 3, rand);
+		BufferedImage subImg = origImg.getSubimage(2,3,imgWidth,imgHeight);
+
+		ImageInterleavedInt8 found = ConvertBufferedImage.extractInterlacedInt8(subImg);
+
+		assertTrue(found.isSubimage());
+		for( int y = 0; y < imgHeight; y++ ) {
+			for( int x = 0; x < imgWidth; x++ ) {
+				int rgb = subImg.getRGB(x,y);
+				// TYPE_3BYTE_BGR
+				assertEquals(rgb & 0xFF, found.getBand(x,y,0) & 0xFF);
+				assertEquals((rgb >> 8) & 0xFF, found.getBand(x,y,1) & 0xFF);
+				assertEquals((rgb >> 16) & 0xFF, found.getBand(x,y,2) & 0xFF);
+			}
+		}
+	}
+
+	@Test
+	public void extractOrConvert() {
+		// can be wrapped
+		BufferedImage origImg = TestConvertRaster.createByteBuff(imgWidth, imgHeight, 1, rand);
+		ImageUInt8 storage = new ImageUInt8(1,1);
+		ImageUInt8 found = ConvertBufferedImage.extractOrConvert(origImg, storage);
+		assertTrue(found != storage);
+		BoofTesting.checkEquals(origImg, found, 0);
+		origImg.getRaster().setSample(2,3,0,123);
+		assertEquals(123,found.get(2,3));
+
+		// must be converted
+		origImg = TestConvertRaster.createByteBuff(imgWidth, imgHeight, 3, rand);
+		found = ConvertBufferedImage.extractOrConvert(origImg, storage);
+		assertTrue(found == storage);
+		assertEquals(imgWidth, found.width);
+		BoofTesting.checkEquals(origImg, found, 1);
+	}
+
 	@Test
 	public void extractImageInt8_fail() {
 		try {
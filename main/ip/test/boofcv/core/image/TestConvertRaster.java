@@ -45,6 +45,9 @@ public class TestConvertRaster {
 
 	int numMethods = 27;
 
+	// if true the BufferedImages will be sub-images of a larger image
+	boolean subRaster = false;
+
 	/**
 	 * Use reflections to test all the functions.
 	 */
@@ -74,6 +77,15 @@ public class TestConvertRaster {
 			throw new RuntimeException("Unexpected number of methods: Found " + numFound + "  expected " + numMethods);
 	}
 
+	/**
+	 * BufferedImages created by getSubimage() share the raster's data array with the original image
+	 */
+	@Test
+	public void performTests_subRaster() {
+		subRaster = true;
+		performTests();
+	}
+
 	/**
 	 * There is a bug where gray scale images are mangled by getRGB().  There is a work around in
 	 * the code.
@@ -170,6 +182,16 @@ public class TestConvertRaster {
 		} else {
 			throw new RuntimeException("Unknown raster type: " + paramType.getSimpleName());
 		}
+
+		if( subRaster ) {
+			for (int i = 0; i < input.length; i++) {
+				BufferedImage larger = new BufferedImage(imgWidth+5, imgHeight+4, input[i].getType());
+				randomize(larger, rand);
+				BufferedImage sub = larger.getSubimage(2, 3, imgWidth, imgHeight);
+				sub.setData(input[i].getRaster());
+				input[i] = sub;
+			}
+		}
 		return input;
 	}
 
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.struct.distort;
+
+import boofcv.alg.distort.PixelTransformAffine_F32;
+import georegression.struct.affine.Affine2D_F32;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestPixelTransformCached_F32 {
+
+	int width = 30;
+	int height = 40;
+
+	PixelTransformAffine_F32 tran = new PixelTransformAffine_F32(new Affine2D_F32(1.1f,0.2f,-0.3f,0.9f,5,-6));
+
+	@Test
+	public void compute() {
+		PixelTransformCached_F32 alg = new PixelTransformCached_F32(width,height,tran);
+
+		checkSame(alg);
+	}
+
+	@Test
+	public void computeRow() {
+		PixelTransformCached_F32 alg = new PixelTransformCached_F32(width,height,tran);
+
+		float distX[] = new float[width];
+		float distY[] = new float[width];
+
+		alg.computeRow(3,5,width-4,distX,distY);
+
+		for( int i = 0; i < width-4; i++ ) {
+			tran.compute(3+i,5);
+			assertEquals(tran.distX,distX[i],1e-6f);
+			assertEquals(tran.distY,distY[i],1e-6f);
+		}
+	}
+
+	@Test
+	public void copy() {
+		PixelTransformCached_F32 alg = new PixelTransformCached_F32(width,height,tran);
+		PixelTransformCached_F32 found = alg.copy();
+
+		assertTrue(found != alg);
+		assertTrue(found.getMapX() == alg.getMapX());
+		checkSame(found);
+	}
+
+	@Test
+	public void saveLoad() throws IOException {
+		PixelTransformCached_F32 alg = new PixelTransformCached_F32(width,height,tran);
+
+		File file = File.createTempFile("distort",".map");
+		try {
+			alg.save(file.getPath());
+			PixelTransformCached_F32 found = PixelTransformCached_F32.load(file.getPath());
+
+			assertEquals(width,found.getWidth());
+			assertEquals(height,found.getHeight());
+			checkSame(found);
+		} finally {
+			file.delete();
+		}
+	}
+
+	/**
+	 * Loading a file which isn't a distortion table should fail
+	 */
+	@Test
+	public void load_badFile() throws IOException {
+		File file = File.createTempFile("distort",".map");
+		try {
+			FileOutputStream out = new FileOutputStream(file);
+			out.write(new byte[100]);
+			out.close();
+
+			try {
+				PixelTransformCached_F32.load(file.getPath());
+				fail("Should have thrown an exception");
+			} catch( IOException ignore ) {}
+		} finally {
+			file.delete();
+		}
+	}
+
+	private void checkSame( PixelTransformCached_F32 alg ) {
+		for( int y = 0; y < height; y++ ) {
+			for( int x = 0; x < width; x++ ) {
+				tran.compute(x,y);
+				alg.compute(x,y);
+				assertEquals(tran.distX,alg.distX,1e-6f);
+				assertEquals(tran.distY,alg.distY,1e-6f);
+			}
+		}
+	}
+}
@@ -116,6 +116,25 @@ public class TestImageInterleaved {
 		assertEquals(4 * 30 + 3 * 3 + 1, a.getIndex(3, 4, 1));
 	}
 
+	@Test
+	public void reshape() {
+		DummyImage a = new DummyImage(10, 20, 3);
+
+		// smaller
+		a.reshape(5, 6);
+		assertEquals(5, a.getWidth());
+		assertEquals(6, a.getHeight());
+		assertEquals(15, a.getStride());
+		assertEquals(10 * 20 * 3, a.data.length);
+
+		// larger
+		a.reshape(30, 25);
+		assertEquals(30, a.getWidth());
+		assertEquals(25, a.getHeight());
+		assertEquals(90, a.getStride());
+		assertEquals(30 * 25 * 3, a.data.length);
+	}
+
 	private static class DummyImage extends ImageInterleaved<DummyImage> {
 		int data[];
 
@@ -143,7 +162,9 @@ public class TestImageInterleaved {
 
 		@Override
 		public DummyImage _createNew(int imgWidth, int imgHeight) {
-			return new DummyImage();
+			if (imgWidth == -1 || imgHeight == -1)
+				return new DummyImage();
+			return new DummyImage(imgWidth, imgHeight, numBands);
 		}
 	}
 }
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.struct.image;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestImageInterleavedFloat32 extends StandardImageInterleavedTests {
+
+
+	@Override
+	public ImageInterleaved createImage(int width, int height, int numBands) {
+		return new ImageInterleavedFloat32(width, height, numBands);
+	}
+
+	@Override
+	public Number randomNumber() {
+		return (float) (rand.nextFloat() * 200 - 100);
+	}
+}
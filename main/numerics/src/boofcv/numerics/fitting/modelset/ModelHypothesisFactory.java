@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.numerics.fitting.modelset;
+
+/**
+ * Creates new instances of the classes used to generate and evaluate model hypotheses.  Used by algorithms
+ * which process hypotheses in parallel, where each thread needs its own instances.
+ *
+ * @author Peter Abeles
+ */
+public interface ModelHypothesisFactory<Model, Point> {
+
+	/**
+	 * Creates a new model generator.  Each call must return a new instance.
+	 *
+	 * @return New model generator.
+	 */
+	public ModelGenerator<Model,Point> createGenerator();
+
+	/**
+	 * Creates a new distance function.  Each call must return a new instance.
+	 *
+	 * @return New distance function.
+	 */
+	public DistanceFromModel<Model,Point> createDistance();
+}
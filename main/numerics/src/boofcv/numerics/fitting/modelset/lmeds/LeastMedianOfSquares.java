@@ -36,6 +36,19 @@ import java.util.Random;
  * is fit to these points and then the error is computed for the whole set.  The model which minimizes the
  * median is selected as the final model.  No pruning or formal selection of inlier set is done.
  * </p>
+ *
+ * <p>
+ * Adaptive Termination: If a confidence level is specified, see {@link #setConfidence(double)}, then the number
+ * of cycles is reduced each time a better model is found.  Points with an error less than or equal to the
+ * maximum median error are used to estimate the inlier fraction.
+ * </p>
+ *
+ * <p>
+ * Preemptive Scoring: If turned on, see {@link #setPreemptive(boolean)}, then the error for each point is
+ * computed one at a time and a hypothesis is discarded as soon as more than half the points have an error
+ * which is at least as large as the best median.  Such a hypothesis can't have a smaller median, so the
+ * selected model is not changed.
+ * </p>
  * @author Peter Abeles
  */
 // TODO Better algorithm for selecting the inlier set.
@@ -57,6 +70,8 @@ public class LeastMedianOfSquares<Model, Point> implements ModelMatcher<Model, P
 
 	// where the initial small set of points is stored
 	private List<Point> smallSet = new ArrayList<Point>();
+	// permutation of input indexes used to randomly select the small set
+	private int []permutation = new int[1];
 
 	// parameter being considered
 	private Model candidate;
@@ -73,6 +88,14 @@ public class LeastMedianOfSquares<Model, Point> implements ModelMatcher<Model, P
 	private List<Point> inlierSet;
 	private double inlierFrac;
 
+	// confidence that a sample with all inliers has been drawn.  If zero then adaptive termination is off
+	private double confidence = 0;
+	// if true hypotheses are discarded as soon as they can't have a better median
+	private boolean preemptive = false;
+
+	// number of cycles performed the last time process was called
+	private int cycles;
+
 	/**
 	 *
 	 * @param randSeed Random seed used internally.
@@ -120,16 +143,32 @@ public class LeastMedianOfSquares<Model, Point> implements ModelMatcher<Model, P
 		if( errors.length < N ) {
 			errors = new double[ N ];
 			matchToInput = new int[N];
+			permutation = new int[N];
+		}
+		for( int i = 0; i < N; i++ ) {
+			permutation[i] = i;
 		}
 
 		bestMedian = Double.MAX_VALUE;
 
-		for( int i = 0; i < totalCycles; i++ ) {
-			Ransac.randomDraw(dataSet, sampleSize, smallSet, rand);
+		// the number of cycles can be reduced when adaptive termination is used
+		int cycleLimit = totalCycles;
+
+		for( cycles = 0; cycles < cycleLimit; cycles++ ) {
+			Ransac.randomDraw(permutation, N, sampleSize, rand);
+			smallSet.clear();
+			for( int j = 0; j < sampleSize; j++ ) {
+				smallSet.add( dataSet.get(permutation[j]));
+			}
 
 			if( generator.generate(smallSet, candidate) ) {
 				errorMetric.setModel(candidate);
-				errorMetric.computeDistance(dataSet,errors);
+				if( preemptive ) {
+					if( !computeErrorsPreemptive(dataSet) )
+						continue;
+				} else {
+					errorMetric.computeDistance(dataSet,errors);
+				}
 
 				double median = QuickSelectArray.select(errors,N/2,N);
 
@@ -138,6 +177,11 @@ public class LeastMedianOfSquares<Model, Point> implements ModelMatcher<Model, P
 					Model t = bestParam;
 					bestParam = candidate;
 					candidate = t;
+
+					if( confidence > 0 ) {
+						int required = Ransac.requiredIterations(countInliers(N)/(double)N, sampleSize, confidence);
+						cycleLimit = Math.min(totalCycles, required);
+					}
 				}
 			}
 		}
@@ -148,6 +192,38 @@ public class LeastMedianOfSquares<Model, Point> implements ModelMatcher<Model, P
 		return bestMedian <= maxMedianError;
 	}
 
+	/**
+	 * Computes the error for each point one at a time.  Stops once the median can no longer be less than
+	 * the best median.
+	 *
+	 * @return true if all the errors were computed
+	 */
+	private boolean computeErrorsPreemptive( List<Point> dataSet ) {
+		final int N = dataSet.size();
+		// the median is better only if more than N/2 points have an error less than the best median
+		final int maxWorse = N - N/2 - 1;
+		int numWorse = 0;
+
+		for( int i = 0; i < N; i++ ) {
+			double e = errors[i] = errorMetric.computeDistance(dataSet.get(i));
+			if( e >= bestMedian && ++numWorse > maxWorse )
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Number of points which have an error no more than the maximum median error
+	 */
+	private int countInliers( int N ) {
+		int total = 0;
+		for( int i = 0; i < N; i++ ) {
+			if( errors[i] <= maxMedianError )
+				total++;
+		}
+		return total;
+	}
+
 	private void computeInlierSet(List<Point> dataSet, int n) {
 		int numPts = (int)(n *inlierFrac);
 
@@ -189,6 +265,39 @@ public class LeastMedianOfSquares<Model, Point> implements ModelMatcher<Model, P
 		return matchToInput[matchIndex];
 	}
 
+	public double getConfidence() {
+		return confidence;
+	}
+
+	/**
+	 * Turns on adaptive termination.  The number of cycles is reduced as more inliers are found.
+	 *
+	 * @param confidence Desired probability of drawing a sample with only inliers.  Try 0.99.  0 to turn off.
+	 */
+	public void setConfidence(double confidence) {
+		if( confidence < 0 || confidence >= 1 )
+			throw new IllegalArgumentException("Confidence must be 0 <= confidence < 1");
+		this.confidence = confidence;
+	}
+
+	public boolean isPreemptive() {
+		return preemptive;
+	}
+
+	/**
+	 * If true then hypotheses are discarded as soon as they can't have a smaller median error.
+	 */
+	public void setPreemptive(boolean preemptive) {
+		this.preemptive = preemptive;
+	}
+
+	/**
+	 * Number of cycles performed the last time {@link #process(java.util.List)} was called.
+	 */
+	public int getCycles() {
+		return cycles;
+	}
+
 	/**
 	 * Value of the best median error.
 	 * @return
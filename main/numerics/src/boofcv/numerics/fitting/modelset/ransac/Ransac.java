@@ -23,7 +23,6 @@ import boofcv.numerics.fitting.modelset.ModelGenerator;
 import boofcv.numerics.fitting.modelset.ModelMatcher;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 
@@ -42,6 +41,30 @@ import java.util.Random;
  * it to any number.
  * </p>
  *
+ * <p>
+ * Samples and inlier sets are stored as indexes into the input list, which is never modified.  No memory
+ * is allocated inside the main loop.
+ * </p>
+ *
+ * <p>
+ * Adaptive Termination: If a confidence level has been specified, see {@link #setConfidence(double)}, then the
+ * number of iterations is updated each time a better model is found.  The number of iterations is selected so that
+ * with the specified confidence at least one sample contained only inliers, using the current inlier fraction.
+ * Maximum iterations is still an upper limit.
+ * </p>
+ *
+ * <p>
+ * Pre-Test: Before scoring a hypothesis against all the points it can optionally be checked against a few
+ * randomly selected points first [1].  If any of them are outliers the hypothesis is discarded.  Bad hypotheses
+ * are discarded after only a few distance computations.  This is the T<sub>d,d</sub> test.  See
+ * {@link #setNumPreTest(int)}.  In addition, scoring of a hypothesis stops as soon as it can no longer have
+ * more inliers than the best model.
+ * </p>
+ *
+ * <p>
+ * [1] Matas, J. and Chum, O. "Randomized RANSAC with T<sub>d,d</sub> test" Image and Vision Computing 2004
+ * </p>
+ *
  * @author Peter Abeles
  */
 public class Ransac<Model, Point> implements ModelMatcher<Model,Point> {
@@ -59,10 +82,11 @@ public class Ransac<Model, Point> implements ModelMatcher<Model,Point> {
 	// used to randomly select points/samples
 	protected Random rand;
 
-	// list of points which are a candidate for the best fit set
-	protected List<Point> candidatePoints = new ArrayList<Point>();
+	// number of inliers in the candidate and best fit sets
+	protected int numCandidate;
+	protected int numBest;
 
-	// list of samples from the best fit model
+	// list of samples from the best fit model.  Only filled in after process is finished.
 	protected List<Point> bestFitPoints = new ArrayList<Point>();
 
 	// the best model found so far
@@ -75,11 +99,21 @@ public class Ransac<Model, Point> implements ModelMatcher<Model,Point> {
 
 	// the set of points which were initially sampled
 	protected List<Point> initialSample = new ArrayList<Point>();
+	// permutation of input indexes.  The first numSample elements are the most recent sample
+	protected int []permutation = new int[1];
 
 	// list of indexes converting it from match set to input list
 	protected int []matchToInput = new int[1];
 	protected int []bestMatchToInput = new int[1];
 
+	// confidence that a sample with all inliers has been drawn.  If zero then adaptive termination is off
+	protected double confidence = 0;
+	// number of randomly selected points checked before a hypothesis is scored.  If zero then it is off
+	protected int numPreTest = 0;
+
+	// number of iterations performed the last time process was called
+	protected int iterations;
+
 	/**
 	 * Creates a new instance of the ransac algorithm.  The number of points sampled will default to the
 	 * minimum number.  To override this default invoke {@link #setNumSample(int)}.
@@ -118,26 +152,45 @@ public class Ransac<Model, Point> implements ModelMatcher<Model,Point> {
 		// configure internal data structures
 		initialize(dataSet);
 
+		// the number of iterations can be reduced when adaptive termination is used
+		int iterationLimit = maxIterations;
+
 		// iterate until it has exhausted all iterations or stop if the entire data set
 		// is in the inlier set
-		for (int i = 0; i < maxIterations && bestFitPoints.size() != dataSet.size(); i++) {
+		for (iterations = 0; iterations < iterationLimit && numBest != dataSet.size(); iterations++) {
 			// sample the a small set of points
-			randomDraw(dataSet, numSample, initialSample, rand);
+			drawSample(dataSet);
 			
 			// get the candidate(s) for this sample set
 			if( modelGenerator.generate(initialSample, candidateParam ) ) {
 
+				// quickly discard bad models
+				if( !preTest(dataSet, thresholdFit, candidateParam) )
+					continue;
+
 				// see if it can find a model better than the current best one
 				selectMatchSet(dataSet, thresholdFit, candidateParam);
 
 				// save this results
-				if (bestFitPoints.size() < candidatePoints.size()) {
+				if (numBest < numCandidate) {
 					swapCandidateWithBest();
+
+					if( confidence > 0 ) {
+						double inlierFrac = numBest/(double)dataSet.size();
+						int required = requiredIterations(inlierFrac, numSample + numPreTest, confidence);
+						iterationLimit = Math.min(maxIterations, required);
+					}
 				}
 			}
 		}
 
-		return bestFitPoints.size() > 0;
+		// create the list of inliers
+		bestFitPoints.clear();
+		for( int i = 0; i < numBest; i++ ) {
+			bestFitPoints.add( dataSet.get(bestMatchToInput[i]));
+		}
+
+		return numBest > 0;
 	}
 
 	/**
@@ -145,59 +198,124 @@ public class Ransac<Model, Point> implements ModelMatcher<Model,Point> {
 	 */
 	public void initialize( List<Point> dataSet ) {
 		bestFitPoints.clear();
+		numBest = 0;
+		numCandidate = 0;
+
+		final int N = dataSet.size();
+		if( N > matchToInput.length ) {
+			matchToInput = new int[ N ];
+			bestMatchToInput = new int[ N ];
+			permutation = new int[ N ];
+		}
 
-		if( dataSet.size() > matchToInput.length ) {
-			matchToInput = new int[ dataSet.size() ];
-			bestMatchToInput = new int[ dataSet.size() ];
+		for( int i = 0; i < N; i++ ) {
+			permutation[i] = i;
 		}
 	}
 
 	/**
-	 * Two different methods are used to select the initial set of points depending on
-	 * if the data set is much larger or smaller than the initial sample size
+	 * Randomly selects points from the data set and puts them into initialSample.
 	 */
-	public static <T> void randomDraw(List<T> dataSet, int numSample,
-									  List<T> initialSample, Random rand) {
+	protected void drawSample( List<Point> dataSet ) {
+		randomDraw(permutation, dataSet.size(), numSample, rand);
+
 		initialSample.clear();
+		for( int i = 0; i < numSample; i++ ) {
+			initialSample.add( dataSet.get(permutation[i]));
+		}
+	}
 
-		if (dataSet.size() > numSample * 10) {
-			// randomly select points until a set is found
-			while (initialSample.size() < numSample) {
-				T s = dataSet.get(rand.nextInt(dataSet.size()));
+	/**
+	 * Randomly selects indexes without replacement using a partial Fisher-Yates shuffle.  After being called
+	 * the first 'numSample' elements in the permutation are the selected indexes.  The permutation can be reused
+	 * across calls without being reset.  Takes O(numSample) time.
+	 *
+	 * @param permutation Array containing each index from 0 to N-1 exactly once.  Modified.
+	 * @param N Number of indexes which can be selected.
+	 * @param numSample Number of indexes which are to be selected.
+	 * @param rand Random number generator.
+	 */
+	public static void randomDraw( int []permutation , int N , int numSample , Random rand ) {
+		for( int i = 0; i < numSample; i++ ) {
+			int j = i + rand.nextInt(N - i);
 
-				if (!initialSample.contains(s)) {
-					initialSample.add(s);
-				}
-			}
-		} else {
-			// shuffle the data set
-			Collections.shuffle(dataSet, rand);
+			int tmp = permutation[i];
+			permutation[i] = permutation[j];
+			permutation[j] = tmp;
+		}
+	}
 
-			for (int i = 0; i < numSample; i++) {
-				initialSample.add(dataSet.get(i));
-			}
+	/**
+	 * Computes the number of iterations needed to select at least one sample set which contains only inliers.
+	 *
+	 * k = log(1-p)/log(1-w<sup>n</sup>)
+	 *
+	 * @param inlierFraction Fraction of the points which are inliers, w.
+	 * @param sampleSize Number of points which must all be inliers, n.
+	 * @param confidence Probability that an all inlier set is drawn, p.  0 &lt; p &lt; 1
+	 * @return Number of iterations.
+	 */
+	public static int requiredIterations( double inlierFraction , int sampleSize , double confidence ) {
+		double probGood = Math.pow(inlierFraction, sampleSize);
+
+		if( probGood >= 1 )
+			return 1;
+		if( probGood <= 0 )
+			return Integer.MAX_VALUE;
+
+		double k = Math.ceil(Math.log(1 - confidence)/Math.log(1 - probGood));
+
+		if( k >= Integer.MAX_VALUE )
+			return Integer.MAX_VALUE;
+
+		return Math.max(1,(int)k);
+	}
+
+	/**
+	 * Checks the model against a few randomly selected points.  If any of them are not inliers then the
+	 * model is rejected.
+	 *
+	 * @return true if the model passed the test or the test is turned off.
+	 */
+	protected boolean preTest( List<Point> dataSet, double threshold, Model param ) {
+		if( numPreTest <= 0 )
+			return true;
+
+		modelDistance.setModel(param);
+
+		for( int i = 0; i < numPreTest; i++ ) {
+			Point point = dataSet.get(rand.nextInt(dataSet.size()));
+
+			if( modelDistance.computeDistance(point) >= threshold )
+				return false;
 		}
+
+		return true;
 	}
 
 	/**
 	 * Looks for points in the data set which closely match the current best
-	 * fit model in the optimizer.
+	 * fit model in the optimizer.  Stops early if the model can't have more
+	 * inliers than the best model.
 	 *
 	 * @param dataSet The points being considered
-	 * @return true if enough points were matched, false otherwise
 	 */
 	@SuppressWarnings({"ForLoopReplaceableByForEach"})
 	protected void selectMatchSet(List<Point> dataSet, double threshold, Model param) {
-		candidatePoints.clear();
+		numCandidate = 0;
 		modelDistance.setModel(param);
 
-		for (int i = 0; i < dataSet.size(); i++) {
+		final int N = dataSet.size();
+
+		for (int i = 0; i < N; i++) {
 			Point point = dataSet.get(i);
 
 			double distance = modelDistance.computeDistance(point);
 			if (distance < threshold) {
-				matchToInput[candidatePoints.size()] = i;
-				candidatePoints.add(point);
+				matchToInput[numCandidate++] = i;
+			} else if( numCandidate + N - i - 1 <= numBest ) {
+				// even if all the remaining points are inliers it can't be better
+				return;
 			}
 		}
 	}
@@ -206,9 +324,7 @@ public class Ransac<Model, Point> implements ModelMatcher<Model,Point> {
 	 * Turns the current candidates into the best ones.
 	 */
 	protected void swapCandidateWithBest() {
-		List<Point> tempPts = candidatePoints;
-		candidatePoints = bestFitPoints;
-		bestFitPoints = tempPts;
+		numBest = numCandidate;
 
 		int tempIndex[] = matchToInput;
 		matchToInput = bestMatchToInput;
@@ -236,7 +352,7 @@ public class Ransac<Model, Point> implements ModelMatcher<Model,Point> {
 
 	@Override
 	public double getError() {
-		return bestFitPoints.size();
+		return numBest;
 	}
 
 	public int getMaxIterations() {
@@ -261,6 +377,42 @@ public class Ransac<Model, Point> implements ModelMatcher<Model,Point> {
 		this.numSample = numSample;
 	}
 
+	public double getConfidence() {
+		return confidence;
+	}
+
+	/**
+	 * Turns on adaptive termination.  The number of iterations is reduced as more inliers are found.
+	 *
+	 * @param confidence Desired probability of drawing a sample with only inliers.  Try 0.99.  0 to turn off.
+	 */
+	public void setConfidence(double confidence) {
+		if( confidence < 0 || confidence >= 1 )
+			throw new IllegalArgumentException("Confidence must be 0 <= confidence < 1");
+		this.confidence = confidence;
+	}
+
+	public int getNumPreTest() {
+		return numPreTest;
+	}
+
+	/**
+	 * Specifies the number of randomly selected points which must be inliers before the model is scored
+	 * against all the points.
+	 *
+	 * @param numPreTest Number of points in the pre-test.  Try 1.  0 to turn off.
+	 */
+	public void setNumPreTest(int numPreTest) {
+		this.numPreTest = numPreTest;
+	}
+
+	/**
+	 * Number of iterations performed the last time {@link #process(java.util.List)} was called.
+	 */
+	public int getIterations() {
+		return iterations;
+	}
+
 	public double getThresholdFit() {
 		return thresholdFit;
 	}
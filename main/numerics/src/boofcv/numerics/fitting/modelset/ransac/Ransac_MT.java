@@ -0,0 +1,528 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.numerics.fitting.modelset.ransac;
+
+import boofcv.numerics.fitting.modelset.DistanceFromModel;
+import boofcv.numerics.fitting.modelset.ModelGenerator;
+import boofcv.numerics.fitting.modelset.ModelHypothesisFactory;
+import boofcv.numerics.fitting.modelset.ModelMatcher;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>
+ * Concurrent implementation of {@link Ransac}.  Hypotheses are generated and scored by several threads at
+ * once.  Each thread has its own {@link ModelGenerator} and {@link DistanceFromModel}, which are created by
+ * a {@link ModelHypothesisFactory}.
+ * </p>
+ *
+ * <p>
+ * The random sample used by each iteration is seeded from the iteration's index.  The selected model is the
+ * one with the most inliers and in the case of a tie the one from the lowest iteration.  Thus, for the same
+ * seed, the same model is found independent of the number of threads.
+ * </p>
+ *
+ * <p>
+ * Adaptive termination and the T<sub>d,d</sub> pre-test are supported, see {@link #setConfidence(double)} and
+ * {@link #setNumPreTest(int)}.  Each worker records the iterations in which it improved upon its own best model.
+ * Once all the workers are done these are replayed in iteration order to find the iteration a single thread
+ * would have stopped at, and only models from before it are considered.  A worker stops once it can be sure
+ * that the remaining iterations will be ignored, so a few extra iterations can be evaluated but the results are
+ * still independent of the number of threads.
+ * </p>
+ *
+ * <p>
+ * All but one of the workers are run by a private thread pool, the last is run in the calling thread.  Idle
+ * threads in the pool time out, so an instance which is no longer used doesn't hold onto any threads.  This
+ * package can't depend on BoofConcurrency, which is in the image processing package.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class Ransac_MT<Model, Point> implements ModelMatcher<Model,Point> {
+	// used to select the seed for each call to process
+	private Random rand;
+
+	// how many points are drawn to generate the model
+	private int numSample;
+	// how close a point needs to be considered part of the model
+	private double thresholdFit;
+	// the maximum number of iterations it will perform
+	private int maxIterations;
+
+	// confidence that a sample with all inliers has been drawn.  If zero then adaptive termination is off
+	private double confidence = 0;
+	// number of randomly selected points checked before a hypothesis is scored.  If zero then it is off
+	private int numPreTest = 0;
+
+	// one worker for each thread
+	private List<Worker> workers = new ArrayList<Worker>();
+
+	// iterations at or after this one do not need to be evaluated
+	private AtomicInteger iterationLimit = new AtomicInteger();
+	// number of iterations a single thread would have performed the last time process was called
+	private int iterations;
+
+	// improvements found by all the workers, sorted by iteration
+	private List<Hypothesis> improvements = new ArrayList<Hypothesis>();
+	private Comparator<Hypothesis> byIteration = new Comparator<Hypothesis>() {
+		@Override
+		public int compare(Hypothesis a, Hypothesis b) {
+			return a.iteration < b.iteration ? -1 : (a.iteration > b.iteration ? 1 : 0);
+		}
+	};
+
+	// the best model and its inliers
+	private Model bestFitParam;
+	private List<Point> bestFitPoints = new ArrayList<Point>();
+	private int []bestMatchToInput = new int[1];
+	// returned as the model if none was found
+	private Model emptyParam;
+
+	// threads which process all but one of the workers
+	private ExecutorService pool;
+
+	/**
+	 * Creates a new instance of the ransac algorithm.  The number of points sampled will default to the
+	 * minimum number.  To override this default invoke {@link #setNumSample(int)}.
+	 *
+	 * @param randSeed		 The random seed used by the random number generator.
+	 * @param factory		  Creates the model generator and distance function for each thread.
+	 * @param maxIterations	The maximum number of iterations the RANSAC algorithm will perform.
+	 * @param thresholdFit	 How close of a fit a points needs to be to the model to be considered a fit.
+	 * @param numThreads	   Number of threads used to process hypotheses.
+	 */
+	public Ransac_MT(long randSeed,
+					 ModelHypothesisFactory<Model, Point> factory,
+					 int maxIterations,
+					 double thresholdFit,
+					 int numThreads ) {
+		if( numThreads < 1 )
+			throw new IllegalArgumentException("Number of threads must be one or more");
+
+		this.rand = new Random(randSeed);
+		this.maxIterations = maxIterations;
+		this.thresholdFit = thresholdFit;
+
+		for( int i = 0; i < numThreads; i++ ) {
+			workers.add( new Worker(factory.createGenerator(),factory.createDistance()));
+		}
+		this.numSample = workers.get(0).generator.getMinimumPoints();
+		this.emptyParam = workers.get(0).generator.createModelInstance();
+		this.bestFitParam = emptyParam;
+	}
+
+	@Override
+	public boolean process(List<Point> dataSet) {
+		bestFitPoints.clear();
+		bestFitParam = emptyParam;
+		iterations = 0;
+
+		// see if it has the minimum number of points
+		if (dataSet.size() < workers.get(0).generator.getMinimumPoints() || dataSet.size() < numSample )
+			return false;
+
+		long baseSeed = rand.nextLong();
+		iterationLimit.set(maxIterations);
+
+		for( int i = 0; i < workers.size(); i++ ) {
+			workers.get(i).initialize(dataSet,baseSeed,i);
+		}
+
+		// the calling thread processes the first worker
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+		for( int i = 1; i < workers.size(); i++ ) {
+			futures.add( getPool().submit(workers.get(i)));
+		}
+		workers.get(0).run();
+		waitForAll(futures);
+
+		Hypothesis best = selectBest(dataSet.size());
+		if( best == null )
+			return false;
+
+		// find the inliers of the selected model
+		bestFitParam = best.model;
+		if( bestMatchToInput.length < dataSet.size() )
+			bestMatchToInput = new int[ dataSet.size() ];
+
+		DistanceFromModel<Model,Point> distance = workers.get(0).distance;
+		distance.setModel(bestFitParam);
+		for( int i = 0; i < dataSet.size(); i++ ) {
+			Point point = dataSet.get(i);
+			if( distance.computeDistance(point) < thresholdFit ) {
+				bestMatchToInput[bestFitPoints.size()] = i;
+				bestFitPoints.add(point);
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Replays the improvements found by the workers in iteration order, the same as a single thread would have
+	 * found them.  Every iteration before the one a single thread would stop at has been evaluated.
+	 *
+	 * @return The selected hypothesis or null if none was found
+	 */
+	private Hypothesis selectBest( int N ) {
+		improvements.clear();
+		for( int i = 0; i < workers.size(); i++ ) {
+			improvements.addAll(workers.get(i).history);
+		}
+		Collections.sort(improvements,byIteration);
+
+		Hypothesis best = null;
+		int limit = maxIterations;
+		for( int i = 0; i < improvements.size(); i++ ) {
+			Hypothesis h = improvements.get(i);
+			if( h.iteration >= limit )
+				break;
+			if( best == null || h.inliers > best.inliers ) {
+				best = h;
+				limit = Math.min(limit, stopIteration(h.iteration, h.inliers, N));
+			}
+		}
+		iterations = limit;
+
+		return best;
+	}
+
+	/**
+	 * Returns the iteration at which it can stop after a model with the specified number of inliers has been
+	 * found at the specified iteration.
+	 */
+	private int stopIteration( int iteration , int inliers , int N ) {
+		if( inliers == N )
+			return iteration + 1;
+		if( confidence <= 0 )
+			return maxIterations;
+
+		int required = Ransac.requiredIterations(inliers/(double)N, numSample + numPreTest, confidence);
+		return Math.min(maxIterations, Math.max(iteration + 1, required));
+	}
+
+	/**
+	 * Blocks until all the futures have finished.  If any of them threw an exception it is rethrown.
+	 */
+	private static void waitForAll( List<Future<?>> futures ) {
+		RuntimeException exception = null;
+		for( Future<?> f : futures ) {
+			try {
+				f.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				if( exception == null )
+					exception = new RuntimeException(e);
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if( cause instanceof Error )
+					throw (Error)cause;
+				if( exception == null )
+					exception = cause instanceof RuntimeException ?
+							(RuntimeException)cause : new RuntimeException(cause);
+			}
+		}
+		if( exception != null )
+			throw exception;
+	}
+
+	private ExecutorService getPool() {
+		if( pool == null ) {
+			int numThreads = workers.size()-1;
+			ThreadPoolExecutor pool = new ThreadPoolExecutor(numThreads,numThreads,1, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "Ransac_MT");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+			// don't keep the threads around if it isn't being used
+			pool.allowCoreThreadTimeOut(true);
+			this.pool = pool;
+		}
+		return pool;
+	}
+
+	/**
+	 * A model which was better than all the previous models found by the same worker
+	 */
+	private class Hypothesis {
+		int iteration;
+		int inliers;
+		Model model;
+	}
+
+	/**
+	 * Evaluates every N<sup>th</sup> iteration, where N is the number of workers.
+	 */
+	private class Worker implements Runnable {
+		ModelGenerator<Model,Point> generator;
+		DistanceFromModel<Model,Point> distance;
+
+		Random rand = new Random();
+
+		// permutation of input indexes.  Restored to the identity after each sample is drawn
+		int permutation[] = new int[1];
+		List<Point> initialSample = new ArrayList<Point>();
+
+		// number of inliers in the candidate and best models
+		int numCandidate;
+		int numBest;
+
+		Model candidateParam;
+
+		// each time a better model was found, in order of iteration
+		List<Hypothesis> history = new ArrayList<Hypothesis>();
+		// recycled hypotheses
+		List<Hypothesis> unused = new ArrayList<Hypothesis>();
+
+		List<Point> dataSet;
+		long baseSeed;
+		int firstIteration;
+
+		private Worker(ModelGenerator<Model, Point> generator, DistanceFromModel<Model, Point> distance) {
+			this.generator = generator;
+			this.distance = distance;
+
+			candidateParam = generator.createModelInstance();
+		}
+
+		public void initialize( List<Point> dataSet , long baseSeed , int firstIteration ) {
+			this.dataSet = dataSet;
+			this.baseSeed = baseSeed;
+			this.firstIteration = firstIteration;
+
+			numBest = 0;
+			unused.addAll(history);
+			history.clear();
+
+			final int N = dataSet.size();
+			if( N > permutation.length ) {
+				permutation = new int[ N ];
+			}
+			for( int i = 0; i < N; i++ ) {
+				permutation[i] = i;
+			}
+		}
+
+		@Override
+		public void run() {
+			final int N = dataSet.size();
+			final int step = workers.size();
+
+			for( int i = firstIteration; i < iterationLimit.get(); i += step ) {
+				rand.setSeed(baseSeed + i*0x9E3779B97F4A7C15L);
+				drawSample();
+
+				if( !generator.generate(initialSample, candidateParam) )
+					continue;
+
+				// quickly discard bad models
+				if( !preTest() )
+					continue;
+
+				selectMatchSet();
+
+				if( numBest < numCandidate ) {
+					numBest = numCandidate;
+					saveCandidate(i);
+
+					// Any better model found by another worker at an earlier iteration would stop
+					// a single thread at or before this iteration too
+					int stop = stopIteration(i, numBest, N);
+					int s;
+					while( stop < (s = iterationLimit.get()) && !iterationLimit.compareAndSet(s,stop) ) {}
+				}
+			}
+		}
+
+		/**
+		 * Randomly selects points without replacement and without modifying the data set.  The permutation
+		 * is restored afterwards so that the sample only depends on the seed and not on which iterations
+		 * this worker processed before.
+		 */
+		private void drawSample() {
+			Ransac.randomDraw(permutation, dataSet.size(), numSample, rand);
+
+			initialSample.clear();
+			for( int i = 0; i < numSample; i++ ) {
+				initialSample.add(dataSet.get(permutation[i]));
+			}
+
+			// Starting from the identity, the only elements past numSample which were modified are at
+			// the selected indexes
+			for( int i = 0; i < numSample; i++ ) {
+				int index = permutation[i];
+				if( index >= numSample )
+					permutation[index] = index;
+			}
+			for( int i = 0; i < numSample; i++ ) {
+				permutation[i] = i;
+			}
+		}
+
+		/**
+		 * Checks the model against a few randomly selected points.  If any of them are not inliers then the
+		 * model is rejected.
+		 */
+		private boolean preTest() {
+			if( numPreTest <= 0 )
+				return true;
+
+			distance.setModel(candidateParam);
+
+			for( int i = 0; i < numPreTest; i++ ) {
+				Point point = dataSet.get(rand.nextInt(dataSet.size()));
+
+				if( distance.computeDistance(point) >= thresholdFit )
+					return false;
+			}
+
+			return true;
+		}
+
+		/**
+		 * Counts inliers to the candidate model.  Stops early if it can't be better than the best model.
+		 */
+		private void selectMatchSet() {
+			numCandidate = 0;
+			distance.setModel(candidateParam);
+
+			final int N = dataSet.size();
+
+			for (int i = 0; i < N; i++) {
+				if( distance.computeDistance(dataSet.get(i)) < thresholdFit ) {
+					numCandidate++;
+				} else if( numCandidate + N - i - 1 <= numBest ) {
+					return;
+				}
+			}
+		}
+
+		/**
+		 * Adds the candidate model to the history and replaces it with a model which isn't in use
+		 */
+		private void saveCandidate( int iteration ) {
+			Hypothesis h = unused.isEmpty() ? new Hypothesis() : unused.remove(unused.size()-1);
+			h.iteration = iteration;
+			h.inliers = numBest;
+
+			Model m = h.model;
+			h.model = candidateParam;
+			candidateParam = m != null ? m : generator.createModelInstance();
+
+			history.add(h);
+		}
+	}
+
+	@Override
+	public List<Point> getMatchSet() {
+		return bestFitPoints;
+	}
+
+	@Override
+	public int getInputIndex(int matchIndex) {
+		return bestMatchToInput[matchIndex];
+	}
+
+	@Override
+	public Model getModel() {
+		return bestFitParam;
+	}
+
+	@Override
+	public double getError() {
+		return bestFitPoints.size();
+	}
+
+	public int getMaxIterations() {
+		return maxIterations;
+	}
+
+	public void setMaxIterations(int maxIterations) {
+		this.maxIterations = maxIterations;
+	}
+
+	public int getNumSample() {
+		return numSample;
+	}
+
+	/**
+	 * Specifies the number of points which are sampled to generate a model hypothesis.
+	 *
+	 * @param numSample Number of points sampled.
+	 */
+	public void setNumSample(int numSample) {
+		this.numSample = numSample;
+	}
+
+	public double getConfidence() {
+		return confidence;
+	}
+
+	/**
+	 * Turns on adaptive termination.  The number of iterations is reduced as more inliers are found.
+	 *
+	 * @param confidence Desired probability of drawing a sample with only inliers.  Try 0.99.  0 to turn off.
+	 */
+	public void setConfidence(double confidence) {
+		if( confidence < 0 || confidence >= 1 )
+			throw new IllegalArgumentException("Confidence must be 0 <= confidence < 1");
+		this.confidence = confidence;
+	}
+
+	public int getNumPreTest() {
+		return numPreTest;
+	}
+
+	/**
+	 * Specifies the number of randomly selected points which must be inliers before the model is scored
+	 * against all the points.
+	 *
+	 * @param numPreTest Number of points in the pre-test.  Try 1.  0 to turn off.
+	 */
+	public void setNumPreTest(int numPreTest) {
+		this.numPreTest = numPreTest;
+	}
+
+	/**
+	 * Number of iterations a single thread would have performed the last time {@link #process(java.util.List)}
+	 * was called.  Slightly more iterations might have been evaluated by the workers.
+	 */
+	public int getIterations() {
+		return iterations;
+	}
+
+	public double getThresholdFit() {
+		return thresholdFit;
+	}
+
+	public void setThresholdFit(double thresholdFit) {
+		this.thresholdFit = thresholdFit;
+	}
+
+	public int getNumThreads() {
+		return workers.size();
+	}
+}
@@ -19,6 +19,15 @@
 package boofcv.numerics.fitting.modelset.lmeds;
 
 import boofcv.numerics.fitting.modelset.*;
+import boofcv.numerics.fitting.modelset.distance.DistanceFromMeanModel;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 
 /**
@@ -37,4 +46,54 @@ public class TestLeastMedianOfSquares extends GenericModelSetTests {
 												int minPoints, double fitThreshold) {
 		return new LeastMedianOfSquares<double[],Double>(4234,10,10000,fitThreshold,0.9,generator,distance);
 	}
+
+	/**
+	 * Preemptive scoring should not change the solution
+	 */
+	@Test
+	public void preemptive() {
+		List<Double> samples = createSamples();
+
+		LeastMedianOfSquares<double[],Double> alg = createSimple();
+		assertTrue(alg.process(samples));
+		double expected = alg.getModel()[0];
+		double expectedError = alg.getError();
+
+		alg = createSimple();
+		alg.setPreemptive(true);
+		assertTrue(alg.process(samples));
+		assertEquals(expected, alg.getModel()[0], 1e-12);
+		assertEquals(expectedError, alg.getError(), 1e-12);
+	}
+
+	/**
+	 * Adaptive termination should find a good solution with fewer cycles
+	 */
+	@Test
+	public void adaptive() {
+		List<Double> samples = createSamples();
+
+		LeastMedianOfSquares<double[],Double> alg = createSimple();
+		alg.setConfidence(0.99);
+		assertTrue(alg.process(samples));
+		assertTrue(alg.getCycles() < 100);
+		assertEquals(2.5, alg.getModel()[0], 0.15);
+	}
+
+	private LeastMedianOfSquares<double[],Double> createSimple() {
+		MeanModelFitter fitter = new MeanModelFitter();
+		return new LeastMedianOfSquares<double[],Double>(4234,2,500,0.2,0,fitter,new DistanceFromMeanModel());
+	}
+
+	private List<Double> createSamples() {
+		Random rand = new Random(234);
+		List<Double> samples = new ArrayList<Double>();
+		for (int i = 0; i < 180; i++) {
+			samples.add(2.5 + (rand.nextDouble() - 0.5) * 0.3);
+		}
+		for (int i = 0; i < 20; i++) {
+			samples.add(10 + rand.nextDouble() * 50);
+		}
+		return samples;
+	}
 }
@@ -19,6 +19,7 @@
 package boofcv.numerics.fitting.modelset.ransac;
 
 import boofcv.numerics.fitting.modelset.*;
+import boofcv.numerics.fitting.modelset.distance.DistanceFromMeanModel;
 import org.junit.Test;
 
 import java.util.ArrayList;
@@ -56,85 +57,70 @@ public class TestRansac extends GenericModelSetTests {
 	 * See if it correctly randomly selects points when the initial set size is
 	 * similar to the data set size
 	 */
-	@SuppressWarnings({"NumberEquality"})
 	@Test
 	public void randomDraw_large() {
-		List<Integer> dataSet = new ArrayList<Integer>();
-
-		for (int i = 0; i < 200; i++) {
-			dataSet.add(i);
-		}
-
-		List<Integer> initSet = new ArrayList<Integer>();
-		Ransac.randomDraw(dataSet, 150, initSet, rand);
-
-		assertEquals(150, initSet.size());
-
-		// make sure the item is in the original data set and that it is only contained once
-		int numTheSame = 0;
-		for (int i = 0; i < initSet.size(); i++) {
-			Integer o = initSet.get(i);
-			// make sure it is in the original data set
-			assertTrue(dataSet.contains(o));
-
-			// make sure the order has been changed
-			if (o == i)
-				numTheSame++;
-
-			// make sure only one copy is in the init set
-			for (int j = i + 1; j < initSet.size(); j++) {
-				if (o == initSet.get(j)) {
-					fail("Multiple copies in initSet");
-				}
-			}
-		}
-
-		// if the order has been randomized then very few should be in the original order
-		assertTrue(numTheSame < initSet.size() * 0.9);
-
-		// call get init set once more and see if it was cleared
-		Ransac.randomDraw(dataSet, 150, initSet, rand);
-		assertEquals(150, initSet.size());
+		checkRandomDraw(200, 150);
 	}
 
 	/**
 	 * See if it correctly randomly selects points when the initial set size is
 	 * much smaller than the data set size
 	 */
-	@SuppressWarnings({"NumberEquality"})
 	@Test
 	public void randomDraw_small() {
-		List<Integer> dataSet = new ArrayList<Integer>();
+		checkRandomDraw(200, 15);
+	}
 
-		for (int i = 0; i < 200; i++) {
-			dataSet.add(i);
+	private void checkRandomDraw( int N , int numSample ) {
+		int permutation[] = new int[N];
+		for (int i = 0; i < N; i++) {
+			permutation[i] = i;
 		}
 
-		List<Integer> initSet = new ArrayList<Integer>();
-		Ransac.randomDraw(dataSet, 15, initSet, rand);
-
-		assertEquals(15, initSet.size());
+		int numTheSame = 0;
+		for( int trial = 0; trial < 2; trial++ ) {
+			Ransac.randomDraw(permutation, N, numSample, rand);
+
+			// make sure only one copy is in the sample
+			boolean found[] = new boolean[N];
+			for (int i = 0; i < numSample; i++) {
+				int o = permutation[i];
+				assertTrue(o >= 0 && o < N);
+				assertFalse("Multiple copies in sample", found[o]);
+				found[o] = true;
+
+				if( o == i )
+					numTheSame++;
+			}
 
-		// make sure the item is in the original data set and that it is only contained once
-		for (int i = 0; i < initSet.size(); i++) {
-			Integer o = initSet.get(i);
-			// make sure it is in the original dataset
-			assertTrue(dataSet.contains(o));
+			// it must still be a permutation so that it can be used again
+			for (int i = numSample; i < N; i++) {
+				assertFalse(found[permutation[i]]);
+				found[permutation[i]] = true;
+			}
+		}
 
-			// make sure the order has been changed
-			assertTrue(dataSet.get(i) != o);
+		// if the order has been randomized then very few should be in the original order
+		assertTrue(numTheSame < numSample * 0.9);
+	}
 
-			// make sure only one copy is in the init set
-			for (int j = i + 1; j < initSet.size(); j++) {
-				if (o == initSet.get(j)) {
-					fail("Multiple copies in initSet");
-				}
-			}
+	/**
+	 * The input data set should not be modified
+	 */
+	@Test
+	public void inputNotModified() {
+		List<Double> samples = new ArrayList<Double>();
+		for (int i = 0; i < 20; i++) {
+			samples.add(2.5 + (rand.nextDouble() - 0.5) * 0.3);
 		}
+		List<Double> copy = new ArrayList<Double>(samples);
+
+		Ransac<double[],Double> ransac =
+				new Ransac<double[],Double>(344, new MeanModelFitter(), new DistanceFromMeanModel(), 50, 0.2);
+		ransac.setNumSample(15);
+		assertTrue(ransac.process(samples));
 
-		// call get init set once more and see if it was cleared
-		Ransac.randomDraw(dataSet, 15, initSet, rand);
-		assertEquals(15, initSet.size());
+		assertEquals(copy, samples);
 	}
 
 	/**
@@ -159,7 +145,80 @@ public class TestRansac extends GenericModelSetTests {
 
 		ransac.selectMatchSet(dataSet, 4, param);
 
-		assertTrue(ransac.candidatePoints.size() == 7);
+		assertEquals(7, ransac.numCandidate);
+	}
+
+	/**
+	 * If the candidate can't have more inliers than the best set then it should stop early
+	 */
+	@Test
+	public void selectMatchSet_earlyExit() {
+		List<Integer> dataSet = new ArrayList<Integer>();
+
+		for (int i = 0; i < 200; i++) {
+			dataSet.add(i);
+		}
+
+		DebugModelStuff stuff = new DebugModelStuff(50);
+		Ransac<double[],Integer> ransac = new Ransac<double[],Integer>(234,stuff,stuff,20,1);
+		ransac.matchToInput = new int[ dataSet.size()];
+
+		// the best set contains all but 10 points
+		ransac.numBest = 190;
+
+		// inliers are at the very end, so it should give up before it sees them
+		ransac.selectMatchSet(dataSet, 4, new double[]{197});
+		assertEquals(0, ransac.numCandidate);
+
+		// inliers are at the start and it should find all of them
+		ransac.selectMatchSet(dataSet, 4, new double[]{2});
+		assertEquals(6, ransac.numCandidate);
+	}
+
+	@Test
+	public void requiredIterations() {
+		// compare against a hand computed solution
+		int expected = (int)Math.ceil(Math.log(1-0.99)/Math.log(1-Math.pow(0.5,4)));
+		assertEquals(expected, Ransac.requiredIterations(0.5, 4, 0.99));
+
+		// more inliers should require fewer iterations
+		assertTrue(Ransac.requiredIterations(0.9, 4, 0.99) < expected);
+		// no inliers and it can never be done
+		assertEquals(Integer.MAX_VALUE, Ransac.requiredIterations(0, 4, 0.99));
+		// all inliers and only one iteration is needed
+		assertEquals(1, Ransac.requiredIterations(1, 4, 0.99));
+	}
+
+	/**
+	 * Adaptive termination and the pre-test should find the same solution in fewer iterations
+	 */
+	@Test
+	public void adaptiveAndPreTest() {
+		List<Double> samples = new ArrayList<Double>();
+		for (int i = 0; i < 180; i++) {
+			samples.add(2.5 + (rand.nextDouble() - 0.5) * 0.3);
+		}
+		for (int i = 0; i < 20; i++) {
+			samples.add(10 + rand.nextDouble() * 50);
+		}
+
+		DistanceFromMeanModel dist = new DistanceFromMeanModel();
+		MeanModelFitter fitter = new MeanModelFitter();
+
+		Ransac<double[],Double> ransac = new Ransac<double[],Double>(344, fitter, dist, 500, 0.2);
+		ransac.setNumSample(2);
+		assertTrue(ransac.process(samples));
+		assertEquals(500, ransac.getIterations());
+		int numMatched = ransac.getMatchSet().size();
+
+		ransac = new Ransac<double[],Double>(344, fitter, dist, 500, 0.2);
+		ransac.setNumSample(2);
+		ransac.setConfidence(0.99);
+		ransac.setNumPreTest(1);
+		assertTrue(ransac.process(samples));
+		assertTrue(ransac.getIterations() < 50);
+		assertTrue(ransac.getMatchSet().size() >= numMatched*0.95);
+		assertEquals(2.5, ransac.getModel()[0], 0.05);
 	}
 
 	public static class DebugModelStuff implements
@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.numerics.fitting.modelset.ransac;
+
+import boofcv.numerics.fitting.modelset.*;
+import boofcv.numerics.fitting.modelset.distance.DistanceFromMeanModel;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+
+/**
+ * @author Peter Abeles
+ */
+public class TestRansac_MT extends GenericModelSetTests {
+
+	Random rand = new Random(234);
+
+	public TestRansac_MT() {
+		configure(0.9, 0.05, true);
+	}
+
+	@Override
+	public ModelMatcher<double[],Double> createModelMatcher(DistanceFromModel<double[],Double> distance,
+															ModelGenerator<double[],Double> generator,
+															ModelFitter<double[],Double> fitter,
+															int minPoints,
+															double fitThreshold) {
+		Ransac_MT<double[],Double> ret = new Ransac_MT<double[],Double>(344, new Factory(), 200, fitThreshold, 3);
+		ret.setNumSample(minPoints);
+
+		return ret;
+	}
+
+	/**
+	 * The same solution should be found independent of the number of threads
+	 */
+	@Test
+	public void independentOfThreads() {
+		for( int trial = 0; trial < 5; trial++ ) {
+			List<Double> samples = new ArrayList<Double>();
+			for (int i = 0; i < 150; i++) {
+				samples.add(2.5 + (rand.nextDouble() - 0.5) * 0.3);
+			}
+			for (int i = 0; i < 50; i++) {
+				samples.add(10 + rand.nextDouble() * 50);
+			}
+
+			Ransac_MT<double[],Double> expected = new Ransac_MT<double[],Double>(344, new Factory(), 100, 0.2, 1);
+			expected.setNumSample(3);
+			assertTrue(expected.process(samples));
+
+			for( int numThreads = 2; numThreads <= 4; numThreads++ ) {
+				Ransac_MT<double[],Double> alg = new Ransac_MT<double[],Double>(344, new Factory(), 100, 0.2, numThreads);
+				alg.setNumSample(3);
+				assertTrue(alg.process(samples));
+
+				assertEquals(expected.getModel()[0], alg.getModel()[0], 1e-12);
+				assertEquals(expected.getMatchSet().size(), alg.getMatchSet().size());
+				for( int i = 0; i < alg.getMatchSet().size(); i++ ) {
+					assertEquals(expected.getInputIndex(i), alg.getInputIndex(i));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adaptive termination and the pre-test should stop early and still be independent of the number of threads
+	 */
+	@Test
+	public void adaptiveAndPreTest() {
+		List<Double> samples = new ArrayList<Double>();
+		for (int i = 0; i < 180; i++) {
+			samples.add(2.5 + (rand.nextDouble() - 0.5) * 0.3);
+		}
+		for (int i = 0; i < 20; i++) {
+			samples.add(10 + rand.nextDouble() * 50);
+		}
+
+		Ransac_MT<double[],Double> expected = createAdaptive(1);
+		assertTrue(expected.process(samples));
+		assertTrue(expected.getIterations() < 50);
+		assertEquals(2.5, expected.getModel()[0], 0.05);
+
+		for( int numThreads = 2; numThreads <= 4; numThreads++ ) {
+			Ransac_MT<double[],Double> alg = createAdaptive(numThreads);
+			assertTrue(alg.process(samples));
+
+			assertEquals(expected.getIterations(), alg.getIterations());
+			assertEquals(expected.getModel()[0], alg.getModel()[0], 1e-12);
+			assertEquals(expected.getMatchSet().size(), alg.getMatchSet().size());
+			for( int i = 0; i < alg.getMatchSet().size(); i++ ) {
+				assertEquals(expected.getInputIndex(i), alg.getInputIndex(i));
+			}
+		}
+	}
+
+	private Ransac_MT<double[],Double> createAdaptive( int numThreads ) {
+		Ransac_MT<double[],Double> alg = new Ransac_MT<double[],Double>(344, new Factory(), 500, 0.2, numThreads);
+		alg.setNumSample(2);
+		alg.setConfidence(0.99);
+		alg.setNumPreTest(1);
+		return alg;
+	}
+
+	/**
+	 * If no model is found the results should be empty, the same as with Ransac
+	 */
+	@Test
+	public void noModelFound() {
+		List<Double> samples = new ArrayList<Double>();
+		for (int i = 0; i < 20; i++) {
+			samples.add(2.5 + (rand.nextDouble() - 0.5) * 0.3);
+		}
+
+		Ransac_MT<double[],Double> alg = new Ransac_MT<double[],Double>(344, new Factory(), 50, 0.2, 2);
+		alg.setNumSample(3);
+		assertTrue(alg.process(samples));
+		assertTrue(alg.getMatchSet().size() > 0);
+
+		// not enough points
+		assertFalse(alg.process(samples.subList(0, 2)));
+		assertEquals(0, alg.getMatchSet().size());
+		assertEquals(0, alg.getError(), 1e-8);
+		assertTrue(alg.getModel() != null);
+
+		// no model has any inliers
+		alg.setThresholdFit(-1);
+		assertFalse(alg.process(samples));
+		assertEquals(0, alg.getMatchSet().size());
+		assertEquals(0, alg.getError(), 1e-8);
+		assertTrue(alg.getModel() != null);
+	}
+
+	/**
+	 * The input list should not be modified
+	 */
+	@Test
+	public void inputNotModified() {
+		List<Double> samples = new ArrayList<Double>();
+		for (int i = 0; i < 20; i++) {
+			samples.add(2.5 + (rand.nextDouble() - 0.5) * 0.3);
+		}
+		List<Double> copy = new ArrayList<Double>(samples);
+
+		Ransac_MT<double[],Double> alg = new Ransac_MT<double[],Double>(344, new Factory(), 50, 0.2, 2);
+		alg.setNumSample(15);
+		assertTrue(alg.process(samples));
+
+		assertEquals(copy, samples);
+	}
+
+	/**
+	 * Worker threads should not be kept around after the instance is no longer being used
+	 */
+	@Test
+	public void threadsTimeOut() throws InterruptedException {
+		List<Double> samples = new ArrayList<Double>();
+		for (int i = 0; i < 20; i++) {
+			samples.add(2.5 + (rand.nextDouble() - 0.5) * 0.3);
+		}
+
+		for( int i = 0; i < 5; i++ ) {
+			Ransac_MT<double[],Double> alg = new Ransac_MT<double[],Double>(344, new Factory(), 50, 0.2, 3);
+			assertTrue(alg.process(samples));
+		}
+
+		long end = System.currentTimeMillis() + 5000;
+		while( countThreads() > 0 && System.currentTimeMillis() < end )
+			Thread.sleep(50);
+		assertEquals(0, countThreads());
+	}
+
+	private static int countThreads() {
+		int total = 0;
+		for( Thread t : Thread.getAllStackTraces().keySet() ) {
+			if( t.isAlive() && t.getName().equals("Ransac_MT") )
+				total++;
+		}
+		return total;
+	}
+
+	private static class Factory implements ModelHypothesisFactory<double[],Double> {
+		@Override
+		public ModelGenerator<double[], Double> createGenerator() {
+			return new MeanModelFitter();
+		}
+
+		@Override
+		public DistanceFromModel<double[], Double> createDistance() {
+			return new DistanceFromMeanModel();
+		}
+	}
+}
@@ -0,0 +1,259 @@
+package boofcv.alg.sfm;
+
+import boofcv.alg.distort.ImageDistort;
+import boofcv.alg.feature.disparity.DisparityScoreRowFormat;
+import boofcv.core.image.GeneralizedImageOps;
+import boofcv.struct.calib.StereoParameters;
+import boofcv.struct.image.ImageSingleBand;
+
+import java.util.concurrent.*;
+
+/**
+ * <p>
+ * Computes the dense disparity of a stereo pair with as little latency as possible.  The left and right images
+ * are rectified at the same time by two background threads, one band of rows at a time.  In the calling thread
+ * the disparity of a band is computed as soon as both images have been rectified far enough, while the rest
+ * of the images are still being rectified.  Bands overlap by the disparity algorithm's border, see
+ * {@link DisparityScoreRowFormat#getBorderY()}, so the disparity is the same as when the entire image is
+ * processed at once.
+ * </p>
+ *
+ * <p>
+ * If the disparity algorithm can't process the image a band at a time, see
+ * {@link DisparityScoreRowFormat#isRowLocal()}, then it waits until rectification has finished.  The rectified
+ * images, disparity image, and threads are all reused between frames.  The left and right rectified images
+ * must be the same size.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class StereoDisparityPipeline<T extends ImageSingleBand, D extends ImageSingleBand>
+		extends StereoProcessingBase<T>
+{
+	// computes the disparity from rectified images
+	private DisparityScoreRowFormat<T,D> disparityAlg;
+
+	// disparity of the rectified left image
+	private D disparity;
+
+	// number of rows in each band
+	private int bandHeight = 32;
+
+	// threads which rectify the left and right images
+	private ExecutorService workers;
+
+	// number of rows which have been rectified in the left and right images.  Guarded by this
+	private int rowsLeft;
+	private int rowsRight;
+	// number of workers which are still running.  Guarded by this
+	private int running;
+	// exception thrown by a worker.  Guarded by this
+	private Throwable error;
+
+	/**
+	 * Configures stereo processing and computes rectification distortions.
+	 *
+	 * @param stereoParam Stereo camera parameters
+	 * @param disparityAlg Computes the disparity from rectified images
+	 * @param imageType Input image type
+	 */
+	public StereoDisparityPipeline(StereoParameters stereoParam ,
+								   DisparityScoreRowFormat<T,D> disparityAlg ,
+								   Class<T> imageType ) {
+		super(stereoParam, imageType);
+		this.disparityAlg = disparityAlg;
+
+		if( imageLeftRect.width != imageRightRect.width || imageLeftRect.height != imageRightRect.height )
+			throw new IllegalArgumentException("Left and right images must be the same size");
+
+		disparity = GeneralizedImageOps.createSingleBand(disparityAlg.getDisparityType(),
+				imageLeftRect.width, imageLeftRect.height);
+	}
+
+	/**
+	 * Rectifies the images and computes the disparity.  Returns once the disparity is known.
+	 */
+	@Override
+	@SuppressWarnings({"unchecked"})
+	public void initialize() {
+		startRectification();
+
+		int height = imageLeftRect.height;
+		int width = imageLeftRect.width;
+		int border = disparityAlg.getBorderY();
+
+		try {
+			if( !disparityAlg.isRowLocal() ) {
+				waitForRows(height);
+				disparityAlg.process(imageLeftRect, imageRightRect, disparity);
+				return;
+			}
+
+			// first row whose disparity has not been computed yet
+			int row = border;
+			while( row < height - border ) {
+				int end = Math.min(row + bandHeight, height - border);
+				int y0 = row - border;
+				int y1 = end + border;
+
+				waitForRows(y1);
+
+				disparityAlg.process((T)imageLeftRect.subimage(0, y0, width, y1),
+						(T)imageRightRect.subimage(0, y0, width, y1),
+						(D)disparity.subimage(0, y0, width, y1));
+
+				row = end;
+			}
+		} finally {
+			// the rectified images can't be modified again until the workers are done
+			waitForWorkers();
+		}
+
+		synchronized ( this ) {
+			if( error != null )
+				throwError();
+		}
+	}
+
+	/**
+	 * Starts rectifying the left and right images in the background
+	 */
+	private void startRectification() {
+		if( workers == null ) {
+			ThreadPoolExecutor pool = new ThreadPoolExecutor(2,2,1, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+				int count = 0;
+
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r,"StereoDisparityPipeline-"+(count++));
+					t.setDaemon(true);
+					return t;
+				}
+			});
+			// don't keep idle threads around if the pipeline is no longer being used
+			pool.allowCoreThreadTimeOut(true);
+			workers = pool;
+		}
+
+		synchronized ( this ) {
+			rowsLeft = 0;
+			rowsRight = 0;
+			running = 2;
+			error = null;
+		}
+
+		workers.execute(new Rectify(true, distortLeftRect, imageLeftInput, imageLeftRect));
+		workers.execute(new Rectify(false, distortRightRect, imageRightInput, imageRightRect));
+	}
+
+	/**
+	 * Blocks until the specified number of rows have been rectified in both images
+	 */
+	private synchronized void waitForRows( int rows ) {
+		while( (rowsLeft < rows || rowsRight < rows) && error == null ) {
+			try {
+				wait();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException(e);
+			}
+		}
+		if( error != null )
+			throwError();
+	}
+
+	/**
+	 * Blocks until both workers have stopped.  Doesn't throw an exception if the workers failed.
+	 */
+	private synchronized void waitForWorkers() {
+		boolean interrupted = false;
+		while( running > 0 ) {
+			try {
+				wait();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if( interrupted )
+			Thread.currentThread().interrupt();
+	}
+
+	private void throwError() {
+		if( error instanceof Error )
+			throw (Error)error;
+		throw error instanceof RuntimeException ? (RuntimeException)error : new RuntimeException(error);
+	}
+
+	/**
+	 * Rectifies one image a band at a time and lets the calling thread know after each band
+	 */
+	private class Rectify implements Runnable {
+		boolean left;
+		ImageDistort<T> distort;
+		T input;
+		T output;
+
+		private Rectify(boolean left, ImageDistort<T> distort, T input, T output) {
+			this.left = left;
+			this.distort = distort;
+			this.input = input;
+			this.output = output;
+		}
+
+		@Override
+		public void run() {
+			try {
+				for( int y0 = 0; y0 < output.height; y0 += bandHeight ) {
+					int y1 = Math.min(y0 + bandHeight, output.height);
+					distort.apply(input, output, 0, y0, output.width, y1);
+
+					synchronized ( StereoDisparityPipeline.this ) {
+						if( error != null )
+							break;
+						if( left )
+							rowsLeft = y1;
+						else
+							rowsRight = y1;
+						StereoDisparityPipeline.this.notifyAll();
+					}
+				}
+			} catch( Throwable t ) {
+				synchronized ( StereoDisparityPipeline.this ) {
+					if( error == null )
+						error = t;
+				}
+			} finally {
+				synchronized ( StereoDisparityPipeline.this ) {
+					running--;
+					StereoDisparityPipeline.this.notifyAll();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Disparity of the rectified left image, computed by the most recent call to {@link #initialize()}
+	 */
+	public D getDisparity() {
+		return disparity;
+	}
+
+	public DisparityScoreRowFormat<T, D> getDisparityAlg() {
+		return disparityAlg;
+	}
+
+	public int getBandHeight() {
+		return bandHeight;
+	}
+
+	/**
+	 * Number of rows which are rectified, and have their disparity computed, at once.  Smaller bands reduce
+	 * latency but more rows are processed twice by the disparity algorithm.
+	 */
+	public void setBandHeight(int bandHeight) {
+		if( bandHeight < 1 )
+			throw new IllegalArgumentException("Band height must be at least one");
+		this.bandHeight = bandHeight;
+	}
+}
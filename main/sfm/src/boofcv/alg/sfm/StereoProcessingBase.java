@@ -5,6 +5,8 @@ import boofcv.alg.geo.PerspectiveOps;
 import boofcv.alg.geo.RectifyImageOps;
 import boofcv.alg.geo.rectify.RectifyCalibrated;
 import boofcv.core.image.GeneralizedImageOps;
+import boofcv.misc.BoofConcurrency;
+import boofcv.misc.IntRangeTask;
 import boofcv.struct.calib.StereoParameters;
 import boofcv.struct.image.ImageSingleBand;
 import georegression.struct.se.Se3_F64;
@@ -12,19 +14,20 @@ import org.ejml.data.DenseMatrix64F;
 
 /**
  * Base class that configures stereo processing.  Created distortion for converting image from its input image
- * into an undistorted rectified image ready for stereo processing.
+ * into an undistorted rectified image ready for stereo processing.  If {@link BoofConcurrency#USE_CONCURRENT}
+ * is true then the left and right images are rectified at the same time.
  *
  * @author Peter Abeles
  */
 public class StereoProcessingBase<T extends ImageSingleBand> {
 
 	// applied rectification to input images
-	private ImageDistort<T> distortLeftRect;
-	private ImageDistort<T> distortRightRect;
+	protected ImageDistort<T> distortLeftRect;
+	protected ImageDistort<T> distortRightRect;
 
 	// references to input images
-	private T imageLeftInput;
-	private T imageRightInput;
+	protected T imageLeftInput;
+	protected T imageRightInput;
 
 	// rectified images
 	protected T imageLeftRect;
@@ -94,8 +97,22 @@ public class StereoProcessingBase<T extends ImageSingleBand> {
 	 */
 	public void initialize() {
 		// rectify input images
-		distortLeftRect.apply(imageLeftInput, imageLeftRect);
-		distortRightRect.apply(imageRightInput, imageRightRect);
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			BoofConcurrency.loopBlocks(0,2,new IntRangeTask() {
+				@Override
+				public void process(int index0, int index1) {
+					for( int i = index0; i < index1; i++ ) {
+						if( i == 0 )
+							distortLeftRect.apply(imageLeftInput, imageLeftRect);
+						else
+							distortRightRect.apply(imageRightInput, imageRightRect);
+					}
+				}
+			});
+		} else {
+			distortLeftRect.apply(imageLeftInput, imageLeftRect);
+			distortRightRect.apply(imageRightInput, imageRightRect);
+		}
 	}
 
 	/**
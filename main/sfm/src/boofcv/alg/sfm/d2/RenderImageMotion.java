@@ -35,10 +35,19 @@ import boofcv.struct.image.MultiSpectral;
 import georegression.struct.shapes.Rectangle2D_I32;
 
 import java.awt.image.BufferedImage;
+import java.io.File;
 
 /**
+ * <p>
  * Creates a mosaic by batching together smaller images with their respective transforms.  This class lends itself
  * towards mosaics that are sequentially built from video images as they arrive.
+ * </p>
+ *
+ * <p>
+ * By default the mosaic is a single image whose size is fixed.  Alternatively the mosaic can be rendered into a
+ * {@link TiledMosaic}, which has no fixed size and spills tiles to the disk.  Only tiles which the current frame
+ * overlaps are created or modified.  Use this for very long sequences, which would otherwise run out of memory.
+ * </p>
  *
  * @author Peter Abeles
  */
@@ -64,6 +73,25 @@ public class RenderImageMotion<I extends ImageSingleBand, O extends ImageBase> {
 
 	ImageDistort<O> distorter;
 
+	// tiled mosaic.  If null then a single image is used
+	TiledMosaic<O> tiles;
+	// configuration of the tiled mosaic
+	int tileWidth;
+	int tileHeight;
+	int maxTilesInMemory;
+	File tileFile;
+	// transform from tile pixels to the current frame
+	OffsetTransform tileToCurr = new OffsetTransform();
+
+	// first row of tiles which the frame might overlap and the number of rows
+	int coverY0;
+	int coverRows;
+	// range of tile columns, inclusive, which the frame overlaps in each row of tiles
+	int coverMinX[] = new int[0];
+	int coverMaxX[] = new int[0];
+	// previous point along the frame's outline in world coordinates
+	float prevX,prevY;
+
 	public RenderImageMotion(int mosaicWidth, int mosaicHeight, Class<I> imageType, boolean color) {
 		this.mosaicWidth = mosaicWidth;
 		this.mosaicHeight = mosaicHeight;
@@ -71,13 +99,55 @@ public class RenderImageMotion<I extends ImageSingleBand, O extends ImageBase> {
 
 		setColorOutput(color);
 	}
-	
+
+	/**
+	 * Renders the mosaic into a {@link TiledMosaic} instead of a single image.
+	 *
+	 * @param tileWidth Width of each tile.
+	 * @param tileHeight Height of each tile.
+	 * @param maxTilesInMemory Maximum number of tiles which are kept in memory.
+	 * @param tileFile File tiles are spilled into.  If null a temporary file is used.
+	 * @param imageType Type of input gray scale image.
+	 * @param color If the output is in color or not.
+	 */
+	public RenderImageMotion(int tileWidth, int tileHeight, int maxTilesInMemory, File tileFile,
+							 Class<I> imageType, boolean color) {
+		if( maxTilesInMemory < 1 )
+			throw new IllegalArgumentException("At least one tile must be kept in memory");
+
+		this.tileWidth = tileWidth;
+		this.tileHeight = tileHeight;
+		this.maxTilesInMemory = maxTilesInMemory;
+		this.tileFile = tileFile;
+		this.imageType = imageType;
+
+		setColorOutput(color);
+	}
+
+	/**
+	 * Changes between color and gray scale output.  The current mosaic is converted into the new format.  If
+	 * tiled then the mosaic is discarded instead.
+	 */
 	public synchronized void setColorOutput( boolean color ) {
 		this.colorOutput = color;
 
 		InterpolatePixel<I> interp = FactoryInterpolation.createPixel(0, 255, TypeInterpolate.BILINEAR, imageType);
 
-		if( colorOutput ) {
+		if( maxTilesInMemory > 0 ) {
+			if( tiles != null )
+				tiles.close();
+
+			O template;
+			if( colorOutput ) {
+				template = (O)new MultiSpectral<I>(imageType,1,1,3);
+				frameMulti = (O)new MultiSpectral<I>(imageType,1,1,3);
+				distorter = (ImageDistort<O>) DistortSupport.createDistortMS(imageType, null, interp, null);
+			} else {
+				template = (O)GeneralizedImageOps.createSingleBand(imageType, 1, 1);
+				distorter = (ImageDistort<O>) FactoryDistort.distort( interp,null,imageType);
+			}
+			tiles = new TiledMosaic<O>(template,tileWidth,tileHeight,maxTilesInMemory,tileFile);
+		} else if( colorOutput ) {
 			// convert the single band mosaic into a MultiSpectral mosaic
 			MultiSpectral<I> temp = new MultiSpectral<I>(imageType,mosaicWidth,mosaicHeight,3);
 			if( imageMosaic != null ) {
@@ -112,6 +182,11 @@ public class RenderImageMotion<I extends ImageSingleBand, O extends ImageBase> {
 									PixelTransform_F32 worldToCurr ,
 									PixelTransform_F32 currToWorld  ) {
 
+		if( tiles != null ) {
+			updateTiles(frame, buffImage, worldToCurr, currToWorld);
+			return;
+		}
+
 		// only process a cropped portion to speed up processing
 		Rectangle2D_I32 box = DistortImageOps.boundBox(frame.width,frame.height,
 				imageMosaic.width,imageMosaic.height,currToWorld);
@@ -136,11 +211,134 @@ public class RenderImageMotion<I extends ImageSingleBand, O extends ImageBase> {
 	}
 
 	/**
-	 * Distorts the mosaic's image using the specified transform
+	 * Renders the frame into each tile which it overlaps.  Pixels outside the frame are not modified.
+	 */
+	private void updateTiles(I frame, BufferedImage buffImage ,
+							 PixelTransform_F32 worldToCurr ,
+							 PixelTransform_F32 currToWorld  ) {
+		// bounds of the frame in world coordinates.  Expanded to compensate for rounding
+		Rectangle2D_I32 box = DistortImageOps.boundBox(frame.width,frame.height,currToWorld);
+		int x0 = box.tl_x - 1;
+		int y0 = box.tl_y - 1;
+		int x1 = box.tl_x + box.width + 2;
+		int y1 = box.tl_y + box.height + 2;
+
+		findCoveredTiles(frame.width,frame.height,currToWorld,y0,y1);
+
+		O src;
+		if( colorOutput ) {
+			frameMulti.reshape(frame.width,frame.height);
+			ConvertBufferedImage.convertFrom(buffImage, frameMulti);
+			ConvertBufferedImage.orderBandsIntoRGB((MultiSpectral)frameMulti,buffImage);
+			src = frameMulti;
+		} else {
+			src = (O)frame;
+		}
+
+		distorter.setModel(tileToCurr);
+		for( int row = 0; row < coverRows; row++ ) {
+			int tileY = coverY0 + row;
+			int tileX0 = Math.max(coverMinX[row],TiledMosaic.tileIndex(x0,tileWidth));
+			int tileX1 = Math.min(coverMaxX[row],TiledMosaic.tileIndex(x1-1,tileWidth));
+			for( int tileX = tileX0; tileX <= tileX1; tileX++ ) {
+				int offX = tileX*tileWidth;
+				int offY = tileY*tileHeight;
+
+				// portion of the tile which the frame might overlap
+				int cx0 = Math.max(x0-offX,0), cx1 = Math.min(x1-offX,tileWidth);
+				int cy0 = Math.max(y0-offY,0), cy1 = Math.min(y1-offY,tileHeight);
+
+				tileToCurr.set(worldToCurr,offX,offY);
+				distorter.apply(src, tiles.getTile(tileX,tileY),cx0,cy0,cx1,cy1);
+			}
+		}
+	}
+
+	/**
+	 * Finds the tiles which the frame overlaps so that tiles inside its bounding box but outside the frame are
+	 * not created.  The frame's outline is traced in world coordinates and the tiles it passes through are
+	 * marked.  Inside a row of tiles the frame can only overlap tiles between the left and right most marked
+	 * tiles in that row.
+	 *
+	 * @param y0 Lower bound of the frame's world y-coordinate, inclusive.
+	 * @param y1 Upper bound of the frame's world y-coordinate, exclusive.
+	 */
+	private void findCoveredTiles( int width , int height , PixelTransform_F32 currToWorld , int y0 , int y1 ) {
+		coverY0 = TiledMosaic.tileIndex(y0,tileHeight);
+		coverRows = TiledMosaic.tileIndex(y1-1,tileHeight) - coverY0 + 1;
+		if( coverMinX.length < coverRows ) {
+			coverMinX = new int[coverRows];
+			coverMaxX = new int[coverRows];
+		}
+		for( int i = 0; i < coverRows; i++ ) {
+			coverMinX[i] = Integer.MAX_VALUE;
+			coverMaxX[i] = Integer.MIN_VALUE;
+		}
+
+		// the outline is sampled at least this often and each sample marks all the tiles within
+		// this distance, plus a pixel of rounding, so that no tile which it passes through is missed
+		float step = Math.max(1,Math.min(tileWidth,tileHeight)/2);
+
+		currToWorld.compute(0,0);
+		prevX = currToWorld.distX;
+		prevY = currToWorld.distY;
+		markTiles(prevX,prevY,step);
+
+		for( int x = 1; x < width; x++ )
+			traceOutline(x,0,currToWorld,step);
+		for( int y = 1; y < height; y++ )
+			traceOutline(width-1,y,currToWorld,step);
+		for( int x = width-2; x >= 0; x-- )
+			traceOutline(x,height-1,currToWorld,step);
+		for( int y = height-2; y >= 0; y-- )
+			traceOutline(0,y,currToWorld,step);
+	}
+
+	/**
+	 * Marks the tiles along the line from the previous point on the outline to the specified frame pixel.
+	 */
+	private void traceOutline( int x , int y , PixelTransform_F32 currToWorld , float step ) {
+		currToWorld.compute(x,y);
+		float worldX = currToWorld.distX;
+		float worldY = currToWorld.distY;
+
+		// when the frame is enlarged neighboring pixels can be far apart in the world
+		int N = (int)Math.ceil(Math.max(Math.abs(worldX-prevX),Math.abs(worldY-prevY))/step);
+		for( int i = 1; i <= N; i++ ) {
+			markTiles(prevX + (worldX-prevX)*i/N, prevY + (worldY-prevY)*i/N, step);
+		}
+
+		prevX = worldX;
+		prevY = worldY;
+	}
+
+	/**
+	 * Marks all the tiles within the specified distance of the world point.
+	 */
+	private void markTiles( float x , float y , float distance ) {
+		int tileX0 = TiledMosaic.tileIndex((int)Math.floor(x-distance-1),tileWidth);
+		int tileX1 = TiledMosaic.tileIndex((int)Math.ceil(x+distance+1),tileWidth);
+		int tileY0 = TiledMosaic.tileIndex((int)Math.floor(y-distance-1),tileHeight);
+		int tileY1 = TiledMosaic.tileIndex((int)Math.ceil(y+distance+1),tileHeight);
+
+		for( int tileY = tileY0; tileY <= tileY1; tileY++ ) {
+			int row = tileY - coverY0;
+			if( row < 0 || row >= coverRows )
+				continue;
+			coverMinX[row] = Math.min(coverMinX[row],tileX0);
+			coverMaxX[row] = Math.max(coverMaxX[row],tileX1);
+		}
+	}
+
+	/**
+	 * Distorts the mosaic's image using the specified transform.  Not supported by tiled mosaics.
 	 *
 	 * @param oldToNew  Transform from the old mosaic to the new mosaic's coordinate system
 	 */
 	public synchronized void distortMosaic( PixelTransform_F32 oldToNew ) {
+		if( tiles != null )
+			throw new IllegalStateException("Not supported by tiled mosaics");
+
 		distorter.setModel(oldToNew);
 		GeneralizedImageOps.fill(tempMosaic,0);
 		distorter.apply(imageMosaic, tempMosaic);
@@ -152,17 +350,27 @@ public class RenderImageMotion<I extends ImageSingleBand, O extends ImageBase> {
 	}
 
 	/**
-	 * Returns the mosaic image
+	 * Returns the mosaic image.  Null if tiled.
 	 */
 	public O getMosaic() {
 		return imageMosaic;
 	}
 
+	/**
+	 * Returns the tiled mosaic.  Null if not tiled.
+	 */
+	public TiledMosaic<O> getTiles() {
+		return tiles;
+	}
+
 	/**
 	 * Makes the mosaic all black.
 	 */
 	public void clear() {
-		GeneralizedImageOps.fill(imageMosaic,0);
+		if( tiles != null )
+			tiles.clear();
+		else
+			GeneralizedImageOps.fill(imageMosaic,0);
 	}
 
 	/**
@@ -171,4 +379,30 @@ public class RenderImageMotion<I extends ImageSingleBand, O extends ImageBase> {
 	public boolean getColorOutput() {
 		return colorOutput;
 	}
+
+	/**
+	 * Adds an offset to pixel coordinates before applying a transform.  Used to convert from tile to world pixels.
+	 */
+	private static class OffsetTransform extends PixelTransform_F32 {
+		PixelTransform_F32 transform;
+		int offX,offY;
+
+		public void set( PixelTransform_F32 transform , int offX , int offY ) {
+			this.transform = transform;
+			this.offX = offX;
+			this.offY = offY;
+		}
+
+		@Override
+		public void compute(int x, int y) {
+			transform.compute(x+offX,y+offY);
+			distX = transform.distX;
+			distY = transform.distY;
+		}
+
+		@Override
+		public void computeRow(int x0, int y, int length, float[] distX, float[] distY) {
+			transform.computeRow(x0+offX,y+offY,length,distX,distY);
+		}
+	}
 }
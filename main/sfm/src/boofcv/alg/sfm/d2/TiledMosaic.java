@@ -0,0 +1,454 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.sfm.d2;
+
+import boofcv.core.image.GeneralizedImageOps;
+import boofcv.struct.image.*;
+import georegression.struct.shapes.Rectangle2D_I32;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.*;
+
+/**
+ * <p>
+ * Unbounded mosaic canvas which is broken up into fixed size tiles.  Tiles are only created when they are first
+ * written to and a limited number are kept in memory.  When that limit is exceeded the least recently used tile
+ * is spilled to a memory mapped file and read back in the next time it is accessed.  This allows very large
+ * mosaics to be created while using a constant amount of heap memory.
+ * </p>
+ *
+ * <p>
+ * Tile (tileX,tileY) contains canvas pixels from (tileX*tileWidth,tileY*tileHeight) inclusive to
+ * ((tileX+1)*tileWidth,(tileY+1)*tileHeight) exclusive.  Tile coordinates can be negative.  Both single band and
+ * {@link MultiSpectral} images are supported.  Tiles which have never been written to have a value of zero.
+ * </p>
+ *
+ * @author Peter Abeles
+ */
+public class TiledMosaic<T extends ImageBase> {
+
+	// number of tiles in each memory mapped region of the file
+	private static final int TILES_PER_REGION = 32;
+
+	// used to create new tiles
+	private T template;
+
+	// size of each tile
+	private int tileWidth;
+	private int tileHeight;
+	// maximum number of tiles which are kept in memory
+	private int maxInMemory;
+	// number of bytes a tile takes up in the file
+	private int tileBytes;
+
+	// tiles which are in memory, ordered from least to most recently used
+	private LinkedHashMap<Long,Tile> memory = new LinkedHashMap<Long,Tile>(16,0.75f,true);
+	// location in the file of tiles which have been spilled to disk
+	private Map<Long,Integer> diskSlots = new HashMap<Long,Integer>();
+	// tiles which were evicted and can be recycled
+	private List<T> unused = new ArrayList<T>();
+
+	// bounds of all the tiles which have been written to, in tile coordinates
+	private int minTileX,minTileY,maxTileX,maxTileY;
+	private boolean empty = true;
+
+	// file tiles are spilled into
+	private File file;
+	private boolean deleteFile;
+	private RandomAccessFile raf;
+	// memory mapped regions of the file
+	private List<MappedByteBuffer> regions = new ArrayList<MappedByteBuffer>();
+	// number of slots in the file which have been assigned to a tile
+	private int numSlots;
+
+	/**
+	 * Configures the mosaic.
+	 *
+	 * @param template Image of the same type as the tiles.  Only its type and number of bands are used.
+	 * @param tileWidth Width of each tile.
+	 * @param tileHeight Height of each tile.
+	 * @param maxInMemory Maximum number of tiles kept in memory.  Must be at least one.
+	 * @param file File tiles are spilled into.  If null a temporary file is created and deleted when closed.
+	 */
+	public TiledMosaic( T template , int tileWidth , int tileHeight , int maxInMemory , File file ) {
+		if( maxInMemory < 1 )
+			throw new IllegalArgumentException("At least one tile must be kept in memory");
+		if( tileWidth < 1 || tileHeight < 1 )
+			throw new IllegalArgumentException("Tiles must have a positive width and height");
+
+		this.template = template;
+		this.tileWidth = tileWidth;
+		this.tileHeight = tileHeight;
+		this.maxInMemory = maxInMemory;
+		this.file = file;
+
+		T tile = createTile();
+		tileBytes = 0;
+		for( int band = 0; band < numBands(tile); band++ ) {
+			tileBytes += bytesPerPixel(band(tile,band))*tileWidth*tileHeight;
+		}
+		unused.add(tile);
+	}
+
+	/**
+	 * Returns the specified tile so that it can be written to.  If the tile does not exist yet then it is
+	 * created and filled with zeros.  The returned image is only valid until the next call which accesses
+	 * a different tile.
+	 *
+	 * @param tileX Tile x-coordinate.
+	 * @param tileY Tile y-coordinate.
+	 * @return The tile
+	 */
+	public T getTile( int tileX , int tileY ) {
+		Tile t = lookup(tileX,tileY,true);
+		t.dirty = true;
+		return t.image;
+	}
+
+	/**
+	 * Returns true if the specified tile has been written to.
+	 */
+	public boolean hasTile( int tileX , int tileY ) {
+		long key = key(tileX,tileY);
+		return memory.containsKey(key) || diskSlots.containsKey(key);
+	}
+
+	/**
+	 * Copies a region of the canvas into the output image.  Pixels in tiles which have never been written to
+	 * are set to zero.
+	 *
+	 * @param x0 Canvas x-coordinate of the output image's top left corner.
+	 * @param y0 Canvas y-coordinate of the output image's top left corner.
+	 * @param output Output image.  Its size determines the region copied.  Modified.
+	 */
+	public void copyRegion( int x0 , int y0 , T output ) {
+		int x1 = x0 + output.width;
+		int y1 = y0 + output.height;
+
+		for( int tileY = tileIndex(y0,tileHeight); tileY*tileHeight < y1; tileY++ ) {
+			for( int tileX = tileIndex(x0,tileWidth); tileX*tileWidth < x1; tileX++ ) {
+				int tx0 = tileX*tileWidth, ty0 = tileY*tileHeight;
+
+				// region inside the canvas which is in this tile and the output
+				int cx0 = Math.max(x0,tx0), cx1 = Math.min(x1,tx0+tileWidth);
+				int cy0 = Math.max(y0,ty0), cy1 = Math.min(y1,ty0+tileHeight);
+
+				T dst = subimage(output,cx0-x0,cy0-y0,cx1-x0,cy1-y0);
+				Tile t = lookup(tileX,tileY,false);
+				if( t == null ) {
+					GeneralizedImageOps.fill(dst,0);
+				} else {
+					T src = subimage(t.image,cx0-tx0,cy0-ty0,cx1-tx0,cy1-ty0);
+					for( int band = 0; band < numBands(src); band++ )
+						copyBand(band(src,band),band(dst,band));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the bounds of the canvas which has been written to, in pixels.  Null if nothing has been written.
+	 */
+	public Rectangle2D_I32 getBounds() {
+		if( empty )
+			return null;
+
+		return new Rectangle2D_I32(minTileX*tileWidth,minTileY*tileHeight,
+				(maxTileX-minTileX+1)*tileWidth,(maxTileY-minTileY+1)*tileHeight);
+	}
+
+	/**
+	 * Discards all the tiles.
+	 */
+	public void clear() {
+		for( Tile t : memory.values() )
+			unused.add(t.image);
+		memory.clear();
+		diskSlots.clear();
+		numSlots = 0;
+		empty = true;
+	}
+
+	/**
+	 * Discards all the tiles and releases the file.  If the file was created internally it is deleted.
+	 */
+	public void close() {
+		clear();
+		regions.clear();
+		if( raf != null ) {
+			try {
+				raf.close();
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+			raf = null;
+			if( deleteFile )
+				file.delete();
+		}
+	}
+
+	/**
+	 * Finds the tile, loading it from the disk or creating it if needed
+	 */
+	private Tile lookup( int tileX , int tileY , boolean create ) {
+		long key = key(tileX,tileY);
+		Tile t = memory.get(key);
+		if( t != null )
+			return t;
+
+		Integer slot = diskSlots.get(key);
+		if( slot == null && !create )
+			return null;
+
+		t = new Tile();
+		t.image = recycle();
+		t.slot = slot == null ? -1 : slot;
+		if( slot == null ) {
+			GeneralizedImageOps.fill(t.image,0);
+			updateBounds(tileX,tileY);
+		} else {
+			read(slot,t.image);
+		}
+
+		memory.put(key,t);
+		return t;
+	}
+
+	/**
+	 * Returns a tile which is not being used.  If the memory is full then least recently used
+	 * tile is evicted.
+	 */
+	private T recycle() {
+		if( memory.size() >= maxInMemory ) {
+			Iterator<Map.Entry<Long,Tile>> iter = memory.entrySet().iterator();
+			Map.Entry<Long,Tile> e = iter.next();
+			iter.remove();
+
+			Tile old = e.getValue();
+			if( old.dirty ) {
+				if( old.slot < 0 ) {
+					old.slot = numSlots++;
+					diskSlots.put(e.getKey(),old.slot);
+				}
+				write(old.slot,old.image);
+			}
+			unused.add(old.image);
+		}
+
+		if( unused.isEmpty() )
+			return createTile();
+		return unused.remove(unused.size()-1);
+	}
+
+	private void updateBounds( int tileX , int tileY ) {
+		if( empty ) {
+			minTileX = maxTileX = tileX;
+			minTileY = maxTileY = tileY;
+			empty = false;
+		} else {
+			minTileX = Math.min(minTileX,tileX);
+			maxTileX = Math.max(maxTileX,tileX);
+			minTileY = Math.min(minTileY,tileY);
+			maxTileY = Math.max(maxTileY,tileY);
+		}
+	}
+
+	private void write( int slot , T image ) {
+		ByteBuffer buffer = slotBuffer(slot);
+		for( int band = 0; band < numBands(image); band++ ) {
+			ImageSingleBand b = band(image,band);
+			int N = b.width*b.height;
+			int start = buffer.position();
+			if( b instanceof ImageInt8 ) {
+				buffer.put(((ImageInt8)b).data,0,N);
+			} else if( b instanceof ImageInt16 ) {
+				buffer.asShortBuffer().put(((ImageInt16)b).data,0,N);
+			} else if( b instanceof ImageSInt32 ) {
+				buffer.asIntBuffer().put(((ImageSInt32)b).data,0,N);
+			} else if( b instanceof ImageFloat32 ) {
+				buffer.asFloatBuffer().put(((ImageFloat32)b).data,0,N);
+			} else if( b instanceof ImageFloat64 ) {
+				buffer.asDoubleBuffer().put(((ImageFloat64)b).data,0,N);
+			} else {
+				throw new IllegalArgumentException("Unsupported image type");
+			}
+			buffer.position(start+bytesPerPixel(b)*N);
+		}
+	}
+
+	private void read( int slot , T image ) {
+		ByteBuffer buffer = slotBuffer(slot);
+		for( int band = 0; band < numBands(image); band++ ) {
+			ImageSingleBand b = band(image,band);
+			int N = b.width*b.height;
+			int start = buffer.position();
+			if( b instanceof ImageInt8 ) {
+				buffer.get(((ImageInt8)b).data,0,N);
+			} else if( b instanceof ImageInt16 ) {
+				buffer.asShortBuffer().get(((ImageInt16)b).data,0,N);
+			} else if( b instanceof ImageSInt32 ) {
+				buffer.asIntBuffer().get(((ImageSInt32)b).data,0,N);
+			} else if( b instanceof ImageFloat32 ) {
+				buffer.asFloatBuffer().get(((ImageFloat32)b).data,0,N);
+			} else if( b instanceof ImageFloat64 ) {
+				buffer.asDoubleBuffer().get(((ImageFloat64)b).data,0,N);
+			} else {
+				throw new IllegalArgumentException("Unsupported image type");
+			}
+			buffer.position(start+bytesPerPixel(b)*N);
+		}
+	}
+
+	/**
+	 * Returns a buffer which starts at the beginning of the slot.  If needed the file is opened and
+	 * a new region is mapped.
+	 */
+	private ByteBuffer slotBuffer( int slot ) {
+		int region = slot/TILES_PER_REGION;
+		try {
+			if( raf == null ) {
+				if( file == null ) {
+					file = File.createTempFile("mosaic",".tiles");
+					file.deleteOnExit();
+					deleteFile = true;
+				}
+				raf = new RandomAccessFile(file,"rw");
+				raf.setLength(0);
+			}
+			while( regions.size() <= region ) {
+				long regionBytes = (long)tileBytes*TILES_PER_REGION;
+				MappedByteBuffer m = raf.getChannel().map(FileChannel.MapMode.READ_WRITE,
+						regions.size()*regionBytes,regionBytes);
+				m.order(ByteOrder.nativeOrder());
+				regions.add(m);
+			}
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+
+		ByteBuffer buffer = regions.get(region).duplicate();
+		buffer.order(ByteOrder.nativeOrder());
+		buffer.position((slot%TILES_PER_REGION)*tileBytes);
+		return buffer;
+	}
+
+	/**
+	 * Creates a new tile.  {@link ImageBase#_createNew} always returns an image of the same type.
+	 */
+	@SuppressWarnings("unchecked")
+	private T createTile() {
+		return (T)template._createNew(tileWidth,tileHeight);
+	}
+
+	/**
+	 * Creates a sub-image.  {@link ImageBase#subimage} always returns an image of the same type.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T extends ImageBase> T subimage( T image , int x0 , int y0 , int x1 , int y1 ) {
+		return (T)image.subimage(x0,y0,x1,y1);
+	}
+
+	private static int numBands( ImageBase image ) {
+		if( image instanceof MultiSpectral )
+			return ((MultiSpectral)image).getNumBands();
+		return 1;
+	}
+
+	private static ImageSingleBand band( ImageBase image , int band ) {
+		if( image instanceof MultiSpectral )
+			return ((MultiSpectral)image).getBand(band);
+		return (ImageSingleBand)image;
+	}
+
+	/**
+	 * Copies one band into another.  Both bands come from images of the same type.
+	 */
+	@SuppressWarnings("unchecked")
+	private static void copyBand( ImageSingleBand src , ImageSingleBand dst ) {
+		dst.setTo(src);
+	}
+
+	private static int bytesPerPixel( ImageSingleBand image ) {
+		if( image instanceof ImageInt8 )
+			return 1;
+		else if( image instanceof ImageInt16 )
+			return 2;
+		else if( image instanceof ImageSInt32 || image instanceof ImageFloat32 )
+			return 4;
+		else if( image instanceof ImageFloat64 )
+			return 8;
+		else
+			throw new IllegalArgumentException("Unsupported image type");
+	}
+
+	/**
+	 * Tile index which contains the pixel coordinate.  Rounds towards negative infinity.
+	 */
+	public static int tileIndex( int pixel , int tileSize ) {
+		return pixel >= 0 ? pixel/tileSize : -((-pixel + tileSize - 1)/tileSize);
+	}
+
+	private static long key( int tileX , int tileY ) {
+		return ((long)tileX << 32) | (tileY & 0xFFFFFFFFL);
+	}
+
+	public int getTileWidth() {
+		return tileWidth;
+	}
+
+	public int getTileHeight() {
+		return tileHeight;
+	}
+
+	/**
+	 * Number of tiles which are currently in memory
+	 */
+	public int getNumInMemory() {
+		return memory.size();
+	}
+
+	/**
+	 * Total number of tiles which have been written to
+	 */
+	public int getNumTiles() {
+		int total = diskSlots.size();
+		for( Map.Entry<Long,Tile> e : memory.entrySet() ) {
+			if( e.getValue().slot < 0 )
+				total++;
+		}
+		return total;
+	}
+
+	/**
+	 * A tile which is in memory
+	 */
+	private class Tile {
+		T image;
+		// location in the file.  -1 if it has never been written to the file
+		int slot;
+		// true if it has been modified since it was read from the file
+		boolean dirty;
+	}
+}
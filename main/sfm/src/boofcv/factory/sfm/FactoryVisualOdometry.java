@@ -16,10 +16,13 @@ import boofcv.alg.sfm.robust.Se3FromEssentialGenerator;
 import boofcv.factory.geo.EnumEpipolar;
 import boofcv.factory.geo.FactoryMultiView;
 import boofcv.factory.geo.FactoryTriangulate;
+import boofcv.misc.BoofConcurrency;
 import boofcv.numerics.fitting.modelset.DistanceFromModel;
 import boofcv.numerics.fitting.modelset.ModelGenerator;
+import boofcv.numerics.fitting.modelset.ModelHypothesisFactory;
 import boofcv.numerics.fitting.modelset.ModelMatcher;
 import boofcv.numerics.fitting.modelset.ransac.Ransac;
+import boofcv.numerics.fitting.modelset.ransac.Ransac_MT;
 import boofcv.struct.calib.StereoParameters;
 import boofcv.struct.distort.PointTransform_F64;
 import boofcv.struct.geo.AssociatedPair;
@@ -124,22 +127,37 @@ public class FactoryVisualOdometry {
 										Class<T> imageType) {
 
 		// motion estimation using essential matrix
-		Estimate1ofEpipolar essentialAlg = FactoryMultiView.computeFundamental_1(EnumEpipolar.ESSENTIAL_5_NISTER, 2);
 		TriangulateTwoViewsCalibrated triangulate = FactoryTriangulate.twoGeometric();
-		ModelGenerator<Se3_F64, AssociatedPair> generateEpipolarMotion =
-				new Se3FromEssentialGenerator(essentialAlg, triangulate);
+		final StereoParameters param = stereoParam;
 
-		DistanceFromModel<Se3_F64, AssociatedPair> distanceSe3 =
-				new DistanceSe3SymmetricSq(triangulate,
-						stereoParam.left.fx, stereoParam.left.fy, stereoParam.left.skew,
-						stereoParam.left.fx, stereoParam.left.fy, stereoParam.left.skew);
+		ModelHypothesisFactory<Se3_F64, AssociatedPair> hypothesisFactory =
+				new ModelHypothesisFactory<Se3_F64, AssociatedPair>() {
+			@Override
+			public ModelGenerator<Se3_F64, AssociatedPair> createGenerator() {
+				Estimate1ofEpipolar essentialAlg =
+						FactoryMultiView.computeFundamental_1(EnumEpipolar.ESSENTIAL_5_NISTER, 2);
+				return new Se3FromEssentialGenerator(essentialAlg, FactoryTriangulate.twoGeometric());
+			}
+
+			@Override
+			public DistanceFromModel<Se3_F64, AssociatedPair> createDistance() {
+				return new DistanceSe3SymmetricSq(FactoryTriangulate.twoGeometric(),
+						param.left.fx, param.left.fy, param.left.skew,
+						param.left.fx, param.left.fy, param.left.skew);
+			}
+		};
 
 		// 1/2 a pixel tolerance for RANSAC inliers
 		double ransacTOL = inlierPixelTol * inlierPixelTol * 2.0;
 
-		ModelMatcher<Se3_F64, AssociatedPair> epipolarMotion =
-				new Ransac<Se3_F64, AssociatedPair>(2323, generateEpipolarMotion, distanceSe3,
-						200, ransacTOL);
+		ModelMatcher<Se3_F64, AssociatedPair> epipolarMotion;
+		if( BoofConcurrency.USE_CONCURRENT ) {
+			epipolarMotion = new Ransac_MT<Se3_F64, AssociatedPair>(2323, hypothesisFactory,
+					200, ransacTOL, BoofConcurrency.getMaxThreads());
+		} else {
+			epipolarMotion = new Ransac<Se3_F64, AssociatedPair>(2323, hypothesisFactory.createGenerator(),
+					hypothesisFactory.createDistance(), 200, ransacTOL);
+		}
 
 		// Range from sparse disparity
 		StereoSparse3D<T> pixelTo3D = new StereoSparse3D<T>(sparseDisparity,stereoParam,imageType);
@@ -0,0 +1,135 @@
+package boofcv.alg.sfm;
+
+import boofcv.alg.feature.disparity.DisparityScoreRowFormat;
+import boofcv.alg.misc.ImageTestingOps;
+import boofcv.factory.feature.disparity.FactoryStereoDisparityAlgs;
+import boofcv.misc.BoofConcurrency;
+import boofcv.struct.calib.StereoParameters;
+import boofcv.struct.image.ImageUInt8;
+import boofcv.testing.BoofTesting;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static boofcv.alg.sfm.TestAssociateStereoPoint.createStereoParam;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestStereoDisparityPipeline {
+
+	Random rand = new Random(234);
+
+	int width = 320;
+	int height = 240;
+
+	StereoParameters param = createStereoParam(width,height,false);
+
+	/**
+	 * Computing the disparity a band at a time should produce the same results as rectifying the images
+	 * and then computing the disparity of the entire image
+	 */
+	@Test
+	public void compareToSequential_rowLocal() {
+		DisparityScoreRowFormat<ImageUInt8,ImageUInt8> alg = createSad();
+		assertTrue(alg.isRowLocal());
+
+		// try different band sizes, including ones which don't divide into the image evenly
+		for( int bandHeight : new int[]{1,7,32,500}) {
+			compareToSequential(createSad(),createSad(),bandHeight);
+		}
+	}
+
+	/**
+	 * Algorithms which can't be computed a band at a time should wait until rectification has finished
+	 */
+	@Test
+	public void compareToSequential_notRowLocal() {
+		DisparityScoreRowFormat<ImageUInt8,ImageUInt8> alg = createCensus();
+		assertFalse(alg.isRowLocal());
+
+		compareToSequential(createCensus(),createCensus(),7);
+	}
+
+	/**
+	 * Same results when the left and right images are rectified concurrently by the base class
+	 */
+	@Test
+	public void compareToSequential_concurrentBase() {
+		boolean before = BoofConcurrency.USE_CONCURRENT;
+		int maxThreads = BoofConcurrency.getMaxThreads();
+		try {
+			BoofConcurrency.USE_CONCURRENT = true;
+			BoofConcurrency.setMaxThreads(3);
+			compareToSequential(createSad(),createSad(),32);
+		} finally {
+			BoofConcurrency.USE_CONCURRENT = before;
+			BoofConcurrency.setMaxThreads(maxThreads);
+		}
+	}
+
+	/**
+	 * If rectification fails the exception should be passed on to the caller
+	 */
+	@Test
+	public void rectificationException() {
+		StereoDisparityPipeline<ImageUInt8,ImageUInt8> alg =
+				new StereoDisparityPipeline<ImageUInt8,ImageUInt8>(param,createSad(),ImageUInt8.class);
+
+		// no input images
+		alg.setImages(null,null);
+		try {
+			alg.initialize();
+			fail("Exception should have been thrown");
+		} catch( RuntimeException e ) {}
+
+		// it should still work after failing
+		ImageUInt8 left = new ImageUInt8(width,height);
+		ImageUInt8 right = new ImageUInt8(width,height);
+		alg.setImages(left,right);
+		alg.initialize();
+	}
+
+	private void compareToSequential( DisparityScoreRowFormat<ImageUInt8,ImageUInt8> algSequential ,
+									  DisparityScoreRowFormat<ImageUInt8,ImageUInt8> algPipeline ,
+									  int bandHeight ) {
+		StereoProcessingBase<ImageUInt8> sequential = new StereoProcessingBase<ImageUInt8>(param,ImageUInt8.class);
+		StereoDisparityPipeline<ImageUInt8,ImageUInt8> pipeline =
+				new StereoDisparityPipeline<ImageUInt8,ImageUInt8>(param,algPipeline,ImageUInt8.class);
+		pipeline.setBandHeight(bandHeight);
+
+		ImageUInt8 left = new ImageUInt8(width,height);
+		ImageUInt8 right = new ImageUInt8(width,height);
+		ImageUInt8 expected = new ImageUInt8(width,height);
+
+		// process multiple frames to make sure buffers are correctly reused
+		for( int frame = 0; frame < 2; frame++ ) {
+			ImageTestingOps.randomize(left,rand,0,100);
+			ImageTestingOps.randomize(right,rand,0,100);
+
+			sequential.setImages(left,right);
+			sequential.initialize();
+			algSequential.process(sequential.getImageLeftRect(),sequential.getImageRightRect(),expected);
+
+			pipeline.setImages(left,right);
+			pipeline.initialize();
+
+			BoofTesting.assertEquals(sequential.getImageLeftRect(),pipeline.getImageLeftRect(),0);
+			BoofTesting.assertEquals(sequential.getImageRightRect(),pipeline.getImageRightRect(),0);
+			BoofTesting.assertEquals(expected,pipeline.getDisparity(),0);
+		}
+	}
+
+	private DisparityScoreRowFormat<ImageUInt8,ImageUInt8> createSad() {
+		return FactoryStereoDisparityAlgs.scoreDisparitySadRect_U8(0,20,2,3,
+				FactoryStereoDisparityAlgs.selectDisparity_S32(-1,-1,-1));
+	}
+
+	private DisparityScoreRowFormat<ImageUInt8,ImageUInt8> createCensus() {
+		return FactoryStereoDisparityAlgs.scoreDisparityCensusRect_U8(0,20,2,3,1,
+				FactoryStereoDisparityAlgs.selectDisparity_S32(-1,-1,-1));
+	}
+}
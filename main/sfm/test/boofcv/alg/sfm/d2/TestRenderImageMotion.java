@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.sfm.d2;
+
+import boofcv.alg.distort.PixelTransformAffine_F32;
+import boofcv.core.image.GeneralizedImageOps;
+import boofcv.struct.image.ImageFloat32;
+import boofcv.struct.image.ImageSingleBand;
+import georegression.struct.affine.Affine2D_F32;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestRenderImageMotion {
+
+	Random rand = new Random(234);
+
+	/**
+	 * The tiled mosaic should produce the same results as a single image
+	 */
+	@Test
+	public void tiled_compareToSingle() {
+		int width = 200, height = 150;
+
+		RenderImageMotion<ImageFloat32,ImageSingleBand> single =
+				new RenderImageMotion<ImageFloat32,ImageSingleBand>(width,height,ImageFloat32.class,false);
+		RenderImageMotion<ImageFloat32,ImageSingleBand> tiled =
+				new RenderImageMotion<ImageFloat32,ImageSingleBand>(32,24,4,null,ImageFloat32.class,false);
+
+		ImageFloat32 frame = new ImageFloat32(60,50);
+		for( int i = 0; i < 5; i++ ) {
+			GeneralizedImageOps.randomize(frame, rand, 0, 100);
+
+			Affine2D_F32 currToWorld = new Affine2D_F32(1.1f,0.1f,-0.05f,0.95f,10+i*25.5f,20+i*15.2f);
+			PixelTransformAffine_F32 worldToCurr = new PixelTransformAffine_F32(currToWorld.invert(null));
+			PixelTransformAffine_F32 currToWorldPixel = new PixelTransformAffine_F32(currToWorld);
+
+			single.update(frame,null,worldToCurr,currToWorldPixel);
+			tiled.update(frame,null,worldToCurr,currToWorldPixel);
+		}
+
+		// only the tiles which were overlapped by a frame should exist
+		TiledMosaic<ImageSingleBand> tiles = tiled.getTiles();
+		assertTrue(tiles.getNumTiles() < (width/32+1)*(height/24+1));
+
+		ImageFloat32 found = new ImageFloat32(width,height);
+		tiles.copyRegion(0,0,found);
+
+		// the single image's crop is a little bit tighter, so only compare pixels which it wrote to
+		ImageFloat32 expected = (ImageFloat32)single.getMosaic();
+		int total = 0;
+		for( int y = 0; y < height; y++ ) {
+			for( int x = 0; x < width; x++ ) {
+				if( expected.get(x,y) != 0 ) {
+					assertEquals(expected.get(x,y),found.get(x,y),1e-4);
+					total++;
+				}
+			}
+		}
+		assertTrue(total > 5000);
+
+		tiles.close();
+	}
+
+	/**
+	 * Tiles inside the frame's bounding box but outside of the frame itself should not be created
+	 */
+	@Test
+	public void tiled_onlyCoveredTiles() {
+		RenderImageMotion<ImageFloat32,ImageSingleBand> tiled =
+				new RenderImageMotion<ImageFloat32,ImageSingleBand>(16,16,100,null,ImageFloat32.class,false);
+
+		ImageFloat32 frame = new ImageFloat32(100,100);
+		GeneralizedImageOps.randomize(frame, rand, 1, 100);
+
+		// rotate the frame by 45 degrees so that it's a diamond centered at (200,200)
+		float c = (float)Math.cos(Math.PI/4);
+		float s = (float)Math.sin(Math.PI/4);
+		Affine2D_F32 currToWorld = new Affine2D_F32(c,-s,s,c,200,200-100*c);
+		PixelTransformAffine_F32 worldToCurr = new PixelTransformAffine_F32(currToWorld.invert(null));
+
+		tiled.update(frame,null,worldToCurr,new PixelTransformAffine_F32(currToWorld));
+
+		TiledMosaic<ImageSingleBand> tiles = tiled.getTiles();
+
+		// tiles at the center and the tips of the diamond
+		assertTrue(tiles.hasTile(12,12));
+		assertTrue(tiles.hasTile(12,8));
+		assertTrue(tiles.hasTile(8,12));
+		// tiles at the corners of the bounding box
+		assertFalse(tiles.hasTile(8,8));
+		assertFalse(tiles.hasTile(16,8));
+		assertFalse(tiles.hasTile(8,16));
+		assertFalse(tiles.hasTile(16,16));
+
+		// pixels inside the frame should have been rendered
+		ImageFloat32 found = new ImageFloat32(200,200);
+		tiles.copyRegion(100,100,found);
+		for( int y = 5; y < frame.height-5; y += 5 ) {
+			for( int x = 5; x < frame.width-5; x += 5 ) {
+				float worldX = c*x - s*y + 200 - 100;
+				float worldY = s*x + c*y + 200 - 100*c - 100;
+				assertTrue(found.get((int)(worldX+0.5f),(int)(worldY+0.5f)) != 0);
+			}
+		}
+
+		tiles.close();
+	}
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2011-2012, Peter Abeles. All Rights Reserved.
+ *
+ * This file is part of BoofCV (http://boofcv.org).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package boofcv.alg.sfm.d2;
+
+import boofcv.core.image.GeneralizedImageOps;
+import boofcv.struct.image.*;
+import boofcv.testing.BoofTesting;
+import georegression.struct.shapes.Rectangle2D_I32;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Peter Abeles
+ */
+public class TestTiledMosaic {
+
+	Random rand = new Random(234);
+
+	int tileWidth = 10;
+	int tileHeight = 15;
+
+	/**
+	 * Write more tiles than can fit into memory and see if they are read back in correctly
+	 */
+	@Test
+	public void spillToDisk() {
+		spillToDisk(new ImageUInt8(1,1));
+		spillToDisk(new ImageSInt16(1,1));
+		spillToDisk(new ImageSInt32(1,1));
+		spillToDisk(new ImageFloat32(1,1));
+		spillToDisk(new ImageFloat64(1,1));
+	}
+
+	private <T extends ImageSingleBand> void spillToDisk( T template ) {
+		TiledMosaic<T> alg = new TiledMosaic<T>(template,tileWidth,tileHeight,3,null);
+
+		T expected[] = (T[])new ImageSingleBand[8];
+		for( int i = 0; i < expected.length; i++ ) {
+			expected[i] = (T)template._createNew(tileWidth,tileHeight);
+			GeneralizedImageOps.randomize(expected[i], rand, 0, 100);
+			alg.getTile(i-4,2*i).setTo(expected[i]);
+			assertTrue(alg.getNumInMemory() <= 3);
+		}
+		assertEquals(expected.length,alg.getNumTiles());
+
+		// read them back in a different order
+		for( int i = expected.length-1; i >= 0; i-- ) {
+			BoofTesting.assertEqualsGeneric(expected[i], alg.getTile(i-4,2*i), 0, 0);
+		}
+
+		// modify a tile after it was read from the disk
+		GeneralizedImageOps.fill(alg.getTile(-4,0),7);
+		for( int i = 1; i < expected.length; i++ )
+			alg.getTile(i-4,2*i);
+		assertEquals(7,GeneralizedImageOps.get(alg.getTile(-4,0),3,4),1e-8);
+
+		alg.close();
+	}
+
+	@Test
+	public void multiSpectral() {
+		MultiSpectral<ImageFloat32> template = new MultiSpectral<ImageFloat32>(ImageFloat32.class,1,1,3);
+		TiledMosaic<MultiSpectral<ImageFloat32>> alg =
+				new TiledMosaic<MultiSpectral<ImageFloat32>>(template,tileWidth,tileHeight,1,null);
+
+		MultiSpectral<ImageFloat32> a = alg.getTile(0,0);
+		for( int band = 0; band < 3; band++ )
+			GeneralizedImageOps.fill(a.getBand(band),band+1);
+		alg.getTile(1,0);
+
+		a = alg.getTile(0,0);
+		for( int band = 0; band < 3; band++ )
+			assertEquals(band+1,a.getBand(band).get(2,3),1e-8);
+
+		alg.close();
+	}
+
+	@Test
+	public void copyRegion() {
+		ImageFloat32 canvas = new ImageFloat32(5*tileWidth,4*tileHeight);
+		GeneralizedImageOps.randomize(canvas, rand, 0, 100);
+		// canvas coordinate of the image's top left corner
+		int offX = -2*tileWidth, offY = -tileHeight;
+
+		TiledMosaic<ImageFloat32> alg = new TiledMosaic<ImageFloat32>(new ImageFloat32(1,1),tileWidth,tileHeight,4,null);
+		for( int tileY = 0; tileY < 4; tileY++ ) {
+			for( int tileX = 0; tileX < 5; tileX++ ) {
+				// leave one tile empty
+				if( tileX == 3 && tileY == 1 ) {
+					GeneralizedImageOps.fillRectangle(canvas,0,tileX*tileWidth,tileY*tileHeight,tileWidth,tileHeight);
+					continue;
+				}
+				ImageFloat32 sub = canvas.subimage(tileX*tileWidth,tileY*tileHeight,(tileX+1)*tileWidth,(tileY+1)*tileHeight);
+				alg.getTile(tileX-2,tileY-1).setTo(sub);
+			}
+		}
+
+		Rectangle2D_I32 bounds = alg.getBounds();
+		assertEquals(offX,bounds.tl_x);
+		assertEquals(offY,bounds.tl_y);
+		assertEquals(canvas.width,bounds.width);
+		assertEquals(canvas.height,bounds.height);
+
+		// region which isn't aligned to the tiles and crosses zero
+		ImageFloat32 found = new ImageFloat32(33,41);
+		alg.copyRegion(-7,-9,found);
+
+		ImageFloat32 expected = canvas.subimage(-7-offX,-9-offY,-7-offX+33,-9-offY+41);
+		BoofTesting.assertEqualsGeneric(expected, found, 0, 0);
+
+		alg.close();
+	}
+
+	@Test
+	public void tileIndex() {
+		assertEquals(0,TiledMosaic.tileIndex(0,10));
+		assertEquals(0,TiledMosaic.tileIndex(9,10));
+		assertEquals(1,TiledMosaic.tileIndex(10,10));
+		assertEquals(-1,TiledMosaic.tileIndex(-1,10));
+		assertEquals(-1,TiledMosaic.tileIndex(-10,10));
+		assertEquals(-2,TiledMosaic.tileIndex(-11,10));
+	}
+}